@@ -0,0 +1,53 @@
+package com.example.code_generator.config;
+
+import com.example.code_generator.service.cluster.ClusterRouter;
+import com.example.code_generator.service.storage.ArtifactStore;
+import com.example.code_generator.service.storage.LocalArtifactStore;
+import com.example.code_generator.service.storage.S3ArtifactStore;
+import com.example.code_generator.service.storage.SharedMountArtifactStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+@Configuration
+public class ArtifactStoreConfig {
+
+    /**
+     * Where generated archives are kept, by {@code generator.storage.type}: {@code local} (the
+     * default) in {@code <project.generated.dir>/zips}; {@code shared} on a mount every node
+     * sees, at {@code generator.storage.shared.dir}; {@code s3} in an S3-compatible bucket,
+     * configured under {@code generator.storage.s3}. Shared stores are namespaced by node id.
+     */
+    @Bean
+    public ArtifactStore artifactStore(
+            @Value("${generator.storage.type:local}") String type,
+            @Value("${project.generated.dir:generated-projects}") String baseDir,
+            ClusterRouter clusterRouter,
+            Environment environment) {
+        Path localDir = Paths.get(baseDir, "zips");
+        String nodeId = clusterRouter.getNodeId();
+        switch (type) {
+            case "local":
+                return new LocalArtifactStore(localDir);
+            case "shared":
+                return new SharedMountArtifactStore(
+                        Paths.get(environment.getRequiredProperty("generator.storage.shared.dir")), nodeId);
+            case "s3":
+                return new S3ArtifactStore(
+                        URI.create(environment.getRequiredProperty("generator.storage.s3.endpoint")),
+                        environment.getRequiredProperty("generator.storage.s3.bucket"),
+                        environment.getProperty("generator.storage.s3.region", "us-east-1"),
+                        environment.getRequiredProperty("generator.storage.s3.access-key"),
+                        environment.getRequiredProperty("generator.storage.s3.secret-key"),
+                        environment.getProperty("generator.storage.s3.prefix", "codeforge/") + nodeId + "/",
+                        localDir,
+                        environment.getProperty("generator.storage.s3.public-base-url"));
+            default:
+                throw new IllegalArgumentException("Unknown generator.storage.type " + type + "; expected local, shared or s3");
+        }
+    }
+}
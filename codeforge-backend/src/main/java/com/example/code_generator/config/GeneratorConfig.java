@@ -0,0 +1,84 @@
+package com.example.code_generator.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+@EnableScheduling
+public class GeneratorConfig {
+
+    /**
+     * Pool used to render the files of a template in parallel. Kept separate from the common
+     * pool so template rendering cannot starve unrelated parallel streams.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool templateRenderPool(
+            @Value("${generator.render.parallelism:0}") int parallelism) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(threads);
+    }
+
+    /**
+     * Pool that compresses archive entries and blocks, shared by all archives being written.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool archiveCompressionPool(
+            @Value("${generator.archive.compression.parallelism:0}") int parallelism) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(threads);
+    }
+
+    /**
+     * Runs {@code StreamingResponseBody} downloads and other async MVC work. Boot only creates
+     * its own under this name when no {@code Executor} bean exists, and the pools here are
+     * executors, so without it MVC falls back to a new thread per streamed response.
+     */
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public ThreadPoolTaskExecutor applicationTaskExecutor(
+            @Value("${generator.streaming.threads:64}") int threads,
+            @Value("${generator.streaming.queue-capacity:256}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("streaming-");
+        return executor;
+    }
+
+    /**
+     * Runs generation jobs off the request threads, so slow generations cannot starve the
+     * catalogue endpoints.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor generationExecutor(
+            @Value("${generator.jobs.threads:0}") int threads,
+            @Value("${generator.jobs.queue-capacity:1000}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("generation-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    /**
+     * Delivers generation progress events to SSE watchers. Each delivery writes one batched
+     * chunk per watcher, so a couple of threads serve many watchers.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor generationEventExecutor(
+            @Value("${generator.events.threads:2}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("generation-events-");
+        return executor;
+    }
+}
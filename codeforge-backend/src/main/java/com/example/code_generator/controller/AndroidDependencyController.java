@@ -1,8 +1,12 @@
 package com.example.code_generator.controller;
 
 import com.example.code_generator.model.AndroidDependency;
+import com.example.code_generator.model.DependencySearchResult;
+import com.example.code_generator.model.ResolvedDependencies;
 import com.example.code_generator.service.AndroidDependencyService;
+import com.example.code_generator.service.catalogue.DependencyResolver;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -16,10 +20,13 @@ import java.util.List;
 public class AndroidDependencyController {
 
     private final AndroidDependencyService dependencyService;
+    private final DependencyResolver dependencyResolver;
 
     @Autowired
-    public AndroidDependencyController(AndroidDependencyService dependencyService) {
+    public AndroidDependencyController(AndroidDependencyService dependencyService,
+                                       DependencyResolver dependencyResolver) {
         this.dependencyService = dependencyService;
+        this.dependencyResolver = dependencyResolver;
     }
 
     @GetMapping
@@ -35,4 +42,27 @@ public class AndroidDependencyController {
     public List<AndroidDependency> getDependenciesByCategory(@PathVariable String category) {
         return dependencyService.getDependenciesByCategory(category);
     }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search Android dependencies",
+               description = "Prefix search over name, group and artifact id, optionally typo-tolerant (fuzzy=true) and limited to one category. Results are paginated, in catalogue order")
+    public ResponseEntity<DependencySearchResult> searchDependencies(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "false") boolean fuzzy,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(dependencyService.search(q, category, fuzzy, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/resolve")
+    @Operation(summary = "Resolve a dependency selection",
+               description = "Resolves coordinates (group:artifact[:version]) and catalogue names to one version per artifact, adds the matching annotation processors and reports version conflicts")
+    public ResolvedDependencies resolveDependencies(@RequestBody List<String> dependencies) {
+        return dependencyResolver.resolve(dependencies);
+    }
 }
@@ -0,0 +1,231 @@
+package com.example.code_generator.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes an archive to the HTTP response with conditional and range request support:
+ * strong {@code ETag}, {@code Last-Modified}, {@code Accept-Ranges}, single and multiple
+ * {@code Range}s and {@code If-Range}.
+ *
+ * <p>Whole files and single ranges are handed to Tomcat's sendfile when the connector
+ * offers it, so the bytes go from the page cache to the socket without being copied through
+ * the JVM. Otherwise, and for multipart responses, each region is copied with
+ * {@link FileChannel#transferTo}.
+ */
+@Component
+public class ArchiveDownloadResponder {
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final byte[] CRLF = "\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final boolean sendfileEnabled;
+
+    public ArchiveDownloadResponder(@Value("${download.sendfile.enabled:true}") boolean sendfileEnabled) {
+        this.sendfileEnabled = sendfileEnabled;
+    }
+
+    public void respond(Path file, String fileName, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String etag = etag(file, length, attributes);
+
+        // Handles If-None-Match / If-Modified-Since / If-Match and sets ETag and Last-Modified
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, attachment(fileName));
+
+        List<HttpRange> ranges = ifRangeMatches(request, etag, lastModified)
+                ? parseRanges(request.getHeader(HttpHeaders.RANGE)) : List.of();
+        if (ranges.isEmpty()) {
+            response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            writeRegion(file, 0, length, request, response);
+            return;
+        }
+
+        List<long[]> regions = new ArrayList<>(ranges.size());
+        for (HttpRange range : ranges) {
+            if (length == 0) {
+                break;
+            }
+            // Ranges starting past the end are skipped; only all-unsatisfiable is an error
+            try {
+                long start = range.getRangeStart(length);
+                long end = range.getRangeEnd(length);
+                if (start < length && start <= end) {
+                    regions.add(new long[]{start, end - start + 1});
+                }
+            } catch (IllegalArgumentException e) {
+                // Malformed range bounds, treated like an unsatisfiable range
+            }
+        }
+        if (regions.isEmpty()) {
+            unsatisfiable(response, length);
+            return;
+        }
+
+        response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+        if (regions.size() == 1) {
+            long[] region = regions.get(0);
+            response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(region[0], region[1], length));
+            writeRegion(file, region[0], region[1], request, response);
+        } else {
+            writeMultipart(file, regions, length, request, response);
+        }
+    }
+
+    private void writeRegion(Path file, long start, long count, HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+        if (sendfileEnabled && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toRealPath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + count);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            OutputStream out = response.getOutputStream();
+            transfer(channel, start, count, Channels.newChannel(out));
+            out.flush();
+        }
+    }
+
+    private void writeMultipart(Path file, List<long[]> regions, long length, HttpServletRequest request,
+                                HttpServletResponse response) throws IOException {
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        List<byte[]> partHeaders = new ArrayList<>(regions.size());
+        long contentLength = 0;
+        for (long[] region : regions) {
+            byte[] header = ("--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + MediaType.APPLICATION_OCTET_STREAM_VALUE + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": " + contentRange(region[0], region[1], length) + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(header);
+            contentLength += header.length + region[1] + CRLF.length;
+        }
+        byte[] closing = ("--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        contentLength += closing.length;
+
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            OutputStream out = response.getOutputStream();
+            WritableByteChannel target = Channels.newChannel(out);
+            for (int i = 0; i < regions.size(); i++) {
+                out.write(partHeaders.get(i));
+                transfer(channel, regions.get(i)[0], regions.get(i)[1], target);
+                out.write(CRLF);
+            }
+            out.write(closing);
+            out.flush();
+        }
+    }
+
+    // A Range that does not parse, or uses a unit other than bytes, is ignored (RFC 9110, 14.2)
+    /**
+     * {@code Content-Disposition} for downloading {@code fileName}. Names come from requests,
+     * so they are quoted and encoded rather than pasted into the header. Printable ASCII names
+     * are sent as a plain quoted {@code filename}, which clients that ignore {@code filename*},
+     * such as {@code curl -J}, would otherwise see RFC 2047-encoded.
+     */
+    static String attachment(String fileName) {
+        ContentDisposition.Builder disposition = ContentDisposition.attachment();
+        if (fileName.chars().allMatch(c -> c >= 0x20 && c < 0x7f)) {
+            disposition.filename(fileName);
+        } else {
+            disposition.filename(fileName, StandardCharsets.UTF_8);
+        }
+        return disposition.build().toString();
+    }
+
+    private static List<HttpRange> parseRanges(String rangeHeader) {
+        if (rangeHeader == null) {
+            return List.of();
+        }
+        try {
+            return HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+
+    // If-Range: only a strong ETag or the exact Last-Modified date keeps the Range valid
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static void unsatisfiable(HttpServletResponse response, long length) {
+        response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+        response.setContentLength(0);
+    }
+
+    private static String contentRange(long start, long count, long length) {
+        return "bytes " + start + "-" + (start + count - 1) + "/" + length;
+    }
+
+    private static void transfer(FileChannel channel, long position, long count, WritableByteChannel target)
+            throws IOException {
+        long end = position + count;
+        while (position < end) {
+            long sent = channel.transferTo(position, end - position, target);
+            if (sent <= 0) {
+                throw new IOException("Archive truncated while sending");
+            }
+            position += sent;
+        }
+    }
+
+    // Archives are never rewritten in place, so name + size + mtime identifies the bytes exactly
+    private static String etag(Path file, long length, BasicFileAttributes attributes) {
+        return "\"" + Long.toHexString(file.getFileName().toString().hashCode() & 0xffffffffL)
+                + "-" + Long.toHexString(length)
+                + "-" + Long.toHexString(attributes.lastModifiedTime().toMillis()) + "\"";
+    }
+}
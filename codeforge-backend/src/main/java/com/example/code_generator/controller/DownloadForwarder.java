@@ -0,0 +1,93 @@
+package com.example.code_generator.controller;
+
+import com.example.code_generator.service.cluster.ClusterRouter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Proxies a download to the node that owns the project, for requests that reach a node which
+ * does not. Conditional and range headers are passed through and the owner's status, headers
+ * and body are copied back, so the owner answers exactly as it would have directly.
+ *
+ * <p>Forwarded requests are marked with {@value #FORWARDED_HEADER}; a node receiving one
+ * answers from its own registry and never forwards again, so a disagreement between nodes about
+ * the membership cannot loop.
+ */
+@Component
+public class DownloadForwarder {
+    public static final String FORWARDED_HEADER = "X-Codeforge-Forwarded";
+
+    private static final Logger logger = LoggerFactory.getLogger(DownloadForwarder.class);
+    private static final List<String> REQUEST_HEADERS = List.of(
+            HttpHeaders.ACCEPT, HttpHeaders.RANGE, HttpHeaders.IF_RANGE,
+            HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_MODIFIED_SINCE);
+    private static final List<String> RESPONSE_HEADERS = List.of(
+            HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_LENGTH, HttpHeaders.CONTENT_RANGE,
+            HttpHeaders.CONTENT_DISPOSITION, HttpHeaders.ACCEPT_RANGES, HttpHeaders.ETAG,
+            HttpHeaders.LAST_MODIFIED, HttpHeaders.LOCATION);
+
+    private final ClusterRouter clusterRouter;
+    private final HttpClient client;
+
+    public DownloadForwarder(ClusterRouter clusterRouter,
+                             @Value("${generator.cluster.connect-timeout:PT2S}") Duration connectTimeout) {
+        this.clusterRouter = clusterRouter;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
+
+    /** Whether the download of {@code id} belongs to another node and has not been forwarded yet. */
+    public boolean shouldForward(String id, HttpServletRequest request) {
+        return !clusterRouter.isLocal(id) && request.getHeader(FORWARDED_HEADER) == null;
+    }
+
+    public void forward(String id, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String query = request.getQueryString();
+        URI uri = URI.create(clusterRouter.urlOf(id) + request.getRequestURI() + (query != null ? "?" + query : ""));
+        HttpRequest.Builder forwarded = HttpRequest.newBuilder(uri).GET()
+                .header(FORWARDED_HEADER, clusterRouter.getNodeId());
+        for (String name : REQUEST_HEADERS) {
+            String value = request.getHeader(name);
+            if (value != null) {
+                forwarded.header(name, value);
+            }
+        }
+
+        HttpResponse<InputStream> owner;
+        try {
+            owner = client.send(forwarded.build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted forwarding download " + id);
+        } catch (IOException e) {
+            logger.warn("Could not forward download {} to node {}: {}", id, clusterRouter.ownerOf(id), e.toString());
+            response.setStatus(HttpStatus.BAD_GATEWAY.value());
+            return;
+        }
+
+        response.setStatus(owner.statusCode());
+        for (String name : RESPONSE_HEADERS) {
+            owner.headers().firstValue(name).ifPresent(value -> response.setHeader(name, value));
+        }
+        try (InputStream body = owner.body()) {
+            body.transferTo(response.getOutputStream());
+        }
+    }
+}
@@ -1,40 +1,113 @@
 package com.example.code_generator.controller;
 
+import com.example.code_generator.model.BatchGenerationResult;
 import com.example.code_generator.model.ProjectConfig;
+import com.example.code_generator.model.ProjectPage;
 import com.example.code_generator.model.ProjectTemplate;
 import com.example.code_generator.model.GeneratedProject;
+import com.example.code_generator.model.GenerationJob;
+import com.example.code_generator.service.BatchGenerationService;
+import com.example.code_generator.service.GenerationJobService;
+import com.example.code_generator.service.ProjectGenerator;
 import com.example.code_generator.service.ProjectGeneratorService;
 import com.example.code_generator.service.TemplateDiscoveryService;
 import com.example.code_generator.service.GeneratedProjectService;
+import com.example.code_generator.service.admission.AdmissionRejectedException;
+import com.example.code_generator.service.admission.GenerationAdmission;
+import com.example.code_generator.service.archive.ArchiveCache;
+import com.example.code_generator.service.archive.ArchiveCompressor;
+import com.example.code_generator.service.archive.ArchiveFormat;
+import com.example.code_generator.service.archive.ArchiveSink;
+import com.example.code_generator.service.coalescing.GenerationCoalescer;
+import com.example.code_generator.service.metrics.GenerationMetrics;
+import com.example.code_generator.service.progress.GenerationProgress;
+import com.example.code_generator.service.registry.ProjectEvictedException;
+import com.example.code_generator.service.registry.ZipRetentionService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.net.URI;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 
 @RestController
 @RequestMapping("/api/generator")
 @CrossOrigin(origins = "*")
 public class ProjectGeneratorController {
-    
+    private static final String CLIENT_ID_HEADER = "X-Client-Id";
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String PERMIT_RELEASE = ProjectGeneratorController.class.getName() + ".permitRelease";
+    // Servlet async timeouts of zero or less never expire
+    private static final long NO_TIMEOUT = -1;
+
     private final ProjectGeneratorService projectGeneratorService;
     private final TemplateDiscoveryService templateDiscoveryService;
     private final GeneratedProjectService generatedProjectService;
+    private final GenerationJobService generationJobService;
+    private final GenerationProgress generationProgress;
+    private final GenerationAdmission generationAdmission;
+    private final GenerationCoalescer generationCoalescer;
+    private final ZipRetentionService zipRetentionService;
+    private final ArchiveDownloadResponder archiveDownloadResponder;
+    private final DownloadForwarder downloadForwarder;
+    private final BatchGenerationService batchGenerationService;
+    private final GenerationMetrics generationMetrics;
+    private final ArchiveCompressor archiveCompressor;
+    private final ObjectMapper objectMapper;
 
     @Autowired
     public ProjectGeneratorController(
             ProjectGeneratorService projectGeneratorService,
             TemplateDiscoveryService templateDiscoveryService,
-            GeneratedProjectService generatedProjectService) {
+            GeneratedProjectService generatedProjectService,
+            GenerationJobService generationJobService,
+            GenerationProgress generationProgress,
+            GenerationAdmission generationAdmission,
+            GenerationCoalescer generationCoalescer,
+            ZipRetentionService zipRetentionService,
+            ArchiveDownloadResponder archiveDownloadResponder,
+            DownloadForwarder downloadForwarder,
+            BatchGenerationService batchGenerationService,
+            GenerationMetrics generationMetrics,
+            ArchiveCompressor archiveCompressor,
+            ObjectMapper objectMapper) {
         this.projectGeneratorService = projectGeneratorService;
         this.templateDiscoveryService = templateDiscoveryService;
         this.generatedProjectService = generatedProjectService;
+        this.generationJobService = generationJobService;
+        this.generationProgress = generationProgress;
+        this.generationAdmission = generationAdmission;
+        this.generationCoalescer = generationCoalescer;
+        this.zipRetentionService = zipRetentionService;
+        this.archiveDownloadResponder = archiveDownloadResponder;
+        this.downloadForwarder = downloadForwarder;
+        this.batchGenerationService = batchGenerationService;
+        this.generationMetrics = generationMetrics;
+        this.archiveCompressor = archiveCompressor;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("/project-types")
@@ -75,32 +148,356 @@ public class ProjectGeneratorController {
     }
 
     @PostMapping("/generate")
-    public ResponseEntity<GeneratedProject> generateProject(@RequestBody ProjectConfig config) {
-        Path projectPath = projectGeneratorService.generateProject(config);
-        GeneratedProject generatedProject = generatedProjectService.saveProject(
-            config.getProjectName(),
-            config.getProjectType(),
-            config.getArchitecturePattern(),
-            projectPath
-        );
-        return ResponseEntity.ok(generatedProject);
+    public ResponseEntity<GeneratedProject> generateProject(@RequestBody ProjectConfig config,
+                                                            HttpServletRequest request) {
+        try {
+            return ResponseEntity.ok(generationJobService.submit(config, clientId(request)).result().join());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (CompletionException e) {
+            // An invalid schema is only found while generating
+            if (e.getCause() instanceof IllegalArgumentException) {
+                return ResponseEntity.badRequest().build();
+            }
+            // Coalesced with an identical generation that did not finish in time
+            if (e.getCause() instanceof TimeoutException) {
+                return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+            }
+            // Admitted after queueing, then the generation executor was full
+            if (e.getCause() instanceof RejectedExecutionException) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @PostMapping("/generate/async")
+    public ResponseEntity<GenerationJob> generateProjectAsync(@RequestBody ProjectConfig config,
+                                                              HttpServletRequest request) {
+        try {
+            GenerationJob job = generationJobService.submit(config, clientId(request)).job();
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/generator/jobs/" + job.getId()))
+                    .body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    /**
+     * Generates and stores every config in one request, returning one record per item. Items
+     * that fail are reported individually while the rest of the batch still succeeds.
+     *
+     * <p>The batch waits for admission without holding a servlet thread, and answers 429 if
+     * the wait outlasts {@code generator.batch.admission-timeout}.
+     */
+    @PostMapping("/generate/batch")
+    public DeferredResult<ResponseEntity<BatchGenerationResult>> generateBatch(@RequestBody List<ProjectConfig> configs,
+                                                                               HttpServletRequest request) {
+        // The service bounds the admission wait; generating a large batch may take longer
+        DeferredResult<ResponseEntity<BatchGenerationResult>> result = new DeferredResult<>(NO_TIMEOUT);
+        CompletableFuture<BatchGenerationResult> generated;
+        try {
+            generated = batchGenerationService.generate(configs, clientId(request));
+        } catch (IllegalArgumentException e) {
+            result.setResult(ResponseEntity.badRequest().build());
+            return result;
+        }
+        result.onError(error -> generated.cancel(false));
+        generated.whenComplete((batch, error) -> {
+            if (error != null) {
+                result.setErrorResult(error);
+            } else {
+                result.setResult(ResponseEntity.ok(batch));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Same batch as above, streamed back as a single ZIP with one folder per project and a
+     * {@code batch-report.json} describing each item. Admission is awaited as above; the
+     * permit is handed back when the archive has been written or, should the body never run,
+     * when async processing ends.
+     */
+    @PostMapping(value = "/generate/batch", params = "combined=true")
+    public DeferredResult<ResponseEntity<StreamingResponseBody>> generateBatchArchive(
+            @RequestBody List<ProjectConfig> configs,
+            @RequestParam(required = false) String format,
+            HttpServletRequest request) {
+        DeferredResult<ResponseEntity<StreamingResponseBody>> result = new DeferredResult<>(NO_TIMEOUT);
+        ArchiveFormat archiveFormat;
+        CompletableFuture<BatchGenerationService.CombinedArchive> opened;
+        try {
+            archiveFormat = ArchiveFormat.fromRequest(format, request.getHeader(HttpHeaders.ACCEPT));
+            opened = batchGenerationService.openArchive(configs, clientId(request));
+        } catch (IllegalArgumentException e) {
+            result.setResult(ResponseEntity.badRequest().build());
+            return result;
+        }
+        result.onError(error -> opened.cancel(false));
+        onAsyncCompletion(request, () -> opened.thenAccept(BatchGenerationService.CombinedArchive::discard));
+        opened.whenComplete((archive, error) -> {
+            if (error != null) {
+                result.setErrorResult(error);
+                return;
+            }
+            StreamingResponseBody body = out -> archive.writeTo(out, archiveFormat);
+            boolean delivered = result.setResult(ResponseEntity.ok()
+                    .contentType(archiveFormat.getMediaType())
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            ArchiveDownloadResponder.attachment("batch." + archiveFormat.getExtension()))
+                    .body(body));
+            if (!delivered) {
+                // The request failed between admission and now
+                archive.discard();
+            }
+        });
+        return result;
+    }
+
+    @GetMapping("/admission/stats")
+    public ResponseEntity<GenerationAdmission.Stats> getAdmissionStats() {
+        return ResponseEntity.ok(generationAdmission.getStats());
+    }
+
+    @GetMapping("/coalescing/stats")
+    public ResponseEntity<GenerationCoalescer.Stats> getCoalescingStats() {
+        return ResponseEntity.ok(generationCoalescer.getStats());
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<GenerationJob> getJob(@PathVariable String id) {
+        return generationJobService.getJob(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Streams a job's {@link com.example.code_generator.model.GenerationEvent}s as Server-Sent
+     * Events, from the start or after {@code Last-Event-ID}, and ends after the job succeeds or
+     * fails. The {@code succeeded} event carries the project and its download URL.
+     */
+    @GetMapping(value = "/jobs/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamJobEvents(@PathVariable String id,
+                                                      @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        Long after;
+        try {
+            after = lastEventId == null || lastEventId.isBlank() ? null : Long.valueOf(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return generationProgress.subscribe(id, after)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/events/stats")
+    public ResponseEntity<GenerationProgress.Stats> getEventStats() {
+        return ResponseEntity.ok(generationProgress.getStats());
+    }
+
+    /**
+     * Generates a project straight into the response, as a ZIP unless {@code format} or the
+     * {@code Accept} header asks for {@code tar.gz} or {@code tar.zst}.
+     *
+     * <p>The request waits for admission asynchronously, without holding a servlet thread. If
+     * the wait outlasts the async request timeout it answers 429. The permit is handed back
+     * when the body finishes or, should the body never run, when async processing ends.
+     */
+    @PostMapping("/generate/download")
+    public DeferredResult<ResponseEntity<StreamingResponseBody>> generateAndDownload(
+            @RequestBody ProjectConfig config,
+            @RequestParam(required = false) String format,
+            HttpServletRequest request) {
+        DeferredResult<ResponseEntity<StreamingResponseBody>> result = new DeferredResult<>();
+        ArchiveFormat archiveFormat;
+        try {
+            archiveFormat = ArchiveFormat.fromRequest(format, request.getHeader(HttpHeaders.ACCEPT));
+        } catch (IllegalArgumentException e) {
+            result.setResult(ResponseEntity.badRequest().build());
+            return result;
+        }
+        // Resolve and validate up front so bad input fails with 400 before headers are sent
+        ProjectGenerator generator;
+        try {
+            generator = projectGeneratorService.getGenerator(config);
+            generator.validate(config);
+        } catch (IllegalArgumentException e) {
+            result.setResult(ResponseEntity.badRequest().build());
+            return result;
+        }
+
+        CompletableFuture<GenerationAdmission.Permit> admitted = generationAdmission.acquire(clientId(request), config);
+        result.onTimeout(() -> {
+            admitted.cancel(false);
+            result.setErrorResult(new AdmissionRejectedException("Timed out waiting for admission",
+                    generationAdmission.getRetryAfterSeconds()));
+        });
+        result.onError(error -> admitted.cancel(false));
+        onAsyncCompletion(request, () -> admitted.thenAccept(generationAdmission::release));
+        admitted.thenAccept(permit -> {
+            StreamingResponseBody body = out -> {
+                try (ArchiveSink sink = generationMetrics.meter(archiveCompressor.newSink(archiveFormat, out), config)) {
+                    generator.generateProject(config, sink);
+                } finally {
+                    generationAdmission.release(permit);
+                }
+            };
+            boolean delivered = result.setResult(ResponseEntity.ok()
+                    .contentType(archiveFormat.getMediaType())
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            ArchiveDownloadResponder.attachment(config.getProjectName() + "." + archiveFormat.getExtension()))
+                    .body(body));
+            if (!delivered) {
+                // The request timed out or failed between admission and now
+                generationAdmission.release(permit);
+            }
+        });
+        return result;
     }
 
     @GetMapping("/projects")
-    public ResponseEntity<List<GeneratedProject>> listProjects() {
-        return ResponseEntity.ok(generatedProjectService.getAllProjects());
+    public ResponseEntity<ProjectPage> listProjects(@RequestParam(required = false) String projectType,
+                                                   @RequestParam(required = false) String architecture,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "50") int limit) {
+        try {
+            return ResponseEntity.ok(generatedProjectService.getProjects(projectType, architecture, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * The same listing as newline-delimited JSON, one project per line and written as it is
+     * read from the registry, so memory use does not grow with the number of projects.
+     * Without {@code limit} every project after {@code cursor} is sent.
+     */
+    @GetMapping(value = "/projects", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamProjects(@RequestParam(required = false) String projectType,
+                                                                @RequestParam(required = false) String architecture,
+                                                                @RequestParam(required = false) String cursor,
+                                                                @RequestParam(required = false) Integer limit) {
+        Iterable<GeneratedProject> projects;
+        try {
+            projects = generatedProjectService.findProjects(projectType, architecture, cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (limit != null && limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        long max = limit != null ? limit : Long.MAX_VALUE;
+        ObjectWriter writer = objectMapper.writerFor(GeneratedProject.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                long written = 0;
+                for (GeneratedProject project : projects) {
+                    if (written++ == max) {
+                        break;
+                    }
+                    writer.writeValue(generator, project);
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ArchiveCache.Stats> getCacheStats() {
+        return ResponseEntity.ok(generatedProjectService.getCacheStats());
     }
 
+    @GetMapping("/retention/stats")
+    public ResponseEntity<ZipRetentionService.Stats> getRetentionStats() {
+        return ResponseEntity.ok(zipRetentionService.getStats());
+    }
+
+    /**
+     * Serves a stored project. ZIPs are sent as stored, with range support; for {@code tar.gz}
+     * or {@code tar.zst} (by {@code format} or {@code Accept}) its entries are re-packed while
+     * streaming.
+     *
+     * <p>Projects owned by another node are proxied to it. ZIPs in a store with a public URL
+     * are redirected to it.
+     */
     @GetMapping("/download/{id}")
-    public ResponseEntity<Resource> downloadProject(@PathVariable String id) {
+    public void downloadProject(@PathVariable String id, @RequestParam(required = false) String format,
+                                HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ArchiveFormat archiveFormat;
         try {
-            Resource resource = generatedProjectService.getProjectZipFile(id);
-            return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + id + ".zip\"")
-                    .body(resource);
-        } catch (IOException e) {
-            return ResponseEntity.notFound().build();
+            archiveFormat = ArchiveFormat.fromRequest(format, request.getHeader(HttpHeaders.ACCEPT));
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return;
+        }
+        if (generatedProjectService.getProject(id).isEmpty() && downloadForwarder.shouldForward(id, request)) {
+            downloadForwarder.forward(id, request, response);
+            return;
+        }
+        if (archiveFormat == ArchiveFormat.ZIP) {
+            Optional<URI> publicUrl = generatedProjectService.getProjectZipUrl(id);
+            if (publicUrl.isPresent()) {
+                response.sendRedirect(publicUrl.get().toString());
+                return;
+            }
+        }
+        Path zipPath;
+        try {
+            zipPath = generatedProjectService.getProjectZipPath(id);
+        } catch (ProjectEvictedException e) {
+            response.setStatus(HttpStatus.GONE.value());
+            return;
+        } catch (IOException | IllegalArgumentException e) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        if (archiveFormat == ArchiveFormat.ZIP) {
+            archiveDownloadResponder.respond(zipPath, id + ".zip", request, response);
+            return;
         }
+        response.setContentType(archiveFormat.getMediaType().toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ArchiveDownloadResponder.attachment(id + "." + archiveFormat.getExtension()));
+        try (ArchiveSink sink = archiveCompressor.newSink(archiveFormat, response.getOutputStream())) {
+            generatedProjectService.copyEntries(zipPath, sink);
+        }
+    }
+
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<Void> handleAdmissionRejected(AdmissionRejectedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .build();
+    }
+
+    // Callers may identify themselves explicitly; otherwise fairness is per remote address
+    // Runs once the streamed body has finished or async processing ended without running it
+    private static void onAsyncCompletion(HttpServletRequest request, Runnable action) {
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(PERMIT_RELEASE,
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                        action.run();
+                    }
+                });
+    }
+
+    private static String clientId(HttpServletRequest request) {
+        String clientId = request.getHeader(CLIENT_ID_HEADER);
+        return clientId != null && !clientId.isBlank() ? clientId : request.getRemoteAddr();
     }
 }
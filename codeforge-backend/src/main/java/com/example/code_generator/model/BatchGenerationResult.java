@@ -0,0 +1,22 @@
+package com.example.code_generator.model;
+
+import lombok.Builder;
+import lombok.Data;
+import java.util.List;
+
+@Data
+@Builder
+public class BatchGenerationResult {
+    private int succeeded;
+    private int failed;
+    private List<Item> items;
+
+    @Data
+    @Builder
+    public static class Item {
+        private int index;
+        private String projectName;
+        private GeneratedProject project;
+        private String error;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.code_generator.model;
+
+import lombok.Builder;
+import lombok.Data;
+import java.util.List;
+
+@Data
+@Builder
+public class DependencySearchResult {
+    private String query;
+    private String category;
+    private boolean fuzzy;
+    private int page;
+    private int size;
+    private int total;
+    private List<AndroidDependency> items;
+}
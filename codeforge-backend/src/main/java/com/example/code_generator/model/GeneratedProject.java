@@ -1,11 +1,15 @@
 package com.example.code_generator.model;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
 public class GeneratedProject {
     private String id;
     private String name;
@@ -14,4 +18,6 @@ public class GeneratedProject {
     private String downloadUrl;
     private LocalDateTime generatedAt;
     private String zipPath;
+    private String fingerprint;
+    private LocalDateTime evictedAt;
 }
@@ -0,0 +1,40 @@
+package com.example.code_generator.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * One step of a generation job, as streamed to watchers of {@code /jobs/{id}/events}. Fields
+ * that do not apply to the event's type are left out.
+ */
+@Data
+@Builder(toBuilder = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GenerationEvent {
+    private long sequence;
+    private Type type;
+    private String jobId;
+    /** {@link Type#RESOLVED}: the template, or the generator when it has no template. */
+    private String template;
+    /** {@link Type#FILE}: the file just rendered and its size. */
+    private String path;
+    private Long size;
+    /** Files and content bytes rendered so far. */
+    private Integer files;
+    private Long bytes;
+    /** Compressed archive bytes written so far. */
+    private Long archiveBytes;
+    /** {@link Type#SUCCEEDED}: the stored project, including its download URL. */
+    private GeneratedProject project;
+    /** {@link Type#FAILED}: why. */
+    private String error;
+
+    public enum Type {
+        QUEUED, RESOLVED, FILE, ARCHIVE, SUCCEEDED, FAILED;
+
+        public boolean isTerminal() {
+            return this == SUCCEEDED || this == FAILED;
+        }
+    }
+}
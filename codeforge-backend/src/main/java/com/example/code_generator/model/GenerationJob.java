@@ -0,0 +1,27 @@
+package com.example.code_generator.model;
+
+import lombok.Builder;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+@Builder(toBuilder = true)
+public class GenerationJob {
+    private String id;
+    private Status status;
+    private String projectName;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Long queuedMillis;
+    private Long runMillis;
+    private String projectId;
+    private String downloadUrl;
+    private String error;
+    // Id of the job whose generation this one shared, when it was coalesced with an identical one
+    private String coalescedWith;
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+}
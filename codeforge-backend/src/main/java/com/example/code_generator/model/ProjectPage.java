@@ -0,0 +1,13 @@
+package com.example.code_generator.model;
+
+import lombok.Builder;
+import lombok.Data;
+import java.util.List;
+
+@Data
+@Builder
+public class ProjectPage {
+    private List<GeneratedProject> items;
+    /** Pass as {@code cursor} to get the next page; {@code null} on the last page. */
+    private String nextCursor;
+}
@@ -1,5 +1,6 @@
 package com.example.code_generator.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import java.util.Map;
 import java.util.List;
@@ -15,10 +16,16 @@ public class ProjectTemplate {
     private List<TemplateFile> files;
     private Dependencies dependencies;
 
+    // Resource location of the directory holding template.json; TemplateFile.template is relative to it
+    @JsonIgnore
+    private String location;
+
     @Data
     public static class TemplateFile {
         private String path;
         private String template;
+        // A placeholder model, left out when the project config supplies a schema to generate models from
+        private boolean sample;
     }
 
     @Data
@@ -0,0 +1,33 @@
+package com.example.code_generator.model;
+
+import lombok.Builder;
+import lombok.Data;
+import java.util.List;
+
+@Data
+@Builder
+public class ResolvedDependencies {
+    private List<Artifact> artifacts;
+    private List<Conflict> conflicts;
+    private List<String> unresolved; // requested names the catalogue does not know
+    private String gradle; // the artifacts as lines of a Gradle dependencies block
+
+    @Data
+    @Builder
+    public static class Artifact {
+        private String groupId;
+        private String artifactId;
+        private String version;
+        private String configuration; // e.g., "implementation", "annotationProcessor"
+        private String notation; // groupId:artifactId:version
+        private String pairedWith; // groupId:artifactId of the runtime artifact a processor belongs to
+    }
+
+    @Data
+    @Builder
+    public static class Conflict {
+        private String module; // groupId:artifactId
+        private List<String> requested;
+        private String selected;
+    }
+}
@@ -1,138 +1,129 @@
 package com.example.code_generator.service;
 
 import com.example.code_generator.model.AndroidDependency;
+import com.example.code_generator.model.DependencySearchResult;
+import com.example.code_generator.service.catalogue.DependencyCatalogue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
-
+import java.util.BitSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Serves the Android dependency catalogue. It is read once at startup from
+ * {@code android.dependencies.catalogue} (a tab-separated file, optionally gzipped), or from
+ * the bundled {@code catalogue/android-dependencies.tsv} when that is not set. See
+ * {@link DependencyCatalogue} for the format.
+ */
 @Service
 public class AndroidDependencyService {
-    private final List<AndroidDependency> dependencies;
+    private static final Logger logger = LoggerFactory.getLogger(AndroidDependencyService.class);
+    private static final String BUNDLED_CATALOGUE = "catalogue/android-dependencies.tsv";
+    static final int MAX_PAGE_SIZE = 100;
+
+    private final DependencyCatalogue catalogue;
+    private final String catalogueVersion;
 
     public AndroidDependencyService() {
-        this.dependencies = initializeDependencies();
+        this("");
     }
 
-    public List<AndroidDependency> getAllDependencies() {
-        return dependencies;
+    @Autowired
+    public AndroidDependencyService(@Value("${android.dependencies.catalogue:}") String cataloguePath) {
+        Resource resource = cataloguePath.isBlank()
+                ? new ClassPathResource(BUNDLED_CATALOGUE)
+                : new FileSystemResource(cataloguePath);
+        long start = System.nanoTime();
+        MessageDigest digest = newDigest();
+        this.catalogue = load(resource, digest);
+        this.catalogueVersion = HexFormat.of().formatHex(digest.digest());
+        logger.info("Loaded {} dependencies from {} in {} ms ({} KiB)", catalogue.size(),
+                resource.getDescription(), (System.nanoTime() - start) / 1_000_000, catalogue.footprintBytes() / 1024);
     }
 
-    public List<AndroidDependency> getDependenciesByCategory(String category) {
-        return dependencies.stream()
-                .filter(dep -> dep.getCategory().equalsIgnoreCase(category))
-                .toList();
+    private static DependencyCatalogue load(Resource resource, MessageDigest digest) {
+        try (InputStream in = new DigestInputStream(resource.getInputStream(), digest);
+             Reader reader = new InputStreamReader(
+                     resource.getFilename() != null && resource.getFilename().endsWith(".gz") ? new GZIPInputStream(in) : in,
+                     StandardCharsets.UTF_8)) {
+            return DependencyCatalogue.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read dependency catalogue " + resource.getDescription(), e);
+        }
     }
 
-    private List<AndroidDependency> initializeDependencies() {
-        List<AndroidDependency> deps = new ArrayList<>();
-
-        // UI Dependencies
-        deps.add(AndroidDependency.builder()
-                .name("Material Design")
-                .description("Material Design components for Android")
-                .groupId("com.google.android.material")
-                .artifactId("material")
-                .version("1.10.0")
-                .type("implementation")
-                .category("UI")
-                .build());
-
-        // Dependency Injection
-        deps.add(AndroidDependency.builder()
-                .name("Dagger Hilt")
-                .description("Dependency injection library for Android")
-                .groupId("com.google.dagger")
-                .artifactId("hilt-android")
-                .version("2.48")
-                .type("implementation")
-                .category("DI")
-                .build());
-
-        deps.add(AndroidDependency.builder()
-                .name("Dagger Hilt Compiler")
-                .description("Annotation processor for Dagger Hilt")
-                .groupId("com.google.dagger")
-                .artifactId("hilt-compiler")
-                .version("2.48")
-                .type("annotationProcessor")
-                .category("DI")
-                .build());
-
-        // Database
-        deps.add(AndroidDependency.builder()
-                .name("Room Runtime")
-                .description("SQLite object mapping library")
-                .groupId("androidx.room")
-                .artifactId("room-runtime")
-                .version("2.6.1")
-                .type("implementation")
-                .category("Database")
-                .build());
-
-        deps.add(AndroidDependency.builder()
-                .name("Room Compiler")
-                .description("Room annotation processor")
-                .groupId("androidx.room")
-                .artifactId("room-compiler")
-                .version("2.6.1")
-                .type("annotationProcessor")
-                .category("Database")
-                .build());
-
-        // Networking
-        deps.add(AndroidDependency.builder()
-                .name("Retrofit")
-                .description("Type-safe HTTP client")
-                .groupId("com.squareup.retrofit2")
-                .artifactId("retrofit")
-                .version("2.9.0")
-                .type("implementation")
-                .category("Network")
-                .build());
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 
-        deps.add(AndroidDependency.builder()
-                .name("OkHttp")
-                .description("HTTP client")
-                .groupId("com.squareup.okhttp3")
-                .artifactId("okhttp")
-                .version("4.12.0")
-                .type("implementation")
-                .category("Network")
-                .build());
+    public DependencyCatalogue getCatalogue() {
+        return catalogue;
+    }
 
-        // Image Loading
-        deps.add(AndroidDependency.builder()
-                .name("Glide")
-                .description("Image loading library")
-                .groupId("com.github.bumptech.glide")
-                .artifactId("glide")
-                .version("4.16.0")
-                .type("implementation")
-                .category("Image")
-                .build());
+    /**
+     * Content hash of the catalogue file, so archives built from another catalogue are not reused.
+     */
+    public String getCatalogueVersion() {
+        return catalogueVersion;
+    }
 
-        // Async Programming
-        deps.add(AndroidDependency.builder()
-                .name("Coroutines Core")
-                .description("Kotlin coroutines support")
-                .groupId("org.jetbrains.kotlinx")
-                .artifactId("kotlinx-coroutines-android")
-                .version("1.7.3")
-                .type("implementation")
-                .category("Async")
-                .build());
+    public List<AndroidDependency> getAllDependencies() {
+        return catalogue.asList();
+    }
 
-        // Testing
-        deps.add(AndroidDependency.builder()
-                .name("JUnit")
-                .description("Unit testing framework")
-                .groupId("junit")
-                .artifactId("junit")
-                .version("4.13.2")
-                .type("testImplementation")
-                .category("Testing")
-                .build());
+    public List<AndroidDependency> getDependenciesByCategory(String category) {
+        return catalogue.byCategory(category);
+    }
 
-        return deps;
+    /**
+     * One page of the dependencies matching {@code query}; see {@link DependencyCatalogue#search}.
+     *
+     * @throws IllegalArgumentException if {@code page} is negative or {@code size} is not between
+     *         1 and {@value #MAX_PAGE_SIZE}
+     */
+    public DependencySearchResult search(String query, String category, boolean fuzzy, int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        BitSet rows = catalogue.search(query, category, fuzzy);
+        List<AndroidDependency> items = new ArrayList<>(size);
+        long skip = (long) page * size;
+        for (int row = rows.nextSetBit(0); row >= 0 && items.size() < size; row = rows.nextSetBit(row + 1)) {
+            if (skip > 0) {
+                skip--;
+            } else {
+                items.add(catalogue.get(row));
+            }
+        }
+        return DependencySearchResult.builder()
+                .query(query)
+                .category(category)
+                .fuzzy(fuzzy)
+                .page(page)
+                .size(size)
+                .total(rows.cardinality())
+                .items(items)
+                .build();
     }
 }
@@ -0,0 +1,365 @@
+package com.example.code_generator.service;
+
+import com.example.code_generator.model.BatchGenerationResult;
+import com.example.code_generator.model.GeneratedProject;
+import com.example.code_generator.model.ProjectConfig;
+import com.example.code_generator.service.admission.AdmissionRejectedException;
+import com.example.code_generator.service.admission.GenerationAdmission;
+import com.example.code_generator.service.admission.GenerationCostEstimator;
+import com.example.code_generator.service.archive.BufferedArchiveSink;
+import com.example.code_generator.service.archive.ArchiveCompressor;
+import com.example.code_generator.service.archive.ArchiveFormat;
+import com.example.code_generator.service.archive.ArchiveSink;
+import com.example.code_generator.service.archive.ProjectFingerprint;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Generates many projects in one request. The batch shares work wherever the result cannot
+ * differ between its items:
+ * <ul>
+ *   <li>the generator for each project type and architecture is resolved once;</li>
+ *   <li>items with the same {@link ProjectFingerprint} are built once, and the duplicates only
+ *       register a new project against the same archive;</li>
+ *   <li>plain-text template files are rendered once by the template generator.</li>
+ * </ul>
+ * Distinct items are built in parallel on the {@code generationExecutor}. The whole batch
+ * passes {@link GenerationAdmission} as one request costing the sum of its items; the wait
+ * is asynchronous and gives up after {@code generator.batch.admission-timeout} with an
+ * {@link AdmissionRejectedException}. An item that cannot be generated is reported with its
+ * error and does not fail the rest.
+ */
+@Service
+public class BatchGenerationService {
+    private static final Logger logger = LoggerFactory.getLogger(BatchGenerationService.class);
+    private static final String REPORT_ENTRY = "batch-report.json";
+
+    private final ProjectGeneratorService projectGeneratorService;
+    private final GeneratedProjectService generatedProjectService;
+    private final GenerationAdmission admission;
+    private final GenerationCostEstimator costEstimator;
+    private final ObjectMapper objectMapper;
+    private final ArchiveCompressor compressor;
+    private final Executor executor;
+    private final int maxSize;
+    private final Duration admissionTimeout;
+
+    public BatchGenerationService(
+            ProjectGeneratorService projectGeneratorService,
+            GeneratedProjectService generatedProjectService,
+            GenerationAdmission admission,
+            GenerationCostEstimator costEstimator,
+            ObjectMapper objectMapper,
+            ArchiveCompressor compressor,
+            @Qualifier("generationExecutor") Executor executor,
+            @Value("${generator.batch.max-size:100}") int maxSize,
+            @Value("${generator.batch.admission-timeout:PT30S}") Duration admissionTimeout) {
+        this.projectGeneratorService = projectGeneratorService;
+        this.generatedProjectService = generatedProjectService;
+        this.admission = admission;
+        this.costEstimator = costEstimator;
+        this.objectMapper = objectMapper;
+        this.compressor = compressor;
+        this.executor = executor;
+        this.maxSize = maxSize;
+        this.admissionTimeout = admissionTimeout;
+    }
+
+    /**
+     * Generates and stores every project of the batch once it is admitted. The future completes
+     * when all items have finished; cancelling it before admission gives up the queue place.
+     *
+     * @throws IllegalArgumentException if the batch is empty or larger than {@code generator.batch.max-size}
+     * @throws AdmissionRejectedException if the admission queue is full
+     */
+    public CompletableFuture<BatchGenerationResult> generate(List<ProjectConfig> configs, String clientId) {
+        List<Item> items = plan(configs);
+        CompletableFuture<GenerationAdmission.Permit> admitted = acquire(clientId, items);
+        CompletableFuture<BatchGenerationResult> generated = new CompletableFuture<>();
+        admitted.whenComplete((permit, error) -> {
+            if (error != null) {
+                generated.completeExceptionally(admissionError(error));
+                return;
+            }
+            List<CompletableFuture<GeneratedProject>> results;
+            try {
+                Function<Item, GeneratedProject> save = item -> generatedProjectService.saveProject(
+                        item.config(), sink -> item.generator().generateProject(item.config(), sink));
+                // A duplicate still registers its own project, which finds the first one's archive cached
+                results = buildShared(items, save, (item, first) -> save.apply(item));
+            } catch (RuntimeException e) {
+                release(permit);
+                generated.completeExceptionally(e);
+                return;
+            }
+            CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).whenComplete((done, failure) -> {
+                release(permit);
+                generated.complete(report(items, results));
+            });
+        });
+        giveUpWith(generated, admitted);
+        return generated;
+    }
+
+    /**
+     * Once the batch is admitted, starts building every project into memory and completes with
+     * a handle that writes them into one ZIP, each under its own folder, with a
+     * {@code batch-report.json} at the root. Nothing is stored in the registry. The admission
+     * permit is held until the archive has been written or {@linkplain CombinedArchive#discard
+     * discarded}; cancelling the future before admission gives up the queue place.
+     *
+     * @throws IllegalArgumentException if the batch is empty or larger than {@code generator.batch.max-size}
+     * @throws AdmissionRejectedException if the admission queue is full
+     */
+    public CompletableFuture<CombinedArchive> openArchive(List<ProjectConfig> configs, String clientId) {
+        List<Item> items = plan(configs);
+        CompletableFuture<GenerationAdmission.Permit> admitted = acquire(clientId, items);
+        CompletableFuture<CombinedArchive> opened = new CompletableFuture<>();
+        admitted.whenComplete((permit, error) -> {
+            if (error != null) {
+                opened.completeExceptionally(admissionError(error));
+                return;
+            }
+            CombinedArchive archive;
+            try {
+                List<CompletableFuture<BufferedArchiveSink>> builds = buildShared(items, item -> {
+                    BufferedArchiveSink buffer = new BufferedArchiveSink();
+                    item.generator().generateProject(item.config(), buffer);
+                    return buffer;
+                }, (item, first) -> first);
+                archive = new CombinedArchive(items, builds, permit);
+            } catch (RuntimeException e) {
+                release(permit);
+                opened.completeExceptionally(e);
+                return;
+            }
+            if (!opened.complete(archive)) {
+                // Given up on between admission and now
+                archive.discard();
+            }
+        });
+        giveUpWith(opened, admitted);
+        return opened;
+    }
+
+    private List<Item> plan(List<ProjectConfig> configs) {
+        if (configs == null || configs.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one project");
+        }
+        if (configs.size() > maxSize) {
+            throw new IllegalArgumentException("Batch of " + configs.size() + " projects exceeds the limit of " + maxSize);
+        }
+        String generatorVersion = generatedProjectService.getGeneratorVersion();
+        // Which generator applies depends only on the project type and architecture
+        Map<List<String>, ProjectGenerator> generators = new HashMap<>();
+        List<Item> items = new ArrayList<>(configs.size());
+        for (ProjectConfig request : configs) {
+            if (request == null) {
+                items.add(new Item(null, null, null, "Missing project configuration"));
+                continue;
+            }
+            ProjectConfig config = ProjectFingerprint.normalize(request);
+            List<String> key = Arrays.asList(config.getProjectType(), config.getArchitecturePattern());
+            try {
+                ProjectGenerator generator = generators.get(key);
+                if (generator == null) {
+                    generator = projectGeneratorService.getGenerator(config);
+                    generators.put(key, generator);
+                }
+                items.add(new Item(config, generator, ProjectFingerprint.of(config, generatorVersion), null));
+            } catch (IllegalArgumentException e) {
+                items.add(new Item(config, null, null, e.getMessage()));
+            }
+        }
+        return items;
+    }
+
+    private CompletableFuture<GenerationAdmission.Permit> acquire(String clientId, List<Item> items) {
+        int cost = 0;
+        for (Item item : items) {
+            if (item.error() == null) {
+                cost += costEstimator.estimate(item.config());
+            }
+        }
+        if (cost == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return admission.acquire(clientId, cost).orTimeout(admissionTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // A caller giving up on the batch also gives up its place in the admission queue
+    private static void giveUpWith(CompletableFuture<?> result, CompletableFuture<GenerationAdmission.Permit> admitted) {
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                admitted.cancel(false);
+            }
+        });
+    }
+
+    private Throwable admissionError(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof TimeoutException) {
+            return new AdmissionRejectedException("Timed out waiting for admission", admission.getRetryAfterSeconds());
+        }
+        return cause;
+    }
+
+    private static BatchGenerationResult report(List<Item> items, List<CompletableFuture<GeneratedProject>> results) {
+        List<BatchGenerationResult.Item> reported = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            BatchGenerationResult.Item.ItemBuilder builder = BatchGenerationResult.Item.builder()
+                    .index(i)
+                    .projectName(items.get(i).projectName());
+            try {
+                builder.project(results.get(i).join());
+            } catch (CompletionException e) {
+                builder.error(errorMessage(e));
+            }
+            reported.add(builder.build());
+        }
+        return result(reported);
+    }
+
+    private void release(GenerationAdmission.Permit permit) {
+        if (permit != null) {
+            admission.release(permit);
+        }
+    }
+
+    /**
+     * Runs {@code build} in parallel once per distinct fingerprint. Later items with the same
+     * fingerprint wait for the first one and are derived from its result by {@code reuse}, so
+     * they never race it to produce the same archive; its failure propagates to them.
+     */
+    private <T> List<CompletableFuture<T>> buildShared(List<Item> items, Function<Item, T> build,
+                                                       BiFunction<Item, T, T> reuse) {
+        Map<String, CompletableFuture<T>> firsts = new HashMap<>();
+        List<CompletableFuture<T>> results = new ArrayList<>(items.size());
+        for (Item item : items) {
+            if (item.error() != null) {
+                results.add(CompletableFuture.failedFuture(new IllegalArgumentException(item.error())));
+                continue;
+            }
+            CompletableFuture<T> first = firsts.get(item.fingerprint());
+            CompletableFuture<T> result;
+            try {
+                if (first == null) {
+                    result = CompletableFuture.supplyAsync(() -> build.apply(item), executor);
+                    firsts.put(item.fingerprint(), result);
+                } else {
+                    result = first.thenApplyAsync(shared -> reuse.apply(item, shared), executor);
+                }
+            } catch (RejectedExecutionException e) {
+                result = CompletableFuture.failedFuture(e);
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    private static BatchGenerationResult result(List<BatchGenerationResult.Item> items) {
+        int failed = (int) items.stream().filter(item -> item.getError() != null).count();
+        return BatchGenerationResult.builder()
+                .succeeded(items.size() - failed)
+                .failed(failed)
+                .items(items)
+                .build();
+    }
+
+    private static String errorMessage(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof RejectedExecutionException) {
+            return "Generation capacity exhausted";
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    private record Item(ProjectConfig config, ProjectGenerator generator, String fingerprint, String error) {
+
+        String projectName() {
+            return config == null ? null : config.getProjectName();
+        }
+    }
+
+    /**
+     * A batch whose projects are being built in the background, ready to be written as one archive.
+     */
+    public final class CombinedArchive {
+        private final List<Item> items;
+        private final List<CompletableFuture<BufferedArchiveSink>> builds;
+        private final GenerationAdmission.Permit permit;
+
+        private CombinedArchive(List<Item> items, List<CompletableFuture<BufferedArchiveSink>> builds,
+                                GenerationAdmission.Permit permit) {
+            this.items = items;
+            this.builds = builds;
+            this.permit = permit;
+        }
+
+        /**
+         * Writes each project, in batch order, as soon as it is ready. Folder names come from
+         * the project name and are made unique within the archive.
+         */
+        public void writeTo(OutputStream out, ArchiveFormat format) throws IOException {
+            try (ArchiveSink sink = compressor.newSink(format, out)) {
+                Set<String> folders = new HashSet<>();
+                List<BatchGenerationResult.Item> reported = new ArrayList<>(items.size());
+                for (int i = 0; i < items.size(); i++) {
+                    String projectName = items.get(i).projectName();
+                    BatchGenerationResult.Item.ItemBuilder builder = BatchGenerationResult.Item.builder()
+                            .index(i)
+                            .projectName(projectName);
+                    try {
+                        BufferedArchiveSink project = builds.get(i).join();
+                        project.copyTo(sink, folder(projectName, i, folders) + "/");
+                    } catch (CompletionException e) {
+                        logger.warn("Batch item {} failed: {}", i, errorMessage(e));
+                        builder.error(errorMessage(e));
+                    }
+                    reported.add(builder.build());
+                }
+                sink.addEntry(REPORT_ENTRY, objectMapper.writerWithDefaultPrettyPrinter()
+                        .writeValueAsBytes(result(reported)));
+            } finally {
+                discard();
+            }
+        }
+
+        /** Stops any builds still running and hands back the admission permit; idempotent. */
+        public void discard() {
+            builds.forEach(build -> build.cancel(false));
+            release(permit);
+        }
+    }
+
+    // Separators and control characters become '_'; names that would still resolve to the
+    // parent or current directory, like "..", fall back to the item's position
+    private static String folder(String projectName, int index, Set<String> taken) {
+        String base = projectName == null ? "" : projectName.replaceAll("[/\\\\:\\p{Cntrl}]", "_").strip();
+        if (base.isEmpty() || base.chars().allMatch(c -> c == '.')) {
+            base = "project-" + (index + 1);
+        }
+        String folder = base;
+        // Compared case-insensitively, so the folders stay distinct when extracted on Windows or macOS
+        for (int n = 2; !taken.add(folder.toLowerCase(Locale.ROOT)); n++) {
+            folder = base + "-" + n;
+        }
+        return folder;
+    }
+}
@@ -1,87 +1,259 @@
 package com.example.code_generator.service;
 
 import com.example.code_generator.model.GeneratedProject;
+import com.example.code_generator.model.ProjectConfig;
+import com.example.code_generator.model.ProjectPage;
+import com.example.code_generator.service.archive.ArchiveCache;
+import com.example.code_generator.service.archive.ArchiveSink;
+import com.example.code_generator.service.archive.ArchiveCompressor;
+import com.example.code_generator.service.archive.ArchiveFormat;
+import com.example.code_generator.service.archive.ProjectFingerprint;
+import com.example.code_generator.service.cluster.ClusterRouter;
+import com.example.code_generator.service.metrics.GenerationMetrics;
+import com.example.code_generator.service.progress.GenerationProgress;
+import com.example.code_generator.service.registry.ProjectCursor;
+import com.example.code_generator.service.registry.ProjectEvictedException;
+import com.example.code_generator.service.registry.ProjectRegistry;
+import com.example.code_generator.service.registry.ZipRetentionService;
+import com.example.code_generator.service.storage.ArtifactStore;
 import org.springframework.stereotype.Service;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
+import java.util.zip.ZipFile;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
-import org.springframework.util.FileSystemUtils;
 
 @Service
 public class GeneratedProjectService {
-    private final Map<String, GeneratedProject> projects = new HashMap<>();
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private final ProjectRegistry registry;
+    private final ZipRetentionService retentionService;
     private final String baseDir;
     private final String downloadBaseUrl;
+    private final ArchiveCache archiveCache;
+    private final TemplateDiscoveryService templateDiscoveryService;
+    private final AndroidDependencyService dependencyService;
+    private final GenerationMetrics metrics;
+    private final ArchiveCompressor compressor;
+    private final ArtifactStore store;
+    private final ClusterRouter clusterRouter;
 
+    /**
+     * @param publicBaseUrl URL clients reach this node under, for download links; defaults to
+     *                      {@code http://localhost:<server.port>}
+     */
     public GeneratedProjectService(
             @Value("${project.generated.dir:generated-projects}") String baseDir,
-            @Value("${server.port:8082}") String serverPort) {
+            @Value("${server.port:8082}") String serverPort,
+            @Value("${generator.public-base-url:}") String publicBaseUrl,
+            ArchiveCache archiveCache,
+            TemplateDiscoveryService templateDiscoveryService,
+            AndroidDependencyService dependencyService,
+            ProjectRegistry registry,
+            ZipRetentionService retentionService,
+            GenerationMetrics metrics,
+            ArchiveCompressor compressor,
+            ArtifactStore store,
+            ClusterRouter clusterRouter) {
         this.baseDir = baseDir;
-        this.downloadBaseUrl = "http://localhost:" + serverPort + "/api/generator/download/";
+        this.registry = registry;
+        this.retentionService = retentionService;
+        this.archiveCache = archiveCache;
+        this.templateDiscoveryService = templateDiscoveryService;
+        this.dependencyService = dependencyService;
+        this.metrics = metrics;
+        this.compressor = compressor;
+        this.store = store;
+        this.clusterRouter = clusterRouter;
+        String base = publicBaseUrl == null || publicBaseUrl.isBlank()
+                ? "http://localhost:" + serverPort : publicBaseUrl.replaceAll("/+$", "");
+        this.downloadBaseUrl = base + "/api/generator/download/";
         createDirectories();
+        warmArchiveCache();
+    }
+
+    // Lets archives that survived a restart be reused straight away
+    private void warmArchiveCache() {
+        for (GeneratedProject project : registry.getAll()) {
+            if (project.getFingerprint() == null || project.getEvictedAt() != null) {
+                continue;
+            }
+            Path zipPath = Paths.get(project.getZipPath());
+            try {
+                archiveCache.put(project.getFingerprint(), zipPath, Files.size(zipPath));
+            } catch (IOException e) {
+                // Reconciled away on the next restart; nothing to reuse meanwhile
+            }
+        }
     }
 
     private void createDirectories() {
         try {
             Files.createDirectories(Paths.get(baseDir));
-            Files.createDirectories(Paths.get(baseDir, "zips"));
         } catch (IOException e) {
             throw new RuntimeException("Could not create necessary directories", e);
         }
     }
 
-    public GeneratedProject saveProject(String projectName, String projectType, String architecture, Path projectPath) {
-        String id = UUID.randomUUID().toString();
-        String zipFileName = id + ".zip";
-        Path zipPath = Paths.get(baseDir, "zips", zipFileName);
+    /**
+     * Version of everything besides the config that shapes a generated project: the templates
+     * and the dependency catalogue. Part of every {@link ProjectFingerprint}.
+     */
+    public String getGeneratorVersion() {
+        return templateDiscoveryService.getTemplateVersion() + "+" + dependencyService.getCatalogueVersion();
+    }
+
+    /**
+     * Archives a project in a single pass: {@code content} emits its entries straight into
+     * the ZIP, which is then published to the {@link ArtifactStore}, so nothing is staged on
+     * disk or deleted afterwards. The project id is one {@link ClusterRouter} routes to this node.
+     *
+     * <p>ZIPs are content-addressed by {@link ProjectFingerprint}. When an archive for the same
+     * effective config and template version already exists, {@code content} is not invoked and
+     * the new project points at the existing ZIP.
+     *
+     * <p>The archive is rendered to a partial file without holding the blob lock; only
+     * publishing it and registering the project happen under the lock, so a retention sweep
+     * never waits for a generation and a generation never waits for a whole sweep. A
+     * generation that would publish an archive retention is still deleting waits for that
+     * one deletion.
+     */
+    public GeneratedProject saveProject(ProjectConfig config, Consumer<ArchiveSink> content) {
+        return saveProject(config, content, null);
+    }
+
+    /**
+     * As {@link #saveProject(ProjectConfig, Consumer)}, reporting the compressed size of the ZIP
+     * to {@code archiveProgress} while it is written, or its final size when it already existed.
+     */
+    public GeneratedProject saveProject(
+            ProjectConfig config, Consumer<ArchiveSink> content, GenerationProgress.ArchiveProgress archiveProgress) {
+        String id = clusterRouter.newProjectId();
+        String fingerprint = ProjectFingerprint.of(config, getGeneratorVersion());
+        String key = fingerprint + ".zip";
 
+        Path partial = null;
         try {
-            zipProject(projectPath, zipPath);
-            FileSystemUtils.deleteRecursively(projectPath);
-
-            GeneratedProject project = GeneratedProject.builder()
-                    .id(id)
-                    .name(projectName)
-                    .projectType(projectType)
-                    .architecture(architecture)
-                    .downloadUrl(downloadBaseUrl + id)
-                    .generatedAt(LocalDateTime.now())
-                    .zipPath(zipPath.toString())
-                    .build();
-
-            projects.put(id, project);
-            return project;
+            while (true) {
+                if (partial == null && !archiveCache.contains(fingerprint)) {
+                    partial = writePartial(key, config, content, archiveProgress);
+                }
+                Lock blobLock = archiveCache.getBlobLock().readLock();
+                blobLock.lock();
+                try {
+                    Path zipPath = archiveCache.lookup(fingerprint).orElse(null);
+                    if (zipPath != null) {
+                        if (archiveProgress != null) {
+                            archiveProgress.written(Files.size(zipPath), true);
+                        }
+                        return register(id, config, zipPath, fingerprint);
+                    }
+                    if (partial != null && !archiveCache.isRetiring(key)) {
+                        zipPath = store.publish(partial, key);
+                        long size = Files.size(zipPath);
+                        archiveCache.put(fingerprint, zipPath, size);
+                        metrics.recordArchiveSize(config, size);
+                        return register(id, config, zipPath, fingerprint);
+                    }
+                    // Evicted between the check and taking the lock, so render it after all,
+                    // or rendered while the evicted copy is still being deleted
+                } finally {
+                    blobLock.unlock();
+                }
+                if (partial != null) {
+                    archiveCache.awaitRetired(key);
+                }
+            }
         } catch (IOException e) {
             throw new RuntimeException("Failed to save project", e);
+        } finally {
+            if (partial != null) {
+                try {
+                    Files.deleteIfExists(partial);
+                } catch (IOException ignored) {
+                    // Left for the next startup's partial cleanup
+                }
+            }
         }
     }
 
-    public List<GeneratedProject> getAllProjects() {
-        return new ArrayList<>(projects.values());
+    // Called with the blob lock held, so the archive cannot be deleted before the project points at it
+    private GeneratedProject register(String id, ProjectConfig config, Path zipPath, String fingerprint) {
+        GeneratedProject project = GeneratedProject.builder()
+                .id(id)
+                .name(config.getProjectName())
+                .projectType(config.getProjectType())
+                .architecture(config.getArchitecturePattern())
+                .downloadUrl(downloadBaseUrl + id)
+                .generatedAt(LocalDateTime.now())
+                .zipPath(zipPath.toString())
+                .fingerprint(fingerprint)
+                .build();
+
+        long registryStart = System.nanoTime();
+        registry.put(project);
+        metrics.recordStage(GenerationMetrics.Stage.REGISTRY, config, System.nanoTime() - registryStart);
+        return project;
+    }
+
+    /**
+     * One page of live projects, newest first.
+     *
+     * @param projectType  only projects of this type, or {@code null} for all
+     * @param architecture only projects with this architecture, or {@code null} for all
+     * @param cursor       {@link ProjectPage#getNextCursor()} of the previous page, or {@code null}
+     *                     for the first page
+     * @throws IllegalArgumentException if the cursor is invalid or {@code limit} is not between 1
+     *         and {@value #MAX_PAGE_SIZE}
+     */
+    public ProjectPage getProjects(String projectType, String architecture, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        List<GeneratedProject> items = new ArrayList<>(limit);
+        String nextCursor = null;
+        for (GeneratedProject project : findProjects(projectType, architecture, cursor)) {
+            if (items.size() == limit) {
+                nextCursor = ProjectCursor.of(items.get(limit - 1)).encode();
+                break;
+            }
+            items.add(project);
+        }
+        return ProjectPage.builder().items(items).nextCursor(nextCursor).build();
+    }
+
+    /**
+     * Lazy view of all live projects after {@code cursor}, newest first, for callers that stream
+     * the listing instead of paging through it. Arguments are as for {@link #getProjects}.
+     */
+    public Iterable<GeneratedProject> findProjects(String projectType, String architecture, String cursor) {
+        return registry.list(blankToNull(projectType), blankToNull(architecture),
+                cursor == null || cursor.isBlank() ? null : ProjectCursor.decode(cursor));
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
     }
 
     public Optional<GeneratedProject> getProject(String id) {
-        return Optional.ofNullable(projects.get(id));
+        return registry.get(id);
     }
 
     public Resource getProjectZipFile(String id) throws IOException {
-        GeneratedProject project = projects.get(id);
-        if (project == null) {
-            throw new IllegalArgumentException("Project not found: " + id);
-        }
-
-        Path zipPath = Paths.get(project.getZipPath());
+        Path zipPath = getProjectZipPath(id);
         Resource resource = new UrlResource(zipPath.toUri());
 
         if (resource.exists() && resource.isReadable()) {
@@ -91,20 +263,97 @@ public class GeneratedProjectService {
         }
     }
 
-    private void zipProject(Path sourcePath, Path zipPath) throws IOException {
-        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(zipPath.toFile()))) {
-            Files.walk(sourcePath)
-                .filter(path -> !Files.isDirectory(path))
-                .forEach(path -> {
-                    ZipEntry zipEntry = new ZipEntry(sourcePath.relativize(path).toString());
-                    try {
-                        zos.putNextEntry(zipEntry);
-                        Files.copy(path, zos);
-                        zos.closeEntry();
-                    } catch (IOException e) {
-                        throw new RuntimeException("Failed to zip project", e);
+    /**
+     * URL the project's ZIP can be fetched from directly, when the {@link ArtifactStore} is
+     * published under one; counts as a download.
+     */
+    public Optional<URI> getProjectZipUrl(String id) {
+        Optional<URI> url = registry.get(id)
+                .filter(project -> project.getEvictedAt() == null)
+                .flatMap(project -> store.getPublicUrl(Paths.get(project.getZipPath()).getFileName().toString()));
+        url.ifPresent(u -> retentionService.recordAccess(id));
+        return url;
+    }
+
+    public Path getProjectZipPath(String id) throws IOException {
+        GeneratedProject project = registry.get(id)
+                .orElseThrow(() -> new IllegalArgumentException("Project not found: " + id));
+        if (project.getEvictedAt() != null) {
+            throw new ProjectEvictedException(id, project.getEvictedAt());
+        }
+        retentionService.recordAccess(id);
+
+        Path zipPath = Paths.get(project.getZipPath());
+        return store.fetch(zipPath.getFileName().toString())
+                .orElseThrow(() -> new IOException("Could not read zip file: " + zipPath));
+    }
+
+    /**
+     * Copies the entries of a stored project ZIP into {@code sink}, to serve it in another format.
+     */
+    public void copyEntries(Path zipPath, ArchiveSink sink) throws IOException {
+        try (ZipFile zip = new ZipFile(zipPath.toFile())) {
+            for (ZipEntry entry : Collections.list(zip.entries())) {
+                if (!entry.isDirectory()) {
+                    try (InputStream in = zip.getInputStream(entry)) {
+                        sink.addEntry(entry.getName(), in.readAllBytes());
                     }
-                });
+                }
+            }
+        }
+    }
+
+    public ArchiveCache.Stats getCacheStats() {
+        return archiveCache.getStats();
+    }
+
+    // Written under a temporary name and published into place later, so a reader never sees a partial blob
+    private Path writePartial(String key, ProjectConfig config, Consumer<ArchiveSink> content,
+                          GenerationProgress.ArchiveProgress archiveProgress) throws IOException {
+        Path partial = store.getDirectory().resolve(ArtifactStore.partialName(key));
+        OutputStream out = Files.newOutputStream(partial);
+        if (archiveProgress != null) {
+            out = new ProgressOutputStream(out, archiveProgress);
+        }
+        try (ArchiveSink sink = metrics.meter(compressor.newSink(ArchiveFormat.ZIP, out), config)) {
+            content.accept(sink);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        return partial;
+    }
+
+    private static final class ProgressOutputStream extends FilterOutputStream {
+        private final GenerationProgress.ArchiveProgress progress;
+        private long written;
+        private boolean closed;
+
+        ProgressOutputStream(OutputStream out, GenerationProgress.ArchiveProgress progress) {
+            super(out);
+            this.progress = progress;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            progress.written(++written, false);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+            written += length;
+            progress.written(written, false);
+        }
+
+        @Override
+        public void close() throws IOException {
+            super.close();
+            if (!closed) {
+                closed = true;
+                progress.written(written, true);
+            }
         }
     }
 }
@@ -0,0 +1,247 @@
+package com.example.code_generator.service;
+
+import com.example.code_generator.model.GeneratedProject;
+import com.example.code_generator.model.GenerationEvent;
+import com.example.code_generator.model.GenerationJob;
+import com.example.code_generator.model.ProjectConfig;
+import com.example.code_generator.service.admission.GenerationAdmission;
+import com.example.code_generator.model.ProjectTemplate;
+import com.example.code_generator.service.archive.ProjectFingerprint;
+import com.example.code_generator.service.coalescing.GenerationCoalescer;
+import com.example.code_generator.service.impl.TemplateProjectGenerator;
+import com.example.code_generator.service.metrics.GenerationMetrics;
+import com.example.code_generator.service.progress.GenerationProgress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs project generation on the dedicated {@code generationExecutor} instead of the request
+ * thread. Every submission is tracked as a {@link GenerationJob} whose status can be polled;
+ * finished jobs are forgotten after {@code generator.jobs.retention}. Before running, each job
+ * is admitted through {@link GenerationAdmission}; while it waits there it stays
+ * {@link GenerationJob.Status#QUEUED}. Each step of a job is also published to
+ * {@link GenerationProgress} for watchers of its event stream.
+ *
+ * <p>Jobs with the same config fingerprint that overlap are coalesced by the
+ * {@link GenerationCoalescer}: only the first is admitted and run, and the others complete
+ * with its project, or its failure, recording the leader in
+ * {@link GenerationJob#getCoalescedWith()}.
+ *
+ * <p>Job records are replaced rather than mutated, so readers always see a consistent snapshot.
+ */
+@Service
+public class GenerationJobService {
+    private static final Logger logger = LoggerFactory.getLogger(GenerationJobService.class);
+
+    private final ProjectGeneratorService projectGeneratorService;
+    private final GeneratedProjectService generatedProjectService;
+    private final GenerationAdmission admission;
+    private final GenerationMetrics metrics;
+    private final GenerationProgress progress;
+    private final TemplateDiscoveryService templateDiscoveryService;
+    private final GenerationCoalescer coalescer;
+    private final Executor executor;
+    private final Duration retention;
+    private final Map<String, GenerationJob> jobs = new ConcurrentHashMap<>();
+    private final Queue<GenerationJob> finished = new ConcurrentLinkedQueue<>();
+
+    public GenerationJobService(
+            ProjectGeneratorService projectGeneratorService,
+            GeneratedProjectService generatedProjectService,
+            GenerationAdmission admission,
+            GenerationMetrics metrics,
+            GenerationProgress progress,
+            TemplateDiscoveryService templateDiscoveryService,
+            GenerationCoalescer coalescer,
+            @Qualifier("generationExecutor") Executor executor,
+            @Value("${generator.jobs.retention:PT1H}") Duration retention) {
+        this.projectGeneratorService = projectGeneratorService;
+        this.generatedProjectService = generatedProjectService;
+        this.admission = admission;
+        this.metrics = metrics;
+        this.progress = progress;
+        this.templateDiscoveryService = templateDiscoveryService;
+        this.coalescer = coalescer;
+        this.executor = executor;
+        this.retention = retention;
+    }
+
+    /**
+     * Queues a generation and returns its job record straight away. Unsupported project types,
+     * invalid input such as a bad schema, and a full admission queue are rejected here rather
+     * than surfacing later as a failed job, and so is a full {@code generationExecutor} when
+     * the job is admitted at once. A job that had to queue for admission and then finds the
+     * executor full fails.
+     * A job coalesced with one already running is not admitted and completes with its result.
+     * The job generates from {@link ProjectFingerprint#normalize the normalised} config.
+     *
+     * @param clientId identifies the caller for fair queueing between clients
+     * @throws RejectedExecutionException if the job was admitted but the executor is saturated
+     */
+    public Submission submit(ProjectConfig request, String clientId) {
+        ProjectConfig config = ProjectFingerprint.normalize(request);
+        projectGeneratorService.getGenerator(config).validate(config);
+
+        long submittedNanos = System.nanoTime();
+        String id = UUID.randomUUID().toString();
+        GenerationCoalescer.Flight flight = coalescer.join(
+                ProjectFingerprint.of(config, generatedProjectService.getGeneratorVersion()), id);
+        boolean leader = flight.getLeaderJobId().equals(id);
+        CompletableFuture<GenerationAdmission.Permit> admitted;
+        try {
+            admitted = leader ? admission.acquire(clientId, config) : null;
+        } catch (RuntimeException e) {
+            coalescer.lead(flight, CompletableFuture.failedFuture(e));
+            throw e;
+        }
+
+        GenerationJob job = GenerationJob.builder()
+                .id(id)
+                .status(GenerationJob.Status.QUEUED)
+                .projectName(config.getProjectName())
+                .submittedAt(LocalDateTime.now())
+                .coalescedWith(leader ? null : flight.getLeaderJobId())
+                .build();
+        jobs.put(id, job);
+        progress.open(id);
+        progress.publish(id, GenerationEvent.builder().type(GenerationEvent.Type.QUEUED));
+
+        CompletableFuture<GeneratedProject> result;
+        if (leader) {
+            CompletableFuture<GeneratedProject> started;
+            try {
+                started = start(id, config, admitted, submittedNanos);
+            } catch (RejectedExecutionException e) {
+                jobs.remove(id);
+                progress.close(id);
+                coalescer.lead(flight, CompletableFuture.failedFuture(e));
+                throw e;
+            }
+            result = coalescer.lead(flight, started);
+        } else {
+            result = coalescer.follow(flight);
+        }
+        result.whenComplete((project, error) -> {
+            if (error == null) {
+                metrics.recordStage(GenerationMetrics.Stage.TOTAL, config, System.nanoTime() - submittedNanos);
+            }
+            complete(id, project, error);
+        });
+        return new Submission(job, result);
+    }
+
+    public Optional<GenerationJob> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    // Launched on the calling thread when admission was immediate, so a rejection reaches submit
+    private CompletableFuture<GeneratedProject> start(String id, ProjectConfig config,
+                                                      CompletableFuture<GenerationAdmission.Permit> admitted,
+                                                      long submittedNanos) {
+        if (admitted.isDone()) {
+            return launch(id, config, admitted.join(), submittedNanos);
+        }
+        return admitted.thenCompose(permit -> launch(id, config, permit, submittedNanos));
+    }
+
+    private CompletableFuture<GeneratedProject> launch(String id, ProjectConfig config,
+                                                       GenerationAdmission.Permit permit, long submittedNanos) {
+        try {
+            return CompletableFuture.supplyAsync(() -> run(id, config, submittedNanos), executor)
+                    .whenComplete((project, error) -> admission.release(permit));
+        } catch (RejectedExecutionException e) {
+            admission.release(permit);
+            throw e;
+        }
+    }
+
+    private GeneratedProject run(String id, ProjectConfig config, long submittedNanos) {
+        metrics.recordStage(GenerationMetrics.Stage.QUEUE, config, System.nanoTime() - submittedNanos);
+        jobs.computeIfPresent(id, (key, job) -> job.toBuilder()
+                .status(GenerationJob.Status.RUNNING)
+                .startedAt(LocalDateTime.now())
+                .queuedMillis(Duration.between(job.getSubmittedAt(), LocalDateTime.now()).toMillis())
+                .build());
+        ProjectGenerator generator = projectGeneratorService.getGenerator(config);
+        progress.publish(id, GenerationEvent.builder()
+                .type(GenerationEvent.Type.RESOLVED)
+                .template(describe(generator, config)));
+        return generatedProjectService.saveProject(
+                config,
+                sink -> generator.generateProject(config, progress.track(id, sink)),
+                progress.archiveProgress(id));
+    }
+
+    private String describe(ProjectGenerator generator, ProjectConfig config) {
+        if (generator instanceof TemplateProjectGenerator) {
+            Optional<ProjectTemplate> template = templateDiscoveryService.findTemplate(
+                    config.getProjectType(), config.getArchitecturePattern());
+            if (template.isPresent()) {
+                return template.get().getTemplateName();
+            }
+        }
+        return generator.getClass().getSimpleName();
+    }
+
+    private void complete(String id, GeneratedProject project, Throwable error) {
+        GenerationJob done = jobs.computeIfPresent(id, (key, job) -> {
+            LocalDateTime now = LocalDateTime.now();
+            GenerationJob.GenerationJobBuilder builder = job.toBuilder()
+                    .finishedAt(now)
+                    .runMillis(job.getStartedAt() == null ? null : Duration.between(job.getStartedAt(), now).toMillis());
+            if (error == null) {
+                builder.status(GenerationJob.Status.SUCCEEDED)
+                        .projectId(project.getId())
+                        .downloadUrl(project.getDownloadUrl());
+            } else {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                String message = cause instanceof RejectedExecutionException
+                        ? "Generation capacity exhausted" : cause.getMessage();
+                logger.warn("Generation job {} failed: {}", id, message);
+                builder.status(GenerationJob.Status.FAILED).error(message);
+            }
+            return builder.build();
+        });
+        if (done != null) {
+            finished.add(done);
+            // Published after the job record is updated, so a watcher that then polls the job sees it finished
+            progress.publish(id, error == null
+                    ? GenerationEvent.builder().type(GenerationEvent.Type.SUCCEEDED).project(project)
+                    : GenerationEvent.builder().type(GenerationEvent.Type.FAILED).error(done.getError()));
+        }
+    }
+
+    /**
+     * Forgets jobs that finished more than {@code generator.jobs.retention} ago, with their
+     * event logs. Runs on a schedule, so records are dropped even when no new jobs arrive.
+     */
+    @Scheduled(fixedDelayString = "${generator.jobs.purge-interval:PT1M}",
+               initialDelayString = "${generator.jobs.purge-interval:PT1M}")
+    public void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        GenerationJob oldest;
+        while ((oldest = finished.peek()) != null && oldest.getFinishedAt().isBefore(cutoff)) {
+            finished.poll();
+            jobs.remove(oldest.getId());
+            progress.close(oldest.getId());
+        }
+    }
+
+    public record Submission(GenerationJob job, CompletableFuture<GeneratedProject> result) {
+    }
+}
@@ -1,10 +1,34 @@
 package com.example.code_generator.service;
 
 import com.example.code_generator.model.ProjectConfig;
+import com.example.code_generator.service.archive.ArchiveSink;
+import com.example.code_generator.service.archive.DirectoryArchiveSink;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.List;
 
 public interface ProjectGenerator {
-    void generateProject(ProjectConfig config, Path outputPath);
+    void generateProject(ProjectConfig config, ArchiveSink sink);
     List<String> getSupportedProjectTypes();
+
+    default boolean supports(ProjectConfig config) {
+        return getSupportedProjectTypes().contains(config.getProjectType());
+    }
+
+    /**
+     * Checks {@code config} without generating anything, so that callers streaming the result
+     * can reject it before the response is committed.
+     *
+     * @throws IllegalArgumentException if generating {@code config} would fail on its input
+     */
+    default void validate(ProjectConfig config) {
+    }
+
+    default void generateProject(ProjectConfig config, Path outputPath) {
+        try (DirectoryArchiveSink sink = new DirectoryArchiveSink(outputPath)) {
+            generateProject(config, sink);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write project to " + outputPath, e);
+        }
+    }
 }
@@ -0,0 +1,85 @@
+package com.example.code_generator.service;
+
+import com.example.code_generator.service.template.TemplateBundle;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Build step that validates the templates under {@code <classes>/templates} and writes them to
+ * {@code <classes>/templates.bundle} for {@link TemplateDiscoveryService} to load at startup.
+ * Run by Maven in the {@code process-classes} phase:
+ * <pre>java TemplateBundleWriter target/classes</pre>
+ *
+ * <p>Templates are read exactly as at runtime, so the bundle yields the same catalogue and
+ * template version as scanning the classpath would. Unlike at runtime, where an invalid
+ * template is only logged and left out, any invalid template fails the build.
+ */
+public final class TemplateBundleWriter {
+    static final String BUNDLE_NAME = "templates.bundle";
+    private static final String TEMPLATES = "templates";
+
+    private TemplateBundleWriter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("Usage: TemplateBundleWriter <classes directory>");
+        }
+        Path classes = Paths.get(args[0]).toAbsolutePath().normalize();
+        Path bundle = classes.resolve(BUNDLE_NAME);
+        List<TemplateBundle.Entry> entries = compile(classes);
+        try (OutputStream out = Files.newOutputStream(bundle)) {
+            TemplateBundle.write(entries, out);
+        }
+        System.out.printf("Wrote %d templates to %s (%d bytes)%n", entries.size(), bundle, Files.size(bundle));
+    }
+
+    /**
+     * Reads every template under {@code <classes>/templates}, keyed by its path relative to
+     * {@code classes} and in key order.
+     *
+     * @throws IllegalStateException listing every invalid template, if there are any
+     */
+    static List<TemplateBundle.Entry> compile(Path classes) throws IOException {
+        Path templates = classes.resolve(TEMPLATES);
+        List<Path> jsons;
+        if (Files.isDirectory(templates)) {
+            try (Stream<Path> paths = Files.walk(templates)) {
+                jsons = paths.filter(path -> path.getFileName().toString().equals(TemplateDiscoveryService.TEMPLATE_JSON))
+                        .sorted()
+                        .toList();
+            }
+        } else {
+            jsons = List.of();
+        }
+
+        // Configured like the application's mapper, which ignores unknown properties
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<TemplateBundle.Entry> entries = new ArrayList<>(jsons.size());
+        List<String> errors = new ArrayList<>();
+        for (Path json : jsons) {
+            String key = classes.relativize(json).toString().replace('\\', '/');
+            String location = "classpath:" + key.substring(0, key.lastIndexOf('/') + 1);
+            try {
+                TemplateDiscoveryService.LoadedTemplate template =
+                        TemplateDiscoveryService.read(objectMapper, new FileSystemResource(json), location);
+                entries.add(new TemplateBundle.Entry(key, template.template(), template.files(), template.digest()));
+            } catch (IOException | IllegalArgumentException e) {
+                errors.add(key + ": " + e.getMessage());
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new IllegalStateException("Invalid templates:\n  " + String.join("\n  ", errors));
+        }
+        return entries;
+    }
+}
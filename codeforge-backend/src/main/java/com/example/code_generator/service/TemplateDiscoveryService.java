@@ -1,95 +1,359 @@
 package com.example.code_generator.service;
 
 import com.example.code_generator.model.ProjectTemplate;
+import com.example.code_generator.service.template.CompiledFile;
+import com.example.code_generator.service.template.TemplateBundle;
+import com.example.code_generator.service.template.TemplateCompiler;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.stereotype.Service;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Loads every {@code template.json} and serves the catalogue from an immutable
+ * {@link TemplateIndex}. Templates come from the classpath, or from {@code generator.templates.dir}
+ * when it is set. Each template is validated on load (its files must exist and compile) and
+ * invalid templates are left out.
+ *
+ * <p>Without a directory, the catalogue is read from the precompiled bundle the build writes
+ * to {@code generator.templates.bundle} (see {@link TemplateBundleWriter}), which skips the
+ * classpath scan, JSON parsing and template compilation. The classpath is scanned only when
+ * the bundle is missing, unreadable or disabled by setting the property to an empty value.
+ *
+ * <p>{@link #reload(Collection)} re-parses only the templates under the changed paths and swaps
+ * in a new index, so readers always see one consistent catalogue and generations already
+ * running keep the snapshot they started with.
+ */
 @Service
 public class TemplateDiscoveryService {
     private static final Logger logger = LoggerFactory.getLogger(TemplateDiscoveryService.class);
+    static final String TEMPLATE_JSON = "template.json";
+    static final String DEFAULT_BUNDLE = "classpath:" + TemplateBundleWriter.BUNDLE_NAME;
+
     private final ObjectMapper objectMapper;
-    private List<ProjectTemplate> templates;
+    private final Path templatesDir;
+    private final String bundle;
+    // Keyed by template.json location, so the index lists templates in a stable order
+    private final SortedMap<String, LoadedTemplate> loaded = new TreeMap<>();
+    // Replaced wholesale on every load, so readers always see one consistent catalogue
+    private volatile TemplateIndex index = TemplateIndex.empty();
 
     public TemplateDiscoveryService(ObjectMapper objectMapper) {
+        this(objectMapper, "");
+    }
+
+    public TemplateDiscoveryService(ObjectMapper objectMapper, String templatesDir) {
+        this(objectMapper, templatesDir, DEFAULT_BUNDLE);
+    }
+
+    /**
+     * @param bundle resource location of the precompiled template bundle, used when
+     *               {@code templatesDir} is blank; blank to always scan the classpath
+     */
+    @Autowired
+    public TemplateDiscoveryService(
+            ObjectMapper objectMapper,
+            @Value("${generator.templates.dir:}") String templatesDir,
+            @Value("${generator.templates.bundle:" + DEFAULT_BUNDLE + "}") String bundle) {
         this.objectMapper = objectMapper;
+        this.templatesDir = templatesDir.isBlank() ? null : Paths.get(templatesDir).toAbsolutePath().normalize();
+        this.bundle = bundle.isBlank() ? null : bundle;
         loadTemplates();
     }
 
-    private void loadTemplates() {
+    /**
+     * Filesystem directory templates are loaded from, if one is configured.
+     */
+    public Optional<Path> getTemplatesDir() {
+        return Optional.ofNullable(templatesDir);
+    }
+
+    private synchronized void loadTemplates() {
+        if (templatesDir == null && bundle != null && loadBundle()) {
+            return;
+        }
         try {
-            PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
-            String pattern = "classpath*:templates/**/template.json";
-            logger.info("Looking for templates with pattern: {}", pattern);
-            
-            Resource[] resources = resolver.getResources(pattern);
+            Resource[] resources = findTemplateResources();
             logger.info("Found {} template resources", resources.length);
-            
-            templates = new ArrayList<>();
             for (Resource resource : resources) {
-                logger.info("Loading template from: {}", resource.getURI());
-                try {
-                    ProjectTemplate template = objectMapper.readValue(resource.getInputStream(), ProjectTemplate.class);
-                    templates.add(template);
-                    logger.info("Successfully loaded template: {}", template.getTemplateName());
-                } catch (IOException e) {
-                    logger.error("Error loading template from {}: {}", resource.getURI(), e.getMessage());
-                }
+                load(resource).ifPresent(template -> loaded.put(key(resource), template));
             }
-            
-            logger.info("Total templates loaded: {}", templates.size());
         } catch (IOException e) {
             logger.error("Error loading templates: {}", e.getMessage());
-            templates = new ArrayList<>();
         }
+        publish();
+        logger.info("Total templates loaded: {}", loaded.size());
+    }
+
+    private boolean loadBundle() {
+        Resource resource = new DefaultResourceLoader().getResource(bundle);
+        if (!resource.exists()) {
+            logger.info("No template bundle at {}; scanning the classpath", bundle);
+            return false;
+        }
+        try (InputStream in = resource.getInputStream()) {
+            for (TemplateBundle.Entry entry : TemplateBundle.read(in)) {
+                loaded.put(entry.key(), new LoadedTemplate(entry.template(), entry.files(), entry.digest()));
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not read template bundle {}: {}; scanning the classpath", bundle, e.getMessage());
+            loaded.clear();
+            return false;
+        }
+        publish();
+        logger.info("Loaded {} templates from bundle {}", loaded.size(), bundle);
+        return true;
+    }
+
+    private Resource[] findTemplateResources() throws IOException {
+        if (templatesDir == null) {
+            String pattern = "classpath*:templates/**/" + TEMPLATE_JSON;
+            logger.info("Looking for templates with pattern: {}", pattern);
+            return new PathMatchingResourcePatternResolver().getResources(pattern);
+        }
+        logger.info("Looking for templates under {}", templatesDir);
+        if (!Files.isDirectory(templatesDir)) {
+            logger.error("Template directory {} does not exist", templatesDir);
+            return new Resource[0];
+        }
+        try (Stream<Path> paths = Files.walk(templatesDir)) {
+            return paths.filter(path -> path.getFileName().toString().equals(TEMPLATE_JSON))
+                    .map(FileSystemResource::new)
+                    .toArray(Resource[]::new);
+        }
+    }
+
+    /**
+     * Re-reads the templates affected by changes to {@code changedPaths} under
+     * {@code generator.templates.dir}: the templates whose directory contains a changed path
+     * and any {@code template.json} at or below one. A template that no longer has a
+     * {@code template.json} is dropped; one that fails validation keeps its previous version.
+     * The new catalogue is published in a single swap.
+     *
+     * @return the number of templates added, replaced or removed
+     */
+    public synchronized int reload(Collection<Path> changedPaths) {
+        if (templatesDir == null) {
+            throw new IllegalStateException("Templates are not loaded from a directory");
+        }
+        Set<Path> affected = new TreeSet<>();
+        for (Path changed : changedPaths) {
+            Path path = changed.toAbsolutePath().normalize();
+            if (!path.startsWith(templatesDir)) {
+                continue;
+            }
+            affected.addAll(templateDirsAbove(path));
+            affected.addAll(templateDirsBelow(path));
+        }
+
+        int changes = 0;
+        for (Path dir : affected) {
+            Path json = dir.resolve(TEMPLATE_JSON);
+            String key = key(json);
+            if (!Files.exists(json)) {
+                if (loaded.remove(key) != null) {
+                    logger.info("Removed template {}", dir);
+                    changes++;
+                }
+                continue;
+            }
+            Optional<LoadedTemplate> template = load(new FileSystemResource(json));
+            if (template.isPresent()) {
+                loaded.put(key, template.get());
+                changes++;
+            } else if (loaded.containsKey(key)) {
+                logger.warn("Keeping the previous version of template {}", dir);
+            }
+        }
+        if (changes > 0) {
+            publish();
+            logger.info("Reloaded {} template(s); version is now {}", changes, index.getVersion());
+        }
+        return changes;
+    }
+
+    // The directories at or above path (within templatesDir) that hold, or used to hold, a template
+    private Set<Path> templateDirsAbove(Path path) {
+        Set<Path> dirs = new HashSet<>();
+        for (Path dir = path; dir != null && dir.startsWith(templatesDir); dir = dir.getParent()) {
+            Path json = dir.resolve(TEMPLATE_JSON);
+            if (Files.exists(json) || loaded.containsKey(key(json))) {
+                dirs.add(dir);
+            }
+        }
+        return dirs;
+    }
+
+    // A directory created, renamed or deleted in one go arrives as a single event for the directory
+    private Set<Path> templateDirsBelow(Path dir) {
+        Set<Path> dirs = new HashSet<>();
+        for (String key : loaded.keySet()) {
+            Path json = Paths.get(key);
+            if (json.startsWith(dir)) {
+                dirs.add(json.getParent());
+            }
+        }
+        if (Files.isDirectory(dir)) {
+            try (Stream<Path> paths = Files.walk(dir)) {
+                paths.filter(path -> path.getFileName().toString().equals(TEMPLATE_JSON))
+                        .forEach(json -> dirs.add(json.getParent()));
+            } catch (IOException e) {
+                logger.warn("Could not scan {}: {}", dir, e.getMessage());
+            }
+        }
+        return dirs;
+    }
+
+    private Optional<LoadedTemplate> load(Resource resource) {
+        String description = resource.getDescription();
+        logger.info("Loading template from: {}", description);
+        try {
+            String url = resource.getURL().toString();
+            LoadedTemplate template = read(objectMapper, resource, url.substring(0, url.lastIndexOf('/') + 1));
+            logger.info("Successfully loaded template: {}", template.template().getTemplateName());
+            return Optional.of(template);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.error("Error loading template from {}: {}", description, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Parses a {@code template.json} and compiles the files it references.
+     *
+     * @throws IllegalArgumentException if the template is invalid
+     */
+    static LoadedTemplate read(ObjectMapper objectMapper, Resource resource, String location) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] json = readBytes(resource);
+        digest.update(json);
+        ProjectTemplate template = objectMapper.readValue(json, ProjectTemplate.class);
+        template.setLocation(location);
+        List<CompiledFile> files = compileFiles(digest, resource, template);
+        return new LoadedTemplate(template, files, digest.digest());
+    }
+
+    // Template bodies are part of the version so editing a .template changes generated-archive fingerprints
+    private static List<CompiledFile> compileFiles(MessageDigest digest, Resource templateJson, ProjectTemplate template)
+            throws IOException {
+        if (template.getFiles() == null) {
+            return List.of();
+        }
+        List<CompiledFile> files = new ArrayList<>(template.getFiles().size());
+        for (ProjectTemplate.TemplateFile file : template.getFiles()) {
+            if (file.getPath() == null || file.getTemplate() == null) {
+                throw new IllegalArgumentException("File entries need both a path and a template");
+            }
+            byte[] body = readBytes(templateJson.createRelative(file.getTemplate()));
+            digest.update(body);
+            try {
+                files.add(new CompiledFile(
+                        TemplateCompiler.compilePath(file.getPath()),
+                        TemplateCompiler.compile(new String(body, StandardCharsets.UTF_8))));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid template " + file.getTemplate() + ": " + e.getMessage(), e);
+            }
+        }
+        return files;
+    }
+
+    private void publish() {
+        MessageDigest digest = newDigest();
+        List<ProjectTemplate> templates = new ArrayList<>(loaded.size());
+        Map<ProjectTemplate, List<CompiledFile>> compiled = new IdentityHashMap<>();
+        for (LoadedTemplate template : loaded.values()) {
+            digest.update(template.digest());
+            templates.add(template.template());
+            compiled.put(template.template(), template.files());
+        }
+        index = TemplateIndex.build(templates, compiled, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    private static String key(Resource resource) {
+        try {
+            return resource.isFile() ? key(resource.getFile().toPath()) : resource.getURL().toString();
+        } catch (IOException e) {
+            return resource.getDescription();
+        }
+    }
+
+    private static String key(Path path) {
+        return path.toAbsolutePath().normalize().toString();
+    }
+
+    private static byte[] readBytes(Resource resource) throws IOException {
+        try (InputStream in = resource.getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * The current catalogue snapshot. Resolve a template and its compiled files from the same
+     * snapshot to be unaffected by concurrent reloads.
+     */
+    public TemplateIndex getIndex() {
+        return index;
     }
 
     public List<String> getProjectTypes() {
-        return templates.stream()
-                .map(ProjectTemplate::getProjectType)
-                .distinct()
-                .collect(Collectors.toList());
+        return index.getProjectTypes();
     }
 
     public List<String> getFrameworks(String projectType) {
-        return templates.stream()
-                .filter(t -> t.getProjectType().equals(projectType))
-                .map(ProjectTemplate::getFramework)
-                .distinct()
-                .collect(Collectors.toList());
+        return index.getFrameworks(projectType);
     }
 
     public List<String> getPlatforms(String projectType) {
-        return templates.stream()
-                .filter(t -> t.getProjectType().equals(projectType))
-                .map(ProjectTemplate::getPlatform)
-                .distinct()
-                .collect(Collectors.toList());
+        return index.getPlatforms(projectType);
     }
 
     public List<String> getArchitectures(String projectType, String platform) {
-        return templates.stream()
-                .filter(t -> t.getProjectType().equals(projectType) && t.getPlatform().equals(platform))
-                .map(ProjectTemplate::getArchitecture)
-                .distinct()
-                .collect(Collectors.toList());
+        return index.getArchitectures(projectType, platform);
     }
 
     public Optional<ProjectTemplate> findTemplate(String projectType, String platform, String architecture) {
-        return templates.stream()
-                .filter(t -> t.getProjectType().equals(projectType) 
-                        && t.getPlatform().equals(platform)
-                        && t.getArchitecture().equals(architecture))
-                .findFirst();
+        return index.findTemplate(projectType, platform, architecture);
+    }
+
+    public Optional<ProjectTemplate> findTemplate(String projectType, String architecture) {
+        return index.findTemplate(projectType, architecture);
     }
 
     public List<ProjectTemplate> getAllTemplates() {
-        return templates;
+        return index.getTemplates();
+    }
+
+    /**
+     * Content hash of every loaded template.json and the template files it references.
+     */
+    public String getTemplateVersion() {
+        return index.getVersion();
+    }
+
+    record LoadedTemplate(ProjectTemplate template, List<CompiledFile> files, byte[] digest) {
     }
 }
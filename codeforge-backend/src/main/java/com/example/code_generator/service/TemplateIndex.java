@@ -0,0 +1,166 @@
+package com.example.code_generator.service;
+
+import com.example.code_generator.model.ProjectTemplate;
+import com.example.code_generator.service.template.CompiledFile;
+import java.util.*;
+
+/**
+ * Immutable lookup structure over a set of {@link ProjectTemplate}s, built once per load:
+ * type &rarr; platform &rarr; architecture &rarr; template. Every catalogue answer is
+ * precomputed as a sorted, de-duplicated, unmodifiable list, so lookups are a couple of
+ * hash probes and allocate nothing. Misses return shared empty values.
+ *
+ * <p>Templates without a project type, platform or architecture cannot be addressed and
+ * are left out of the lookups, though they still appear in {@link #getTemplates()}.
+ *
+ * <p>The index also carries the compiled files of each template, so a caller that resolves
+ * a template and its compiled forms from the same index always sees a matching pair, even
+ * while a reload swaps in a new index.
+ */
+public final class TemplateIndex {
+    private static final Map<String, List<String>> NO_PLATFORMS = Map.of();
+    private static final Map<String, Optional<ProjectTemplate>> NO_TEMPLATES = Map.of();
+
+    private final List<ProjectTemplate> templates;
+    private final Map<ProjectTemplate, List<CompiledFile>> compiledFiles;
+    private final String version;
+    private final List<String> projectTypes;
+    private final Map<String, List<String>> frameworks;
+    private final Map<String, List<String>> platforms;
+    private final Map<String, Map<String, List<String>>> architectures;
+    private final Map<String, Map<String, Map<String, Optional<ProjectTemplate>>>> byPlatform;
+    // Architecture keys compare case-insensitively: clients send "MVVM" for the "mvvm" template
+    private final Map<String, Map<String, Optional<ProjectTemplate>>> byArchitecture;
+
+    private TemplateIndex(List<ProjectTemplate> templates, Map<ProjectTemplate, List<CompiledFile>> compiledFiles,
+                          String version) {
+        this.templates = List.copyOf(templates);
+        // Keyed by identity: ProjectTemplate equality is by value and hashing it walks every field
+        IdentityHashMap<ProjectTemplate, List<CompiledFile>> compiled = new IdentityHashMap<>();
+        compiledFiles.forEach((template, files) -> compiled.put(template, List.copyOf(files)));
+        this.compiledFiles = Collections.unmodifiableMap(compiled);
+        this.version = version;
+
+        SortedSet<String> types = new TreeSet<>();
+        Map<String, SortedSet<String>> frameworkSets = new HashMap<>();
+        Map<String, SortedSet<String>> platformSets = new HashMap<>();
+        Map<String, Map<String, SortedSet<String>>> architectureSets = new HashMap<>();
+        Map<String, Map<String, Map<String, Optional<ProjectTemplate>>>> platformTemplates = new HashMap<>();
+        Map<String, Map<String, Optional<ProjectTemplate>>> architectureTemplates = new HashMap<>();
+
+        for (ProjectTemplate template : this.templates) {
+            String type = template.getProjectType();
+            String platform = template.getPlatform();
+            String architecture = template.getArchitecture();
+            if (type == null || platform == null || architecture == null) {
+                continue;
+            }
+            types.add(type);
+            if (template.getFramework() != null) {
+                frameworkSets.computeIfAbsent(type, k -> new TreeSet<>()).add(template.getFramework());
+            }
+            platformSets.computeIfAbsent(type, k -> new TreeSet<>()).add(platform);
+            architectureSets.computeIfAbsent(type, k -> new HashMap<>())
+                    .computeIfAbsent(platform, k -> new TreeSet<>()).add(architecture);
+            // First template wins, matching the order templates were loaded in
+            platformTemplates.computeIfAbsent(type, k -> new HashMap<>())
+                    .computeIfAbsent(platform, k -> new HashMap<>())
+                    .putIfAbsent(architecture, Optional.of(template));
+            architectureTemplates.computeIfAbsent(type, k -> new TreeMap<>(String.CASE_INSENSITIVE_ORDER))
+                    .putIfAbsent(architecture, Optional.of(template));
+        }
+
+        this.projectTypes = List.copyOf(types);
+        this.frameworks = freezeLists(frameworkSets);
+        this.platforms = freezeLists(platformSets);
+        Map<String, Map<String, List<String>>> frozenArchitectures = new HashMap<>();
+        architectureSets.forEach((type, byPlatformSets) -> frozenArchitectures.put(type, freezeLists(byPlatformSets)));
+        this.architectures = Map.copyOf(frozenArchitectures);
+        Map<String, Map<String, Map<String, Optional<ProjectTemplate>>>> frozenTemplates = new HashMap<>();
+        platformTemplates.forEach((type, byPlatformMap) -> {
+            Map<String, Map<String, Optional<ProjectTemplate>>> frozen = new HashMap<>();
+            byPlatformMap.forEach((platform, byArch) -> frozen.put(platform, Map.copyOf(byArch)));
+            frozenTemplates.put(type, Map.copyOf(frozen));
+        });
+        this.byPlatform = Map.copyOf(frozenTemplates);
+        Map<String, Map<String, Optional<ProjectTemplate>>> frozenByArchitecture = new HashMap<>();
+        architectureTemplates.forEach((type, byArch) -> frozenByArchitecture.put(type, Collections.unmodifiableMap(byArch)));
+        this.byArchitecture = Map.copyOf(frozenByArchitecture);
+    }
+
+    public static TemplateIndex build(List<ProjectTemplate> templates, String version) {
+        return new TemplateIndex(templates, Map.of(), version);
+    }
+
+    public static TemplateIndex build(List<ProjectTemplate> templates,
+                                      Map<ProjectTemplate, List<CompiledFile>> compiledFiles, String version) {
+        return new TemplateIndex(templates, compiledFiles, version);
+    }
+
+    public static TemplateIndex empty() {
+        return new TemplateIndex(List.of(), Map.of(), "");
+    }
+
+    public List<ProjectTemplate> getTemplates() {
+        return templates;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Compiled files of a template from this index, in {@code template.json} order; empty for
+     * templates that were not loaded with their files.
+     */
+    public List<CompiledFile> getCompiledFiles(ProjectTemplate template) {
+        return compiledFiles.getOrDefault(template, List.of());
+    }
+
+    public List<String> getProjectTypes() {
+        return projectTypes;
+    }
+
+    public List<String> getFrameworks(String projectType) {
+        return lookup(frameworks, projectType);
+    }
+
+    public List<String> getPlatforms(String projectType) {
+        return lookup(platforms, projectType);
+    }
+
+    public List<String> getArchitectures(String projectType, String platform) {
+        return lookup(lookup(architectures, projectType, NO_PLATFORMS), platform);
+    }
+
+    public Optional<ProjectTemplate> findTemplate(String projectType, String platform, String architecture) {
+        Map<String, Optional<ProjectTemplate>> byArch = lookup(lookup(byPlatform, projectType, Map.of()), platform, NO_TEMPLATES);
+        return lookup(byArch, architecture, Optional.empty());
+    }
+
+    public Optional<ProjectTemplate> findTemplate(String projectType, String architecture) {
+        if (architecture == null) {
+            return Optional.empty();
+        }
+        return lookup(lookup(byArchitecture, projectType, NO_TEMPLATES), architecture, Optional.empty());
+    }
+
+    private static List<String> lookup(Map<String, List<String>> map, String key) {
+        return lookup(map, key, List.of());
+    }
+
+    // Map.copyOf maps reject null keys on get, so guard before probing
+    private static <V> V lookup(Map<String, V> map, String key, V missing) {
+        if (key == null) {
+            return missing;
+        }
+        V value = map.get(key);
+        return value == null ? missing : value;
+    }
+
+    private static Map<String, List<String>> freezeLists(Map<String, SortedSet<String>> sets) {
+        Map<String, List<String>> frozen = new HashMap<>();
+        sets.forEach((key, values) -> frozen.put(key, List.copyOf(values)));
+        return Map.copyOf(frozen);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.code_generator.service.admission;
+
+/**
+ * Thrown when the generation queue is full. Mapped to {@code 429 Too Many Requests} with a
+ * {@code Retry-After} header.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
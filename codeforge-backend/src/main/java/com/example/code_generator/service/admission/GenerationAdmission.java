@@ -0,0 +1,198 @@
+package com.example.code_generator.service.admission;
+
+import com.example.code_generator.model.ProjectConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admission control for project generation. Running work is capped by a cost budget
+ * ({@code generator.admission.budget}); requests that do not fit wait in per-client FIFO
+ * queues which are served round-robin, so one busy client cannot starve the others. When
+ * the queue is full, {@link #acquire} fails fast with {@link AdmissionRejectedException}.
+ *
+ * <p>Waiting is asynchronous: {@link #acquire} returns a future that completes once the
+ * request is admitted, so no thread is parked while queued. A caller that stops waiting
+ * cancels the future or completes it exceptionally, for instance through
+ * {@link CompletableFuture#orTimeout}, which gives up its place in the queue. Every
+ * {@link Permit} must be handed back through {@link #release}.
+ */
+@Component
+public class GenerationAdmission {
+    private final GenerationCostEstimator costEstimator;
+    private final int budget;
+    private final int maxQueued;
+    private final int maxQueuedPerClient;
+    private final long retryAfterSeconds;
+
+    // Clients with waiting requests, in service order; a served client moves to the back
+    private final LinkedHashMap<String, ArrayDeque<Waiter>> waiting = new LinkedHashMap<>();
+    private int inUse;
+    private int queued;
+    private long admitted;
+    private long rejected;
+    private long waitedCount;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+
+    public GenerationAdmission(
+            GenerationCostEstimator costEstimator,
+            @Value("${generator.admission.budget:64}") int budget,
+            @Value("${generator.admission.max-queued:256}") int maxQueued,
+            @Value("${generator.admission.max-queued-per-client:16}") int maxQueuedPerClient,
+            @Value("${generator.admission.retry-after-seconds:5}") long retryAfterSeconds) {
+        this.costEstimator = costEstimator;
+        this.budget = budget;
+        this.maxQueued = maxQueued;
+        this.maxQueuedPerClient = maxQueuedPerClient;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public CompletableFuture<Permit> acquire(String clientId, ProjectConfig config) {
+        return acquire(clientId, costEstimator.estimate(config));
+    }
+
+    /**
+     * Requests {@code cost} units of the budget for {@code clientId}. Costs above the whole
+     * budget are clamped to it, so an oversized request still runs, just on its own.
+     */
+    public synchronized CompletableFuture<Permit> acquire(String clientId, int cost) {
+        int clamped = Math.max(1, Math.min(cost, budget));
+        if (queued == 0 && inUse + clamped <= budget) {
+            inUse += clamped;
+            admitted++;
+            return CompletableFuture.completedFuture(new Permit(clamped));
+        }
+
+        ArrayDeque<Waiter> clientQueue = waiting.get(clientId);
+        int clientQueued = clientQueue == null ? 0 : clientQueue.size();
+        if (queued >= maxQueued || clientQueued >= maxQueuedPerClient) {
+            rejected++;
+            throw new AdmissionRejectedException("Generation queue is full", retryAfterSeconds);
+        }
+
+        Waiter waiter = new Waiter(clientId, clamped, System.nanoTime(), new CompletableFuture<>());
+        waiting.computeIfAbsent(clientId, key -> new ArrayDeque<>()).add(waiter);
+        queued++;
+        // Admission only ever completes the future normally, so an error means the caller gave up
+        waiter.future.whenComplete((permit, error) -> {
+            if (error != null) {
+                abandon(waiter);
+            }
+        });
+        return waiter.future;
+    }
+
+    public void release(Permit permit) {
+        if (!permit.released.compareAndSet(false, true)) {
+            return;
+        }
+        List<Waiter> ready;
+        synchronized (this) {
+            inUse -= permit.cost;
+            ready = dispatch();
+        }
+        admit(ready);
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public synchronized Stats getStats() {
+        long averageWaitMillis = waitedCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos / waitedCount);
+        return new Stats(budget, inUse, queued, waiting.size(), admitted, rejected, waitedCount,
+                TimeUnit.NANOSECONDS.toMillis(totalWaitNanos), averageWaitMillis,
+                TimeUnit.NANOSECONDS.toMillis(maxWaitNanos));
+    }
+
+    // A waiter given up while still in its queue leaves it; one dispatched meanwhile is handled by admit
+    private void abandon(Waiter waiter) {
+        List<Waiter> ready;
+        synchronized (this) {
+            ArrayDeque<Waiter> clientQueue = waiting.get(waiter.clientId);
+            if (clientQueue == null || !clientQueue.remove(waiter)) {
+                return;
+            }
+            if (clientQueue.isEmpty()) {
+                waiting.remove(waiter.clientId);
+            }
+            queued--;
+            // The head of the line may have been what held the others back
+            ready = dispatch();
+        }
+        admit(ready);
+    }
+
+    // Completed outside the lock: callers chain work onto these futures
+    private void admit(List<Waiter> ready) {
+        for (Waiter waiter : ready) {
+            Permit permit = new Permit(waiter.cost);
+            if (!waiter.future.complete(permit)) {
+                release(permit);
+            }
+        }
+    }
+
+    private List<Waiter> dispatch() {
+        List<Waiter> ready = new ArrayList<>();
+        while (!waiting.isEmpty()) {
+            Iterator<Map.Entry<String, ArrayDeque<Waiter>>> clients = waiting.entrySet().iterator();
+            Map.Entry<String, ArrayDeque<Waiter>> next = clients.next();
+            ArrayDeque<Waiter> clientQueue = next.getValue();
+            // Strict turn order: a large request at the head is not overtaken, so it cannot starve
+            if (inUse + clientQueue.peek().cost > budget) {
+                break;
+            }
+            Waiter waiter = clientQueue.poll();
+            clients.remove();
+            if (!clientQueue.isEmpty()) {
+                waiting.put(next.getKey(), clientQueue);
+            }
+            queued--;
+            inUse += waiter.cost;
+            admitted++;
+            recordWait(System.nanoTime() - waiter.enqueuedAt);
+            ready.add(waiter);
+        }
+        return ready;
+    }
+
+    private void recordWait(long nanos) {
+        waitedCount++;
+        totalWaitNanos += nanos;
+        maxWaitNanos = Math.max(maxWaitNanos, nanos);
+    }
+
+    public static final class Permit {
+        private final int cost;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(int cost) {
+            this.cost = cost;
+        }
+
+        public int getCost() {
+            return cost;
+        }
+    }
+
+    /**
+     * @param waited          admitted requests that had to queue
+     * @param totalWaitMillis time those requests spent queued
+     */
+    public record Stats(int budget, int inUse, int queued, int waitingClients, long admitted, long rejected,
+                        long waited, long totalWaitMillis, long averageWaitMillis, long maxWaitMillis) {
+    }
+
+    private record Waiter(String clientId, int cost, long enqueuedAt, CompletableFuture<Permit> future) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.code_generator.service.admission;
+
+import com.example.code_generator.model.ProjectConfig;
+import com.example.code_generator.model.ProjectTemplate;
+import com.example.code_generator.service.TemplateDiscoveryService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Estimates the relative cost of a generation request: one unit per file to render, one per
+ * selected dependency and one per KiB of schema, about what a few generated entities take.
+ * Configs served by the hard-coded generators, which have no template, are charged
+ * {@code generator.admission.default-file-count} files.
+ */
+@Component
+public class GenerationCostEstimator {
+    private final TemplateDiscoveryService templateDiscoveryService;
+    private final int defaultFileCount;
+
+    public GenerationCostEstimator(
+            TemplateDiscoveryService templateDiscoveryService,
+            @Value("${generator.admission.default-file-count:4}") int defaultFileCount) {
+        this.templateDiscoveryService = templateDiscoveryService;
+        this.defaultFileCount = defaultFileCount;
+    }
+
+    public int estimate(ProjectConfig config) {
+        int files = templateDiscoveryService.findTemplate(config.getProjectType(), config.getArchitecturePattern())
+                .map(ProjectTemplate::getFiles)
+                .map(list -> list.size())
+                .orElse(defaultFileCount);
+        int dependencies = config.getDependencies() == null ? 0 : config.getDependencies().size();
+        int schema = config.getSchema() == null ? 0 : (config.getSchema().length() + 1023) / 1024;
+        return 1 + files + dependencies + schema;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.code_generator.service.archive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index of generated archives keyed by {@link ProjectFingerprint}. A hit lets a new project
+ * reuse an existing ZIP instead of regenerating it. Entries are kept in LRU order and the
+ * index is bounded by the total size of the archives it refers to.
+ *
+ * <p>Evicting an entry only forgets it for reuse; the ZIP itself stays on disk for the
+ * projects that already point at it.
+ */
+@Component
+public class ArchiveCache {
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveCache.class);
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final ReadWriteLock blobLock = new ReentrantReadWriteLock();
+    private final Set<String> retiring = new HashSet<>();
+    private long totalBytes;
+
+    public ArchiveCache(@Value("${generator.cache.max-bytes:536870912}") long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public Optional<Path> lookup(String fingerprint) {
+        Path blob;
+        synchronized (this) {
+            Entry entry = entries.get(fingerprint);
+            blob = entry == null ? null : entry.path();
+        }
+        if (blob != null && Files.isReadable(blob)) {
+            hits.incrementAndGet();
+            return Optional.of(blob);
+        }
+        if (blob != null) {
+            invalidate(fingerprint);
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    /** Whether an archive is cached for {@code fingerprint}, without counting a hit or miss. */
+    public synchronized boolean contains(String fingerprint) {
+        return entries.containsKey(fingerprint);
+    }
+
+    public synchronized void put(String fingerprint, Path blob, long size) {
+        if (size > maxBytes) {
+            return;
+        }
+        Entry previous = entries.put(fingerprint, new Entry(blob, size));
+        if (previous != null) {
+            totalBytes -= previous.size();
+        }
+        totalBytes += size;
+
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Entry> evicted = eldest.next();
+            totalBytes -= evicted.getValue().size();
+            eldest.remove();
+            logger.debug("Evicted archive {} from cache", evicted.getKey());
+        }
+    }
+
+    public synchronized void invalidate(String fingerprint) {
+        Entry removed = entries.remove(fingerprint);
+        if (removed != null) {
+            totalBytes -= removed.size();
+        }
+    }
+
+    /**
+     * Forgets {@code fingerprints} and marks the store {@code key} as being deleted, so no
+     * archive is published under it until {@link #retired} is called. Called with the blob
+     * write lock held.
+     */
+    public synchronized void retire(String key, Collection<String> fingerprints) {
+        fingerprints.forEach(this::invalidate);
+        retiring.add(key);
+    }
+
+    public synchronized boolean isRetiring(String key) {
+        return retiring.contains(key);
+    }
+
+    /** The archive under {@code key} has been deleted (or kept); it may be published again. */
+    public synchronized void retired(String key) {
+        if (retiring.remove(key)) {
+            notifyAll();
+        }
+    }
+
+    /** Waits until the archive under {@code key} is no longer being deleted. */
+    public synchronized void awaitRetired(String key) throws InterruptedIOException {
+        try {
+            while (retiring.contains(key)) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for archive " + key + " to be deleted");
+        }
+    }
+
+    /**
+     * Held shared while a project is being bound to a blob (looked up or published, then
+     * registered) and exclusively while retention unbinds one archive, so a new project can
+     * never end up pointing at an archive that is being removed. The archive itself is deleted
+     * after the lock is released, with its key marked {@link #retire retiring}. Downloads do
+     * not take this lock.
+     */
+    public ReadWriteLock getBlobLock() {
+        return blobLock;
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(hits.get(), misses.get(), entries.size(), totalBytes, maxBytes);
+    }
+
+    public record Stats(long hits, long misses, int entries, long bytes, long maxBytes) {
+    }
+
+    private record Entry(Path path, long size) {
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.code_generator.service.archive;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses archive content on the {@code archiveCompressionPool}, so a single archive is
+ * compressed on several cores while the thread writing it only assembles the results in order.
+ *
+ * <p>Each ZIP entry is deflated as its own task. Entries larger than
+ * {@code generator.archive.compression.block-size} are split into blocks that are deflated
+ * concurrently, each primed with the last 32 KiB of the block before it and ended with a sync
+ * flush, and then concatenated into one DEFLATE stream, as pigz does. The same blocks make up
+ * the GZIP stream of a {@code tar.gz}. Files whose type is already compressed (images, jars,
+ * nested archives, fonts, media) are stored as-is, and so is anything DEFLATE cannot shrink.
+ *
+ * <p>{@code generator.archive.compression.level} (0-9) applies to ZIP entries and GZIP, where 0
+ * stores everything; {@code generator.archive.zstd.level} applies to {@code tar.zst}, which
+ * libzstd compresses with its own worker threads. Entries are only taken from the
+ * {@link DeflatedEntryCache} when they fit it, and the cache assumes one level per process.
+ */
+@Component
+public class ArchiveCompressor {
+    public static final int DEFAULT_LEVEL = 6;
+    public static final int DEFAULT_ZSTD_LEVEL = 3;
+    public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+    static final int WINDOW = 32 * 1024;
+    private static final int MIN_BLOCK_SIZE = 4 * 1024;
+    private static final int STREAM_BUFFER = 64 * 1024;
+    private static final Set<String> COMPRESSED_EXTENSIONS = Set.of(
+            "png", "jpg", "jpeg", "gif", "webp", "avif",
+            "jar", "aar", "apk", "war", "zip", "gz", "tgz", "zst", "xz", "bz2", "7z",
+            "woff", "woff2", "mp3", "mp4", "m4a", "ogg", "webm");
+
+    private final Executor executor;
+    private final int parallelism;
+    private final int level;
+    private final int blockSize;
+    private final int zstdLevel;
+    private final DeflatedEntryCache cache;
+    private final Queue<Deflater> idleDeflaters = new ConcurrentLinkedQueue<>();
+
+    @Autowired
+    public ArchiveCompressor(
+            @Qualifier("archiveCompressionPool") ForkJoinPool pool,
+            @Value("${generator.archive.compression.level:6}") int level,
+            @Value("${generator.archive.compression.block-size:131072}") int blockSize,
+            @Value("${generator.archive.zstd.level:3}") int zstdLevel,
+            DeflatedEntryCache cache) {
+        this(pool, pool.getParallelism(), level, blockSize, zstdLevel, cache);
+    }
+
+    /**
+     * @param parallelism number of threads behind {@code executor}, used to bound the work
+     *                    queued per archive and as the number of zstd workers
+     * @param cache       shared compressed entries, or {@code null} to compress every entry
+     */
+    public ArchiveCompressor(Executor executor, int parallelism, int level, int blockSize, int zstdLevel,
+                             DeflatedEntryCache cache) {
+        if (level < 0 || level > 9) {
+            throw new IllegalArgumentException("Compression level must be between 0 and 9: " + level);
+        }
+        this.executor = executor;
+        this.parallelism = Math.max(1, parallelism);
+        this.level = level;
+        this.blockSize = Math.max(MIN_BLOCK_SIZE, blockSize);
+        this.zstdLevel = zstdLevel;
+        this.cache = cache;
+    }
+
+    /**
+     * Compresses on the calling thread with the default settings and no cache.
+     */
+    public static ArchiveCompressor direct() {
+        return new ArchiveCompressor(Runnable::run, 1, DEFAULT_LEVEL, DEFAULT_BLOCK_SIZE, DEFAULT_ZSTD_LEVEL, null);
+    }
+
+    /**
+     * Opens a sink that writes an archive in {@code format} to {@code out}, closing it when the
+     * sink is closed.
+     */
+    public ArchiveSink newSink(ArchiveFormat format, OutputStream out) throws IOException {
+        return switch (format) {
+            case ZIP -> new ZipArchiveSink(out, this);
+            case TAR_GZ -> new TarArchiveSink(new ParallelGzipOutputStream(out, this));
+            case TAR_ZST -> {
+                ZstdOutputStream zstd = new ZstdOutputStream(out, zstdLevel);
+                if (parallelism > 1) {
+                    zstd.setWorkers(parallelism);
+                }
+                yield new TarArchiveSink(new BufferedOutputStream(zstd, STREAM_BUFFER));
+            }
+        };
+    }
+
+    /**
+     * Compresses one ZIP entry. {@code content} must not change until the result completes.
+     */
+    public CompletableFuture<DeflatedEntry> compress(String path, byte[] content) {
+        if (level == 0 || isCompressed(path)) {
+            return CompletableFuture.supplyAsync(() -> DeflatedEntry.stored(content, DeflatedEntry.crc(content)), executor);
+        }
+        if (cache != null && cache.isCacheable(content.length)) {
+            return CompletableFuture.supplyAsync(() -> withDeflater(deflater -> cache.deflate(content, deflater)), executor);
+        }
+        if (content.length <= blockSize) {
+            return CompletableFuture.supplyAsync(() -> withDeflater(
+                    deflater -> DeflatedEntry.deflate(content, DeflatedEntry.crc(content), deflater)), executor);
+        }
+        List<CompletableFuture<byte[]>> blocks = new ArrayList<>(content.length / blockSize + 1);
+        for (int offset = 0; offset < content.length; offset += blockSize) {
+            int length = Math.min(blockSize, content.length - offset);
+            blocks.add(deflateBlock(content, offset, length, offset + length == content.length));
+        }
+        CompletableFuture<Integer> crc = CompletableFuture.supplyAsync(() -> DeflatedEntry.crc(content), executor);
+        return CompletableFuture.allOf(blocks.toArray(CompletableFuture[]::new))
+                .thenCombine(crc, (done, value) -> DeflatedEntry.of(content, value, concat(blocks)));
+    }
+
+    /**
+     * Deflates {@code length} bytes of {@code data} from {@code offset} as a piece of a larger
+     * DEFLATE stream, using up to 32 KiB before {@code offset} as the dictionary. Pieces end on
+     * a byte boundary, and only the {@code last} one closes the stream, so they can be
+     * concatenated in order.
+     */
+    CompletableFuture<byte[]> deflateBlock(byte[] data, int offset, int length, boolean last) {
+        return CompletableFuture.supplyAsync(
+                () -> withDeflater(deflater -> deflateBlock(deflater, data, offset, length, last)), executor);
+    }
+
+    int getBlockSize() {
+        return blockSize;
+    }
+
+    int getParallelism() {
+        return parallelism;
+    }
+
+    @PreDestroy
+    public void close() {
+        Deflater deflater;
+        while ((deflater = idleDeflaters.poll()) != null) {
+            deflater.end();
+        }
+    }
+
+    private static byte[] deflateBlock(Deflater deflater, byte[] data, int offset, int length, boolean last) {
+        deflater.reset();
+        int window = Math.min(offset, WINDOW);
+        if (window > 0) {
+            deflater.setDictionary(data, offset - window, window);
+        }
+        deflater.setInput(data, offset, length);
+        if (last) {
+            deflater.finish();
+        }
+        byte[] buffer = new byte[length / 2 + 64];
+        int written = 0;
+        while (true) {
+            if (written == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            written += deflater.deflate(buffer, written, buffer.length - written,
+                    last ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH);
+            // A sync flush is complete once it leaves output space unused
+            if (last ? deflater.finished() : written < buffer.length) {
+                return Arrays.copyOf(buffer, written);
+            }
+        }
+    }
+
+    private <T> T withDeflater(Function<Deflater, T> task) {
+        Deflater deflater = idleDeflaters.poll();
+        if (deflater == null) {
+            deflater = new Deflater(level, true);
+        }
+        try {
+            return task.apply(deflater);
+        } finally {
+            idleDeflaters.offer(deflater);
+        }
+    }
+
+    private static byte[] concat(List<CompletableFuture<byte[]>> blocks) {
+        int length = 0;
+        for (CompletableFuture<byte[]> block : blocks) {
+            length += block.join().length;
+        }
+        byte[] result = new byte[length];
+        int offset = 0;
+        for (CompletableFuture<byte[]> block : blocks) {
+            byte[] bytes = block.join();
+            System.arraycopy(bytes, 0, result, offset, bytes.length);
+            offset += bytes.length;
+        }
+        return result;
+    }
+
+    static boolean isCompressed(String path) {
+        int dot = path.lastIndexOf('.');
+        return dot > path.lastIndexOf('/') && COMPRESSED_EXTENSIONS.contains(path.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.code_generator.service.archive;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Container formats a project can be downloaded in. Stored archives are always ZIPs; the tar
+ * formats are produced while streaming.
+ */
+public enum ArchiveFormat {
+    ZIP("zip", "application/zip", "application/octet-stream", "application/x-zip-compressed"),
+    TAR_GZ("tar.gz", "application/gzip", "application/x-gzip", "application/x-gtar"),
+    TAR_ZST("tar.zst", "application/zstd", "application/x-zstd");
+
+    private final String extension;
+    private final List<MediaType> mediaTypes;
+
+    ArchiveFormat(String extension, String... mediaTypes) {
+        this.extension = extension;
+        this.mediaTypes = MediaType.parseMediaTypes(List.of(mediaTypes));
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaTypes.get(0);
+    }
+
+    /**
+     * The format named by {@code format} (an extension such as {@code tar.gz}, or {@code tgz}),
+     * otherwise the most preferred one in {@code accept}. ZIP when neither asks for anything
+     * else, so clients that send no or a generic {@code Accept} keep getting ZIPs.
+     *
+     * @throws IllegalArgumentException if {@code format} is not a supported format
+     */
+    public static ArchiveFormat fromRequest(String format, String accept) {
+        if (format != null && !format.isBlank()) {
+            String name = format.strip().toLowerCase(Locale.ROOT);
+            for (ArchiveFormat candidate : values()) {
+                if (candidate.extension.equals(name) || candidate.name().equalsIgnoreCase(name)) {
+                    return candidate;
+                }
+            }
+            if (name.equals("tgz")) {
+                return TAR_GZ;
+            }
+            throw new IllegalArgumentException("Unsupported archive format: " + format);
+        }
+        if (accept == null || accept.isBlank()) {
+            return ZIP;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return ZIP;
+        }
+        // Stable, so equally preferred types keep the client's order
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0) {
+                break;
+            }
+            for (ArchiveFormat candidate : values()) {
+                if (candidate.mediaTypes.stream().anyMatch(type::includes)) {
+                    return candidate;
+                }
+            }
+        }
+        return ZIP;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.code_generator.service.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Destination for the files produced by a {@link com.example.code_generator.service.ProjectGenerator}.
+ * Entries are written in the order they are added; paths use forward slashes and are
+ * relative to the project root.
+ */
+public interface ArchiveSink extends Closeable {
+
+    void addEntry(String path, byte[] content) throws IOException;
+
+    default void addEntry(String path, String content) throws IOException {
+        addEntry(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.code_generator.service.archive;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Holds generated entries in memory so a project can be built off the thread that owns the
+ * real archive and copied into it later, possibly more than once and under a folder prefix.
+ */
+public class BufferedArchiveSink implements ArchiveSink {
+    private final List<Entry> entries = new ArrayList<>();
+
+    @Override
+    public void addEntry(String path, byte[] content) {
+        entries.add(new Entry(path, content));
+    }
+
+    /**
+     * Copies every entry into {@code target} in the order it was added, with {@code prefix}
+     * prepended to each path.
+     */
+    public void copyTo(ArchiveSink target, String prefix) throws IOException {
+        for (Entry entry : entries) {
+            target.addEntry(prefix + entry.path(), entry.content());
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private record Entry(String path, byte[] content) {
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.code_generator.service.archive;
+
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * The pieces of a ZIP entry that depend only on its content: the CRC-32, the uncompressed
+ * size and the entry data, which is either a raw DEFLATE stream or, when {@code stored}, the
+ * content itself. A {@link ZipArchiveSink} can copy one into an archive without compressing
+ * the content again.
+ */
+public record DeflatedEntry(int crc, int size, byte[] deflated, boolean stored) {
+
+    public DeflatedEntry(int crc, int size, byte[] deflated) {
+        this(crc, size, deflated, false);
+    }
+
+    /**
+     * Compresses {@code content} with {@code deflater}, which is reset first and may be reused.
+     * Content that DEFLATE cannot shrink is stored instead.
+     */
+    public static DeflatedEntry deflate(byte[] content, int crc, Deflater deflater) {
+        deflater.reset();
+        deflater.setInput(content);
+        deflater.finish();
+        byte[] buffer = new byte[Math.max(64, content.length / 2 + 64)];
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            length += deflater.deflate(buffer, length, buffer.length - length);
+        }
+        return of(content, crc, Arrays.copyOf(buffer, length));
+    }
+
+    /**
+     * An entry whose DEFLATE stream was produced elsewhere, stored instead when that stream is
+     * not smaller than the content.
+     */
+    static DeflatedEntry of(byte[] content, int crc, byte[] deflated) {
+        return deflated.length < content.length
+                ? new DeflatedEntry(crc, content.length, deflated)
+                : stored(content, crc);
+    }
+
+    public static DeflatedEntry stored(byte[] content, int crc) {
+        return new DeflatedEntry(crc, content.length, content, true);
+    }
+
+    public static int crc(byte[] content) {
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        return (int) crc.getValue();
+    }
+}
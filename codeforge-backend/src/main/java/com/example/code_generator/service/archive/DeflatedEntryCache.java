@@ -0,0 +1,108 @@
+package com.example.code_generator.service.archive;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+
+/**
+ * Shares compressed ZIP entries between archives. Many generated files are identical across
+ * projects (layouts, boilerplate classes, static assets) or take only a handful of distinct
+ * values, so their DEFLATE output is cached by content and spliced into later archives as-is.
+ *
+ * <p>Content is only cached the second time it is seen: the first sighting records a small
+ * key in a doorkeeper set. Entries that differ per project, such as ones containing the
+ * package name, therefore never displace the invariant ones. Both maps are LRU, and the cache
+ * is bounded by {@code generator.zip.entry-cache.max-bytes} of raw plus compressed content.
+ */
+@Component
+public class DeflatedEntryCache {
+    private static final int DOORKEEPER_SIZE = 16 * 1024;
+
+    private final long maxBytes;
+    private final int maxEntryBytes;
+    private final LinkedHashMap<Key, Cached> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final LinkedHashMap<Key, Boolean> seen = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Boolean> eldest) {
+            return size() > DOORKEEPER_SIZE;
+        }
+    };
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private long totalBytes;
+
+    public DeflatedEntryCache(
+            @Value("${generator.zip.entry-cache.max-bytes:33554432}") long maxBytes,
+            @Value("${generator.zip.entry-cache.max-entry-bytes:262144}") int maxEntryBytes) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    /**
+     * Returns the compressed form of {@code content}, from the cache when the same bytes were
+     * compressed before, otherwise by compressing them with {@code deflater}.
+     */
+    public DeflatedEntry deflate(byte[] content, Deflater deflater) {
+        int crc = DeflatedEntry.crc(content);
+        if (content.length > maxEntryBytes) {
+            misses.incrementAndGet();
+            return DeflatedEntry.deflate(content, crc, deflater);
+        }
+        Key key = new Key(crc, content.length);
+        boolean admit;
+        synchronized (this) {
+            Cached cached = entries.get(key);
+            if (cached != null && Arrays.equals(cached.content(), content)) {
+                hits.incrementAndGet();
+                return cached.entry();
+            }
+            admit = cached == null && seen.put(key, Boolean.TRUE) != null;
+        }
+        misses.incrementAndGet();
+        DeflatedEntry entry = DeflatedEntry.deflate(content, crc, deflater);
+        if (admit) {
+            byte[] copy = content.clone();
+            store(key, new Cached(copy, entry.stored() ? DeflatedEntry.stored(copy, crc) : entry));
+        }
+        return entry;
+    }
+
+    /** Whether content of this length is ever served from the cache. */
+    public boolean isCacheable(int length) {
+        return length <= maxEntryBytes;
+    }
+
+    private synchronized void store(Key key, Cached cached) {
+        if (entries.putIfAbsent(key, cached) != null) {
+            return;
+        }
+        seen.remove(key);
+        totalBytes += cached.bytes();
+        var eldest = entries.values().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().bytes();
+            eldest.remove();
+        }
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(hits.get(), misses.get(), entries.size(), totalBytes, maxBytes);
+    }
+
+    public record Stats(long hits, long misses, int entries, long bytes, long maxBytes) {
+    }
+
+    private record Key(int crc, int length) {
+    }
+
+    private record Cached(byte[] content, DeflatedEntry entry) {
+
+        long bytes() {
+            return entry.stored() ? content.length : content.length + entry.deflated().length;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.code_generator.service.archive;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes generated entries as plain files below a root directory.
+ */
+public class DirectoryArchiveSink implements ArchiveSink {
+    private final Path root;
+
+    public DirectoryArchiveSink(Path root) throws IOException {
+        this.root = root;
+        Files.createDirectories(root);
+    }
+
+    @Override
+    public void addEntry(String path, byte[] content) throws IOException {
+        Path target = root.resolve(path).normalize();
+        if (!target.startsWith(root.normalize())) {
+            throw new IOException("Entry escapes output directory: " + path);
+        }
+        Files.createDirectories(target.getParent());
+        Files.write(target, content);
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.code_generator.service.archive;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.CRC32;
+
+/**
+ * A single-member GZIP stream whose DEFLATE data is compressed block by block on the
+ * {@link ArchiveCompressor}'s pool. Blocks are written in order as they complete; at most a few
+ * per pool thread are in flight, so memory stays bounded however much is written.
+ */
+class ParallelGzipOutputStream extends OutputStream {
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final OutputStream out;
+    private final ArchiveCompressor compressor;
+    private final int blockSize;
+    private final int maxPending;
+    private final Deque<CompletableFuture<byte[]>> pending = new ArrayDeque<>();
+    private final CRC32 crc = new CRC32();
+    private long size;
+    // The current block starts with up to 32 KiB of the previous one as its dictionary
+    private byte[] block;
+    private int dictionary;
+    private int length;
+    private boolean closed;
+
+    ParallelGzipOutputStream(OutputStream out, ArchiveCompressor compressor) throws IOException {
+        this.out = out;
+        this.compressor = compressor;
+        this.blockSize = compressor.getBlockSize();
+        this.maxPending = 2 * compressor.getParallelism();
+        this.block = new byte[blockSize];
+        out.write(HEADER);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int count) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        crc.update(bytes, offset, count);
+        size += count;
+        while (count > 0) {
+            int chunk = Math.min(count, block.length - dictionary - length);
+            System.arraycopy(bytes, offset, block, dictionary + length, chunk);
+            length += chunk;
+            offset += chunk;
+            count -= chunk;
+            if (dictionary + length == block.length) {
+                submit(false);
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            submit(true);
+            while (!pending.isEmpty()) {
+                writeNext();
+            }
+            byte[] trailer = new byte[8];
+            writeInt(trailer, 0, (int) crc.getValue());
+            writeInt(trailer, 4, (int) size);
+            out.write(trailer);
+        } finally {
+            out.close();
+        }
+    }
+
+    private void submit(boolean last) throws IOException {
+        pending.add(compressor.deflateBlock(block, dictionary, length, last));
+        if (!last) {
+            int window = Math.min(ArchiveCompressor.WINDOW, dictionary + length);
+            byte[] next = new byte[window + blockSize];
+            System.arraycopy(block, dictionary + length - window, next, 0, window);
+            block = next;
+            dictionary = window;
+            length = 0;
+        }
+        while (!pending.isEmpty() && (pending.peek().isDone() || pending.size() > maxPending)) {
+            writeNext();
+        }
+    }
+
+    private void writeNext() throws IOException {
+        out.write(ZipArchiveSink.await(pending.poll()));
+    }
+
+    private static void writeInt(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >>> 8);
+        buffer[offset + 2] = (byte) (value >>> 16);
+        buffer[offset + 3] = (byte) (value >>> 24);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.code_generator.service.archive;
+
+import com.example.code_generator.model.ProjectConfig;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Canonical SHA-256 fingerprint of the parts of a {@link ProjectConfig} that affect the
+ * generated archive, combined with the version of the generator's inputs: the template
+ * catalogue and the dependency catalogue. Two configs with the same fingerprint produce
+ * byte-for-byte interchangeable projects.
+ *
+ * <p>Values are hashed exactly as given, except that the architecture is case-insensitive
+ * (template lookup ignores its case) and dependencies are compared as a set. Callers pass
+ * configs through {@link #normalize} first, and generate from the normalised copy, so that
+ * padding or blank values neither split the cache nor make equal fingerprints render
+ * different archives. Every field is length-prefixed so adjacent values cannot run together.
+ */
+public final class ProjectFingerprint {
+
+    private ProjectFingerprint() {
+    }
+
+    /**
+     * Returns a copy of {@code config} with every string stripped and blank values
+     * {@code null}, and with dependencies stripped, de-duplicated and sorted. Catalogue names
+     * are lower-cased as the dependency resolver does; Maven coordinates keep their case.
+     */
+    public static ProjectConfig normalize(ProjectConfig config) {
+        ProjectConfig normalized = new ProjectConfig();
+        normalized.setProjectType(strip(config.getProjectType()));
+        normalized.setProjectName(strip(config.getProjectName()));
+        normalized.setProjectDescription(strip(config.getProjectDescription()));
+        normalized.setAuthor(strip(config.getAuthor()));
+        normalized.setVersion(strip(config.getVersion()));
+        normalized.setBuildTool(strip(config.getBuildTool()));
+        normalized.setLanguage(strip(config.getLanguage()));
+        normalized.setFramework(strip(config.getFramework()));
+        normalized.setPackageName(strip(config.getPackageName()));
+        normalized.setArchitecturePattern(strip(config.getArchitecturePattern()));
+        normalized.setSchema(strip(config.getSchema()));
+        if (config.getDependencies() != null) {
+            TreeSet<String> dependencies = new TreeSet<>();
+            for (String dependency : config.getDependencies()) {
+                String value = strip(dependency);
+                if (value != null) {
+                    dependencies.add(value.indexOf(':') < 0 ? value.toLowerCase(Locale.ROOT) : value);
+                }
+            }
+            normalized.setDependencies(new ArrayList<>(dependencies));
+        }
+        return normalized;
+    }
+
+    public static String of(ProjectConfig config, String generatorVersion) {
+        StringBuilder canonical = new StringBuilder(256);
+        append(canonical, generatorVersion);
+        append(canonical, config.getProjectType());
+        append(canonical, config.getProjectName());
+        append(canonical, config.getProjectDescription());
+        append(canonical, config.getAuthor());
+        append(canonical, config.getVersion());
+        append(canonical, config.getBuildTool());
+        append(canonical, config.getLanguage());
+        append(canonical, config.getFramework());
+        append(canonical, config.getPackageName());
+        String architecture = config.getArchitecturePattern();
+        append(canonical, architecture == null ? null : architecture.toLowerCase(Locale.ROOT));
+        append(canonical, config.getSchema());
+        TreeSet<String> dependencies = new TreeSet<>();
+        if (config.getDependencies() != null) {
+            config.getDependencies().stream().filter(Objects::nonNull).forEach(dependencies::add);
+        }
+        for (String dependency : dependencies) {
+            append(canonical, dependency);
+        }
+        return sha256(canonical.toString());
+    }
+
+    private static String strip(String value) {
+        return value == null || value.isBlank() ? null : value.strip();
+    }
+
+    // null is marked apart from the empty string, which generators may render differently
+    private static void append(StringBuilder canonical, String value) {
+        if (value == null) {
+            canonical.append("-\n");
+        } else {
+            canonical.append(value.length()).append(':').append(value).append('\n');
+        }
+    }
+
+    static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.code_generator.service.archive;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Writes entries as a POSIX tar stream into {@code out}, which does any compression (see
+ * {@link ArchiveCompressor#newSink}). Paths that do not fit the ustar name and prefix fields
+ * are carried in a PAX extended header, which every current tar implementation reads.
+ */
+public class TarArchiveSink implements ArchiveSink {
+    private static final int BLOCK = 512;
+    private static final int NAME_LENGTH = 100;
+    private static final int PREFIX_LENGTH = 155;
+    private static final byte TYPE_FILE = '0';
+    private static final byte TYPE_PAX = 'x';
+
+    private final OutputStream out;
+    private final Set<String> entryNames = new HashSet<>();
+    private final long modified = System.currentTimeMillis() / 1000;
+    private boolean closed;
+
+    public TarArchiveSink(OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void addEntry(String path, byte[] content) throws IOException {
+        if (!entryNames.add(path)) {
+            throw new IOException("Duplicate archive entry: " + path);
+        }
+        byte[] name = path.getBytes(StandardCharsets.UTF_8);
+        int split = split(name);
+        if (split < -1) {
+            byte[] record = paxRecord("path", path);
+            writeEntry(header(ascii("PaxHeaders/entry"), null, record.length, TYPE_PAX), record);
+            writeEntry(header(truncate(name), null, content.length, TYPE_FILE), content);
+        } else if (split == -1) {
+            writeEntry(header(name, null, content.length, TYPE_FILE), content);
+        } else {
+            byte[] prefix = Arrays.copyOfRange(name, 0, split);
+            byte[] rest = Arrays.copyOfRange(name, split + 1, name.length);
+            writeEntry(header(rest, prefix, content.length, TYPE_FILE), content);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            out.write(new byte[2 * BLOCK]);
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeEntry(byte[] header, byte[] content) throws IOException {
+        out.write(header);
+        out.write(content);
+        int padding = (BLOCK - content.length % BLOCK) % BLOCK;
+        if (padding > 0) {
+            out.write(new byte[padding]);
+        }
+    }
+
+    private byte[] header(byte[] name, byte[] prefix, long size, byte type) {
+        byte[] header = new byte[BLOCK];
+        System.arraycopy(name, 0, header, 0, name.length);
+        octal(header, 100, 8, 0644);
+        octal(header, 108, 8, 0);
+        octal(header, 116, 8, 0);
+        octal(header, 124, 12, size);
+        octal(header, 136, 12, modified);
+        header[156] = type;
+        System.arraycopy(ascii("ustar\0" + "00"), 0, header, 257, 8);
+        if (prefix != null) {
+            System.arraycopy(prefix, 0, header, 345, prefix.length);
+        }
+        // The checksum is taken with its own field set to spaces
+        for (int i = 148; i < 156; i++) {
+            header[i] = ' ';
+        }
+        int checksum = 0;
+        for (byte b : header) {
+            checksum += b & 0xFF;
+        }
+        octal(header, 148, 7, checksum);
+        return header;
+    }
+
+    /**
+     * -1 if the name fits the name field, the index of the '/' to split it at between prefix and
+     * name, or -2 if it fits neither way.
+     */
+    private static int split(byte[] name) {
+        if (name.length <= NAME_LENGTH) {
+            return -1;
+        }
+        for (int i = Math.min(name.length - 2, PREFIX_LENGTH); i > 0; i--) {
+            if (name[i] == '/' && name.length - i - 1 <= NAME_LENGTH) {
+                return i;
+            }
+        }
+        return -2;
+    }
+
+    // "<length> <key>=<value>\n", where the length counts its own digits
+    private static byte[] paxRecord(String key, String value) {
+        int body = (" " + key + "=" + value + "\n").getBytes(StandardCharsets.UTF_8).length;
+        int length = body + Integer.toString(body).length();
+        if (Integer.toString(length).length() != Integer.toString(body).length()) {
+            length++;
+        }
+        return (length + " " + key + "=" + value + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] truncate(byte[] name) {
+        return Arrays.copyOf(name, Math.min(name.length, NAME_LENGTH));
+    }
+
+    // Zero-padded octal digits followed by a NUL, filling the field
+    private static void octal(byte[] header, int offset, int length, long value) {
+        String digits = Long.toOctalString(value);
+        int pad = length - 1 - digits.length();
+        for (int i = 0; i < pad; i++) {
+            header[offset + i] = '0';
+        }
+        System.arraycopy(ascii(digits), 0, header, offset + pad, digits.length());
+        header[offset + length - 1] = 0;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.code_generator.service.archive;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Writes generated entries straight into a ZIP stream, so a project can be archived
+ * to a file or an HTTP response without being staged on disk first.
+ *
+ * <p>The ZIP structure is written directly rather than through {@code ZipOutputStream},
+ * which always compresses entry data itself on the calling thread. Here each entry is handed
+ * to an {@link ArchiveCompressor}, which compresses it into a {@link DeflatedEntry} on its
+ * pool, possibly from a shared {@link DeflatedEntryCache}, while later entries are still being
+ * added. Entries are written in the order they were added as their data becomes ready; the
+ * sink blocks once {@value #MAX_PENDING_BYTES} bytes of content are waiting. Sizes and CRC are
+ * known before the local header is written, so no data descriptors are needed. ZIP64 is not
+ * supported: archives are limited to 65535 entries and 4 GiB, far above what a generated
+ * project needs.
+ */
+public class ZipArchiveSink implements ArchiveSink {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int LOCAL_HEADER = 0x04034b50;
+    private static final int CENTRAL_HEADER = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+    private static final int VERSION = 20;
+    private static final int FLAG_UTF8 = 0x0800;
+    private static final int METHOD_STORED = 0;
+    private static final int METHOD_DEFLATED = 8;
+    private static final int MAX_PENDING_BYTES = 16 * 1024 * 1024;
+    private static final long MAX_OFFSET = 0xFFFFFFFFL;
+    private static final int MAX_ENTRIES = 0xFFFF;
+
+    private final OutputStream out;
+    private final ArchiveCompressor compressor;
+    private final boolean ownsCompressor;
+    private final Set<String> entryNames = new HashSet<>();
+    private final Deque<PendingEntry> pending = new ArrayDeque<>();
+    private final List<CentralEntry> central = new ArrayList<>();
+    private final int dosTime;
+    private final int dosDate;
+    private long pendingBytes;
+    private long offset;
+    private boolean closed;
+
+    /**
+     * Compresses each entry on the thread adding it, with the default level and no cache.
+     */
+    public ZipArchiveSink(OutputStream out) {
+        this(out, ArchiveCompressor.direct(), true);
+    }
+
+    public ZipArchiveSink(OutputStream out, ArchiveCompressor compressor) {
+        this(out, compressor, false);
+    }
+
+    private ZipArchiveSink(OutputStream out, ArchiveCompressor compressor, boolean ownsCompressor) {
+        this.out = new BufferedOutputStream(out, BUFFER_SIZE);
+        this.compressor = compressor;
+        this.ownsCompressor = ownsCompressor;
+        LocalDateTime now = LocalDateTime.now();
+        this.dosTime = (now.getHour() << 11) | (now.getMinute() << 5) | (now.getSecond() >> 1);
+        this.dosDate = ((now.getYear() - 1980) << 9) | (now.getMonthValue() << 5) | now.getDayOfMonth();
+    }
+
+    @Override
+    public void addEntry(String path, byte[] content) throws IOException {
+        enqueue(path, compressor.compress(path, content), content.length);
+    }
+
+    /**
+     * Copies an already compressed entry into the archive.
+     */
+    public void addEntry(String path, DeflatedEntry entry) throws IOException {
+        enqueue(path, CompletableFuture.completedFuture(entry), 0);
+    }
+
+    private void enqueue(String path, CompletableFuture<DeflatedEntry> entry, int size) throws IOException {
+        if (closed) {
+            throw new IOException("Archive already closed");
+        }
+        if (!entryNames.add(path)) {
+            throw new IOException("Duplicate archive entry: " + path);
+        }
+        if (entryNames.size() > MAX_ENTRIES) {
+            throw new IOException("Archive exceeds " + MAX_ENTRIES + " entries");
+        }
+        pending.add(new PendingEntry(path, entry, size));
+        pendingBytes += size;
+        while (!pending.isEmpty() && (pending.peek().entry().isDone() || pendingBytes > MAX_PENDING_BYTES)) {
+            writeNext();
+        }
+    }
+
+    private void writeNext() throws IOException {
+        PendingEntry next = pending.poll();
+        pendingBytes -= next.size();
+        DeflatedEntry entry = await(next.entry());
+        byte[] name = next.path().getBytes(StandardCharsets.UTF_8);
+        CentralEntry header = new CentralEntry(name, entry.stored() ? METHOD_STORED : METHOD_DEFLATED,
+                entry.crc(), entry.deflated().length, entry.size(), offset);
+
+        ByteArrayOutputStream local = new ByteArrayOutputStream(30 + name.length);
+        writeInt(local, LOCAL_HEADER);
+        writeShort(local, VERSION);
+        writeCommon(local, header);
+        writeShort(local, 0);
+        local.write(name);
+        write(local.toByteArray());
+        write(entry.deflated());
+        central.add(header);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            while (!pending.isEmpty()) {
+                writeNext();
+            }
+            long centralOffset = offset;
+            ByteArrayOutputStream directory = new ByteArrayOutputStream(central.size() * 64);
+            for (CentralEntry entry : central) {
+                writeInt(directory, CENTRAL_HEADER);
+                writeShort(directory, VERSION);
+                writeShort(directory, VERSION);
+                writeCommon(directory, entry);
+                writeShort(directory, 0); // extra field length
+                writeShort(directory, 0); // comment length
+                writeShort(directory, 0); // disk number
+                writeShort(directory, 0); // internal attributes
+                writeInt(directory, 0);   // external attributes
+                writeInt(directory, (int) entry.offset());
+                directory.write(entry.name());
+            }
+            write(directory.toByteArray());
+
+            ByteArrayOutputStream end = new ByteArrayOutputStream(22);
+            writeInt(end, END_OF_CENTRAL_DIRECTORY);
+            writeShort(end, 0);
+            writeShort(end, 0);
+            writeShort(end, central.size());
+            writeShort(end, central.size());
+            writeInt(end, (int) (offset - centralOffset));
+            writeInt(end, (int) centralOffset);
+            writeShort(end, 0);
+            write(end.toByteArray());
+        } finally {
+            // Both run even if finishing the archive or closing the stream fails
+            try {
+                out.close();
+            } finally {
+                if (ownsCompressor) {
+                    compressor.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits for compressed data, rethrowing a failure of the task that produced it.
+     */
+    static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IOException("Compression failed", e.getCause());
+        }
+    }
+
+    // Fields shared by local and central headers, from flags up to the file name length
+    private void writeCommon(ByteArrayOutputStream header, CentralEntry entry) {
+        writeShort(header, FLAG_UTF8);
+        writeShort(header, entry.method());
+        writeShort(header, dosTime);
+        writeShort(header, dosDate);
+        writeInt(header, entry.crc());
+        writeInt(header, entry.compressedSize());
+        writeInt(header, entry.size());
+        writeShort(header, entry.name().length);
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        if (offset + bytes.length > MAX_OFFSET) {
+            throw new IOException("Archive exceeds 4 GiB");
+        }
+        out.write(bytes);
+        offset += bytes.length;
+    }
+
+    private static void writeShort(ByteArrayOutputStream out, int value) {
+        out.write(value & 0xFF);
+        out.write((value >>> 8) & 0xFF);
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        writeShort(out, value & 0xFFFF);
+        writeShort(out, (value >>> 16) & 0xFFFF);
+    }
+
+    private record PendingEntry(String path, CompletableFuture<DeflatedEntry> entry, int size) {
+    }
+
+    private record CentralEntry(byte[] name, int method, int crc, int compressedSize, int size, long offset) {
+    }
+}
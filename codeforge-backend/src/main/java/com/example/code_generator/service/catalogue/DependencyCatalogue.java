@@ -0,0 +1,634 @@
+package com.example.code_generator.service.catalogue;
+
+import com.example.code_generator.model.AndroidDependency;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Immutable, column-oriented catalogue of Maven artifacts, sized for indexes with hundreds of
+ * thousands of entries.
+ *
+ * <p>Every string is dictionary-encoded into one shared {@link StringTable} and each row is an
+ * index into a set of {@code int} columns, so a repeated group id or version costs four bytes
+ * per row. {@link AndroidDependency} objects are only created for the rows a caller reads.
+ *
+ * <p>Name, group id and artifact id are split into lower-case tokens ({@code com.squareup.retrofit2}
+ * gives {@code com}, {@code squareup} and {@code retrofit2}). The tokens form a sorted term
+ * dictionary with a posting list of rows per term, so a prefix query is a binary search plus a
+ * union of postings. Fuzzy queries also accept terms within a small edit distance. Candidates
+ * come from a trigram index over the terms and are verified with a bounded edit distance.
+ * A query with several tokens matches the rows that contain all of them. Results are in
+ * catalogue order.
+ *
+ * <p>The file format is tab-separated, one artifact per line:
+ * {@code groupId, artifactId, version, type, category, name, description}. Only the first
+ * three columns are required. Blank lines and lines starting with {@code #} are ignored.
+ */
+public final class DependencyCatalogue {
+    private static final int GROUP = 0;
+    private static final int ARTIFACT = 1;
+    private static final int VERSION = 2;
+    private static final int TYPE = 3;
+    private static final int NAME = 4;
+    private static final int DESCRIPTION = 5;
+    private static final String DEFAULT_TYPE = "implementation";
+    private static final String DEFAULT_CATEGORY = "Other";
+    private static final char PAD = 0;
+    // Queries are clipped so per-term trigram counts fit in a byte
+    private static final int MAX_FUZZY_LENGTH = 64;
+
+    private final StringTable values;
+    private final int[][] columns;
+    // Category ordinal per row; categories differing only in case are merged
+    private final int[] categoryOf;
+    private final String[] categoryNames;
+    private final int[][] categoryRows;
+    private final Map<String, Integer> categoryIndex;
+
+    // Open-addressed hash of groupId:artifactId to row + 1, for exact lookups
+    private final int[] moduleSlots;
+
+    private final StringTable terms;
+    // Term length in chars, capped at MAX_FUZZY_LENGTH + 3, to order trigram postings by length
+    private final byte[] termLengths;
+    private final int[] postingOffsets;
+    private final int[] postings;
+
+    private final long[] gramKeys;
+    private final int[] gramOffsets;
+    private final int[] gramTerms;
+
+    private DependencyCatalogue(Builder builder) {
+        this.values = StringTable.of(builder.values);
+        this.columns = new int[builder.columns.length][];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = builder.columns[i].toArray();
+        }
+        this.categoryOf = builder.categoryOf.toArray();
+        this.categoryNames = builder.categoryNames.toArray(String[]::new);
+        this.categoryIndex = Map.copyOf(builder.categoryIndex);
+        this.categoryRows = new int[categoryNames.length][];
+        int[] counts = new int[categoryNames.length];
+        for (int category : categoryOf) {
+            counts[category]++;
+        }
+        for (int i = 0; i < categoryRows.length; i++) {
+            categoryRows[i] = new int[counts[i]];
+            counts[i] = 0;
+        }
+        for (int row = 0; row < categoryOf.length; row++) {
+            int category = categoryOf[row];
+            categoryRows[category][counts[category]++] = row;
+        }
+
+        this.moduleSlots = new int[Integer.highestOneBit(Math.max(categoryOf.length, 1) * 2) * 2];
+        int mask = moduleSlots.length - 1;
+        for (int row = 0; row < categoryOf.length; row++) {
+            int slot = moduleHash(builder.values.get(columns[GROUP][row]), builder.values.get(columns[ARTIFACT][row])) & mask;
+            while (moduleSlots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            moduleSlots[slot] = row + 1;
+        }
+
+        // Term dictionary in code point order, which is the UTF-8 byte order lookups compare in.
+        // It matches String order unless a term has surrogate pairs.
+        String[] sorted = builder.terms.toArray(String[]::new);
+        boolean surrogates = Arrays.stream(sorted).anyMatch(term -> term.length() != term.codePointCount(0, term.length()));
+        Arrays.sort(sorted, surrogates ? DependencyCatalogue::compareCodePoints : Comparator.naturalOrder());
+        int[] sortedId = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            sortedId[builder.termIds.get(sorted[i])] = i;
+        }
+        List<String> sortedTerms = Arrays.asList(sorted);
+        this.terms = StringTable.of(sortedTerms);
+        this.termLengths = new byte[sortedTerms.size()];
+        for (int i = 0; i < termLengths.length; i++) {
+            termLengths[i] = (byte) Math.min(sortedTerms.get(i).length(), MAX_FUZZY_LENGTH + 3);
+        }
+
+        long[] pairs = builder.termRows.toArray();
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = ((long) sortedId[(int) (pairs[i] >>> 32)] << 32) | (pairs[i] & 0xFFFFFFFFL);
+        }
+        int[][] index = invert(pairs, sorted.length, 32);
+        this.postingOffsets = index[0];
+        this.postings = index[1];
+
+        // Trigram index over the terms, for fuzzy candidates. Numbers are left out: a typo in a
+        // version-like token is not worth correcting, and they would dominate the index
+        LongBuffer allGrams = new LongBuffer();
+        for (String term : sortedTerms) {
+            if (!isNumber(term)) {
+                for (long gram : grams(term)) {
+                    allGrams.add(gram);
+                }
+            }
+        }
+        this.gramKeys = Arrays.stream(allGrams.toArray()).sorted().distinct().toArray();
+        // Within a trigram, terms are ordered by length so a query only scans lengths it can reach.
+        // Trigram ids get 24 bits, far more than the distinct trigrams of any real catalogue
+        LongBuffer gramPairs = new LongBuffer();
+        for (int term = 0; term < sortedTerms.size(); term++) {
+            if (isNumber(sortedTerms.get(term))) {
+                continue;
+            }
+            for (long gram : grams(sortedTerms.get(term))) {
+                gramPairs.add(((long) Arrays.binarySearch(gramKeys, gram) << 40) | ((long) termLengths[term] << 32) | term);
+            }
+        }
+        long[] gramPostings = gramPairs.toArray();
+        int[][] gramIndex = invert(gramPostings, gramKeys.length, 40);
+        this.gramOffsets = gramIndex[0];
+        this.gramTerms = gramIndex[1];
+    }
+
+    /**
+     * Reads a tab-separated catalogue.
+     *
+     * @throws IllegalArgumentException if a line has fewer than three columns or an empty
+     *         group id, artifact id or version
+     */
+    public static DependencyCatalogue load(Reader reader) throws IOException {
+        Builder builder = new Builder();
+        BufferedReader lines = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        String line;
+        int number = 0;
+        while ((line = lines.readLine()) != null) {
+            number++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\t", -1);
+            if (fields.length < 3 || fields[0].isBlank() || fields[1].isBlank() || fields[2].isBlank()) {
+                throw new IllegalArgumentException("Invalid catalogue line " + number
+                        + ": expected groupId, artifactId and version separated by tabs");
+            }
+            builder.add(fields);
+        }
+        return new DependencyCatalogue(builder);
+    }
+
+    public int size() {
+        return categoryOf.length;
+    }
+
+    public AndroidDependency get(int row) {
+        return AndroidDependency.builder()
+                .name(values.get(columns[NAME][row]))
+                .description(values.get(columns[DESCRIPTION][row]))
+                .groupId(values.get(columns[GROUP][row]))
+                .artifactId(values.get(columns[ARTIFACT][row]))
+                .version(values.get(columns[VERSION][row]))
+                .type(values.get(columns[TYPE][row]))
+                .category(categoryNames[categoryOf[row]])
+                .build();
+    }
+
+    public String groupId(int row) {
+        return values.get(columns[GROUP][row]);
+    }
+
+    public String artifactId(int row) {
+        return values.get(columns[ARTIFACT][row]);
+    }
+
+    public String version(int row) {
+        return values.get(columns[VERSION][row]);
+    }
+
+    public String type(int row) {
+        return values.get(columns[TYPE][row]);
+    }
+
+    /**
+     * The first row for {@code groupId:artifactId}, or -1.
+     */
+    public int find(String groupId, String artifactId) {
+        byte[] group = groupId.getBytes(StandardCharsets.UTF_8);
+        byte[] artifact = artifactId.getBytes(StandardCharsets.UTF_8);
+        int mask = moduleSlots.length - 1;
+        for (int slot = moduleHash(groupId, artifactId) & mask; ; slot = (slot + 1) & mask) {
+            int row = moduleSlots[slot] - 1;
+            if (row < 0) {
+                return -1;
+            }
+            if (values.equals(columns[ARTIFACT][row], artifact) && values.equals(columns[GROUP][row], group)) {
+                return row;
+            }
+        }
+    }
+
+    /**
+     * The row a short name such as {@code room} or {@code okhttp} most likely refers to, or -1.
+     * Rows must contain every token of the name; an artifact id equal to the name wins, then a
+     * display name equal to it, then the first row of a library ({@code type}) that is not
+     * {@code excludedType}, in catalogue order.
+     */
+    public int findByName(String name, String excludedType) {
+        List<String> tokens = tokenize(name);
+        if (tokens.isEmpty()) {
+            return -1;
+        }
+        BitSet rows = null;
+        for (String token : tokens) {
+            BitSet matches = new BitSet(size());
+            byte[] key = token.getBytes(StandardCharsets.UTF_8);
+            int term = lowerBound(key);
+            if (term < terms.size() && terms.compare(term, key) == 0) {
+                addPostings(term, matches);
+            }
+            if (rows == null) {
+                rows = matches;
+            } else {
+                rows.and(matches);
+            }
+        }
+        String trimmed = name.trim();
+        int byName = -1;
+        int fallback = -1;
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            if (artifactId(row).equalsIgnoreCase(trimmed)) {
+                return row;
+            }
+            if (byName < 0 && values.get(columns[NAME][row]).equalsIgnoreCase(trimmed)) {
+                byName = row;
+            }
+            if (fallback < 0 && !type(row).equals(excludedType)) {
+                fallback = row;
+            }
+        }
+        return byName >= 0 ? byName : fallback;
+    }
+
+    /**
+     * Every dependency, in catalogue order. Elements are created as they are read.
+     */
+    public List<AndroidDependency> asList() {
+        return new RowList(null);
+    }
+
+    /**
+     * The dependencies in {@code category}, compared ignoring case. Elements are created as
+     * they are read.
+     */
+    public List<AndroidDependency> byCategory(String category) {
+        Integer ordinal = categoryIndex.get(category.toLowerCase(Locale.ROOT));
+        return ordinal == null ? List.of() : new RowList(categoryRows[ordinal]);
+    }
+
+    public List<String> getCategories() {
+        return List.of(categoryNames);
+    }
+
+    /**
+     * Finds the rows matching every token of {@code query}. A token matches a term that starts
+     * with it, or with {@code fuzzy} also a term within edit distance one (tokens of three to
+     * seven characters) or two (longer tokens). A blank query matches every row.
+     *
+     * @param category restricts matches to one category, ignoring case; {@code null} for all
+     * @return matching rows in ascending order
+     */
+    public BitSet search(String query, String category, boolean fuzzy) {
+        BitSet rows = new BitSet(size());
+        if (category != null && !category.isBlank()) {
+            Integer ordinal = categoryIndex.get(category.toLowerCase(Locale.ROOT));
+            if (ordinal == null) {
+                return rows;
+            }
+            for (int row : categoryRows[ordinal]) {
+                rows.set(row);
+            }
+        } else {
+            rows.set(0, size());
+        }
+        for (String token : tokenize(query)) {
+            rows.and(match(token, fuzzy));
+            if (rows.isEmpty()) {
+                break;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Approximate heap used by the encoded columns and indexes, excluding object headers.
+     */
+    public long footprintBytes() {
+        long bytes = values.footprintBytes() + terms.footprintBytes() + termLengths.length;
+        for (int[] column : columns) {
+            bytes += 4L * column.length;
+        }
+        bytes += 4L * categoryOf.length * 2 + 4L * moduleSlots.length;
+        bytes += 4L * (postingOffsets.length + postings.length + gramOffsets.length + gramTerms.length);
+        return bytes + 8L * gramKeys.length;
+    }
+
+    private BitSet match(String token, boolean fuzzy) {
+        BitSet rows = new BitSet(size());
+        byte[] prefix = token.getBytes(StandardCharsets.UTF_8);
+        for (int term = lowerBound(prefix); term < terms.size() && terms.startsWith(term, prefix); term++) {
+            addPostings(term, rows);
+        }
+        int distance = token.length() < 3 ? 0 : token.length() < 8 ? 1 : 2;
+        if (fuzzy && distance > 0 && token.length() <= MAX_FUZZY_LENGTH) {
+            for (int term : fuzzyCandidates(token, distance)) {
+                if (editDistance(token, terms.get(term), distance) <= distance) {
+                    addPostings(term, rows);
+                }
+            }
+        }
+        return rows;
+    }
+
+    // Terms sharing enough trigrams to possibly be within the distance: each edit changes at most three
+    private int[] fuzzyCandidates(String token, int distance) {
+        long[] queryGrams = Arrays.stream(grams(token)).distinct().toArray();
+        int threshold = queryGrams.length - 3 * distance;
+        IntBuffer candidates = new IntBuffer();
+        if (threshold < 1) {
+            return candidates.toArray();
+        }
+        byte[] shared = new byte[terms.size()];
+        for (long gram : queryGrams) {
+            int index = Arrays.binarySearch(gramKeys, gram);
+            if (index < 0) {
+                continue;
+            }
+            int end = lengthBound(gramOffsets[index], gramOffsets[index + 1], token.length() + distance + 1);
+            for (int i = lengthBound(gramOffsets[index], end, token.length() - distance); i < end; i++) {
+                int term = gramTerms[i];
+                if (++shared[term] == threshold) {
+                    candidates.add(term);
+                }
+            }
+        }
+        return candidates.toArray();
+    }
+
+    // First position in gramTerms[from, to) holding a term of at least the given length
+    private int lengthBound(int from, int to, int length) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (termLengths[gramTerms[mid]] < length) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    private void addPostings(int term, BitSet rows) {
+        for (int i = postingOffsets[term]; i < postingOffsets[term + 1]; i++) {
+            rows.set(postings[i]);
+        }
+    }
+
+    private int lowerBound(byte[] key) {
+        int low = 0;
+        int high = terms.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (terms.compare(mid, key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Optimal string alignment distance, abandoned as soon as it must exceed max
+    static int editDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean word = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static int moduleHash(String groupId, String artifactId) {
+        int hash = groupId.hashCode() * 31 + artifactId.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean isNumber(String term) {
+        return term.chars().allMatch(Character::isDigit);
+    }
+
+    private static int compareCodePoints(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int x = a.codePointAt(i);
+            int y = b.codePointAt(j);
+            if (x != y) {
+                return Integer.compare(x, y);
+            }
+            i += Character.charCount(x);
+            j += Character.charCount(y);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    }
+
+    // Trigrams of the term padded with two markers on each side, each packed into a long
+    private static long[] grams(String term) {
+        int length = Math.min(term.length(), MAX_FUZZY_LENGTH);
+        long[] grams = new long[length + 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) charAt(term, length, i - 2) << 32)
+                    | ((long) charAt(term, length, i - 1) << 16)
+                    | charAt(term, length, i);
+        }
+        return grams;
+    }
+
+    private static char charAt(String term, int length, int index) {
+        return index < 0 || index >= length ? PAD : term.charAt(index);
+    }
+
+    // Sorts (key << shift | value) pairs into CSR form: offsets per key and the distinct values of each
+    private static int[][] invert(long[] pairs, int keys, int shift) {
+        Arrays.sort(pairs);
+        int[] offsets = new int[keys + 1];
+        int[] entries = new int[pairs.length];
+        int count = 0;
+        for (int i = 0; i < pairs.length; i++) {
+            if (i > 0 && pairs[i] == pairs[i - 1]) {
+                continue;
+            }
+            offsets[(int) (pairs[i] >>> shift) + 1]++;
+            entries[count++] = (int) pairs[i];
+        }
+        for (int i = 0; i < keys; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        return new int[][] {offsets, Arrays.copyOf(entries, count)};
+    }
+
+    private class RowList extends AbstractList<AndroidDependency> implements RandomAccess {
+        private final int[] rows;
+
+        RowList(int[] rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public AndroidDependency get(int index) {
+            return DependencyCatalogue.this.get(rows == null ? index : rows[index]);
+        }
+
+        @Override
+        public int size() {
+            return rows == null ? DependencyCatalogue.this.size() : rows.length;
+        }
+    }
+
+    // Load-time state; the dictionaries are dropped once the catalogue is built
+    private static class Builder {
+        private final Map<String, Integer> valueIds = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private final IntBuffer[] columns = {
+                new IntBuffer(), new IntBuffer(), new IntBuffer(), new IntBuffer(), new IntBuffer(), new IntBuffer()};
+        private final IntBuffer categoryOf = new IntBuffer();
+        private final Map<String, Integer> categoryIndex = new LinkedHashMap<>();
+        private final List<String> categoryNames = new ArrayList<>();
+        private final Map<String, Integer> termIds = new HashMap<>();
+        private final List<String> terms = new ArrayList<>();
+        private final LongBuffer termRows = new LongBuffer();
+
+        void add(String[] fields) {
+            int row = categoryOf.size();
+            String group = fields[0].trim();
+            String artifact = fields[1].trim();
+            String name = field(fields, 5, artifact);
+            columns[GROUP].add(intern(group));
+            columns[ARTIFACT].add(intern(artifact));
+            columns[VERSION].add(intern(fields[2].trim()));
+            columns[TYPE].add(intern(field(fields, 3, DEFAULT_TYPE)));
+            columns[NAME].add(intern(name));
+            columns[DESCRIPTION].add(intern(field(fields, 6, "")));
+
+            String category = field(fields, 4, DEFAULT_CATEGORY);
+            categoryOf.add(categoryIndex.computeIfAbsent(category.toLowerCase(Locale.ROOT), key -> {
+                categoryNames.add(category);
+                return categoryNames.size() - 1;
+            }));
+
+            for (String text : new String[] {name, group, artifact}) {
+                for (String token : tokenize(text)) {
+                    int term = termIds.computeIfAbsent(token, key -> {
+                        terms.add(key);
+                        return terms.size() - 1;
+                    });
+                    termRows.add(((long) term << 32) | row);
+                }
+            }
+        }
+
+        private int intern(String value) {
+            return valueIds.computeIfAbsent(value, key -> {
+                values.add(key);
+                return values.size() - 1;
+            });
+        }
+
+        private static String field(String[] fields, int index, String fallback) {
+            return index < fields.length && !fields[index].isBlank() ? fields[index].trim() : fallback;
+        }
+    }
+
+    private static class IntBuffer {
+        private int[] values = new int[1024];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    private static class LongBuffer {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
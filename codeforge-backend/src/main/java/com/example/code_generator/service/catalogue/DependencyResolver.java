@@ -0,0 +1,383 @@
+package com.example.code_generator.service.catalogue;
+
+import com.example.code_generator.model.ResolvedDependencies;
+import com.example.code_generator.service.AndroidDependencyService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Turns a selection of dependencies into one consistent set of Gradle artifacts.
+ *
+ * <p>A selection mixes coordinates ({@code group:artifact[:version]}, as listed in
+ * {@code template.json}) and short names ({@code room}, {@code retrofit}) that are looked up
+ * in the {@link DependencyCatalogue}. Resolution builds a small graph:
+ * <ul>
+ *   <li>one node per {@code group:artifact}, collecting every version requested for it plus
+ *       the catalogue's version;</li>
+ *   <li>an edge from each runtime artifact to its annotation processor: one already selected,
+ *       or else the catalogue processor in the same group sharing the longest
+ *       {@code -}-separated prefix ({@code room-runtime} to {@code room-compiler},
+ *       {@code hilt-android} to {@code hilt-compiler}).</li>
+ * </ul>
+ * Each node gets the highest of its versions, and a processor always takes its runtime
+ * artifact's version. A node with a version other than the one selected is reported as a
+ * conflict.
+ *
+ * <p>Results are memoised in an LRU keyed by the selection as a bitset: every distinct request
+ * string gets a bit, so the same selection in any order resolves once.
+ */
+@Component
+public class DependencyResolver {
+    private static final Logger logger = LoggerFactory.getLogger(DependencyResolver.class);
+    private static final String PROCESSOR = "annotationProcessor";
+    private static final Set<String> PROCESSOR_TYPES = Set.of(PROCESSOR, "kapt", "ksp");
+    private static final List<String> CONFIGURATION_ORDER = List.of(
+            "api", "implementation", "compileOnly", "runtimeOnly", PROCESSOR, "kapt", "ksp",
+            "testImplementation", "androidTestImplementation");
+    // Beyond this many distinct request strings new ones are resolved without caching
+    private static final int MAX_REQUEST_IDS = 1 << 16;
+
+    private final DependencyCatalogue catalogue;
+    private final Map<String, int[]> processorsByGroup = new HashMap<>();
+    private final Map<String, Integer> requestIds = new ConcurrentHashMap<>();
+    private final AtomicInteger nextRequestId = new AtomicInteger();
+    private final Map<BitSet, ResolvedDependencies> cache;
+    private long hits;
+    private long misses;
+
+    public DependencyResolver(
+            AndroidDependencyService dependencyService,
+            @Value("${generator.dependencies.cache-size:1024}") int cacheSize) {
+        this.catalogue = dependencyService.getCatalogue();
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<BitSet, ResolvedDependencies> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        Map<String, List<Integer>> processors = new HashMap<>();
+        for (int row = 0; row < catalogue.size(); row++) {
+            if (PROCESSOR_TYPES.contains(catalogue.type(row))) {
+                processors.computeIfAbsent(catalogue.groupId(row), group -> new ArrayList<>()).add(row);
+            }
+        }
+        processors.forEach((group, rows) ->
+                processorsByGroup.put(group, rows.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    /**
+     * Resolves {@code requests}; see the class comment. The result is shared between callers
+     * and must not be modified.
+     */
+    public ResolvedDependencies resolve(Collection<String> requests) {
+        TreeSet<String> normalized = new TreeSet<>();
+        for (String request : requests) {
+            if (request != null && !request.isBlank()) {
+                String value = request.trim();
+                normalized.add(value.indexOf(':') < 0 ? value.toLowerCase(Locale.ROOT) : value);
+            }
+        }
+        BitSet key = new BitSet();
+        for (String request : normalized) {
+            Integer id = requestIds.get(request);
+            if (id == null) {
+                if (requestIds.size() >= MAX_REQUEST_IDS) {
+                    return compute(normalized);
+                }
+                id = requestIds.computeIfAbsent(request, r -> nextRequestId.getAndIncrement());
+            }
+            key.set(id);
+        }
+        synchronized (cache) {
+            ResolvedDependencies cached = cache.get(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+        ResolvedDependencies resolved = compute(normalized);
+        synchronized (cache) {
+            cache.putIfAbsent(key, resolved);
+        }
+        return resolved;
+    }
+
+    public Stats getStats() {
+        synchronized (cache) {
+            return new Stats(hits, misses, cache.size());
+        }
+    }
+
+    private ResolvedDependencies compute(SortedSet<String> requests) {
+        Map<String, Node> nodes = new LinkedHashMap<>();
+        List<String> unresolved = new ArrayList<>();
+        for (String request : requests) {
+            Node node;
+            if (request.indexOf(':') >= 0) {
+                String[] parts = request.split(":");
+                if (parts.length < 2 || parts[0].isBlank() || parts[1].isBlank()) {
+                    unresolved.add(request);
+                    continue;
+                }
+                node = node(nodes, parts[0], parts[1]);
+                if (parts.length > 2 && !parts[2].isBlank()) {
+                    node.versions.add(parts[2]);
+                }
+            } else {
+                int row = catalogue.findByName(request, PROCESSOR);
+                if (row < 0) {
+                    unresolved.add(request);
+                    continue;
+                }
+                node = node(nodes, catalogue.groupId(row), catalogue.artifactId(row));
+            }
+            node.request = request;
+        }
+
+        pairProcessors(nodes);
+
+        List<ResolvedDependencies.Artifact> artifacts = new ArrayList<>();
+        List<ResolvedDependencies.Conflict> conflicts = new ArrayList<>();
+        for (Node node : nodes.values()) {
+            Optional<String> version = (node.runtime != null ? node.runtime : node).familyVersions()
+                    .max(DependencyResolver::compareVersions);
+            if (version.isEmpty()) {
+                unresolved.add(node.request != null ? node.request : node.module);
+                continue;
+            }
+            String selected = version.get();
+            if (node.versions.stream().anyMatch(v -> !v.equals(selected))) {
+                conflicts.add(ResolvedDependencies.Conflict.builder()
+                        .module(node.module)
+                        .requested(node.versions.stream().distinct().sorted(DependencyResolver::compareVersions).toList())
+                        .selected(selected)
+                        .build());
+            }
+            artifacts.add(ResolvedDependencies.Artifact.builder()
+                    .groupId(node.groupId)
+                    .artifactId(node.artifactId)
+                    .version(selected)
+                    .configuration(node.configuration())
+                    .notation(node.module + ":" + selected)
+                    .pairedWith(node.runtime == null ? null : node.runtime.module)
+                    .build());
+        }
+
+        artifacts.sort(Comparator
+                .comparingInt((ResolvedDependencies.Artifact artifact) -> configurationRank(artifact.getConfiguration()))
+                .thenComparing(ResolvedDependencies.Artifact::getGroupId)
+                .thenComparing(ResolvedDependencies.Artifact::getArtifactId));
+        StringBuilder gradle = new StringBuilder();
+        for (ResolvedDependencies.Artifact artifact : artifacts) {
+            gradle.append(artifact.getConfiguration()).append(" '").append(artifact.getNotation()).append("'\n");
+        }
+        if (!conflicts.isEmpty()) {
+            logger.info("Resolved version conflicts in {}: {}", requests, conflicts);
+        }
+        return ResolvedDependencies.builder()
+                .artifacts(List.copyOf(artifacts))
+                .conflicts(List.copyOf(conflicts))
+                .unresolved(List.copyOf(unresolved))
+                .gradle(gradle.toString())
+                .build();
+    }
+
+    private Node node(Map<String, Node> nodes, String groupId, String artifactId) {
+        return nodes.computeIfAbsent(groupId + ":" + artifactId, module -> {
+            Node node = new Node(groupId, artifactId, catalogue.find(groupId, artifactId));
+            if (node.row >= 0) {
+                node.versions.add(catalogue.version(node.row));
+            }
+            return node;
+        });
+    }
+
+    // Links every selected processor to the selected runtime artifact it belongs to, then adds the
+    // catalogue's processor for runtime artifacts that still have none
+    private void pairProcessors(Map<String, Node> nodes) {
+        List<Node> selected = new ArrayList<>(nodes.values());
+        for (Node processor : selected) {
+            if (!processor.isProcessor()) {
+                continue;
+            }
+            Node best = null;
+            int bestScore = 0;
+            for (Node runtime : selected) {
+                int score = runtime.isProcessor() || !runtime.groupId.equals(processor.groupId)
+                        ? 0 : sharedPrefix(runtime.artifactId, processor.artifactId);
+                if (score > bestScore) {
+                    best = runtime;
+                    bestScore = score;
+                }
+            }
+            if (best != null) {
+                processor.runtime = best;
+                best.processors.add(processor);
+            }
+        }
+        for (Node runtime : selected) {
+            if (runtime.isProcessor() || !runtime.processors.isEmpty() || runtime.row < 0) {
+                continue;
+            }
+            int row = catalogueProcessor(runtime);
+            if (row >= 0) {
+                Node processor = node(nodes, catalogue.groupId(row), catalogue.artifactId(row));
+                processor.runtime = runtime;
+                runtime.processors.add(processor);
+            }
+        }
+    }
+
+    // Ties go to the shortest artifact id: dagger pairs with dagger-compiler, not dagger-android-processor
+    private int catalogueProcessor(Node runtime) {
+        int best = -1;
+        int bestScore = 0;
+        for (int row : processorsByGroup.getOrDefault(runtime.groupId, new int[0])) {
+            String artifactId = catalogue.artifactId(row);
+            int score = sharedPrefix(runtime.artifactId, artifactId);
+            if (score > bestScore || (score == bestScore && score > 0
+                    && artifactId.length() < catalogue.artifactId(best).length())) {
+                best = row;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    static int sharedPrefix(String a, String b) {
+        String[] left = a.split("-");
+        String[] right = b.split("-");
+        int shared = 0;
+        while (shared < left.length && shared < right.length && left[shared].equals(right[shared])) {
+            shared++;
+        }
+        return shared;
+    }
+
+    /**
+     * Orders versions the way Maven does, simplified: numeric parts compare as numbers, a
+     * missing part equals zero, and a qualifier ({@code alpha}, {@code beta}, {@code rc},
+     * {@code SNAPSHOT}) sorts before the release it precedes.
+     */
+    static int compareVersions(String a, String b) {
+        List<String> left = versionParts(a);
+        List<String> right = versionParts(b);
+        for (int i = 0; i < Math.max(left.size(), right.size()); i++) {
+            String x = i < left.size() ? left.get(i) : null;
+            String y = i < right.size() ? right.get(i) : null;
+            int result = compareParts(x, y);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return a.compareTo(b);
+    }
+
+    private static int compareParts(String x, String y) {
+        boolean xNumber = x != null && Character.isDigit(x.charAt(0));
+        boolean yNumber = y != null && Character.isDigit(y.charAt(0));
+        if (xNumber && yNumber) {
+            String xDigits = x.replaceFirst("^0+(?=.)", "");
+            String yDigits = y.replaceFirst("^0+(?=.)", "");
+            return xDigits.length() != yDigits.length()
+                    ? Integer.compare(xDigits.length(), yDigits.length())
+                    : xDigits.compareTo(yDigits);
+        }
+        if (x == null) {
+            return yNumber ? compareParts("0", y) : 1;
+        }
+        if (y == null) {
+            return xNumber ? compareParts(x, "0") : -1;
+        }
+        if (xNumber != yNumber) {
+            return xNumber ? 1 : -1;
+        }
+        int rank = Integer.compare(qualifierRank(x), qualifierRank(y));
+        return rank != 0 ? rank : x.compareToIgnoreCase(y);
+    }
+
+    private static int qualifierRank(String qualifier) {
+        return switch (qualifier.toLowerCase(Locale.ROOT)) {
+            case "alpha", "a" -> 0;
+            case "beta", "b" -> 1;
+            case "milestone", "m" -> 2;
+            case "rc", "cr" -> 3;
+            case "snapshot" -> 4;
+            default -> 5;
+        };
+    }
+
+    // 1.10.0-rc01 -> [1, 10, 0, rc, 01]
+    private static List<String> versionParts(String version) {
+        List<String> parts = new ArrayList<>();
+        StringBuilder part = new StringBuilder();
+        for (char c : version.toCharArray()) {
+            boolean separator = c == '.' || c == '-' || c == '_';
+            if (separator || (!part.isEmpty()
+                    && Character.isDigit(c) != Character.isDigit(part.charAt(part.length() - 1)))) {
+                if (!part.isEmpty()) {
+                    parts.add(part.toString());
+                    part.setLength(0);
+                }
+            }
+            if (!separator) {
+                part.append(c);
+            }
+        }
+        if (!part.isEmpty()) {
+            parts.add(part.toString());
+        }
+        return parts;
+    }
+
+    private static int configurationRank(String configuration) {
+        int rank = CONFIGURATION_ORDER.indexOf(configuration);
+        return rank < 0 ? CONFIGURATION_ORDER.size() : rank;
+    }
+
+    public record Stats(long hits, long misses, int entries) {
+    }
+
+    private final class Node {
+        final String groupId;
+        final String artifactId;
+        final String module;
+        final int row;
+        final List<String> versions = new ArrayList<>();
+        final List<Node> processors = new ArrayList<>();
+        Node runtime;
+        String request;
+
+        Node(String groupId, String artifactId, int row) {
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.module = groupId + ":" + artifactId;
+            this.row = row;
+        }
+
+        // A runtime artifact and its processors share one version
+        Stream<String> familyVersions() {
+            return Stream.concat(versions.stream(), processors.stream().flatMap(p -> p.versions.stream()));
+        }
+
+        boolean isProcessor() {
+            return row >= 0
+                    ? PROCESSOR_TYPES.contains(catalogue.type(row))
+                    : artifactId.endsWith("-compiler") || artifactId.endsWith("-processor");
+        }
+
+        String configuration() {
+            if (row >= 0) {
+                return catalogue.type(row);
+            }
+            return isProcessor() ? PROCESSOR : "implementation";
+        }
+    }
+}
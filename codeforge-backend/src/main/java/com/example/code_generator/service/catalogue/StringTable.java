@@ -0,0 +1,67 @@
+package com.example.code_generator.service.catalogue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable list of strings packed into one UTF-8 byte array with an offset table, about
+ * a byte per ASCII character instead of a {@link String} object per value. Values are
+ * decoded on access. When built from a sorted list, {@link #compare} and
+ * {@link #startsWith} support binary search without decoding.
+ */
+final class StringTable {
+    private final byte[] bytes;
+    private final int[] offsets;
+
+    private StringTable(byte[] bytes, int[] offsets) {
+        this.bytes = bytes;
+        this.offsets = offsets;
+    }
+
+    static StringTable of(List<String> values) {
+        int[] offsets = new int[values.size() + 1];
+        byte[][] encoded = new byte[values.size()][];
+        int length = 0;
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = values.get(i).getBytes(StandardCharsets.UTF_8);
+            length += encoded[i].length;
+        }
+        byte[] bytes = new byte[length];
+        int position = 0;
+        for (int i = 0; i < encoded.length; i++) {
+            offsets[i] = position;
+            System.arraycopy(encoded[i], 0, bytes, position, encoded[i].length);
+            position += encoded[i].length;
+        }
+        offsets[encoded.length] = position;
+        return new StringTable(bytes, offsets);
+    }
+
+    int size() {
+        return offsets.length - 1;
+    }
+
+    String get(int id) {
+        return new String(bytes, offsets[id], offsets[id + 1] - offsets[id], StandardCharsets.UTF_8);
+    }
+
+    /** Unsigned byte comparison, which for UTF-8 matches code point order. */
+    int compare(int id, byte[] key) {
+        return Arrays.compareUnsigned(bytes, offsets[id], offsets[id + 1], key, 0, key.length);
+    }
+
+    boolean equals(int id, byte[] value) {
+        return Arrays.equals(bytes, offsets[id], offsets[id + 1], value, 0, value.length);
+    }
+
+    boolean startsWith(int id, byte[] prefix) {
+        int start = offsets[id];
+        return offsets[id + 1] - start >= prefix.length
+                && Arrays.equals(bytes, start, start + prefix.length, prefix, 0, prefix.length);
+    }
+
+    long footprintBytes() {
+        return bytes.length + 4L * offsets.length;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.code_generator.service.cluster;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Maps project ids to the node that owns them on a consistent-hash ring. Each node in
+ * {@code generator.cluster.nodes} ({@code id=url,...}) is placed on the ring at
+ * {@code generator.cluster.virtual-nodes} points; an id belongs to the first node clockwise
+ * of its hash. Without a node list this node owns everything.
+ *
+ * <p>Ids are minted by {@link #newProjectId()} so that they hash to the node generating the
+ * project, which therefore also owns its archive and registry entry; any node can then send a
+ * download to the right place from the id alone, without a shared index. Adding or removing a
+ * node re-homes about {@code 1/N} of the ids; downloads of those projects answer 404 until
+ * the membership is restored, so nodes should be replaced under the same id.
+ */
+@Component
+public class ClusterRouter {
+    private final String nodeId;
+    private final Map<String, String> nodeUrls;
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+
+    @Autowired
+    public ClusterRouter(
+            @Value("${generator.cluster.node-id:local}") String nodeId,
+            @Value("${generator.cluster.nodes:}") String nodes,
+            @Value("${generator.cluster.virtual-nodes:128}") int virtualNodes) {
+        this(nodeId, parseNodes(nodes), virtualNodes);
+    }
+
+    public ClusterRouter(String nodeId, Map<String, String> nodeUrls, int virtualNodes) {
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("virtual-nodes must be at least 1");
+        }
+        if (!nodeUrls.isEmpty() && !nodeUrls.containsKey(nodeId)) {
+            throw new IllegalArgumentException("Node " + nodeId + " is not in the cluster " + nodeUrls.keySet());
+        }
+        this.nodeId = nodeId;
+        this.nodeUrls = Collections.unmodifiableMap(new LinkedHashMap<>(nodeUrls));
+        for (String node : nodeUrls.isEmpty() ? Map.of(nodeId, "").keySet() : nodeUrls.keySet()) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(node + "#" + i), node);
+            }
+        }
+    }
+
+    /** Single-node router, as used when no cluster is configured. */
+    public static ClusterRouter standalone() {
+        return new ClusterRouter("local", Map.of(), 1);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public boolean isClustered() {
+        return nodeUrls.size() > 1;
+    }
+
+    public String ownerOf(String projectId) {
+        Map.Entry<Long, String> owner = ring.ceilingEntry(hash(projectId));
+        return (owner != null ? owner : ring.firstEntry()).getValue();
+    }
+
+    public boolean isLocal(String projectId) {
+        return nodeId.equals(ownerOf(projectId));
+    }
+
+    /** Base URL of the node owning {@code projectId}. */
+    public String urlOf(String projectId) {
+        return nodeUrls.get(ownerOf(projectId));
+    }
+
+    /** A fresh random project id owned by this node; takes N draws on average for N nodes. */
+    public String newProjectId() {
+        while (true) {
+            String id = UUID.randomUUID().toString();
+            if (isLocal(id)) {
+                return id;
+            }
+        }
+    }
+
+    private static Map<String, String> parseNodes(String nodes) {
+        Map<String, String> urls = new LinkedHashMap<>();
+        for (String node : nodes.split(",")) {
+            if (node.isBlank()) {
+                continue;
+            }
+            int separator = node.indexOf('=');
+            if (separator <= 0 || separator == node.length() - 1) {
+                throw new IllegalArgumentException("Expected id=url in generator.cluster.nodes, got " + node.trim());
+            }
+            urls.put(node.substring(0, separator).trim(), node.substring(separator + 1).trim().replaceAll("/+$", ""));
+        }
+        return urls;
+    }
+
+    private static long hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
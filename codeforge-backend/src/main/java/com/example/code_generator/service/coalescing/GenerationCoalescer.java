@@ -0,0 +1,133 @@
+package com.example.code_generator.service.coalescing;
+
+import com.example.code_generator.model.GeneratedProject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Single-flight for generations: concurrent requests whose configs have the same
+ * {@link com.example.code_generator.service.archive.ProjectFingerprint} share one generation.
+ * The first request for a fingerprint becomes the {@link Flight}'s leader and runs it; requests
+ * arriving while it is in flight {@link #follow} it instead and complete with the same project,
+ * or the same failure. A flight is forgotten as soon as it completes, so failures are not cached
+ * and the next request simply runs again.
+ *
+ * <p>Followers wait at most {@code generator.coalescing.timeout}, counted from the start of the
+ * flight, and then fail with a {@link TimeoutException}; the leader keeps running. A flight
+ * older than the timeout is no longer joined, and the next request leads a fresh one.
+ * {@code generator.coalescing.enabled=false} makes every request a leader.
+ */
+@Component
+public class GenerationCoalescer {
+    private final boolean enabled;
+    private final Duration timeout;
+    private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+    private final LongAdder led = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public GenerationCoalescer(
+            @Value("${generator.coalescing.enabled:true}") boolean enabled,
+            @Value("${generator.coalescing.timeout:PT2M}") Duration timeout) {
+        this.enabled = enabled;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Joins the flight in progress for {@code fingerprint}, or starts one led by {@code jobId}.
+     * A caller that finds itself the {@link Flight#getLeaderJobId() leader} must hand the
+     * flight its result through {@link #lead}, even when it fails before starting; anyone
+     * else calls {@link #follow}.
+     */
+    public Flight join(String fingerprint, String jobId) {
+        if (!enabled) {
+            led.increment();
+            return new Flight(fingerprint, jobId);
+        }
+        Flight flight = flights.compute(fingerprint, (key, current) ->
+                current != null && !current.result.isDone() && remainingNanos(current) > 0
+                        ? current
+                        : new Flight(key, jobId));
+        if (flight.leaderJobId.equals(jobId)) {
+            led.increment();
+        }
+        return flight;
+    }
+
+    /** Completes {@code flight} with the leader's {@code result}, once that is done. */
+    public CompletableFuture<GeneratedProject> lead(Flight flight, CompletableFuture<GeneratedProject> result) {
+        result.whenComplete((project, error) -> {
+            flights.remove(flight.fingerprint, flight);
+            if (error == null) {
+                flight.result.complete(project);
+            } else {
+                flight.result.completeExceptionally(error);
+            }
+        });
+        return result;
+    }
+
+    /** The leader's outcome, or a {@link TimeoutException} if it takes too long. */
+    public CompletableFuture<GeneratedProject> follow(Flight flight) {
+        coalesced.increment();
+        CompletableFuture<GeneratedProject> waiter = flight.result.copy();
+        long remaining = remainingNanos(flight);
+        CompletableFuture.delayedExecutor(Math.max(0, remaining), TimeUnit.NANOSECONDS).execute(() -> {
+            // Counted first so the stats include the timeout by the time the waiter sees it
+            if (!waiter.isDone()) {
+                timedOut.increment();
+                waiter.completeExceptionally(new TimeoutException("Gave up after " + timeout
+                        + " waiting for identical generation " + flight.leaderJobId));
+            }
+        });
+        waiter.whenComplete((project, error) -> {
+            if (error != null && !(error instanceof TimeoutException)) {
+                failed.increment();
+            }
+        });
+        return waiter;
+    }
+
+    public Stats getStats() {
+        return new Stats(flights.size(), led.sum(), coalesced.sum(), timedOut.sum(), failed.sum());
+    }
+
+    private long remainingNanos(Flight flight) {
+        return timeout.toNanos() - (System.nanoTime() - flight.startedNanos);
+    }
+
+    /**
+     * @param inFlight  fingerprints currently being generated
+     * @param led       requests that ran a generation
+     * @param coalesced requests that waited on another request's generation instead
+     * @param timedOut  coalesced requests that gave up waiting
+     * @param failed    coalesced requests that received their leader's failure
+     */
+    public record Stats(int inFlight, long led, long coalesced, long timedOut, long failed) {
+    }
+
+    /** One generation and the requests sharing it. */
+    public static final class Flight {
+        private final String fingerprint;
+        private final String leaderJobId;
+        private final long startedNanos = System.nanoTime();
+        private final CompletableFuture<GeneratedProject> result = new CompletableFuture<>();
+
+        private Flight(String fingerprint, String leaderJobId) {
+            this.fingerprint = fingerprint;
+            this.leaderJobId = leaderJobId;
+        }
+
+        public String getLeaderJobId() {
+            return leaderJobId;
+        }
+    }
+}
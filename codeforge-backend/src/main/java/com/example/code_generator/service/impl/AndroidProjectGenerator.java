@@ -2,31 +2,36 @@ package com.example.code_generator.service.impl;
 
 import com.example.code_generator.model.ProjectConfig;
 import com.example.code_generator.service.ProjectGenerator;
+import com.example.code_generator.service.archive.ArchiveSink;
+import com.example.code_generator.service.catalogue.DependencyResolver;
 import org.springframework.stereotype.Service;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 @Service
 public class AndroidProjectGenerator implements ProjectGenerator {
     private static final List<String> SUPPORTED_PROJECT_TYPES = Arrays.asList("Mobile Application");
+    private static final List<String> BASE_DEPENDENCIES = List.of(
+            "androidx.appcompat:appcompat:1.6.1",
+            "com.google.android.material:material:1.10.0",
+            "androidx.constraintlayout:constraintlayout:2.1.4");
+
+    private final DependencyResolver dependencyResolver;
+
+    public AndroidProjectGenerator(DependencyResolver dependencyResolver) {
+        this.dependencyResolver = dependencyResolver;
+    }
 
     @Override
-    public void generateProject(ProjectConfig config, Path outputPath) {
+    public void generateProject(ProjectConfig config, ArchiveSink sink) {
         try {
-            // Create project directory structure
-            Files.createDirectories(outputPath);
-            Files.createDirectories(outputPath.resolve("app/src/main/java"));
-            Files.createDirectories(outputPath.resolve("app/src/main/res/layout"));
-            Files.createDirectories(outputPath.resolve("app/src/main/res/values"));
-            
             // Generate project files
-            generateGradleFiles(outputPath, config);
-            generateManifest(outputPath, config);
-            generateMainActivity(outputPath, config);
-            generateLayoutFiles(outputPath, config);
+            generateGradleFiles(sink, config);
+            generateManifest(sink, config);
+            generateMainActivity(sink, config);
+            generateLayoutFiles(sink, config);
             
         } catch (IOException e) {
             throw new RuntimeException("Failed to generate Android project", e);
@@ -38,7 +43,7 @@ public class AndroidProjectGenerator implements ProjectGenerator {
         return SUPPORTED_PROJECT_TYPES;
     }
 
-    private void generateGradleFiles(Path outputPath, ProjectConfig config) throws IOException {
+    private void generateGradleFiles(ArchiveSink sink, ProjectConfig config) throws IOException {
         String buildGradle = """
             plugins {
                 id 'com.android.application'
@@ -58,11 +63,7 @@ public class AndroidProjectGenerator implements ProjectGenerator {
             }
             
             dependencies {
-                implementation 'androidx.appcompat:appcompat:1.6.1'
-                implementation 'com.google.android.material:material:1.10.0'
-                implementation 'androidx.constraintlayout:constraintlayout:2.1.4'
-                %s
-            }
+            %s}
             """.formatted(
                 config.getPackageName(),
                 config.getPackageName(),
@@ -70,27 +71,18 @@ public class AndroidProjectGenerator implements ProjectGenerator {
                 generateDependencies(config.getDependencies())
             );
             
-        Files.writeString(outputPath.resolve("app/build.gradle"), buildGradle);
+        sink.addEntry("app/build.gradle", buildGradle);
     }
 
     private String generateDependencies(List<String> dependencies) {
-        StringBuilder sb = new StringBuilder();
-        for (String dep : dependencies) {
-            switch (dep.toLowerCase()) {
-                case "dagger":
-                    sb.append("implementation 'com.google.dagger:dagger:2.48'\n");
-                    sb.append("annotationProcessor 'com.google.dagger:dagger-compiler:2.48'\n");
-                    break;
-                case "room":
-                    sb.append("implementation 'androidx.room:room-runtime:2.6.1'\n");
-                    sb.append("annotationProcessor 'androidx.room:room-compiler:2.6.1'\n");
-                    break;
-            }
+        List<String> requests = new ArrayList<>(BASE_DEPENDENCIES);
+        if (dependencies != null) {
+            requests.addAll(dependencies);
         }
-        return sb.toString();
+        return dependencyResolver.resolve(requests).getGradle().indent(4);
     }
 
-    private void generateManifest(Path outputPath, ProjectConfig config) throws IOException {
+    private void generateManifest(ArchiveSink sink, ProjectConfig config) throws IOException {
         String manifest = """
             <?xml version="1.0" encoding="utf-8"?>
             <manifest xmlns:android="http://schemas.android.com/apk/res/android"
@@ -114,14 +106,12 @@ public class AndroidProjectGenerator implements ProjectGenerator {
             </manifest>
             """.formatted(config.getPackageName());
             
-        Files.writeString(outputPath.resolve("app/src/main/AndroidManifest.xml"), manifest);
+        sink.addEntry("app/src/main/AndroidManifest.xml", manifest);
     }
 
-    private void generateMainActivity(Path outputPath, ProjectConfig config) throws IOException {
+    private void generateMainActivity(ArchiveSink sink, ProjectConfig config) throws IOException {
         String packagePath = config.getPackageName().replace('.', '/');
-        Path mainActivityPath = outputPath.resolve(
-            String.format("app/src/main/java/%s/MainActivity.java", packagePath));
-        Files.createDirectories(mainActivityPath.getParent());
+        String mainActivityPath = String.format("app/src/main/java/%s/MainActivity.java", packagePath);
         
         String mainActivity = """
             package %s;
@@ -138,10 +128,10 @@ public class AndroidProjectGenerator implements ProjectGenerator {
             }
             """.formatted(config.getPackageName());
             
-        Files.writeString(mainActivityPath, mainActivity);
+        sink.addEntry(mainActivityPath, mainActivity);
     }
 
-    private void generateLayoutFiles(Path outputPath, ProjectConfig config) throws IOException {
+    private void generateLayoutFiles(ArchiveSink sink, ProjectConfig config) throws IOException {
         String mainLayout = """
             <?xml version="1.0" encoding="utf-8"?>
             <androidx.constraintlayout.widget.ConstraintLayout
@@ -163,6 +153,6 @@ public class AndroidProjectGenerator implements ProjectGenerator {
             </androidx.constraintlayout.widget.ConstraintLayout>
             """.formatted(config.getProjectName());
             
-        Files.writeString(outputPath.resolve("app/src/main/res/layout/activity_main.xml"), mainLayout);
+        sink.addEntry("app/src/main/res/layout/activity_main.xml", mainLayout);
     }
 }
@@ -2,10 +2,9 @@ package com.example.code_generator.service.impl;
 
 import com.example.code_generator.model.ProjectConfig;
 import com.example.code_generator.service.ProjectGenerator;
+import com.example.code_generator.service.archive.ArchiveSink;
 import org.springframework.stereotype.Service;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 
@@ -14,17 +13,12 @@ public class ReactProjectGenerator implements ProjectGenerator {
     private static final List<String> SUPPORTED_PROJECT_TYPES = Arrays.asList("Web Application");
 
     @Override
-    public void generateProject(ProjectConfig config, Path outputPath) {
+    public void generateProject(ProjectConfig config, ArchiveSink sink) {
         try {
-            // Create project directory structure
-            Files.createDirectories(outputPath);
-            Files.createDirectories(outputPath.resolve("src"));
-            Files.createDirectories(outputPath.resolve("public"));
-            
             // Generate package.json, index.html, etc.
-            generatePackageJson(outputPath, config);
-            generateIndexHtml(outputPath, config);
-            generateAppJs(outputPath, config);
+            generatePackageJson(sink, config);
+            generateIndexHtml(sink, config);
+            generateAppJs(sink, config);
             
         } catch (IOException e) {
             throw new RuntimeException("Failed to generate React project", e);
@@ -36,7 +30,7 @@ public class ReactProjectGenerator implements ProjectGenerator {
         return SUPPORTED_PROJECT_TYPES;
     }
 
-    private void generatePackageJson(Path outputPath, ProjectConfig config) throws IOException {
+    private void generatePackageJson(ArchiveSink sink, ProjectConfig config) throws IOException {
         String content = "{\n" +
                 "  \"name\": \"" + config.getProjectName() + "\",\n" +
                 "  \"version\": \"" + config.getVersion() + "\",\n" +
@@ -53,10 +47,10 @@ public class ReactProjectGenerator implements ProjectGenerator {
                 "    \"eject\": \"react-scripts eject\"\n" +
                 "  }\n" +
                 "}";
-        Files.writeString(outputPath.resolve("package.json"), content);
+        sink.addEntry("package.json", content);
     }
 
-    private void generateIndexHtml(Path outputPath, ProjectConfig config) throws IOException {
+    private void generateIndexHtml(ArchiveSink sink, ProjectConfig config) throws IOException {
         String content = "<!DOCTYPE html>\n" +
                 "<html lang=\"en\">\n" +
                 "  <head>\n" +
@@ -68,10 +62,10 @@ public class ReactProjectGenerator implements ProjectGenerator {
                 "    <div id=\"root\"></div>\n" +
                 "  </body>\n" +
                 "</html>";
-        Files.writeString(outputPath.resolve("public/index.html"), content);
+        sink.addEntry("public/index.html", content);
     }
 
-    private void generateAppJs(Path outputPath, ProjectConfig config) throws IOException {
+    private void generateAppJs(ArchiveSink sink, ProjectConfig config) throws IOException {
         String content = "import React from 'react';\n\n" +
                 "function App() {\n" +
                 "  return (\n" +
@@ -82,6 +76,6 @@ public class ReactProjectGenerator implements ProjectGenerator {
                 "  );\n" +
                 "}\n\n" +
                 "export default App;";
-        Files.writeString(outputPath.resolve("src/App.js"), content);
+        sink.addEntry("src/App.js", content);
     }
 }
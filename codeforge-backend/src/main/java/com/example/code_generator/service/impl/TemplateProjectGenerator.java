@@ -0,0 +1,229 @@
+package com.example.code_generator.service.impl;
+
+import com.example.code_generator.model.ProjectConfig;
+import com.example.code_generator.model.ProjectTemplate;
+import com.example.code_generator.model.ResolvedDependencies;
+import com.example.code_generator.service.ProjectGenerator;
+import com.example.code_generator.service.TemplateDiscoveryService;
+import com.example.code_generator.service.TemplateIndex;
+import com.example.code_generator.service.archive.ArchiveSink;
+import com.example.code_generator.service.catalogue.DependencyResolver;
+import com.example.code_generator.service.schema.SchemaModelGenerator;
+import com.example.code_generator.service.template.CompiledFile;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Builds a project by rendering every {@link ProjectTemplate.TemplateFile} of the template
+ * matching the requested type and architecture. Files are rendered in parallel and written
+ * to the sink in the order they are declared in {@code template.json}. Templates arrive
+ * compiled in the {@link TemplateIndex}; plain-text files are pre-rendered there and reused.
+ * A generation uses a single index snapshot throughout, so a template reload never mixes
+ * old and new files in one project.
+ *
+ * <p>The template's required dependencies, the optional groups the config selects and any
+ * other selected names go through the {@link DependencyResolver}. Templates get one resolved
+ * artifact list ({@code dependencies.resolved}, with {@code configuration} and {@code notation})
+ * and, for compatibility, the declared lists with resolved versions.
+ *
+ * <p>A config with a {@code schema} gets Room entities and DAOs generated from it by the
+ * {@link SchemaModelGenerator} in place of the template's sample models, and the {@code room}
+ * dependencies. Only Android templates accept a schema.
+ *
+ * <p>Takes precedence over the hard-coded generators, which remain as a fallback for
+ * configurations that have no template.
+ */
+@Service
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TemplateProjectGenerator implements ProjectGenerator {
+    private static final String ANDROID = "android";
+    private static final String ROOM = "room";
+    private static final String SOURCE_ROOT = "app/src/main/java";
+
+    private final TemplateDiscoveryService templateDiscoveryService;
+    private final DependencyResolver dependencyResolver;
+    private final ForkJoinPool renderPool;
+    private final SchemaModelGenerator schemaModelGenerator;
+
+    public TemplateProjectGenerator(
+            TemplateDiscoveryService templateDiscoveryService,
+            DependencyResolver dependencyResolver,
+            @Qualifier("templateRenderPool") ForkJoinPool renderPool,
+            SchemaModelGenerator schemaModelGenerator) {
+        this.templateDiscoveryService = templateDiscoveryService;
+        this.dependencyResolver = dependencyResolver;
+        this.renderPool = renderPool;
+        this.schemaModelGenerator = schemaModelGenerator;
+    }
+
+    @Override
+    public boolean supports(ProjectConfig config) {
+        return findTemplate(templateDiscoveryService.getIndex(), config).isPresent();
+    }
+
+    @Override
+    public List<String> getSupportedProjectTypes() {
+        return templateDiscoveryService.getProjectTypes();
+    }
+
+    /** Checks the template exists and, in one streaming pass, that the schema would generate. */
+    @Override
+    public void validate(ProjectConfig config) {
+        TemplateIndex snapshot = templateDiscoveryService.getIndex();
+        ProjectTemplate template = requireTemplate(snapshot, config);
+        if (hasSchema(config)) {
+            checkSchemaSupported(config, template);
+            Map<String, Object> model = buildModel(config, template);
+            List<CompiledFile> compiled = snapshot.getCompiledFiles(template);
+            Set<String> paths = new HashSet<>();
+            for (int i = 0; i < compiled.size(); i++) {
+                if (!template.getFiles().get(i).isSample()) {
+                    paths.add(compiled.get(i).renderPath(model));
+                }
+            }
+            schemaModelGenerator.validate(config.getSchema(), config.getPackageName(), SOURCE_ROOT, paths);
+        }
+    }
+
+    @Override
+    public void generateProject(ProjectConfig config, ArchiveSink sink) {
+        TemplateIndex snapshot = templateDiscoveryService.getIndex();
+        ProjectTemplate template = requireTemplate(snapshot, config);
+        boolean schema = hasSchema(config);
+        if (schema) {
+            checkSchemaSupported(config, template);
+        }
+        Map<String, Object> model = buildModel(config, template);
+
+        // Compiled files are in the order of template.getFiles()
+        List<CompiledFile> compiled = snapshot.getCompiledFiles(template);
+        List<CompletableFuture<RenderedFile>> files = new ArrayList<>(compiled.size());
+        for (int i = 0; i < compiled.size(); i++) {
+            if (schema && template.getFiles().get(i).isSample()) {
+                continue;
+            }
+            CompiledFile file = compiled.get(i);
+            files.add(file.isConstant()
+                    ? CompletableFuture.completedFuture(render(file, model))
+                    : CompletableFuture.supplyAsync(() -> render(file, model), renderPool));
+        }
+
+        try {
+            Set<String> paths = new HashSet<>();
+            for (CompletableFuture<RenderedFile> file : files) {
+                RenderedFile rendered = file.join();
+                sink.addEntry(rendered.path(), rendered.content());
+                paths.add(rendered.path());
+            }
+            if (schema) {
+                schemaModelGenerator.generate(config.getSchema(), config.getPackageName(), SOURCE_ROOT, paths, sink);
+            }
+        } catch (CompletionException e) {
+            files.forEach(f -> f.cancel(false));
+            throw new RuntimeException("Failed to render template " + template.getTemplateName(), e.getCause());
+        } catch (IOException e) {
+            files.forEach(f -> f.cancel(false));
+            throw new RuntimeException("Failed to generate project from template " + template.getTemplateName(), e);
+        }
+    }
+
+    private static ProjectTemplate requireTemplate(TemplateIndex snapshot, ProjectConfig config) {
+        return findTemplate(snapshot, config)
+                .orElseThrow(() -> new IllegalArgumentException("No template for " + config.getProjectType()
+                        + " / " + config.getArchitecturePattern()));
+    }
+
+    private static void checkSchemaSupported(ProjectConfig config, ProjectTemplate template) {
+        if (!ANDROID.equalsIgnoreCase(template.getPlatform())) {
+            throw new IllegalArgumentException("Template " + template.getTemplateName() + " does not support a schema");
+        }
+        if (config.getPackageName() == null || config.getPackageName().isBlank()) {
+            throw new IllegalArgumentException("A schema needs a package name to generate into");
+        }
+    }
+
+    private static boolean hasSchema(ProjectConfig config) {
+        return config.getSchema() != null && !config.getSchema().isBlank();
+    }
+
+    private static Optional<ProjectTemplate> findTemplate(TemplateIndex index, ProjectConfig config) {
+        return index.findTemplate(config.getProjectType(), config.getArchitecturePattern());
+    }
+
+    private static RenderedFile render(CompiledFile file, Map<String, Object> model) {
+        return new RenderedFile(file.renderPath(model), file.renderContent(model));
+    }
+
+    Map<String, Object> buildModel(ProjectConfig config, ProjectTemplate template) {
+        Map<String, Object> model = new HashMap<>();
+        model.put("projectName", config.getProjectName());
+        model.put("projectDescription", config.getProjectDescription());
+        model.put("author", config.getAuthor());
+        model.put("version", config.getVersion());
+        model.put("packageName", config.getPackageName());
+        model.put("packagePath", config.getPackageName() == null ? null : config.getPackageName().replace('.', '/'));
+        model.put("architecture", template.getArchitecture());
+        model.put("dependencies", buildDependencies(config, template));
+        return model;
+    }
+
+    private Map<String, Object> buildDependencies(ProjectConfig config, ProjectTemplate template) {
+        Map<String, Object> dependencies = new HashMap<>();
+        ProjectTemplate.Dependencies declared = template.getDependencies();
+        if (declared == null) {
+            return dependencies;
+        }
+        List<String> required = declared.getRequired() == null ? List.of() : declared.getRequired();
+        List<String> requests = new ArrayList<>(required);
+
+        Set<String> selected = new LinkedHashSet<>();
+        if (config.getDependencies() != null) {
+            config.getDependencies().forEach(dep -> selected.add(dep.toLowerCase(Locale.ROOT)));
+        }
+        if (hasSchema(config)) {
+            selected.add(ROOM);
+        }
+        Map<String, List<String>> groups = new HashMap<>();
+        if (declared.getOptional() != null) {
+            declared.getOptional().forEach((name, artifacts) -> {
+                if (selected.remove(name.toLowerCase(Locale.ROOT))) {
+                    groups.put(name, artifacts);
+                    requests.addAll(artifacts);
+                }
+            });
+        }
+        // Names the template has no group for are looked up in the dependency catalogue
+        requests.addAll(selected);
+
+        ResolvedDependencies resolved = dependencyResolver.resolve(requests);
+        Map<String, String> notations = new HashMap<>();
+        List<Map<String, String>> artifacts = new ArrayList<>(resolved.getArtifacts().size());
+        for (ResolvedDependencies.Artifact artifact : resolved.getArtifacts()) {
+            notations.put(artifact.getGroupId() + ":" + artifact.getArtifactId(), artifact.getNotation());
+            artifacts.add(Map.of("configuration", artifact.getConfiguration(), "notation", artifact.getNotation()));
+        }
+        dependencies.put("resolved", artifacts);
+        dependencies.put("required", withResolvedVersions(required, notations));
+        groups.forEach((name, coordinates) -> dependencies.put(name, withResolvedVersions(coordinates, notations)));
+        return dependencies;
+    }
+
+    private static List<String> withResolvedVersions(List<String> coordinates, Map<String, String> notations) {
+        List<String> resolved = new ArrayList<>(coordinates.size());
+        for (String coordinate : coordinates) {
+            String[] parts = coordinate.split(":");
+            resolved.add(parts.length < 2 ? coordinate : notations.getOrDefault(parts[0] + ":" + parts[1], coordinate));
+        }
+        return resolved;
+    }
+
+    private record RenderedFile(String path, byte[] content) {
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.code_generator.service.metrics;
+
+import com.example.code_generator.model.ProjectConfig;
+import com.example.code_generator.service.TemplateDiscoveryService;
+import com.example.code_generator.service.admission.GenerationAdmission;
+import com.example.code_generator.service.archive.ArchiveSink;
+import com.example.code_generator.service.archive.DeflatedEntryCache;
+import com.example.code_generator.service.coalescing.GenerationCoalescer;
+import com.example.code_generator.service.registry.ProjectRegistry;
+import com.example.code_generator.service.registry.ZipRetentionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer instrumentation for the generation pipeline, scraped from
+ * {@code /actuator/prometheus}.
+ *
+ * <ul>
+ *   <li>{@code codeforge.generation.stage}: latency histogram per {@link Stage};</li>
+ *   <li>{@code codeforge.generation.files} / {@code codeforge.generation.bytes}: entries and
+ *       uncompressed bytes emitted by generators;</li>
+ *   <li>{@code codeforge.archive.size}: size of each stored ZIP;</li>
+ *   <li>{@code codeforge.registry.projects} and {@code codeforge.zipstore.bytes}: registry size
+ *       and zip-store disk usage as of the last retention sweep;</li>
+ *   <li>{@code codeforge.zip.entry-cache.*}: reuse of pre-compressed entries;</li>
+ *   <li>{@code codeforge.generation.coalescing}: generation requests by whether they ran
+ *       ({@code led}) or shared another's run ({@code coalesced}, {@code timeout},
+ *       {@code failed}), and {@code codeforge.generation.in-flight}: fingerprints being
+ *       generated.</li>
+ *   <li>{@code codeforge.admission.queued} / {@code codeforge.admission.in-use}: requests waiting
+ *       for admission and budget taken by running ones, {@code codeforge.admission.wait}: time
+ *       queued requests waited, and {@code codeforge.admission.requests}: requests by whether
+ *       they were {@code admitted} or {@code rejected}.</li>
+ * </ul>
+ * Per-project meters are tagged with {@code type} and {@code architecture}. They are only
+ * recorded for configs a generator accepted, and the values come from the matched template
+ * where there is one, so arbitrary client input cannot create new series.
+ */
+@Component
+public class GenerationMetrics {
+    private static final String NONE = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final TemplateDiscoveryService templateDiscoveryService;
+
+    public GenerationMetrics(
+            MeterRegistry meterRegistry,
+            TemplateDiscoveryService templateDiscoveryService,
+            ProjectRegistry projectRegistry,
+            ZipRetentionService retentionService,
+            DeflatedEntryCache entryCache,
+            GenerationCoalescer coalescer,
+            GenerationAdmission admission) {
+        this.meterRegistry = meterRegistry;
+        this.templateDiscoveryService = templateDiscoveryService;
+        Gauge.builder("codeforge.registry.projects", projectRegistry, ProjectRegistry::size)
+                .description("Projects in the registry, including eviction tombstones")
+                .register(meterRegistry);
+        Gauge.builder("codeforge.zipstore.bytes", retentionService, service -> service.getStats().totalBytes())
+                .description("Disk used by stored ZIPs at the last retention sweep")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        FunctionCounter.builder("codeforge.zip.entry-cache.requests", entryCache, cache -> cache.getStats().hits())
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("codeforge.zip.entry-cache.requests", entryCache, cache -> cache.getStats().misses())
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("codeforge.zip.entry-cache.bytes", entryCache, cache -> cache.getStats().bytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        FunctionCounter.builder("codeforge.generation.coalescing", coalescer, c -> c.getStats().led())
+                .tag("result", "led")
+                .description("Generation requests, by whether they ran or shared an identical in-flight one")
+                .register(meterRegistry);
+        FunctionCounter.builder("codeforge.generation.coalescing", coalescer, c -> c.getStats().coalesced())
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+        FunctionCounter.builder("codeforge.generation.coalescing", coalescer, c -> c.getStats().timedOut())
+                .tag("result", "timeout")
+                .register(meterRegistry);
+        FunctionCounter.builder("codeforge.generation.coalescing", coalescer, c -> c.getStats().failed())
+                .tag("result", "failed")
+                .register(meterRegistry);
+        Gauge.builder("codeforge.generation.in-flight", coalescer, c -> c.getStats().inFlight())
+                .register(meterRegistry);
+        Gauge.builder("codeforge.admission.queued", admission, a -> a.getStats().queued())
+                .description("Generation requests waiting for admission")
+                .register(meterRegistry);
+        Gauge.builder("codeforge.admission.in-use", admission, a -> a.getStats().inUse())
+                .description("Admission budget taken by running generations")
+                .register(meterRegistry);
+        FunctionTimer.builder("codeforge.admission.wait", admission,
+                        a -> a.getStats().waited(), a -> a.getStats().totalWaitMillis(), TimeUnit.MILLISECONDS)
+                .description("Time queued generation requests waited for admission")
+                .register(meterRegistry);
+        FunctionCounter.builder("codeforge.admission.requests", admission, a -> a.getStats().admitted())
+                .tag("result", "admitted")
+                .register(meterRegistry);
+        FunctionCounter.builder("codeforge.admission.requests", admission, a -> a.getStats().rejected())
+                .tag("result", "rejected")
+                .register(meterRegistry);
+    }
+
+    public enum Stage {
+        /** Waiting for admission and a generation thread. */
+        QUEUE,
+        /** Producing file contents, i.e. generator time outside the archive sink. */
+        RENDER,
+        /** Compressing and writing entries, including finishing the archive. */
+        ARCHIVE,
+        /** Recording the project in the registry. */
+        REGISTRY,
+        /** Submission to completion of a successful job. */
+        TOTAL
+    }
+
+    public void recordStage(Stage stage, ProjectConfig config, long nanos) {
+        recordStage(stage, tags(config), nanos);
+    }
+
+    public void recordArchiveSize(ProjectConfig config, long bytes) {
+        DistributionSummary.builder("codeforge.archive.size")
+                .baseUnit("bytes")
+                .tags(tags(config))
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(bytes);
+    }
+
+    /**
+     * Wraps {@code sink} so that, once it is closed, the time spent inside it is recorded as
+     * {@link Stage#ARCHIVE}, the rest of its lifetime as {@link Stage#RENDER}, and the files and
+     * bytes it received are counted. The returned sink must be used from one thread at a time.
+     */
+    public ArchiveSink meter(ArchiveSink sink, ProjectConfig config) {
+        return new MeteredArchiveSink(sink, this, tags(config));
+    }
+
+    void recordSink(Tags tags, long renderNanos, long archiveNanos, int files, long bytes) {
+        recordStage(Stage.RENDER, tags, renderNanos);
+        recordStage(Stage.ARCHIVE, tags, archiveNanos);
+        Counter.builder("codeforge.generation.files").tags(tags).register(meterRegistry).increment(files);
+        Counter.builder("codeforge.generation.bytes").baseUnit("bytes").tags(tags).register(meterRegistry).increment(bytes);
+    }
+
+    private void recordStage(Stage stage, Tags tags, long nanos) {
+        Timer.builder("codeforge.generation.stage")
+                .tags(tags)
+                .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Tags tags(ProjectConfig config) {
+        return templateDiscoveryService.findTemplate(config.getProjectType(), config.getArchitecturePattern())
+                .map(template -> Tags.of("type", template.getProjectType(), "architecture", template.getArchitecture()))
+                .orElseGet(() -> Tags.of(
+                        "type", config.getProjectType() == null ? NONE : config.getProjectType(),
+                        "architecture", NONE));
+    }
+}
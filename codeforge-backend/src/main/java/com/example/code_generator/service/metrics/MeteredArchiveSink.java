@@ -0,0 +1,49 @@
+package com.example.code_generator.service.metrics;
+
+import com.example.code_generator.service.archive.ArchiveSink;
+import io.micrometer.core.instrument.Tags;
+import java.io.IOException;
+
+/**
+ * Times the calls into a delegate sink so render and archive time can be told apart even
+ * though generators stream entries into the archive as they go.
+ */
+class MeteredArchiveSink implements ArchiveSink {
+    private final ArchiveSink delegate;
+    private final GenerationMetrics metrics;
+    private final Tags tags;
+    private final long openedAt = System.nanoTime();
+    private long sinkNanos;
+    private int files;
+    private long bytes;
+
+    MeteredArchiveSink(ArchiveSink delegate, GenerationMetrics metrics, Tags tags) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.tags = tags;
+    }
+
+    @Override
+    public void addEntry(String path, byte[] content) throws IOException {
+        long start = System.nanoTime();
+        try {
+            delegate.addEntry(path, content);
+            files++;
+            bytes += content.length;
+        } finally {
+            sinkNanos += System.nanoTime() - start;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        long start = System.nanoTime();
+        try {
+            delegate.close();
+        } finally {
+            long end = System.nanoTime();
+            sinkNanos += end - start;
+            metrics.recordSink(tags, end - openedAt - sinkNanos, sinkNanos, files, bytes);
+        }
+    }
+}
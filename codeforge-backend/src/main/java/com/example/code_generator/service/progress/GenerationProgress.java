@@ -0,0 +1,287 @@
+package com.example.code_generator.service.progress;
+
+import com.example.code_generator.model.GenerationEvent;
+import com.example.code_generator.service.archive.ArchiveSink;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams the {@link GenerationEvent}s of generation jobs to any number of Server-Sent Events
+ * watchers.
+ *
+ * <p>Each job has an append-only log of events numbered from 0. Publishing only appends to the
+ * log and, unless one is already pending, schedules a delivery on the
+ * {@code generationEventExecutor}, so the generation thread never writes to a client. A
+ * delivery sends every subscriber the events after the last one it received, as one write and
+ * flush, which coalesces bursts of file events. Subscribers are plain {@link SseEmitter}s in
+ * servlet async mode: a watcher costs a connection and a few objects, not a thread. Numbers
+ * double as SSE ids, so a reconnecting client resumes after {@code Last-Event-ID}.
+ *
+ * <p>The log of a running job keeps its milestones and the latest file events, bounded by
+ * {@value #MAX_EVENTS}; once the job finishes only the milestones and the last file and
+ * archive events remain for late watchers. Logs are dropped with their job.
+ */
+@Component
+public class GenerationProgress {
+    static final int MAX_EVENTS = 2048;
+    private static final long ARCHIVE_REPORT_BYTES = 256 * 1024;
+
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final Executor dispatcher;
+    private final Duration timeout;
+
+    public GenerationProgress(
+            @Qualifier("generationEventExecutor") Executor dispatcher,
+            @Value("${generator.events.timeout:PT30M}") Duration timeout) {
+        this.dispatcher = dispatcher;
+        this.timeout = timeout;
+    }
+
+    public void open(String jobId) {
+        channels.putIfAbsent(jobId, new Channel());
+    }
+
+    /**
+     * Appends an event to the job's log; its sequence number and job id are filled in here.
+     * Ignored once the job has finished or is unknown.
+     */
+    public void publish(String jobId, GenerationEvent.GenerationEventBuilder event) {
+        Channel channel = channels.get(jobId);
+        if (channel != null && channel.append(event.jobId(jobId))) {
+            channel.schedule();
+        }
+    }
+
+    /**
+     * Wraps the sink a job's generator writes to, publishing a {@link GenerationEvent.Type#FILE}
+     * event per entry.
+     */
+    public ArchiveSink track(String jobId, ArchiveSink sink) {
+        return new ProgressArchiveSink(sink, this, jobId);
+    }
+
+    /**
+     * Publishes {@link GenerationEvent.Type#ARCHIVE} events as the job's archive grows, at most
+     * once per 256 KiB and once more for the final size.
+     */
+    public ArchiveProgress archiveProgress(String jobId) {
+        return new ArchiveProgress() {
+            private long reported;
+
+            @Override
+            public void written(long bytes, boolean finished) {
+                if (finished || bytes - reported >= ARCHIVE_REPORT_BYTES) {
+                    reported = bytes;
+                    publish(jobId, GenerationEvent.builder().type(GenerationEvent.Type.ARCHIVE).archiveBytes(bytes));
+                }
+            }
+        };
+    }
+
+    /**
+     * Watches a job with a new emitter; see {@link #subscribe(String, Long, SseEmitter)}.
+     */
+    public Optional<SseEmitter> subscribe(String jobId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        return subscribe(jobId, lastEventId, emitter) ? Optional.of(emitter) : Optional.empty();
+    }
+
+    /**
+     * Sends {@code emitter} the job's events after {@code lastEventId} (all of them when
+     * {@code null}), then new ones as they happen, and completes it after the final event.
+     *
+     * @return {@code false} if the job is unknown
+     */
+    public boolean subscribe(String jobId, Long lastEventId, SseEmitter emitter) {
+        Channel channel = channels.get(jobId);
+        if (channel == null) {
+            return false;
+        }
+        Subscriber subscriber = new Subscriber(channel, emitter, lastEventId != null ? lastEventId : -1);
+        emitter.onCompletion(subscriber::detach);
+        emitter.onTimeout(subscriber::detach);
+        emitter.onError(error -> subscriber.detach());
+        channel.subscribers.add(subscriber);
+        subscribers.incrementAndGet();
+        channel.schedule();
+        return true;
+    }
+
+    /** Forgets a job's log; its watchers have been completed when it finished. */
+    public void close(String jobId) {
+        Channel channel = channels.remove(jobId);
+        if (channel != null) {
+            channel.subscribers.forEach(Subscriber::complete);
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(channels.size(), subscribers.get());
+    }
+
+    public record Stats(int jobs, int subscribers) {
+    }
+
+    /** Receives the compressed size of an archive while it is being written. */
+    public interface ArchiveProgress {
+        void written(long bytes, boolean finished);
+    }
+
+    private final class Channel {
+        private final List<GenerationEvent> events = new ArrayList<>();
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private long nextSequence;
+        private boolean finished;
+
+        synchronized boolean append(GenerationEvent.GenerationEventBuilder builder) {
+            if (finished) {
+                return false;
+            }
+            GenerationEvent event = builder.sequence(nextSequence++).build();
+            events.add(event);
+            if (event.getType().isTerminal()) {
+                finished = true;
+                compact(1);
+            } else if (events.size() > MAX_EVENTS) {
+                compact(MAX_EVENTS / 2);
+            }
+            return true;
+        }
+
+        synchronized boolean isFinished() {
+            return finished;
+        }
+
+        synchronized List<GenerationEvent> after(long sequence) {
+            int from = events.size();
+            while (from > 0 && events.get(from - 1).getSequence() > sequence) {
+                from--;
+            }
+            return List.copyOf(events.subList(from, events.size()));
+        }
+
+        // Keeps the newest `recent` events, and of the older ones every milestone plus the
+        // latest FILE and ARCHIVE events
+        private void compact(int recent) {
+            int cutoff = events.size() - recent;
+            List<GenerationEvent> kept = new ArrayList<>(recent + 8);
+            GenerationEvent lastFile = null;
+            GenerationEvent lastArchive = null;
+            for (GenerationEvent event : events.subList(0, cutoff)) {
+                switch (event.getType()) {
+                    case FILE -> lastFile = event;
+                    case ARCHIVE -> lastArchive = event;
+                    default -> kept.add(event);
+                }
+            }
+            if (lastFile != null) {
+                kept.add(lastFile);
+            }
+            if (lastArchive != null) {
+                kept.add(lastArchive);
+            }
+            kept.sort(Comparator.comparingLong(GenerationEvent::getSequence));
+            kept.addAll(events.subList(cutoff, events.size()));
+            events.clear();
+            events.addAll(kept);
+        }
+
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                dispatcher.execute(this::deliver);
+            }
+        }
+
+        private void deliver() {
+            scheduled.set(false);
+            for (Subscriber subscriber : subscribers) {
+                subscriber.deliver();
+            }
+        }
+    }
+
+    private final class Subscriber {
+        private final Channel channel;
+        private final SseEmitter emitter;
+        private long delivered;
+        private boolean done;
+
+        Subscriber(Channel channel, SseEmitter emitter, long delivered) {
+            this.channel = channel;
+            this.emitter = emitter;
+            this.delivered = delivered;
+        }
+
+        synchronized void deliver() {
+            if (done) {
+                return;
+            }
+            // Read before the log, so an empty tail really is past the final event
+            boolean finished = channel.isFinished();
+            List<GenerationEvent> events = channel.after(delivered);
+            if (events.isEmpty()) {
+                if (finished) {
+                    // Reconnected at or after the final event; nothing more will come
+                    complete();
+                }
+                return;
+            }
+            Set<ResponseBodyEmitter.DataWithMediaType> batch = new LinkedHashSet<>();
+            for (GenerationEvent event : events) {
+                batch.addAll(SseEmitter.event()
+                        .id(Long.toString(event.getSequence()))
+                        .name(event.getType().name().toLowerCase(Locale.ROOT))
+                        .data(event, MediaType.APPLICATION_JSON)
+                        .build());
+            }
+            try {
+                emitter.send(batch);
+            } catch (IOException | IllegalStateException e) {
+                // The client went away; the container completes the emitter
+                done = true;
+                detach();
+                return;
+            }
+            GenerationEvent last = events.get(events.size() - 1);
+            delivered = last.getSequence();
+            if (last.getType().isTerminal()) {
+                complete();
+            }
+        }
+
+        synchronized void complete() {
+            if (!done) {
+                done = true;
+                emitter.complete();
+            }
+            detach();
+        }
+
+        void detach() {
+            if (channel.subscribers.remove(this)) {
+                subscribers.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.code_generator.service.progress;
+
+import com.example.code_generator.model.GenerationEvent;
+import com.example.code_generator.service.archive.ArchiveSink;
+import java.io.IOException;
+
+/**
+ * Publishes a {@link GenerationEvent.Type#FILE} event for each entry written to the delegate,
+ * with running file and byte totals.
+ */
+class ProgressArchiveSink implements ArchiveSink {
+    private final ArchiveSink delegate;
+    private final GenerationProgress progress;
+    private final String jobId;
+    private int files;
+    private long bytes;
+
+    ProgressArchiveSink(ArchiveSink delegate, GenerationProgress progress, String jobId) {
+        this.delegate = delegate;
+        this.progress = progress;
+        this.jobId = jobId;
+    }
+
+    @Override
+    public void addEntry(String path, byte[] content) throws IOException {
+        delegate.addEntry(path, content);
+        files++;
+        bytes += content.length;
+        progress.publish(jobId, GenerationEvent.builder()
+                .type(GenerationEvent.Type.FILE)
+                .path(path)
+                .size((long) content.length)
+                .files(files)
+                .bytes(bytes));
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+}
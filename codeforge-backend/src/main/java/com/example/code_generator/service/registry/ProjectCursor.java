@@ -0,0 +1,50 @@
+package com.example.code_generator.service.registry;
+
+import com.example.code_generator.model.GeneratedProject;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Comparator;
+
+/**
+ * Position in the project listing, which runs newest first by {@code generatedAt} with the id
+ * as tie-breaker. Handed to clients as an opaque URL-safe token.
+ */
+public record ProjectCursor(LocalDateTime generatedAt, String id) implements Comparable<ProjectCursor> {
+    private static final Comparator<ProjectCursor> ORDER = Comparator
+            .comparing(ProjectCursor::generatedAt, Comparator.reverseOrder())
+            .thenComparing(ProjectCursor::id);
+
+    public static ProjectCursor of(GeneratedProject project) {
+        // Records written before generatedAt was always set sort last
+        LocalDateTime generatedAt = project.getGeneratedAt() != null ? project.getGeneratedAt() : LocalDateTime.MIN;
+        return new ProjectCursor(generatedAt, project.getId());
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code token} was not produced by {@link #encode()}
+     */
+    public static ProjectCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf(' ');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+            return new ProjectCursor(LocalDateTime.parse(value.substring(0, separator)), value.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+
+    public String encode() {
+        byte[] value = (generatedAt + " " + id).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value);
+    }
+
+    @Override
+    public int compareTo(ProjectCursor other) {
+        return ORDER.compare(this, other);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.code_generator.service.registry;
+
+import java.time.LocalDateTime;
+
+/**
+ * Thrown when a project existed but its archive has been evicted by retention. Mapped to
+ * {@code 410 Gone} so clients can tell it apart from an id that never existed.
+ */
+public class ProjectEvictedException extends RuntimeException {
+
+    public ProjectEvictedException(String id, LocalDateTime evictedAt) {
+        super("Project " + id + " was evicted at " + evictedAt);
+    }
+}
@@ -0,0 +1,413 @@
+package com.example.code_generator.service.registry;
+
+import com.example.code_generator.model.GeneratedProject;
+import com.example.code_generator.service.storage.ArtifactStore;
+import com.example.code_generator.service.storage.LocalArtifactStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Durable index of generated projects. The live set is held in a {@link ConcurrentHashMap}
+ * for lock-free O(1) reads; every change is first appended as one JSON line to
+ * {@code <project.generated.dir>/registry.log}. Writers are serialised.
+ *
+ * <p>On startup the log is replayed and reconciled with the {@link ArtifactStore}:
+ * <ul>
+ *   <li>a torn final record left by a crash is truncated away,</li>
+ *   <li>a corrupt record elsewhere is skipped and replay carries on with the next line; the
+ *       original log is kept as {@code registry.log.corrupt} before the snapshot replaces it,</li>
+ *   <li>entries whose ZIP has disappeared are dropped; with a remote store only those the
+ *       store no longer lists,</li>
+ *   <li>ZIPs no entry refers to are adopted under their file name, so they can be
+ *       downloaded again,</li>
+ *   <li>leftover {@code .part} files from interrupted writes are deleted.</li>
+ * </ul>
+ * Evicted projects stay in the registry as tombstones (with {@code evictedAt} set and no
+ * archive) until retention purges them.
+ * The log is rewritten as a snapshot after recovery, and again whenever superseded records
+ * outnumber live ones by {@code project.registry.compaction-ratio}.
+ *
+ * <p>Live projects are also kept in skip lists ordered by {@link ProjectCursor}: one over all of
+ * them and secondary ones per project type, per architecture and per both, so a filtered page
+ * starts with a seek instead of a scan. They are maintained under the writer lock and read
+ * without locking, like the map. A last index maps each archive to the live projects bound to it.
+ */
+@Component
+public class ProjectRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(ProjectRegistry.class);
+    private static final String PUT = "PUT";
+    private static final String DELETE = "DELETE";
+    private static final int MIN_RECORDS_BEFORE_COMPACTION = 1024;
+
+    private final Map<String, GeneratedProject> projects = new ConcurrentHashMap<>();
+    private final Collection<GeneratedProject> view = Collections.unmodifiableCollection(projects.values());
+    private final NavigableMap<ProjectCursor, GeneratedProject> byGeneratedAt = new ConcurrentSkipListMap<>();
+    private final Map<String, NavigableMap<ProjectCursor, GeneratedProject>> byProjectType = new ConcurrentHashMap<>();
+    private final Map<String, NavigableMap<ProjectCursor, GeneratedProject>> byArchitecture = new ConcurrentHashMap<>();
+    private final Map<String, NavigableMap<ProjectCursor, GeneratedProject>> byTypeAndArchitecture = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> byZipPath = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    private final Path logPath;
+    private final ArtifactStore store;
+    private final boolean fsync;
+    private final int compactionRatio;
+    private FileChannel log;
+    private int logRecords;
+
+    public ProjectRegistry(ObjectMapper objectMapper, String baseDir, boolean fsync, int compactionRatio) {
+        this(objectMapper, baseDir, fsync, compactionRatio, new LocalArtifactStore(Paths.get(baseDir, "zips")));
+    }
+
+    @Autowired
+    public ProjectRegistry(
+            ObjectMapper objectMapper,
+            @Value("${project.generated.dir:generated-projects}") String baseDir,
+            @Value("${project.registry.fsync:true}") boolean fsync,
+            @Value("${project.registry.compaction-ratio:2}") int compactionRatio,
+            ArtifactStore store) {
+        this.objectMapper = objectMapper;
+        this.logPath = Paths.get(baseDir, "registry.log");
+        this.store = store;
+        this.fsync = fsync;
+        this.compactionRatio = Math.max(1, compactionRatio);
+        try {
+            Files.createDirectories(logPath.getParent());
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open project registry " + logPath, e);
+        }
+    }
+
+    public Optional<GeneratedProject> get(String id) {
+        return Optional.ofNullable(projects.get(id));
+    }
+
+    /** Live, unmodifiable view; iteration is weakly consistent with concurrent writes. */
+    public Collection<GeneratedProject> getAll() {
+        return view;
+    }
+
+    public int size() {
+        return projects.size();
+    }
+
+    /**
+     * Live (not evicted) projects newest first, optionally filtered by project type and
+     * architecture (compared ignoring case) and starting after {@code after}. The view is lazy
+     * and weakly consistent with concurrent writes.
+     */
+    public Collection<GeneratedProject> list(String projectType, String architecture, ProjectCursor after) {
+        NavigableMap<ProjectCursor, GeneratedProject> index;
+        if (projectType != null && architecture != null) {
+            index = byTypeAndArchitecture.get(indexKey(projectType) + '\0' + indexKey(architecture));
+        } else if (projectType != null) {
+            index = byProjectType.get(indexKey(projectType));
+        } else if (architecture != null) {
+            index = byArchitecture.get(indexKey(architecture));
+        } else {
+            index = byGeneratedAt;
+        }
+        if (index == null) {
+            return List.of();
+        }
+        return Collections.unmodifiableCollection(after != null ? index.tailMap(after, false).values() : index.values());
+    }
+
+    public synchronized void put(GeneratedProject project) {
+        append(new LogRecord(PUT, project.getId(), project));
+        unindex(projects.put(project.getId(), project));
+        index(project);
+        maybeCompact();
+    }
+
+    /** As {@link #put} for each project, appending them all with one sync of the log. */
+    public synchronized void putAll(Collection<GeneratedProject> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        append(batch.stream().map(project -> new LogRecord(PUT, project.getId(), project)).toList());
+        for (GeneratedProject project : batch) {
+            unindex(projects.put(project.getId(), project));
+            index(project);
+        }
+        maybeCompact();
+    }
+
+    /** Ids of the live projects whose archive is {@code zipPath}. */
+    public Set<String> getLiveIds(String zipPath) {
+        Set<String> ids = byZipPath.get(zipPath);
+        return ids == null ? Set.of() : Set.copyOf(ids);
+    }
+
+    public synchronized Optional<GeneratedProject> remove(String id) {
+        if (!projects.containsKey(id)) {
+            return Optional.empty();
+        }
+        append(new LogRecord(DELETE, id, null));
+        GeneratedProject removed = projects.remove(id);
+        unindex(removed);
+        maybeCompact();
+        return Optional.ofNullable(removed);
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (log != null && log.isOpen()) {
+            log.force(true);
+            log.close();
+        }
+    }
+
+    private void recover() throws IOException {
+        int replayed = replay();
+        deletePartials();
+        Set<String> stored = new HashSet<>(store.list());
+        int dropped = 0;
+        Set<String> referenced = new HashSet<>();
+        for (GeneratedProject project : projects.values()) {
+            if (project.getEvictedAt() != null) {
+                continue;
+            }
+            Path zip = Paths.get(project.getZipPath());
+            String key = zip.getFileName().toString();
+            if (Files.isRegularFile(zip) || (store.isRemote() && stored.contains(key))) {
+                referenced.add(key);
+            } else {
+                projects.remove(project.getId());
+                dropped++;
+            }
+        }
+        int adopted = adoptOrphans(stored, referenced);
+        projects.values().forEach(this::index);
+        logger.info("Project registry recovered {} records: {} live, {} missing archives dropped, {} orphaned archives adopted",
+                replayed, projects.size(), dropped, adopted);
+        writeSnapshot();
+    }
+
+    private int replay() throws IOException {
+        if (!Files.exists(logPath)) {
+            return 0;
+        }
+        byte[] bytes = Files.readAllBytes(logPath);
+        int records = 0;
+        int corrupt = 0;
+        int start = 0;
+        while (start < bytes.length) {
+            int end = indexOf(bytes, (byte) '\n', start);
+            if (end < 0) {
+                logger.warn("Discarding incomplete trailing record in {}", logPath);
+                break;
+            }
+            try {
+                LogRecord record = objectMapper.readValue(bytes, start, end - start, LogRecord.class);
+                if (PUT.equals(record.op()) && record.project() != null) {
+                    projects.put(record.id(), record.project());
+                } else if (DELETE.equals(record.op())) {
+                    projects.remove(record.id());
+                }
+                records++;
+            } catch (IOException e) {
+                logger.warn("Skipping corrupt record at offset {} in {}: {}", start, logPath, e.getMessage());
+                corrupt++;
+            }
+            start = end + 1;
+        }
+        if (corrupt > 0) {
+            Path kept = logPath.resolveSibling(logPath.getFileName() + ".corrupt");
+            Files.copy(logPath, kept, StandardCopyOption.REPLACE_EXISTING);
+            logger.warn("Skipped {} corrupt records; the original log is kept as {}", corrupt, kept);
+        }
+        return records;
+    }
+
+    // Archives are keyed by file name and always served from the store's local directory
+    private int adoptOrphans(Set<String> stored, Set<String> referenced) throws IOException {
+        int adopted = 0;
+        for (String key : stored) {
+            if (key.endsWith(".zip") && !referenced.contains(key)) {
+                String id = key.substring(0, key.length() - ".zip".length());
+                Path file = store.getDirectory().resolve(key);
+                LocalDateTime generatedAt = Files.exists(file)
+                        ? LocalDateTime.ofInstant(Files.getLastModifiedTime(file).toInstant(), ZoneId.systemDefault())
+                        : LocalDateTime.now();
+                projects.putIfAbsent(id, GeneratedProject.builder()
+                        .id(id)
+                        .name(id)
+                        .generatedAt(generatedAt)
+                        .zipPath(file.toString())
+                        .build());
+                adopted++;
+            }
+        }
+        return adopted;
+    }
+
+    private void deletePartials() throws IOException {
+        try (DirectoryStream<Path> partials = Files.newDirectoryStream(store.getDirectory(), "*.part")) {
+            for (Path partial : partials) {
+                Files.deleteIfExists(partial);
+            }
+        }
+    }
+
+    private void index(GeneratedProject project) {
+        if (project.getEvictedAt() != null) {
+            return;
+        }
+        ProjectCursor key = ProjectCursor.of(project);
+        byGeneratedAt.put(key, project);
+        if (project.getZipPath() != null) {
+            byZipPath.computeIfAbsent(project.getZipPath(), k -> ConcurrentHashMap.newKeySet()).add(project.getId());
+        }
+        String type = project.getProjectType() != null ? indexKey(project.getProjectType()) : null;
+        String architecture = project.getArchitecture() != null ? indexKey(project.getArchitecture()) : null;
+        if (type != null) {
+            byProjectType.computeIfAbsent(type, k -> new ConcurrentSkipListMap<>()).put(key, project);
+        }
+        if (architecture != null) {
+            byArchitecture.computeIfAbsent(architecture, k -> new ConcurrentSkipListMap<>()).put(key, project);
+        }
+        if (type != null && architecture != null) {
+            byTypeAndArchitecture.computeIfAbsent(type + '\0' + architecture, k -> new ConcurrentSkipListMap<>())
+                    .put(key, project);
+        }
+    }
+
+    private void unindex(GeneratedProject project) {
+        if (project == null || project.getEvictedAt() != null) {
+            return;
+        }
+        ProjectCursor key = ProjectCursor.of(project);
+        byGeneratedAt.remove(key);
+        if (project.getZipPath() != null) {
+            Set<String> ids = byZipPath.get(project.getZipPath());
+            if (ids != null) {
+                ids.remove(project.getId());
+                if (ids.isEmpty()) {
+                    byZipPath.remove(project.getZipPath());
+                }
+            }
+        }
+        String type = project.getProjectType() != null ? indexKey(project.getProjectType()) : null;
+        String architecture = project.getArchitecture() != null ? indexKey(project.getArchitecture()) : null;
+        if (type != null) {
+            unindex(byProjectType, type, key);
+        }
+        if (architecture != null) {
+            unindex(byArchitecture, architecture, key);
+        }
+        if (type != null && architecture != null) {
+            unindex(byTypeAndArchitecture, type + '\0' + architecture, key);
+        }
+    }
+
+    private static void unindex(Map<String, NavigableMap<ProjectCursor, GeneratedProject>> indexes, String value,
+                                ProjectCursor key) {
+        NavigableMap<ProjectCursor, GeneratedProject> index = indexes.get(value);
+        if (index != null) {
+            index.remove(key);
+            if (index.isEmpty()) {
+                indexes.remove(value);
+            }
+        }
+    }
+
+    private static String indexKey(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private void maybeCompact() {
+        if (logRecords >= MIN_RECORDS_BEFORE_COMPACTION && logRecords > compactionRatio * projects.size()) {
+            try {
+                writeSnapshot();
+            } catch (IOException e) {
+                logger.warn("Registry compaction failed, continuing with the existing log: {}", e.getMessage());
+            }
+        }
+    }
+
+    // The snapshot is fully written and synced before it atomically replaces the old log
+    private void writeSnapshot() throws IOException {
+        Path tmp = logPath.resolveSibling(logPath.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (GeneratedProject project : projects.values()) {
+                write(out, new LogRecord(PUT, project.getId(), project));
+            }
+            out.force(true);
+        }
+        if (log != null) {
+            log.close();
+        }
+        Files.move(tmp, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log = FileChannel.open(logPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        logRecords = projects.size();
+    }
+
+    private void append(LogRecord record) {
+        append(List.of(record));
+    }
+
+    private void append(List<LogRecord> records) {
+        try {
+            for (LogRecord record : records) {
+                write(log, record);
+            }
+            if (fsync) {
+                log.force(false);
+            }
+            logRecords += records.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to project registry " + logPath, e);
+        }
+    }
+
+    private void write(FileChannel channel, LogRecord record) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(record);
+        ByteBuffer buffer = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static int indexOf(byte[] bytes, byte value, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private record LogRecord(String op, String id, GeneratedProject project) {
+    }
+}
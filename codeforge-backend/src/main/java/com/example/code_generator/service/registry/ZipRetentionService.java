@@ -0,0 +1,258 @@
+package com.example.code_generator.service.registry;
+
+import com.example.code_generator.model.GeneratedProject;
+import com.example.code_generator.service.archive.ArchiveCache;
+import com.example.code_generator.service.storage.ArtifactStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Keeps the zips store bounded. A background sweep evicts projects that have not been
+ * downloaded within {@code project.retention.ttl}, then evicts whole archives in
+ * least-recently-downloaded order until the store fits in
+ * {@code project.retention.max-total-bytes}. Each sweep evicts at most
+ * {@code project.retention.batch-size} projects, so the work is spread over several runs.
+ *
+ * <p>Evicted projects are kept as tombstones, so downloads answer {@code 410 Gone}.
+ * Tombstones are purged after {@code project.retention.tombstone-ttl}. Download access
+ * times are tracked in memory; after a restart a project's generation time stands in for
+ * its last access.
+ *
+ * <p>Evicted archives are deleted from the {@link ArtifactStore}. With a remote store the size
+ * bound is measured over the copies cached on this node.
+ *
+ * <p>A sweep plans its evictions from a snapshot of the registry without locking. It then
+ * takes the blob write lock once per archive to be deleted, just long enough to check that no
+ * project was bound to it since and to unbind it. The tombstones are written as one batch and
+ * the archives deleted after that, with no lock held.
+ */
+@Component
+public class ZipRetentionService {
+    private static final Logger logger = LoggerFactory.getLogger(ZipRetentionService.class);
+
+    private final ProjectRegistry registry;
+    private final ArchiveCache archiveCache;
+    private final ArtifactStore store;
+    private final long maxTotalBytes;
+    private final Duration ttl;
+    private final Duration tombstoneTtl;
+    private final int batchSize;
+    private final Map<String, Long> lastAccess = new ConcurrentHashMap<>();
+    private volatile Stats stats = new Stats(0, 0, 0, 0, 0, null);
+
+    public ZipRetentionService(
+            ProjectRegistry registry,
+            ArchiveCache archiveCache,
+            ArtifactStore store,
+            @Value("${project.retention.max-total-bytes:10737418240}") long maxTotalBytes,
+            @Value("${project.retention.ttl:P7D}") Duration ttl,
+            @Value("${project.retention.tombstone-ttl:P30D}") Duration tombstoneTtl,
+            @Value("${project.retention.batch-size:200}") int batchSize) {
+        this.registry = registry;
+        this.archiveCache = archiveCache;
+        this.store = store;
+        this.maxTotalBytes = maxTotalBytes;
+        this.ttl = ttl;
+        this.tombstoneTtl = tombstoneTtl;
+        this.batchSize = batchSize;
+    }
+
+    public void recordAccess(String id) {
+        lastAccess.put(id, System.currentTimeMillis());
+    }
+
+    public Stats getStats() {
+        return stats;
+    }
+
+    @Scheduled(fixedDelayString = "${project.retention.interval:PT1M}",
+               initialDelayString = "${project.retention.interval:PT1M}")
+    public synchronized void sweep() {
+        long now = System.currentTimeMillis();
+        LocalDateTime evictedAt = LocalDateTime.now();
+        int purged = 0;
+
+        // Plan from a snapshot without the blob lock; generations keep binding meanwhile
+        Map<String, Archive> byPath = new HashMap<>();
+        for (GeneratedProject project : registry.getAll()) {
+            if (project.getEvictedAt() != null) {
+                if (isOlderThan(project.getEvictedAt(), tombstoneTtl, now)) {
+                    registry.remove(project.getId());
+                    purged++;
+                }
+                continue;
+            }
+            byPath.computeIfAbsent(project.getZipPath(), Archive::new).add(project, accessTime(project));
+        }
+        long totalBytes = 0;
+        for (Archive archive : byPath.values()) {
+            archive.size = sizeOf(archive.path);
+            totalBytes += archive.size;
+        }
+        int planned = 0;
+
+        // Pass 1: expire individual projects, deleting archives nobody references any more
+        for (Archive archive : byPath.values()) {
+            for (GeneratedProject project : archive.projects) {
+                if (planned < batchSize && now - accessTime(project) > ttl.toMillis()) {
+                    archive.evicting.add(project);
+                    planned++;
+                }
+            }
+            archive.delete = !archive.projects.isEmpty() && archive.evicting.size() == archive.projects.size();
+            if (archive.delete) {
+                totalBytes -= archive.size;
+            }
+        }
+
+        // Pass 2: least recently downloaded archives go first until under the size bound
+        List<Archive> lru = new ArrayList<>(byPath.values());
+        lru.removeIf(archive -> archive.delete);
+        lru.sort(Comparator.comparingLong(archive -> archive.lastAccess));
+        for (Archive archive : lru) {
+            if (totalBytes <= maxTotalBytes || planned >= batchSize) {
+                break;
+            }
+            planned += archive.projects.size() - archive.evicting.size();
+            archive.evicting.clear();
+            archive.evicting.addAll(archive.projects);
+            archive.delete = true;
+            archive.wholeArchive = true;
+            totalBytes -= archive.size;
+        }
+
+        // Unbind one archive at a time, after checking no project was bound to it meanwhile
+        List<GeneratedProject> tombstones = new ArrayList<>();
+        List<Archive> deleting = new ArrayList<>();
+        for (Archive archive : byPath.values()) {
+            if (archive.evicting.isEmpty()) {
+                continue;
+            }
+            if (archive.delete && !unbind(archive)) {
+                totalBytes += archive.size;
+                if (archive.wholeArchive) {
+                    continue;
+                }
+            }
+            if (archive.delete) {
+                deleting.add(archive);
+            }
+            for (GeneratedProject project : archive.evicting) {
+                tombstones.add(project.toBuilder().evictedAt(evictedAt).build());
+            }
+        }
+
+        // Tombstones go in before the archives they refer to disappear
+        try {
+            registry.putAll(tombstones);
+            tombstones.forEach(project -> lastAccess.remove(project.getId()));
+            for (Archive archive : deleting) {
+                try {
+                    store.delete(archive.key);
+                } catch (IOException e) {
+                    logger.warn("Could not delete evicted archive {}: {}", archive.path, e.getMessage());
+                }
+                archiveCache.retired(archive.key);
+            }
+        } finally {
+            // Also releases the keys when the tombstones could not be written
+            deleting.forEach(archive -> archiveCache.retired(archive.key));
+        }
+
+        int evicted = tombstones.size();
+        int archives = byPath.size() - deleting.size();
+        if (evicted > 0 || purged > 0) {
+            logger.info("Retention sweep evicted {} projects and purged {} tombstones; store now {} bytes in {} archives",
+                    evicted, purged, totalBytes, archives);
+        }
+        stats = new Stats(totalBytes, maxTotalBytes, archives, evicted, stats.totalEvicted() + evicted, evictedAt);
+    }
+
+    // Exclusive only against binding new projects to blobs, and only for this one archive
+    private boolean unbind(Archive archive) {
+        Lock lock = archiveCache.getBlobLock().writeLock();
+        lock.lock();
+        try {
+            Set<String> evicting = new HashSet<>();
+            archive.evicting.forEach(project -> evicting.add(project.getId()));
+            if (!evicting.containsAll(registry.getLiveIds(archive.path.toString()))) {
+                archive.delete = false;
+                return false;
+            }
+            archiveCache.retire(archive.key, archive.fingerprints);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long accessTime(GeneratedProject project) {
+        Long accessed = lastAccess.get(project.getId());
+        if (accessed != null) {
+            return accessed;
+        }
+        return project.getGeneratedAt() == null ? 0
+                : project.getGeneratedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static boolean isOlderThan(LocalDateTime time, Duration age, long now) {
+        return now - time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() > age.toMillis();
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    public record Stats(long totalBytes, long maxTotalBytes, int archives, int lastSweepEvicted,
+                        long totalEvicted, LocalDateTime lastSweepAt) {
+    }
+
+    /** One ZIP on disk and the live projects that point at it. */
+    private static final class Archive {
+        private final Path path;
+        private final String key;
+        private final List<GeneratedProject> projects = new ArrayList<>();
+        private final List<String> fingerprints = new ArrayList<>();
+        private final List<GeneratedProject> evicting = new ArrayList<>();
+        private long lastAccess;
+        private long size;
+        private boolean delete;
+        private boolean wholeArchive;
+
+        private Archive(String zipPath) {
+            this.path = Paths.get(zipPath);
+            this.key = path.getFileName().toString();
+        }
+
+        private void add(GeneratedProject project, long accessTime) {
+            projects.add(project);
+            if (project.getFingerprint() != null && !fingerprints.contains(project.getFingerprint())) {
+                fingerprints.add(project.getFingerprint());
+            }
+            lastAccess = Math.max(lastAccess, accessTime);
+        }
+    }
+}
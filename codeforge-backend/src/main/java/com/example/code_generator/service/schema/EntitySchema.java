@@ -0,0 +1,35 @@
+package com.example.code_generator.service.schema;
+
+import lombok.Data;
+import java.util.List;
+
+/**
+ * One entity of a project schema, as bound from its JSON object:
+ * <pre>
+ * {"name": "User", "table": "users", "fields": [
+ *     {"name": "id", "type": "long", "primaryKey": true, "autoGenerate": true},
+ *     {"name": "email", "type": "string", "nullable": false, "unique": true},
+ *     {"name": "createdAt", "type": "date"}]}
+ * </pre>
+ * {@code table} defaults to the name in snake case. An entity without a primary key gets an
+ * auto-generated {@code long id}.
+ */
+@Data
+public class EntitySchema {
+    private String name;
+    private String table;
+    private List<Field> fields;
+
+    @Data
+    public static class Field {
+        private String name;
+        /** One of the {@link FieldType} names or aliases, ignoring case. */
+        private String type;
+        private boolean primaryKey;
+        private boolean autoGenerate;
+        /** Defaults to {@code true}, except for primary keys. */
+        private Boolean nullable;
+        private boolean unique;
+        private boolean indexed;
+    }
+}
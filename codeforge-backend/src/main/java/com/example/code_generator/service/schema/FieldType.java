@@ -0,0 +1,51 @@
+package com.example.code_generator.service.schema;
+
+import java.util.Locale;
+import java.util.Map;
+
+/** Column types a schema field can have, with the Java types Room stores them as. */
+enum FieldType {
+    INT("int", "Integer"),
+    LONG("long", "Long"),
+    FLOAT("float", "Float"),
+    DOUBLE("double", "Double"),
+    BOOLEAN("boolean", "Boolean"),
+    STRING("String", "String"),
+    DATE("Date", "Date"),
+    BYTES("byte[]", "byte[]");
+
+    private static final Map<String, FieldType> BY_NAME = Map.ofEntries(
+            Map.entry("int", INT), Map.entry("integer", INT),
+            Map.entry("long", LONG),
+            Map.entry("float", FLOAT),
+            Map.entry("double", DOUBLE), Map.entry("decimal", DOUBLE),
+            Map.entry("boolean", BOOLEAN), Map.entry("bool", BOOLEAN),
+            Map.entry("string", STRING), Map.entry("text", STRING),
+            Map.entry("date", DATE), Map.entry("datetime", DATE), Map.entry("timestamp", DATE),
+            Map.entry("bytes", BYTES), Map.entry("blob", BYTES));
+
+    private final String primitive;
+    private final String boxed;
+
+    FieldType(String primitive, String boxed) {
+        this.primitive = primitive;
+        this.boxed = boxed;
+    }
+
+    static FieldType of(String name) {
+        FieldType type = name == null ? null : BY_NAME.get(name.trim().toLowerCase(Locale.ROOT));
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown field type " + name + "; expected one of " + BY_NAME.keySet());
+        }
+        return type;
+    }
+
+    String javaType(boolean nullable) {
+        return nullable ? boxed : primitive;
+    }
+
+    /** Whether values are objects, which Room wants annotated with their nullability. */
+    boolean isReference() {
+        return this == STRING || this == DATE || this == BYTES;
+    }
+}
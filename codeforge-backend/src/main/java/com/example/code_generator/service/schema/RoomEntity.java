@@ -0,0 +1,125 @@
+package com.example.code_generator.service.schema;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/** A validated {@link EntitySchema}, with types resolved and defaults applied. */
+record RoomEntity(String name, String table, List<Field> fields) {
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    private static final Set<String> KEYWORDS = Set.of(
+            "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const",
+            "continue", "default", "do", "double", "else", "enum", "extends", "false", "final", "finally",
+            "float", "for", "goto", "if", "implements", "import", "instanceof", "int", "interface", "long",
+            "native", "new", "null", "package", "private", "protected", "public", "return", "short", "static",
+            "strictfp", "super", "switch", "synchronized", "this", "throw", "throws", "transient", "true",
+            "try", "void", "volatile", "while", "var", "record", "yield");
+    // Simple names the generated sources import or declare, which an entity class would shadow
+    private static final Set<String> RESERVED_CLASS_NAMES = Set.of(
+            "Entity", "Index", "PrimaryKey", "NonNull", "Nullable", "Dao", "Query", "Insert", "Update", "Delete",
+            "OnConflictStrategy", "Database", "RoomDatabase", "Room", "TypeConverter", "TypeConverters",
+            "Context", "List", "Object", "String", "Integer", "Long", "Float", "Double", "Boolean", "Converters");
+
+    record Field(String name, FieldType type, boolean nullable, boolean primaryKey, boolean autoGenerate,
+                 boolean unique, boolean indexed) {
+
+        String javaType() {
+            return type.javaType(nullable);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException naming the entity and field at fault
+     */
+    static RoomEntity of(EntitySchema schema) {
+        String name = schema.getName();
+        if (name == null || !IDENTIFIER.matcher(name).matches() || KEYWORDS.contains(name)
+                || !Character.isUpperCase(name.charAt(0))) {
+            throw new IllegalArgumentException("Entity name " + name + " is not a capitalised Java identifier");
+        }
+        if (RESERVED_CLASS_NAMES.contains(name)) {
+            throw new IllegalArgumentException("Entity name " + name + " clashes with a class the generated code uses");
+        }
+        // <Name>Dao is generated for every entity, so such a name could collide with another entity's DAO
+        if (name.endsWith("Dao")) {
+            throw new IllegalArgumentException("Entity name " + name + " must not end in Dao");
+        }
+        String table = schema.getTable() == null || schema.getTable().isBlank() ? snakeCase(name) : schema.getTable();
+        if (!IDENTIFIER.matcher(table).matches()) {
+            throw new IllegalArgumentException("Table name " + table + " of entity " + name + " is not a valid identifier");
+        }
+
+        List<Field> fields = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        int primaryKeys = 0;
+        for (EntitySchema.Field field : schema.getFields() == null ? List.<EntitySchema.Field>of() : schema.getFields()) {
+            String fieldName = field.getName();
+            if (fieldName == null || !IDENTIFIER.matcher(fieldName).matches() || KEYWORDS.contains(fieldName)) {
+                throw new IllegalArgumentException("Field name " + fieldName + " of entity " + name
+                        + " is not a Java identifier");
+            }
+            if (!names.add(fieldName.toLowerCase(Locale.ROOT))) {
+                throw new IllegalArgumentException("Entity " + name + " declares field " + fieldName + " twice");
+            }
+            FieldType type;
+            try {
+                type = FieldType.of(field.getType());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Field " + name + "." + fieldName + ": " + e.getMessage());
+            }
+            boolean nullable = field.getNullable() != null ? field.getNullable() : !field.isPrimaryKey();
+            if (field.isAutoGenerate() && (type != FieldType.INT && type != FieldType.LONG || !field.isPrimaryKey())) {
+                throw new IllegalArgumentException("Field " + name + "." + fieldName
+                        + ": only an int or long primary key can be auto-generated");
+            }
+            if (field.isPrimaryKey()) {
+                primaryKeys++;
+            }
+            fields.add(new Field(fieldName, type, nullable, field.isPrimaryKey(), field.isAutoGenerate(),
+                    field.isUnique(), field.isIndexed()));
+        }
+        if (primaryKeys == 0) {
+            if (names.contains("id")) {
+                throw new IllegalArgumentException("Entity " + name + " has a field named id but no primary key");
+            }
+            fields.add(0, new Field("id", FieldType.LONG, false, true, true, false, false));
+        } else if (primaryKeys > 1 && fields.stream().anyMatch(Field::autoGenerate)) {
+            throw new IllegalArgumentException("Entity " + name + " has a composite primary key, which cannot be auto-generated");
+        }
+        return new RoomEntity(name, table, List.copyOf(fields));
+    }
+
+    List<Field> primaryKey() {
+        return fields.stream().filter(Field::primaryKey).toList();
+    }
+
+    boolean usesDates() {
+        return fields.stream().anyMatch(field -> field.type() == FieldType.DATE);
+    }
+
+    /** Lower camel case, as the accessor for the entity's DAO is named. */
+    String variableName() {
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    static String snakeCase(String name) {
+        StringBuilder snake = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c)) {
+                if (i > 0 && name.charAt(i - 1) != '_'
+                        && (!Character.isUpperCase(name.charAt(i - 1))
+                        || (i + 1 < name.length() && Character.isLowerCase(name.charAt(i + 1))))) {
+                    snake.append('_');
+                }
+                snake.append(Character.toLowerCase(c));
+            } else {
+                snake.append(c);
+            }
+        }
+        return snake.toString();
+    }
+}
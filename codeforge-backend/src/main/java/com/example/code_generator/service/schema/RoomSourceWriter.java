@@ -0,0 +1,197 @@
+package com.example.code_generator.service.schema;
+
+import java.util.List;
+
+/**
+ * Renders the Java sources for Room: an {@code @Entity} class in the {@code model} package and
+ * a {@code @Dao} interface in the {@code data} package per entity, and the
+ * {@code RoomDatabase} subclass listing them. Each method is independent of the others, so
+ * entities can be rendered concurrently.
+ */
+final class RoomSourceWriter {
+
+    private RoomSourceWriter() {
+    }
+
+    static String entity(String packageName, RoomEntity entity) {
+        StringBuilder out = new StringBuilder(512 + entity.fields().size() * 256);
+        out.append("package ").append(packageName).append(".model;\n\n");
+        out.append("import androidx.annotation.NonNull;\n");
+        out.append("import androidx.room.Entity;\n");
+        if (entity.fields().stream().anyMatch(field -> field.unique() || field.indexed())) {
+            out.append("import androidx.room.Index;\n");
+        }
+        List<RoomEntity.Field> primaryKey = entity.primaryKey();
+        boolean composite = primaryKey.size() > 1;
+        if (!composite) {
+            out.append("import androidx.room.PrimaryKey;\n");
+        }
+        out.append('\n');
+
+        out.append("@Entity(tableName = \"").append(entity.table()).append('"');
+        if (composite) {
+            out.append(",\n        primaryKeys = {");
+            appendQuotedNames(out, primaryKey);
+            out.append('}');
+        }
+        StringBuilder indices = new StringBuilder();
+        for (RoomEntity.Field field : entity.fields()) {
+            if (field.unique()) {
+                separate(indices).append("@Index(value = \"").append(field.name()).append("\", unique = true)");
+            } else if (field.indexed()) {
+                separate(indices).append("@Index(\"").append(field.name()).append("\")");
+            }
+        }
+        if (!indices.isEmpty()) {
+            out.append(",\n        indices = {").append(indices).append('}');
+        }
+        out.append(")\npublic class ").append(entity.name()).append(" {\n");
+
+        for (RoomEntity.Field field : entity.fields()) {
+            if (field.primaryKey() && !composite) {
+                out.append(field.autoGenerate() ? "    @PrimaryKey(autoGenerate = true)\n" : "    @PrimaryKey\n");
+            }
+            appendNonNull(out, field, "    ", "\n");
+            out.append("    private ").append(javaType(field)).append(' ').append(field.name()).append(";\n");
+        }
+        out.append("\n    public ").append(entity.name()).append("() {\n    }\n");
+
+        for (RoomEntity.Field field : entity.fields()) {
+            String suffix = Character.toUpperCase(field.name().charAt(0)) + field.name().substring(1);
+            out.append('\n');
+            appendNonNull(out, field, "    ", "\n");
+            out.append("    public ").append(javaType(field)).append(" get").append(suffix)
+                    .append("() { return ").append(field.name()).append("; }\n");
+            out.append("    public void set").append(suffix).append('(');
+            appendNonNull(out, field, "", " ");
+            out.append(javaType(field)).append(' ').append(field.name()).append(") { this.")
+                    .append(field.name()).append(" = ").append(field.name()).append("; }\n");
+        }
+        out.append("}\n");
+        return out.toString();
+    }
+
+    static String dao(String packageName, RoomEntity entity) {
+        String name = entity.name();
+        StringBuilder out = new StringBuilder(1024);
+        out.append("package ").append(packageName).append(".data;\n\n");
+        out.append("import androidx.room.Dao;\n");
+        out.append("import androidx.room.Delete;\n");
+        out.append("import androidx.room.Insert;\n");
+        out.append("import androidx.room.OnConflictStrategy;\n");
+        out.append("import androidx.room.Query;\n");
+        out.append("import androidx.room.Update;\n");
+        out.append("import ").append(packageName).append(".model.").append(name).append(";\n");
+        out.append("import java.util.List;\n\n");
+
+        out.append("@Dao\npublic interface ").append(name).append("Dao {\n");
+        out.append("    @Query(\"SELECT * FROM `").append(entity.table()).append("`\")\n");
+        out.append("    List<").append(name).append("> getAll();\n\n");
+
+        out.append("    @Query(\"SELECT * FROM `").append(entity.table()).append("` WHERE ");
+        List<RoomEntity.Field> primaryKey = entity.primaryKey();
+        for (int i = 0; i < primaryKey.size(); i++) {
+            String key = primaryKey.get(i).name();
+            out.append(i == 0 ? "" : " AND ").append('`').append(key).append("` = :").append(key);
+        }
+        out.append(" LIMIT 1\")\n    ").append(name).append(" findById(");
+        for (int i = 0; i < primaryKey.size(); i++) {
+            RoomEntity.Field key = primaryKey.get(i);
+            out.append(i == 0 ? "" : ", ").append(javaType(key)).append(' ').append(key.name());
+        }
+        out.append(");\n\n");
+
+        String variable = entity.variableName();
+        out.append("    @Insert(onConflict = OnConflictStrategy.REPLACE)\n");
+        out.append("    long insert(").append(name).append(' ').append(variable).append(");\n\n");
+        out.append("    @Update\n");
+        out.append("    int update(").append(name).append(' ').append(variable).append(");\n\n");
+        out.append("    @Delete\n");
+        out.append("    int delete(").append(name).append(' ').append(variable).append(");\n");
+        out.append("}\n");
+        return out.toString();
+    }
+
+    /**
+     * @param entities entity class names, in declaration order
+     * @param converters whether to register {@link #converters}, which entities with dates need
+     */
+    static String database(String packageName, String databaseName, int version, List<String> entities,
+                           boolean converters) {
+        StringBuilder out = new StringBuilder(1024 + entities.size() * 160);
+        out.append("package ").append(packageName).append(".data;\n\n");
+        out.append("import android.content.Context;\n");
+        out.append("import androidx.room.Database;\n");
+        out.append("import androidx.room.Room;\n");
+        out.append("import androidx.room.RoomDatabase;\n");
+        if (converters) {
+            out.append("import androidx.room.TypeConverters;\n");
+        }
+        for (String entity : entities) {
+            out.append("import ").append(packageName).append(".model.").append(entity).append(";\n");
+        }
+        out.append('\n');
+
+        out.append("@Database(entities = {");
+        for (int i = 0; i < entities.size(); i++) {
+            out.append(i == 0 ? "" : ", ").append(entities.get(i)).append(".class");
+        }
+        out.append("}, version = ").append(version).append(", exportSchema = false)\n");
+        if (converters) {
+            out.append("@TypeConverters(Converters.class)\n");
+        }
+        out.append("public abstract class ").append(databaseName).append(" extends RoomDatabase {\n");
+        out.append("    private static volatile ").append(databaseName).append(" instance;\n\n");
+        for (String entity : entities) {
+            out.append("    public abstract ").append(entity).append("Dao ")
+                    .append(Character.toLowerCase(entity.charAt(0))).append(entity, 1, entity.length())
+                    .append("Dao();\n");
+        }
+        out.append("\n    public static ").append(databaseName).append(" getInstance(Context context) {\n");
+        out.append("        if (instance == null) {\n");
+        out.append("            synchronized (").append(databaseName).append(".class) {\n");
+        out.append("                if (instance == null) {\n");
+        out.append("                    instance = Room.databaseBuilder(context.getApplicationContext(),\n");
+        out.append("                            ").append(databaseName).append(".class, \"")
+                .append(RoomEntity.snakeCase(databaseName)).append(".db\").build();\n");
+        out.append("                }\n            }\n        }\n        return instance;\n    }\n}\n");
+        return out.toString();
+    }
+
+    static String converters(String packageName) {
+        return "package " + packageName + ".data;\n\n"
+                + "import androidx.room.TypeConverter;\n"
+                + "import java.util.Date;\n\n"
+                + "public class Converters {\n"
+                + "    @TypeConverter\n"
+                + "    public static Date fromTimestamp(Long value) {\n"
+                + "        return value == null ? null : new Date(value);\n"
+                + "    }\n\n"
+                + "    @TypeConverter\n"
+                + "    public static Long toTimestamp(Date date) {\n"
+                + "        return date == null ? null : date.getTime();\n"
+                + "    }\n"
+                + "}\n";
+    }
+
+    // Dates are written fully qualified so that an entity may itself be called Date
+    private static String javaType(RoomEntity.Field field) {
+        return field.type() == FieldType.DATE ? "java.util.Date" : field.javaType();
+    }
+
+    private static void appendNonNull(StringBuilder out, RoomEntity.Field field, String indent, String after) {
+        if (!field.nullable() && field.type().isReference()) {
+            out.append(indent).append("@NonNull").append(after);
+        }
+    }
+
+    private static void appendQuotedNames(StringBuilder out, List<RoomEntity.Field> fields) {
+        for (int i = 0; i < fields.size(); i++) {
+            out.append(i == 0 ? "" : ", ").append('"').append(fields.get(i).name()).append('"');
+        }
+    }
+
+    private static StringBuilder separate(StringBuilder list) {
+        return list.isEmpty() ? list : list.append(", ");
+    }
+}
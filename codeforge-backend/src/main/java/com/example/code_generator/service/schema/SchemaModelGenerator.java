@@ -0,0 +1,141 @@
+package com.example.code_generator.service.schema;
+
+import com.example.code_generator.service.archive.ArchiveSink;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Generates Room persistence code from {@code ProjectConfig.schema}: per entity an
+ * {@code @Entity} class under {@code model/} and a DAO under {@code data/}, then the database
+ * class (and its type converters when an entity stores dates). See {@link SchemaReader} for the
+ * format and {@link EntitySchema} for an entity.
+ *
+ * <p>Entities are parsed one at a time on the calling thread and rendered on the render pool.
+ * At most a few times the pool's parallelism are in flight; the oldest is joined and written to
+ * the sink before another is parsed, so files come out in declaration order and memory stays
+ * bounded whatever the size of the schema, apart from the entity names the database class lists.
+ */
+@Component
+public class SchemaModelGenerator {
+    private static final String CONVERTERS = "Converters.java";
+
+    private final ObjectMapper objectMapper;
+    private final ForkJoinPool renderPool;
+    private final int window;
+
+    public SchemaModelGenerator(ObjectMapper objectMapper, @Qualifier("templateRenderPool") ForkJoinPool renderPool) {
+        this.objectMapper = objectMapper;
+        this.renderPool = renderPool;
+        this.window = Math.max(2, renderPool.getParallelism() * 4);
+    }
+
+    /**
+     * Writes the sources for {@code schema}.
+     *
+     * @param packageName  package of the generated project; the sources go in its {@code model}
+     *                     and {@code data} subpackages
+     * @param sourceRoot   directory the package path is relative to, e.g. {@code app/src/main/java}
+     * @param reservedPaths paths already written to the sink, which no generated file may replace
+     * @throws IllegalArgumentException if the schema is invalid or would overwrite a reserved path
+     */
+    public void generate(String schema, String packageName, String sourceRoot, Set<String> reservedPaths,
+                         ArchiveSink sink) throws IOException {
+        String directory = directory(packageName, sourceRoot);
+        List<String> entities = new ArrayList<>();
+        boolean dates = false;
+        Deque<CompletableFuture<RenderedEntity>> inFlight = new ArrayDeque<>(window);
+        try (SchemaReader reader = new SchemaReader(objectMapper, schema)) {
+            RoomEntity entity;
+            while ((entity = reader.next()) != null) {
+                RoomEntity current = entity;
+                String path = directory + "model/" + current.name() + ".java";
+                String daoPath = directory + "data/" + current.name() + "Dao.java";
+                checkNotReserved(reservedPaths, path, daoPath);
+                entities.add(current.name());
+                dates |= current.usesDates();
+                if (inFlight.size() == window) {
+                    write(inFlight.removeFirst(), sink);
+                }
+                inFlight.addLast(CompletableFuture.supplyAsync(() -> new RenderedEntity(
+                        path, RoomSourceWriter.entity(packageName, current),
+                        daoPath, RoomSourceWriter.dao(packageName, current)),
+                        renderPool));
+            }
+            while (!inFlight.isEmpty()) {
+                write(inFlight.removeFirst(), sink);
+            }
+            checkDatabase(reader, directory, entities.size(), reservedPaths);
+            sink.addEntry(directory + "data/" + reader.getDatabaseName() + ".java", RoomSourceWriter.database(
+                    packageName, reader.getDatabaseName(), reader.getVersion(), entities, dates));
+            if (dates) {
+                sink.addEntry(directory + "data/" + CONVERTERS, RoomSourceWriter.converters(packageName));
+            }
+        } finally {
+            inFlight.forEach(f -> f.cancel(false));
+        }
+    }
+
+    /**
+     * Checks {@code schema} as {@link #generate} would, without rendering anything: one pass
+     * over the entities, keeping only their names.
+     *
+     * @throws IllegalArgumentException if {@link #generate} would reject the schema
+     */
+    public void validate(String schema, String packageName, String sourceRoot, Set<String> reservedPaths) {
+        String directory = directory(packageName, sourceRoot);
+        int entities = 0;
+        try (SchemaReader reader = new SchemaReader(objectMapper, schema)) {
+            RoomEntity entity;
+            while ((entity = reader.next()) != null) {
+                checkNotReserved(reservedPaths, directory + "model/" + entity.name() + ".java",
+                        directory + "data/" + entity.name() + "Dao.java");
+                entities++;
+            }
+            checkDatabase(reader, directory, entities, reservedPaths);
+        }
+    }
+
+    private static String directory(String packageName, String sourceRoot) {
+        return sourceRoot + "/" + packageName.replace('.', '/') + "/";
+    }
+
+    private static void checkDatabase(SchemaReader reader, String directory, int entities, Set<String> reservedPaths) {
+        if (entities == 0) {
+            throw new IllegalArgumentException("Invalid schema: no entities");
+        }
+        checkNotReserved(reservedPaths, directory + "data/" + reader.getDatabaseName() + ".java",
+                directory + "data/" + CONVERTERS);
+    }
+
+    private static void checkNotReserved(Set<String> reservedPaths, String... paths) {
+        for (String path : paths) {
+            if (reservedPaths.contains(path)) {
+                throw new IllegalArgumentException("Schema would replace a file of the template: " + path);
+            }
+        }
+    }
+
+    private static void write(CompletableFuture<RenderedEntity> future, ArchiveSink sink) throws IOException {
+        RenderedEntity rendered;
+        try {
+            rendered = future.join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Failed to render schema entity", e.getCause());
+        }
+        sink.addEntry(rendered.entityPath(), rendered.entity());
+        sink.addEntry(rendered.daoPath(), rendered.dao());
+    }
+
+    private record RenderedEntity(String entityPath, String entity, String daoPath, String dao) {
+    }
+}
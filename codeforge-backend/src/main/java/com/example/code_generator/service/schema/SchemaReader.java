@@ -0,0 +1,156 @@
+package com.example.code_generator.service.schema;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Reads a project schema one entity at a time:
+ * <pre>
+ * {"databaseName": "AppDatabase", "version": 1, "entities": [ {...}, {...} ]}
+ * </pre>
+ * The document is walked with Jackson's streaming parser and only the current entity object is
+ * bound, so a schema with thousands of entities never exists as a tree. What is kept between
+ * entities is the set of names seen, to reject duplicates. {@code databaseName} and
+ * {@code version} must come before {@code entities} to take effect; unknown keys are skipped.
+ *
+ * <p>Every problem, malformed JSON included, is reported as an {@link IllegalArgumentException}
+ * carrying the line and column it was found at.
+ */
+final class SchemaReader implements Closeable {
+    static final String DEFAULT_DATABASE_NAME = "AppDatabase";
+
+    private final JsonParser parser;
+    private final Set<String> entityNames = new HashSet<>();
+    private String databaseName = DEFAULT_DATABASE_NAME;
+    private int version = 1;
+    private boolean inEntities;
+    private boolean done;
+
+    SchemaReader(ObjectMapper objectMapper, String schema) {
+        try {
+            this.parser = objectMapper.getFactory().createParser(schema);
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw invalid("a schema must be a JSON object", parser.currentLocation());
+            }
+        } catch (IOException e) {
+            throw invalid(e);
+        }
+    }
+
+    /** The next entity, validated, or {@code null} once the schema is exhausted. */
+    RoomEntity next() {
+        try {
+            if (done) {
+                return null;
+            }
+            if (inEntities) {
+                RoomEntity entity = nextEntity();
+                if (entity != null) {
+                    return entity;
+                }
+                inEntities = false;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String key = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (key) {
+                    case "databaseName" -> databaseName = readDatabaseName();
+                    case "version" -> {
+                        if (value != JsonToken.VALUE_NUMBER_INT || parser.getIntValue() < 1) {
+                            throw invalid("version must be a positive integer", parser.currentLocation());
+                        }
+                        version = parser.getIntValue();
+                    }
+                    case "entities" -> {
+                        if (value != JsonToken.START_ARRAY) {
+                            throw invalid("entities must be an array", parser.currentLocation());
+                        }
+                        inEntities = true;
+                        RoomEntity entity = nextEntity();
+                        if (entity != null) {
+                            return entity;
+                        }
+                        inEntities = false;
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+            done = true;
+            return null;
+        } catch (IOException e) {
+            throw invalid(e);
+        }
+    }
+
+    String getDatabaseName() {
+        return databaseName;
+    }
+
+    int getVersion() {
+        return version;
+    }
+
+    @Override
+    public void close() {
+        try {
+            parser.close();
+        } catch (IOException ignored) {
+            // Parsing a string holds no resources worth reporting
+        }
+    }
+
+    private RoomEntity nextEntity() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.END_ARRAY) {
+            return null;
+        }
+        JsonLocation location = parser.currentLocation();
+        if (token != JsonToken.START_OBJECT) {
+            throw invalid("each entity must be a JSON object", location);
+        }
+        RoomEntity entity;
+        try {
+            entity = RoomEntity.of(parser.readValueAs(EntitySchema.class));
+        } catch (IllegalArgumentException e) {
+            throw invalid(e.getMessage(), location);
+        }
+        if (entity.name().equals(databaseName)) {
+            throw invalid("entity " + entity.name() + " has the name of the database", location);
+        }
+        if (!entityNames.add(entity.name().toLowerCase(Locale.ROOT))) {
+            throw invalid("entity " + entity.name() + " is declared twice", location);
+        }
+        return entity;
+    }
+
+    private String readDatabaseName() throws IOException {
+        String name = parser.getValueAsString();
+        if (name == null || !name.matches("[A-Z][A-Za-z0-9_]*")) {
+            throw invalid("databaseName must be a capitalised Java identifier", parser.currentLocation());
+        }
+        if (name.equals("Converters") || name.endsWith("Dao")) {
+            throw invalid("databaseName " + name + " clashes with a generated class", parser.currentLocation());
+        }
+        return name;
+    }
+
+    private static IllegalArgumentException invalid(IOException e) {
+        if (e instanceof JsonProcessingException json && json.getLocation() != null) {
+            return invalid(json.getOriginalMessage(), json.getLocation());
+        }
+        return new IllegalArgumentException("Invalid schema: " + e.getMessage(), e);
+    }
+
+    private static IllegalArgumentException invalid(String message, JsonLocation location) {
+        return new IllegalArgumentException("Invalid schema at line " + location.getLineNr()
+                + ", column " + location.getColumnNr() + ": " + message);
+    }
+}
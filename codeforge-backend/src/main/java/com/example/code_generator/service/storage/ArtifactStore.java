@@ -0,0 +1,60 @@
+package com.example.code_generator.service.storage;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Where this node keeps its generated archives, by key (the archive's file name). Archives are
+ * always written, read and served as local files in {@link #getDirectory()}: for directory
+ * stores that is the store itself, for remote stores a local cache that {@link #fetch} fills
+ * on demand. This keeps range requests, sendfile and ZIP re-packing working unchanged whatever
+ * the store.
+ *
+ * <p>Stores shared between nodes keep each node's archives under its own namespace, so a node
+ * only ever deletes or adopts its own archives.
+ */
+public interface ArtifactStore {
+
+    /** Local directory archives are written to and served from. */
+    Path getDirectory();
+
+    /**
+     * Makes a finished archive, written to a temporary file in {@link #getDirectory()},
+     * durable under {@code key}.
+     *
+     * @return the local file the archive is now served from
+     */
+    Path publish(Path file, String key) throws IOException;
+
+    /**
+     * The local file for {@code key}, first copied from the store if it is remote and not
+     * cached; empty if the store does not have it.
+     */
+    Optional<Path> fetch(String key) throws IOException;
+
+    void delete(String key) throws IOException;
+
+    /** Keys of every archive in the store, used to adopt archives after the registry is lost. */
+    List<String> list() throws IOException;
+
+    /** Whether an archive missing from {@link #getDirectory()} may still be in the store. */
+    boolean isRemote();
+
+    /** URL clients can download the archive from directly, if the store is published under one. */
+    default Optional<URI> getPublicUrl(String key) {
+        return Optional.empty();
+    }
+
+    /** Name of a temporary file for an archive being written, recognised by {@link #isPartial}. */
+    static String partialName(String key) {
+        return key + "." + UUID.randomUUID() + ".part";
+    }
+
+    static boolean isPartial(String name) {
+        return name.endsWith(".part");
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.code_generator.service.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Archives in a directory on this node's own disk. Only this node can serve them; other nodes
+ * reach them through {@link com.example.code_generator.service.cluster.ClusterRouter}.
+ */
+public class LocalArtifactStore implements ArtifactStore {
+    private final Path directory;
+
+    public LocalArtifactStore(Path directory) {
+        this.directory = directory.toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(this.directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create archive directory " + this.directory, e);
+        }
+    }
+
+    @Override
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public Path publish(Path file, String key) throws IOException {
+        return Files.move(file, directory.resolve(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public Optional<Path> fetch(String key) {
+        Path file = directory.resolve(key);
+        return Files.isReadable(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(directory.resolve(key));
+    }
+
+    @Override
+    public List<String> list() throws IOException {
+        List<String> keys = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (!ArtifactStore.isPartial(name) && Files.isRegularFile(file)) {
+                    keys.add(name);
+                }
+            }
+        }
+        return keys;
+    }
+
+    @Override
+    public boolean isRemote() {
+        return false;
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.code_generator.service.storage;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Archives in an S3-compatible bucket under {@code <prefix><node id>/}, addressed path-style
+ * ({@code <endpoint>/<bucket>/<key>}) so any S3 implementation works, with a local cache
+ * directory they are served from. Archives are uploaded once written and downloaded into the
+ * cache the first time they are served by a node that does not have them.
+ *
+ * <p>With a public base URL (a CDN, or the bucket's own public endpoint), clients are sent to
+ * the object directly instead of having the archive streamed through the application.
+ */
+public class S3ArtifactStore implements ArtifactStore {
+    private static final Duration TIMEOUT = Duration.ofMinutes(5);
+
+    private final HttpClient client;
+    private final S3Signer signer;
+    private final URI endpoint;
+    private final String bucket;
+    private final String prefix;
+    private final Path cacheDir;
+    private final String publicBaseUrl;
+
+    /**
+     * @param prefix        key prefix of this node's archives, typically ending in the node id
+     *                      and a {@code /}
+     * @param publicBaseUrl URL the bucket's objects are publicly readable under, or {@code null}
+     */
+    public S3ArtifactStore(URI endpoint, String bucket, String region, String accessKey, String secretKey,
+                           String prefix, Path cacheDir, String publicBaseUrl) {
+        this.client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        this.signer = new S3Signer(accessKey, secretKey, region);
+        this.endpoint = URI.create(endpoint.toString().replaceAll("/+$", ""));
+        this.bucket = bucket;
+        this.prefix = prefix;
+        this.cacheDir = cacheDir.toAbsolutePath().normalize();
+        this.publicBaseUrl = publicBaseUrl == null || publicBaseUrl.isBlank() ? null : publicBaseUrl.replaceAll("/+$", "");
+        try {
+            Files.createDirectories(this.cacheDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create archive cache " + this.cacheDir, e);
+        }
+    }
+
+    @Override
+    public Path getDirectory() {
+        return cacheDir;
+    }
+
+    @Override
+    public Path publish(Path file, String key) throws IOException {
+        HttpResponse<byte[]> response = send("PUT", objectUri(key), Map.of("content-type", "application/zip"),
+                sha256Hex(file), HttpRequest.BodyPublishers.ofFile(file), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() / 100 != 2) {
+            throw failure("upload", key, response);
+        }
+        return Files.move(file, cacheDir.resolve(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public Optional<Path> fetch(String key) throws IOException {
+        Path cached = cacheDir.resolve(key);
+        if (Files.isReadable(cached)) {
+            return Optional.of(cached);
+        }
+        Path partial = cacheDir.resolve(ArtifactStore.partialName(key));
+        try {
+            HttpResponse<Path> response = send("GET", objectUri(key), Map.of(), S3Signer.EMPTY_PAYLOAD,
+                    HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.ofFile(partial));
+            if (response.statusCode() == 404) {
+                return Optional.empty();
+            }
+            if (response.statusCode() / 100 != 2) {
+                throw new IOException("Could not download archive " + key + ": HTTP " + response.statusCode());
+            }
+            return Optional.of(Files.move(partial, cached, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE));
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        HttpResponse<byte[]> response = send("DELETE", objectUri(key), Map.of(), S3Signer.EMPTY_PAYLOAD,
+                HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() / 100 != 2 && response.statusCode() != 404) {
+            throw failure("delete", key, response);
+        }
+        Files.deleteIfExists(cacheDir.resolve(key));
+    }
+
+    @Override
+    public List<String> list() throws IOException {
+        List<String> keys = new ArrayList<>();
+        String continuation = null;
+        do {
+            String query = "list-type=2&prefix=" + S3Signer.encode(prefix, false);
+            if (continuation != null) {
+                query += "&continuation-token=" + S3Signer.encode(continuation, false);
+            }
+            URI uri = URI.create(endpoint + "/" + S3Signer.encode(bucket, false) + "?" + query);
+            HttpResponse<byte[]> response = send("GET", uri, Map.of(), S3Signer.EMPTY_PAYLOAD,
+                    HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() / 100 != 2) {
+                throw failure("list", prefix, response);
+            }
+            Document page = parse(response.body());
+            NodeList contents = page.getElementsByTagName("Key");
+            for (int i = 0; i < contents.getLength(); i++) {
+                String key = contents.item(i).getTextContent().substring(prefix.length());
+                if (!key.isEmpty() && key.indexOf('/') < 0 && !ArtifactStore.isPartial(key)) {
+                    keys.add(key);
+                }
+            }
+            NodeList next = page.getElementsByTagName("NextContinuationToken");
+            continuation = next.getLength() > 0 ? next.item(0).getTextContent() : null;
+        } while (continuation != null);
+        return keys;
+    }
+
+    @Override
+    public boolean isRemote() {
+        return true;
+    }
+
+    @Override
+    public Optional<URI> getPublicUrl(String key) {
+        return publicBaseUrl == null ? Optional.empty()
+                : Optional.of(URI.create(publicBaseUrl + "/" + S3Signer.encode(prefix + key, true)));
+    }
+
+    private URI objectUri(String key) {
+        return URI.create(endpoint + "/" + S3Signer.encode(bucket, false) + "/" + S3Signer.encode(prefix + key, true));
+    }
+
+    private <T> HttpResponse<T> send(String method, URI uri, Map<String, String> headers, String payloadHash,
+                                     HttpRequest.BodyPublisher body, HttpResponse.BodyHandler<T> handler)
+            throws IOException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri).timeout(TIMEOUT).method(method, body);
+        signer.sign(method, uri, headers, payloadHash, Instant.now()).forEach(request::header);
+        try {
+            return client.send(request.build(), handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted during " + method + " " + uri);
+        }
+    }
+
+    private static IOException failure(String action, String key, HttpResponse<byte[]> response) {
+        String body = new String(response.body(), StandardCharsets.UTF_8);
+        return new IOException("Could not " + action + " " + key + ": HTTP " + response.statusCode()
+                + (body.isBlank() ? "" : " " + body.substring(0, Math.min(body.length(), 200))));
+    }
+
+    private static Document parse(byte[] xml) throws IOException {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            return factory.newDocumentBuilder().parse(new ByteArrayInputStream(xml));
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("Unreadable bucket listing: " + e.getMessage(), e);
+        }
+    }
+
+    private static String sha256Hex(Path file) throws IOException {
+        try (DigestInputStream in = new DigestInputStream(Files.newInputStream(file), MessageDigest.getInstance("SHA-256"))) {
+            in.transferTo(OutputStream.nullOutputStream());
+            return HexFormat.of().formatHex(in.getMessageDigest().digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
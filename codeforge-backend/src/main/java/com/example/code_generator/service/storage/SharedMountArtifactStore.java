@@ -0,0 +1,40 @@
+package com.example.code_generator.service.storage;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Archives on a filesystem mounted by every node (NFS, EFS, a CSI volume), under
+ * {@code <mount>/<node id>} so each node manages only its own. Archives survive the loss of
+ * the node that wrote them, and a replacement started with the same node id finds them again.
+ *
+ * <p>An archive is flushed to the server before it is renamed into place, and the rename is
+ * flushed too, so after a crash other nodes see either the whole archive or none of it.
+ */
+public class SharedMountArtifactStore extends LocalArtifactStore {
+
+    public SharedMountArtifactStore(Path mount, String nodeId) {
+        super(mount.resolve(nodeId));
+    }
+
+    @Override
+    public Path publish(Path file, String key) throws IOException {
+        force(file);
+        Path published = super.publish(file, key);
+        force(getDirectory());
+        return published;
+    }
+
+    private static void force(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Some filesystems cannot open a directory for syncing; the file itself was synced
+            if (!path.toFile().isDirectory()) {
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.code_generator.service.template;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * One {@code template.json} file entry with its output path and body compiled. Entries whose
+ * path and body are plain text produce the same output for every model, so they are rendered
+ * once here and the same path and bytes are returned on every call.
+ */
+public final class CompiledFile {
+    private final CompiledTemplate path;
+    private final CompiledTemplate body;
+    private final String constantPath;
+    private final byte[] constantContent;
+
+    public CompiledFile(CompiledTemplate path, CompiledTemplate body) {
+        this.path = path;
+        this.body = body;
+        boolean constant = path.isConstant() && body.isConstant();
+        this.constantPath = constant ? path.render(Map.of()) : null;
+        this.constantContent = constant ? encode(body.render(Map.of())) : null;
+    }
+
+    CompiledTemplate getPath() {
+        return path;
+    }
+
+    CompiledTemplate getBody() {
+        return body;
+    }
+
+    public boolean isConstant() {
+        return constantContent != null;
+    }
+
+    public String renderPath(Map<String, ?> model) {
+        return constantPath != null ? constantPath : path.render(model);
+    }
+
+    public byte[] renderContent(Map<String, ?> model) {
+        return constantContent != null ? constantContent : encode(body.render(model));
+    }
+
+    private static byte[] encode(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+}
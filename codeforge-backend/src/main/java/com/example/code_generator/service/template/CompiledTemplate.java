@@ -0,0 +1,117 @@
+package com.example.code_generator.service.template;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, pre-parsed form of a template. Rendering walks the segment list once and
+ * appends into a buffer sized from the literal text, so no regex or string replacement
+ * runs per request. Instances are safe to share between threads.
+ */
+public final class CompiledTemplate {
+    private static final int VARIABLE_SIZE_ESTIMATE = 16;
+
+    private final List<TemplateSegment> segments;
+    private final int sizeEstimate;
+    private final boolean constant;
+
+    CompiledTemplate(List<TemplateSegment> segments) {
+        this.segments = segments;
+        this.sizeEstimate = estimate(segments);
+        this.constant = segments.stream().allMatch(TemplateSegment.Literal.class::isInstance);
+    }
+
+    public List<TemplateSegment> getSegments() {
+        return segments;
+    }
+
+    /**
+     * Whether the output is independent of the model, i.e. the template is plain text.
+     */
+    public boolean isConstant() {
+        return constant;
+    }
+
+    public String render(Map<String, ?> model) {
+        StringBuilder out = new StringBuilder(sizeEstimate);
+        render(segments, new Scope(model, null), out);
+        return out.toString();
+    }
+
+    private static void render(List<TemplateSegment> segments, Scope scope, StringBuilder out) {
+        for (TemplateSegment segment : segments) {
+            if (segment instanceof TemplateSegment.Literal literal) {
+                out.append(literal.text());
+            } else if (segment instanceof TemplateSegment.Variable variable) {
+                Object value = scope.resolve(variable.path());
+                if (value != null) {
+                    out.append(value);
+                }
+            } else if (segment instanceof TemplateSegment.IfBlock block) {
+                if (isTruthy(scope.resolve(block.path()))) {
+                    render(block.body(), scope, out);
+                }
+            } else if (segment instanceof TemplateSegment.EachBlock block) {
+                Object value = scope.resolve(block.path());
+                if (value instanceof Iterable<?> items) {
+                    for (Object item : items) {
+                        render(block.body(), new Scope(item, scope), out);
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isTruthy(Object value) {
+        if (value == null || Boolean.FALSE.equals(value)) {
+            return false;
+        }
+        if (value instanceof Collection<?> collection) {
+            return !collection.isEmpty();
+        }
+        if (value instanceof Map<?, ?> map) {
+            return !map.isEmpty();
+        }
+        return !(value instanceof CharSequence text) || text.length() > 0;
+    }
+
+    private static int estimate(List<TemplateSegment> segments) {
+        int size = 0;
+        for (TemplateSegment segment : segments) {
+            if (segment instanceof TemplateSegment.Literal literal) {
+                size += literal.text().length();
+            } else if (segment instanceof TemplateSegment.IfBlock block) {
+                size += estimate(block.body());
+            } else if (segment instanceof TemplateSegment.EachBlock block) {
+                size += estimate(block.body());
+            } else {
+                size += VARIABLE_SIZE_ESTIMATE;
+            }
+        }
+        return size;
+    }
+
+    /** Name lookup chain: {@code {{#each}}} pushes the current item, falling back to outer scopes. */
+    private record Scope(Object current, Scope parent) {
+
+        Object resolve(String[] path) {
+            if (path.length == 1 && path[0].equals("this")) {
+                return current;
+            }
+            for (Scope scope = this; scope != null; scope = scope.parent) {
+                if (scope.current instanceof Map<?, ?> map && map.containsKey(path[0])) {
+                    return walk(map.get(path[0]), path);
+                }
+            }
+            return null;
+        }
+
+        private static Object walk(Object value, String[] path) {
+            for (int i = 1; i < path.length && value != null; i++) {
+                value = value instanceof Map<?, ?> map ? map.get(path[i]) : null;
+            }
+            return value;
+        }
+    }
+}
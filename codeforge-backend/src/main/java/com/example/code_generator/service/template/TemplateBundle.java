@@ -0,0 +1,249 @@
+package com.example.code_generator.service.template;
+
+import com.example.code_generator.model.ProjectTemplate;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary form of a set of validated templates: each template's metadata, its files with path
+ * and body already parsed into {@link TemplateSegment}s, and its content digest. The build
+ * writes one for the bundled templates (see {@code TemplateBundleWriter}) so that startup reads
+ * a single resource instead of scanning the classpath, parsing JSON and compiling every file.
+ *
+ * <p>Layout: magic and format version, then per template its key, location, digest,
+ * metadata and files. Strings are length-prefixed UTF-8, -1 standing for {@code null}.
+ * Anything else, including a different format version, is rejected with an
+ * {@link IOException} so the caller can fall back to loading the sources.
+ */
+public final class TemplateBundle {
+    private static final int MAGIC = 0x43465442; // "CFTB"
+    private static final int FORMAT_VERSION = 2;
+
+    private static final byte LITERAL = 0;
+    private static final byte VARIABLE = 1;
+    private static final byte IF_BLOCK = 2;
+    private static final byte EACH_BLOCK = 3;
+
+    private TemplateBundle() {
+    }
+
+    /**
+     * One template as held in a bundle.
+     *
+     * @param key    orders the templates, as the location of {@code template.json} does when
+     *               loading from sources
+     * @param digest hash of {@code template.json} and the files it references
+     */
+    public record Entry(String key, ProjectTemplate template, List<CompiledFile> files, byte[] digest) {
+    }
+
+    public static void write(List<Entry> entries, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeInt(entries.size());
+        for (Entry entry : entries) {
+            writeString(data, entry.key());
+            writeString(data, entry.template().getLocation());
+            data.writeInt(entry.digest().length);
+            data.write(entry.digest());
+            writeTemplate(data, entry.template());
+            data.writeInt(entry.files().size());
+            for (CompiledFile file : entry.files()) {
+                writeSegments(data, file.getPath().getSegments());
+                writeSegments(data, file.getBody().getSegments());
+            }
+        }
+        data.flush();
+    }
+
+    public static List<Entry> read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a template bundle");
+        }
+        int version = data.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported template bundle format " + version);
+        }
+        int count = data.readInt();
+        List<Entry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String key = readString(data);
+            String location = readString(data);
+            byte[] digest = new byte[data.readInt()];
+            data.readFully(digest);
+            ProjectTemplate template = readTemplate(data);
+            template.setLocation(location);
+            int files = data.readInt();
+            List<CompiledFile> compiled = new ArrayList<>(files);
+            for (int j = 0; j < files; j++) {
+                CompiledTemplate path = new CompiledTemplate(readSegments(data));
+                CompiledTemplate body = new CompiledTemplate(readSegments(data));
+                compiled.add(new CompiledFile(path, body));
+            }
+            entries.add(new Entry(key, template, compiled, digest));
+        }
+        return entries;
+    }
+
+    private static void writeTemplate(DataOutputStream data, ProjectTemplate template) throws IOException {
+        writeString(data, template.getTemplateName());
+        writeString(data, template.getTemplateDescription());
+        writeString(data, template.getProjectType());
+        writeString(data, template.getFramework());
+        writeString(data, template.getPlatform());
+        writeString(data, template.getArchitecture());
+        List<ProjectTemplate.TemplateFile> files = template.getFiles();
+        data.writeInt(files == null ? -1 : files.size());
+        if (files != null) {
+            for (ProjectTemplate.TemplateFile file : files) {
+                writeString(data, file.getPath());
+                writeString(data, file.getTemplate());
+                data.writeBoolean(file.isSample());
+            }
+        }
+        ProjectTemplate.Dependencies dependencies = template.getDependencies();
+        data.writeBoolean(dependencies != null);
+        if (dependencies != null) {
+            writeStrings(data, dependencies.getRequired());
+            Map<String, List<String>> optional = dependencies.getOptional();
+            data.writeInt(optional == null ? -1 : optional.size());
+            if (optional != null) {
+                for (Map.Entry<String, List<String>> group : optional.entrySet()) {
+                    writeString(data, group.getKey());
+                    writeStrings(data, group.getValue());
+                }
+            }
+        }
+    }
+
+    private static ProjectTemplate readTemplate(DataInputStream data) throws IOException {
+        ProjectTemplate template = new ProjectTemplate();
+        template.setTemplateName(readString(data));
+        template.setTemplateDescription(readString(data));
+        template.setProjectType(readString(data));
+        template.setFramework(readString(data));
+        template.setPlatform(readString(data));
+        template.setArchitecture(readString(data));
+        int files = data.readInt();
+        if (files >= 0) {
+            List<ProjectTemplate.TemplateFile> list = new ArrayList<>(files);
+            for (int i = 0; i < files; i++) {
+                ProjectTemplate.TemplateFile file = new ProjectTemplate.TemplateFile();
+                file.setPath(readString(data));
+                file.setTemplate(readString(data));
+                file.setSample(data.readBoolean());
+                list.add(file);
+            }
+            template.setFiles(list);
+        }
+        if (data.readBoolean()) {
+            ProjectTemplate.Dependencies dependencies = new ProjectTemplate.Dependencies();
+            dependencies.setRequired(readStrings(data));
+            int groups = data.readInt();
+            if (groups >= 0) {
+                Map<String, List<String>> optional = new LinkedHashMap<>();
+                for (int i = 0; i < groups; i++) {
+                    optional.put(readString(data), readStrings(data));
+                }
+                dependencies.setOptional(optional);
+            }
+            template.setDependencies(dependencies);
+        }
+        return template;
+    }
+
+    private static void writeSegments(DataOutputStream data, List<TemplateSegment> segments) throws IOException {
+        data.writeInt(segments.size());
+        for (TemplateSegment segment : segments) {
+            if (segment instanceof TemplateSegment.Literal literal) {
+                data.writeByte(LITERAL);
+                writeString(data, literal.text());
+            } else if (segment instanceof TemplateSegment.Variable variable) {
+                data.writeByte(VARIABLE);
+                writeStrings(data, List.of(variable.path()));
+            } else if (segment instanceof TemplateSegment.IfBlock block) {
+                data.writeByte(IF_BLOCK);
+                writeStrings(data, List.of(block.path()));
+                writeSegments(data, block.body());
+            } else if (segment instanceof TemplateSegment.EachBlock block) {
+                data.writeByte(EACH_BLOCK);
+                writeStrings(data, List.of(block.path()));
+                writeSegments(data, block.body());
+            }
+        }
+    }
+
+    private static List<TemplateSegment> readSegments(DataInputStream data) throws IOException {
+        int count = data.readInt();
+        List<TemplateSegment> segments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte tag = data.readByte();
+            segments.add(switch (tag) {
+                case LITERAL -> new TemplateSegment.Literal(readString(data));
+                case VARIABLE -> new TemplateSegment.Variable(readPath(data));
+                case IF_BLOCK -> new TemplateSegment.IfBlock(readPath(data), readSegments(data));
+                case EACH_BLOCK -> new TemplateSegment.EachBlock(readPath(data), readSegments(data));
+                default -> throw new IOException("Unknown template segment " + tag);
+            });
+        }
+        return List.copyOf(segments);
+    }
+
+    private static String[] readPath(DataInputStream data) throws IOException {
+        return readStrings(data).toArray(String[]::new);
+    }
+
+    private static void writeStrings(DataOutputStream data, List<String> values) throws IOException {
+        data.writeInt(values == null ? -1 : values.size());
+        if (values != null) {
+            for (String value : values) {
+                writeString(data, value);
+            }
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream data) throws IOException {
+        int count = data.readInt();
+        if (count < 0) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readString(data));
+        }
+        return values;
+    }
+
+    // Not writeUTF, which is limited to 64 KiB and would cap the size of literal text
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        if (value == null) {
+            data.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    private static String readString(DataInputStream data) throws IOException {
+        int length = data.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        data.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
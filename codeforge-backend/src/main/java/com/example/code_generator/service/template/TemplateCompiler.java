@@ -0,0 +1,149 @@
+package com.example.code_generator.service.template;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Parses template sources into {@link CompiledTemplate}s.
+ *
+ * <p>File bodies use {@code {{name}}} placeholders plus {@code {{#if}}} and {@code {{#each}}}
+ * blocks. A block tag that sits alone on its line is "standalone": the whole line, including
+ * its newline, is dropped so blocks do not leave blank lines behind. Paths from
+ * {@code template.json} use {@code ${name}} placeholders and have no blocks.
+ */
+public final class TemplateCompiler {
+    private static final String[] THIS = {"this"};
+
+    private TemplateCompiler() {
+    }
+
+    public static CompiledTemplate compile(String source) {
+        return new CompiledTemplate(parse(source, "{{", "}}", true));
+    }
+
+    public static CompiledTemplate compilePath(String source) {
+        return new CompiledTemplate(parse(source, "${", "}", false));
+    }
+
+    private static List<TemplateSegment> parse(String source, String open, String close, boolean allowBlocks) {
+        Deque<Block> blocks = new ArrayDeque<>();
+        Block root = new Block(null, null);
+        blocks.push(root);
+        StringBuilder literal = new StringBuilder();
+
+        int pos = 0;
+        while (pos < source.length()) {
+            int start = source.indexOf(open, pos);
+            if (start < 0) {
+                literal.append(source, pos, source.length());
+                break;
+            }
+            int end = source.indexOf(close, start + open.length());
+            if (end < 0) {
+                throw new IllegalArgumentException("Unterminated tag at offset " + start);
+            }
+            literal.append(source, pos, start);
+            String tag = source.substring(start + open.length(), end).trim();
+            pos = end + close.length();
+
+            boolean blockTag = allowBlocks && (tag.startsWith("#") || tag.startsWith("/"));
+            if (!blockTag) {
+                if (tag.isEmpty()) {
+                    throw new IllegalArgumentException("Empty tag at offset " + start);
+                }
+                flush(literal, blocks.peek());
+                blocks.peek().segments.add(new TemplateSegment.Variable(splitPath(tag)));
+                continue;
+            }
+
+            pos = stripStandaloneLine(source, start, pos, literal);
+            flush(literal, blocks.peek());
+            if (tag.startsWith("#")) {
+                int space = tag.indexOf(' ');
+                if (space < 0) {
+                    throw new IllegalArgumentException("Block tag without a name: {{" + tag + "}}");
+                }
+                String kind = tag.substring(1, space);
+                if (!kind.equals("if") && !kind.equals("each")) {
+                    throw new IllegalArgumentException("Unknown block: {{" + tag + "}}");
+                }
+                blocks.push(new Block(kind, splitPath(tag.substring(space + 1).trim())));
+            } else {
+                String kind = tag.substring(1).trim();
+                Block block = blocks.peek();
+                if (block == root || !block.kind.equals(kind)) {
+                    throw new IllegalArgumentException("Unexpected {{/" + kind + "}} at offset " + start);
+                }
+                blocks.pop();
+                List<TemplateSegment> body = List.copyOf(block.segments);
+                blocks.peek().segments.add(kind.equals("if")
+                        ? new TemplateSegment.IfBlock(block.path, body)
+                        : new TemplateSegment.EachBlock(block.path, body));
+            }
+        }
+
+        if (blocks.peek() != root) {
+            throw new IllegalArgumentException("Unclosed {{#" + blocks.peek().kind + "}} block");
+        }
+        flush(literal, root);
+        return List.copyOf(root.segments);
+    }
+
+    /**
+     * If the block tag spanning {@code [tagStart, tagEnd)} is the only thing on its line,
+     * removes the line's indentation from {@code literal} and returns the offset just past
+     * the line break; otherwise returns {@code tagEnd} unchanged.
+     */
+    private static int stripStandaloneLine(String source, int tagStart, int tagEnd, StringBuilder literal) {
+        int lineStart = tagStart;
+        while (lineStart > 0 && isBlank(source.charAt(lineStart - 1))) {
+            lineStart--;
+        }
+        if (lineStart > 0 && source.charAt(lineStart - 1) != '\n') {
+            return tagEnd;
+        }
+        int lineEnd = tagEnd;
+        while (lineEnd < source.length() && isBlank(source.charAt(lineEnd))) {
+            lineEnd++;
+        }
+        if (lineEnd < source.length() && source.charAt(lineEnd) == '\r') {
+            lineEnd++;
+        }
+        if (lineEnd < source.length()) {
+            if (source.charAt(lineEnd) != '\n') {
+                return tagEnd;
+            }
+            lineEnd++;
+        }
+        literal.setLength(literal.length() - (tagStart - lineStart));
+        return lineEnd;
+    }
+
+    private static boolean isBlank(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    private static String[] splitPath(String name) {
+        return name.equals("this") ? THIS : name.split("\\.");
+    }
+
+    private static void flush(StringBuilder literal, Block block) {
+        if (literal.length() > 0) {
+            block.segments.add(new TemplateSegment.Literal(literal.toString()));
+            literal.setLength(0);
+        }
+    }
+
+    private static final class Block {
+        private final String kind;
+        private final String[] path;
+        private final List<TemplateSegment> segments = new ArrayList<>();
+
+        private Block(String kind, String[] path) {
+            this.kind = kind;
+            this.path = path;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.code_generator.service.template;
+
+import com.example.code_generator.service.TemplateDiscoveryService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches {@code generator.templates.dir} and hands changed paths to
+ * {@link TemplateDiscoveryService#reload}. Enabled with {@code generator.templates.watch=true}.
+ *
+ * <p>Editors and {@code git checkout} touch many files in quick succession, so events are
+ * collected until the tree has been quiet for {@code generator.templates.debounce} and then
+ * reloaded as one batch. {@link WatchService} is not recursive: every directory is
+ * registered on its own, including ones created later.
+ */
+@Component
+@ConditionalOnProperty(name = "generator.templates.watch", havingValue = "true")
+public class TemplateDirectoryWatcher {
+    private static final Logger logger = LoggerFactory.getLogger(TemplateDirectoryWatcher.class);
+
+    private final TemplateDiscoveryService templateDiscoveryService;
+    private final Path root;
+    private final Duration debounce;
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+    private WatchService watchService;
+    private Thread thread;
+
+    public TemplateDirectoryWatcher(
+            TemplateDiscoveryService templateDiscoveryService,
+            @Value("${generator.templates.debounce:PT0.5S}") Duration debounce) {
+        this.templateDiscoveryService = templateDiscoveryService;
+        this.root = templateDiscoveryService.getTemplatesDir().orElseThrow(() -> new IllegalStateException(
+                "generator.templates.watch requires generator.templates.dir"));
+        this.debounce = debounce;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+        registerTree(root);
+        thread = new Thread(this::run, "template-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        logger.info("Watching {} for template changes", root);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        watchService.close();
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                Set<Path> changed = new LinkedHashSet<>();
+                collect(watchService.take(), changed);
+                // Keep absorbing events until the tree has been quiet for the debounce interval
+                WatchKey key;
+                while ((key = watchService.poll(debounce.toMillis(), TimeUnit.MILLISECONDS)) != null) {
+                    collect(key, changed);
+                }
+                try {
+                    templateDiscoveryService.reload(changed);
+                } catch (RuntimeException e) {
+                    logger.error("Template reload failed: {}", e.getMessage(), e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Shutting down
+        }
+    }
+
+    private void collect(WatchKey key, Set<Path> changed) {
+        Path dir = directories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || dir == null) {
+                // Events were lost; re-examine the whole tree
+                changed.add(root);
+                continue;
+            }
+            Path path = dir.resolve((Path) event.context());
+            changed.add(path);
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                try {
+                    registerTree(path);
+                } catch (IOException e) {
+                    logger.warn("Could not watch {}: {}", path, e.getMessage());
+                }
+            }
+        }
+        if (!key.reset()) {
+            directories.remove(key);
+        }
+    }
+
+    private void registerTree(Path start) throws IOException {
+        Files.walkFileTree(start, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                WatchKey key = dir.register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+                directories.put(key, dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.code_generator.service.template;
+
+import java.util.List;
+
+/**
+ * One piece of a {@link CompiledTemplate}. Segments are produced once by the
+ * {@link TemplateCompiler} and never change afterwards.
+ */
+public sealed interface TemplateSegment {
+
+    /** Text copied to the output as-is. */
+    record Literal(String text) implements TemplateSegment {
+    }
+
+    /** {@code {{name}}} or {@code ${name}}; {@code path} is the dotted name split up front. */
+    record Variable(String[] path) implements TemplateSegment {
+    }
+
+    /** {@code {{#if name}} ... {{/if}}}: rendered when the value is present and non-empty. */
+    record IfBlock(String[] path, List<TemplateSegment> body) implements TemplateSegment {
+    }
+
+    /** {@code {{#each name}} ... {{/each}}}: rendered once per element, with {@code {{this}}} bound to it. */
+    record EachBlock(String[] path, List<TemplateSegment> body) implements TemplateSegment {
+    }
+}
@@ -1,13 +1,31 @@
 package com.example.code_generator;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
 
-@SpringBootTest
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "project.generated.dir=target/test-generated-projects")
 class CodeGeneratorApplicationTests {
 
+    @Autowired
+    private RequestMappingHandlerAdapter handlerAdapter;
+
     @Test
     void contextLoads() {
     }
 
+    @Test
+    void streamingResponsesRunOnABoundedPool() {
+        Object executor = ReflectionTestUtils.getField(handlerAdapter, "taskExecutor");
+
+        ThreadPoolTaskExecutor pool = assertInstanceOf(ThreadPoolTaskExecutor.class, executor);
+        assertEquals("streaming-", pool.getThreadNamePrefix());
+        assertEquals(pool.getCorePoolSize(), pool.getMaxPoolSize());
+    }
+
 }
@@ -0,0 +1,121 @@
+package com.example.code_generator.benchmark;
+
+import com.example.code_generator.service.archive.ArchiveCompressor;
+import com.example.code_generator.service.archive.ArchiveFormat;
+import com.example.code_generator.service.archive.ArchiveSink;
+import org.openjdk.jmh.annotations.*;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wall-clock time to write one archive through the {@link ArchiveCompressor} with
+ * {@code threads} compression threads, per {@code format} and DEFLATE {@code level}. The
+ * project mixes 400 small sources, a few large generated assets that are split into blocks,
+ * and already-compressed images that are stored. The archive is discarded as it is written.
+ *
+ * <p>JMH reports wall-clock time per archive. The process CPU time per archive, which shows the
+ * cost of the extra threads, is printed after each iteration as {@code cpu/archive}; CPU time
+ * divided by wall-clock time is the number of cores kept busy.
+ *
+ * <p>Run with:
+ * <pre>mvn -Pbenchmark verify -Djmh.include=ArchiveCompressionBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArchiveCompressionBenchmark {
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"ZIP", "TAR_GZ", "TAR_ZST"})
+    public ArchiveFormat format;
+
+    @Param({"6"})
+    public int level;
+
+    private final com.sun.management.OperatingSystemMXBean os =
+            (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+    private ForkJoinPool pool;
+    private ArchiveCompressor compressor;
+    private List<String> paths;
+    private List<byte[]> contents;
+    private long iterationStart;
+    private int archives;
+
+    @Setup
+    public void setUp() {
+        pool = new ForkJoinPool(threads);
+        compressor = new ArchiveCompressor(pool, threads, level, ArchiveCompressor.DEFAULT_BLOCK_SIZE,
+                ArchiveCompressor.DEFAULT_ZSTD_LEVEL, null);
+        paths = new ArrayList<>();
+        contents = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 400; i++) {
+            add("app/src/main/java/com/example/benchmark/File" + i + ".java", source(random, 4 * 1024));
+        }
+        for (int i = 0; i < 4; i++) {
+            add("app/src/main/assets/data" + i + ".json", source(random, 1024 * 1024));
+        }
+        for (int i = 0; i < 8; i++) {
+            byte[] image = new byte[64 * 1024];
+            random.nextBytes(image);
+            add("app/src/main/res/drawable/image" + i + ".png", image);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+        compressor.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        iterationStart = os.getProcessCpuTime();
+        archives = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void endIteration() {
+        long cpu = os.getProcessCpuTime() - iterationStart;
+        if (archives > 0) {
+            System.out.printf("cpu/archive: %.2f ms%n", cpu / 1e6 / archives);
+        }
+    }
+
+    @Benchmark
+    public void writeArchive() throws IOException {
+        try (ArchiveSink sink = compressor.newSink(format, OutputStream.nullOutputStream())) {
+            for (int i = 0; i < paths.size(); i++) {
+                sink.addEntry(paths.get(i), contents.get(i));
+            }
+        }
+        archives++;
+    }
+
+    private void add(String path, byte[] content) {
+        paths.add(path);
+        contents.add(content);
+    }
+
+    // Java-like text with varying identifiers, so it compresses roughly like generated sources
+    private static byte[] source(Random random, int size) {
+        StringBuilder out = new StringBuilder(size + 64);
+        out.append("package com.example.benchmark;\n\npublic class Generated {\n");
+        while (out.length() < size) {
+            out.append("    private String field").append(random.nextInt(10_000))
+                    .append(" = \"value ").append(random.nextInt(1_000_000)).append("\";\n");
+        }
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.code_generator.benchmark;
+
+import com.example.code_generator.model.GeneratedProject;
+import com.example.code_generator.model.ProjectConfig;
+import com.example.code_generator.service.AndroidDependencyService;
+import com.example.code_generator.service.GeneratedProjectService;
+import com.example.code_generator.service.TemplateDiscoveryService;
+import com.example.code_generator.service.admission.GenerationAdmission;
+import com.example.code_generator.service.archive.ArchiveCache;
+import com.example.code_generator.service.archive.BufferedArchiveSink;
+import com.example.code_generator.service.archive.ArchiveCompressor;
+import com.example.code_generator.service.archive.DeflatedEntryCache;
+import com.example.code_generator.service.archive.ProjectFingerprint;
+import com.example.code_generator.service.cluster.ClusterRouter;
+import com.example.code_generator.service.coalescing.GenerationCoalescer;
+import com.example.code_generator.service.metrics.GenerationMetrics;
+import com.example.code_generator.service.registry.ProjectRegistry;
+import com.example.code_generator.service.registry.ZipRetentionService;
+import com.example.code_generator.service.storage.ArtifactStore;
+import com.example.code_generator.service.storage.LocalArtifactStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.FileSystemUtils;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of archiving a generated project through {@link GeneratedProjectService#saveProject},
+ * the successor of the old {@code zipProject}: ZIP compression, the atomic move into the
+ * zips store and the registry append. The project is generated up front, and the archive
+ * cache is cleared before every call so each call writes a fresh ZIP. {@code fileCount} and
+ * {@code fileSize} set the project size; with {@code entryCache} the unchanged files are
+ * spliced in pre-compressed from the {@link DeflatedEntryCache} instead of deflated again.
+ * Compression runs on the calling thread; {@link ArchiveCompressionBenchmark} covers the pool.
+ *
+ * <p>Run with:
+ * <pre>mvn -Pbenchmark verify -Djmh.include=ArchiveWriteBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArchiveWriteBenchmark {
+
+    @Param({"8", "64", "512"})
+    public int fileCount;
+
+    @Param({"1024", "16384"})
+    public int fileSize;
+
+    @Param({"false", "true"})
+    public boolean entryCache;
+
+    private Path baseDir;
+    private ProjectRegistry registry;
+    private ArchiveCache archiveCache;
+    private GeneratedProjectService service;
+    private BufferedArchiveSink project;
+    private ProjectConfig config;
+    private String fingerprint;
+
+    @Setup
+    public void setUp() throws IOException {
+        baseDir = Files.createTempDirectory("archive-benchmark");
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        ArtifactStore store = new LocalArtifactStore(baseDir.resolve("zips"));
+        registry = new ProjectRegistry(objectMapper, baseDir.toString(), false, 2, store);
+        archiveCache = new ArchiveCache(Long.MAX_VALUE);
+        ZipRetentionService retention = new ZipRetentionService(registry, archiveCache, store,
+                Long.MAX_VALUE, Duration.ofDays(7), Duration.ofDays(30), 200);
+        TemplateDiscoveryService templateDiscoveryService = new TemplateDiscoveryService(objectMapper);
+        // A zero entry limit turns the cache into a pass-through
+        DeflatedEntryCache deflatedEntries = entryCache
+                ? new DeflatedEntryCache(256L * 1024 * 1024, 256 * 1024)
+                : new DeflatedEntryCache(0, 0);
+        GenerationMetrics metrics = new GenerationMetrics(new SimpleMeterRegistry(),
+                templateDiscoveryService, registry, retention, deflatedEntries, new GenerationCoalescer(true, Duration.ofMinutes(2)),
+                new GenerationAdmission(null, 64, 256, 16, 5));
+        service = new GeneratedProjectService(baseDir.toString(), "8080", "", archiveCache,
+                templateDiscoveryService, new AndroidDependencyService(), registry, retention, metrics,
+                new ArchiveCompressor(Runnable::run, 1, ArchiveCompressor.DEFAULT_LEVEL,
+                        ArchiveCompressor.DEFAULT_BLOCK_SIZE, ArchiveCompressor.DEFAULT_ZSTD_LEVEL, deflatedEntries),
+                store, ClusterRouter.standalone());
+
+        project = new BufferedArchiveSink();
+        for (int i = 0; i < fileCount; i++) {
+            project.addEntry("app/src/main/java/com/example/benchmark/File" + i + ".java", source(i));
+        }
+        config = new ProjectConfig();
+        config.setProjectType("Mobile Application");
+        config.setProjectName("BenchmarkApp");
+        config.setPackageName("com.example.benchmark");
+        fingerprint = ProjectFingerprint.of(config, service.getGeneratorVersion());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        registry.close();
+        FileSystemUtils.deleteRecursively(baseDir);
+    }
+
+    @Benchmark
+    public GeneratedProject saveProject() {
+        archiveCache.invalidate(fingerprint);
+        return service.saveProject(config, sink -> {
+            try {
+                project.copyTo(sink, "");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    // Repetitive Java-like text, so it compresses roughly like real generated sources
+    private byte[] source(int index) {
+        StringBuilder out = new StringBuilder(fileSize);
+        out.append("package com.example.benchmark;\n\npublic class File").append(index).append(" {\n");
+        for (int line = 0; out.length() < fileSize - 2; line++) {
+            out.append("    private String field").append(line).append(" = \"value ").append(line * 31).append("\";\n");
+        }
+        out.setLength(Math.min(out.length(), fileSize - 2));
+        return out.append("}\n").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
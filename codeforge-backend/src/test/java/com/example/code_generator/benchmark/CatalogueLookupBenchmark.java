@@ -0,0 +1,130 @@
+package com.example.code_generator.benchmark;
+
+import com.example.code_generator.model.AndroidDependency;
+import com.example.code_generator.model.ProjectTemplate;
+import com.example.code_generator.service.AndroidDependencyService;
+import com.example.code_generator.service.TemplateDiscoveryService;
+import com.example.code_generator.service.catalogue.DependencyCatalogue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the catalogue lookups behind the metadata endpoints: template discovery by type,
+ * platform and architecture, Android dependencies by category, and prefix and fuzzy search
+ * over a synthetic catalogue of {@code artifacts} entries.
+ *
+ * <p>Run with:
+ * <pre>mvn -Pbenchmark verify -Djmh.include=CatalogueLookupBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatalogueLookupBenchmark {
+
+    private TemplateDiscoveryService templateDiscoveryService;
+    private AndroidDependencyService androidDependencyService;
+
+    @Setup
+    public void setUp() {
+        templateDiscoveryService = new TemplateDiscoveryService(new ObjectMapper());
+        androidDependencyService = new AndroidDependencyService();
+        // A lookup that silently misses would only measure the empty path
+        if (findTemplate().isEmpty() || getArchitectures().isEmpty()) {
+            throw new IllegalStateException("Benchmark queries do not match the bundled templates");
+        }
+    }
+
+    @Benchmark
+    public Optional<ProjectTemplate> findTemplate() {
+        return templateDiscoveryService.findTemplate("Mobile Application", "mvvm");
+    }
+
+    @Benchmark
+    public List<String> getArchitectures() {
+        return templateDiscoveryService.getArchitectures("Mobile Application", "android");
+    }
+
+    @Benchmark
+    public List<String> getProjectTypes() {
+        return templateDiscoveryService.getProjectTypes();
+    }
+
+    @Benchmark
+    public List<AndroidDependency> getDependenciesByCategory(CategoryQuery query) {
+        return androidDependencyService.getDependenciesByCategory(query.category);
+    }
+
+    // Separate state so only the category lookup is repeated per category
+    @State(Scope.Benchmark)
+    public static class CategoryQuery {
+
+        @Param({"DI", "Testing", "Unknown"})
+        public String category;
+    }
+
+    @Benchmark
+    public BitSet searchPrefix(LargeCatalogue large) {
+        return large.catalogue.search("retro", null, false);
+    }
+
+    @Benchmark
+    public BitSet searchPrefixInCategory(LargeCatalogue large) {
+        return large.catalogue.search("core", "Network", false);
+    }
+
+    @Benchmark
+    public BitSet searchFuzzy(LargeCatalogue large) {
+        return large.catalogue.search("retorfit", null, true);
+    }
+
+    @State(Scope.Benchmark)
+    public static class LargeCatalogue {
+        private static final String[] WORDS = {
+                "retrofit", "room", "compose", "core", "runtime", "compiler", "okhttp", "paging", "work",
+                "navigation", "lifecycle", "viewmodel", "coroutines", "serialization", "glide", "coil",
+                "hilt", "dagger", "moshi", "gson", "timber", "junit", "espresso", "mockk", "ktx", "test"};
+        private static final String[] CATEGORIES = {"UI", "DI", "Database", "Network", "Image", "Async", "Testing"};
+
+        @Param({"300000"})
+        public int artifacts;
+
+        DependencyCatalogue catalogue;
+
+        @Setup
+        public void setUp() throws IOException {
+            // A long tail of made-up words with well-known ones mixed in, like a real index
+            Random random = new Random(42);
+            String[] vocabulary = new String[20_000];
+            for (int i = 0; i < vocabulary.length; i++) {
+                StringBuilder word = new StringBuilder();
+                for (int length = 4 + random.nextInt(6); word.length() < length; ) {
+                    word.append((char) ('a' + random.nextInt(26)));
+                }
+                vocabulary[i] = word.toString();
+            }
+            StringBuilder tsv = new StringBuilder(artifacts * 96);
+            for (int i = 0; i < artifacts; i++) {
+                String vendor = vocabulary[random.nextInt(5000)];
+                String first = random.nextInt(10) == 0 ? WORDS[random.nextInt(WORDS.length)] : vocabulary[random.nextInt(vocabulary.length)];
+                String second = random.nextInt(10) == 0 ? WORDS[random.nextInt(WORDS.length)] : vocabulary[random.nextInt(vocabulary.length)];
+                tsv.append("org.").append(vendor).append('\t').append(first).append('-').append(second).append('\t')
+                        .append(1 + random.nextInt(5)).append('.').append(random.nextInt(20)).append(".0\t")
+                        .append(random.nextInt(10) == 0 ? "annotationProcessor" : "implementation").append('\t')
+                        .append(CATEGORIES[random.nextInt(CATEGORIES.length)]).append('\t')
+                        .append(first).append(' ').append(second).append('\t')
+                        .append("Synthetic ").append(first).append(" library\n");
+            }
+            catalogue = DependencyCatalogue.load(new StringReader(tsv.toString()));
+        }
+    }
+}
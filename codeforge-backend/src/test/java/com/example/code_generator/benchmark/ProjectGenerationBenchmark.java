@@ -0,0 +1,107 @@
+package com.example.code_generator.benchmark;
+
+import com.example.code_generator.model.ProjectConfig;
+import com.example.code_generator.service.AndroidDependencyService;
+import com.example.code_generator.service.TemplateDiscoveryService;
+import com.example.code_generator.service.archive.ArchiveSink;
+import com.example.code_generator.service.catalogue.DependencyResolver;
+import com.example.code_generator.service.impl.AndroidProjectGenerator;
+import com.example.code_generator.service.impl.ReactProjectGenerator;
+import com.example.code_generator.service.impl.TemplateProjectGenerator;
+import com.example.code_generator.service.schema.SchemaModelGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of each {@link com.example.code_generator.service.ProjectGenerator}, writing into
+ * a sink that only consumes the bytes so the generators themselves are measured.
+ * {@code size} controls how many optional dependencies the config selects.
+ *
+ * <p>Run with:
+ * <pre>mvn -Pbenchmark verify -Djmh.include=ProjectGenerationBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProjectGenerationBenchmark {
+
+    @Param({"small", "large"})
+    public String size;
+
+    private ForkJoinPool renderPool;
+    private AndroidProjectGenerator androidGenerator;
+    private ReactProjectGenerator reactGenerator;
+    private TemplateProjectGenerator templateGenerator;
+    private ProjectConfig androidConfig;
+    private ProjectConfig reactConfig;
+    private ProjectConfig templateConfig;
+
+    @Setup
+    public void setUp() {
+        renderPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        DependencyResolver dependencyResolver = new DependencyResolver(new AndroidDependencyService(), 1024);
+        androidGenerator = new AndroidProjectGenerator(dependencyResolver);
+        reactGenerator = new ReactProjectGenerator();
+        templateGenerator = new TemplateProjectGenerator(
+                new TemplateDiscoveryService(new ObjectMapper()),
+                dependencyResolver,
+                renderPool,
+                new SchemaModelGenerator(new ObjectMapper(), renderPool));
+
+        List<String> dependencies = size.equals("large") ? List.of("dagger", "room") : List.of();
+        androidConfig = config("android", "MVC", dependencies);
+        reactConfig = config("react", null, dependencies);
+        templateConfig = config("Mobile Application", "MVVM", dependencies);
+    }
+
+    @TearDown
+    public void tearDown() {
+        renderPool.shutdownNow();
+    }
+
+    @Benchmark
+    public void android(Blackhole blackhole) {
+        androidGenerator.generateProject(androidConfig, new ConsumingSink(blackhole));
+    }
+
+    @Benchmark
+    public void react(Blackhole blackhole) {
+        reactGenerator.generateProject(reactConfig, new ConsumingSink(blackhole));
+    }
+
+    @Benchmark
+    public void template(Blackhole blackhole) {
+        templateGenerator.generateProject(templateConfig, new ConsumingSink(blackhole));
+    }
+
+    private static ProjectConfig config(String type, String architecture, List<String> dependencies) {
+        ProjectConfig config = new ProjectConfig();
+        config.setProjectType(type);
+        config.setProjectName("BenchmarkApp");
+        config.setPackageName("com.example.benchmark");
+        config.setVersion("1.0.0");
+        config.setArchitecturePattern(architecture);
+        config.setDependencies(dependencies);
+        return config;
+    }
+
+    private record ConsumingSink(Blackhole blackhole) implements ArchiveSink {
+
+        @Override
+        public void addEntry(String path, byte[] content) {
+            blackhole.consume(path);
+            blackhole.consume(content);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
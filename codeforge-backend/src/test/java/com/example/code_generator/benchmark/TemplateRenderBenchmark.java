@@ -0,0 +1,63 @@
+package com.example.code_generator.benchmark;
+
+import com.example.code_generator.service.template.CompiledTemplate;
+import com.example.code_generator.service.template.TemplateCompiler;
+import org.openjdk.jmh.annotations.*;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the compiled template engine with the naive approach of calling
+ * {@link String#replace} once per placeholder on the raw template text.
+ *
+ * <p>Run with:
+ * <pre>mvn -Pbenchmark verify -Djmh.include=TemplateRenderBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateRenderBenchmark {
+
+    @Param({"AndroidManifest.xml.template", "model/User.java.template"})
+    public String template;
+
+    private String source;
+    private CompiledTemplate compiled;
+    private Map<String, String> model;
+
+    @Setup
+    public void setUp() throws IOException {
+        String location = "templates/mobile/android/mvc/" + template;
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(location)) {
+            if (in == null) {
+                throw new IOException("Missing template: " + location);
+            }
+            source = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        compiled = TemplateCompiler.compile(source);
+        model = Map.of(
+                "packageName", "com.example.benchmark",
+                "projectName", "BenchmarkApp",
+                "version", "1.0.0");
+    }
+
+    @Benchmark
+    public String compiled() {
+        return compiled.render(model);
+    }
+
+    @Benchmark
+    public String naiveReplace() {
+        String result = source;
+        for (Map.Entry<String, String> entry : model.entrySet()) {
+            result = result.replace("{{" + entry.getKey() + "}}", entry.getValue());
+        }
+        return result;
+    }
+}
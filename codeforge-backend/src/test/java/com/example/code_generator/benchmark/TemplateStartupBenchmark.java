@@ -0,0 +1,51 @@
+package com.example.code_generator.benchmark;
+
+import com.example.code_generator.service.TemplateDiscoveryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time for {@link TemplateDiscoveryService} to build the template catalogue at startup,
+ * either by scanning the classpath and compiling every template ({@code scan}) or by reading
+ * the bundle the build precompiled ({@code bundle}).
+ *
+ * <p>{@code cold} is the first load in a fresh JVM, as on a newly started replica, so it
+ * includes loading the classes each path needs; it uses many forks and a single measurement
+ * each. {@code warm} repeats the load in a warmed-up JVM and isolates the work itself.
+ *
+ * <p>Run with:
+ * <pre>mvn -Pbenchmark verify -Djmh.include=TemplateStartupBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TemplateStartupBenchmark {
+    private static final String BUNDLE = "classpath:templates.bundle";
+
+    @Param({"scan", "bundle"})
+    public String source;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(20)
+    public TemplateDiscoveryService cold() {
+        return load();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @Fork(1)
+    public TemplateDiscoveryService warm() {
+        return load();
+    }
+
+    private TemplateDiscoveryService load() {
+        return new TemplateDiscoveryService(objectMapper, "", source.equals("bundle") ? BUNDLE : "");
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.code_generator.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArchiveDownloadResponderTest {
+    private static final String CONTENT = "0123456789abcdefghij";
+    private static final Instant MODIFIED = Instant.parse("2026-01-02T03:04:05Z");
+
+    @TempDir
+    Path tempDir;
+
+    private final ArchiveDownloadResponder responder = new ArchiveDownloadResponder(true);
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        file = Files.writeString(tempDir.resolve("demo.zip"), CONTENT);
+        Files.setLastModifiedTime(file, FileTime.from(MODIFIED));
+    }
+
+    @Test
+    void testWholeFile() throws Exception {
+        MockHttpServletResponse response = respond(request());
+
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertNotNull(response.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void testSingleRange() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        MockHttpServletResponse response = respond(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("2345", response.getContentAsString());
+        assertEquals("bytes 2-5/20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(4, response.getContentLengthLong());
+
+        request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=-3");
+        assertEquals("hij", respond(request).getContentAsString());
+    }
+
+    @Test
+    void testMultipleRanges() throws Exception {
+        MockHttpServletRequest request = request();
+        // The range past the end is skipped rather than failing the others
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-1,10-12,50-60");
+        MockHttpServletResponse response = respond(request);
+
+        assertEquals(206, response.getStatus());
+        assertTrue(response.getContentType().startsWith("multipart/byteranges; boundary="));
+        String body = response.getContentAsString();
+        assertTrue(body.contains("Content-Range: bytes 0-1/20\r\n\r\n01\r\n"), body);
+        assertTrue(body.contains("Content-Range: bytes 10-12/20\r\n\r\nabc\r\n"), body);
+        assertFalse(body.contains("50-"), body);
+        assertEquals(body.getBytes(StandardCharsets.US_ASCII).length, response.getContentLengthLong());
+    }
+
+    @Test
+    void testInvalidRangeIsIgnored() throws Exception {
+        for (String range : new String[]{"bytes=5-2", "bytes=abc", "items=0-5", "bytes="}) {
+            MockHttpServletRequest request = request();
+            request.addHeader(HttpHeaders.RANGE, range);
+            MockHttpServletResponse response = respond(request);
+
+            assertEquals(200, response.getStatus(), range);
+            assertEquals(CONTENT, response.getContentAsString(), range);
+        }
+    }
+
+    @Test
+    void testUnsatisfiableRange() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=20-30");
+        MockHttpServletResponse response = respond(request);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("", response.getContentAsString());
+    }
+
+    @Test
+    void testIfRangeWithETag() throws Exception {
+        String etag = respond(request()).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-3");
+        request.addHeader(HttpHeaders.IF_RANGE, etag);
+        assertEquals(206, respond(request).getStatus());
+
+        request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-3");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"stale\"");
+        MockHttpServletResponse response = respond(request);
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+    }
+
+    @Test
+    void testIfRangeWithDate() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-3");
+        request.addHeader(HttpHeaders.IF_RANGE, MODIFIED.toEpochMilli());
+        assertEquals(206, respond(request).getStatus());
+
+        request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-3");
+        request.addHeader(HttpHeaders.IF_RANGE, MODIFIED.minusSeconds(60).toEpochMilli());
+        assertEquals(200, respond(request).getStatus());
+    }
+
+    @Test
+    void testFileNameIsEncodedInContentDisposition() throws Exception {
+        String name = "My \"App\"; v2 été.zip";
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        responder.respond(file, name, request(), response);
+
+        ContentDisposition disposition = ContentDisposition.parse(response.getHeader(HttpHeaders.CONTENT_DISPOSITION));
+        assertTrue(disposition.isAttachment());
+        assertEquals(name, disposition.getFilename());
+        assertEquals(StandardCharsets.UTF_8, disposition.getCharset());
+    }
+
+    @Test
+    void testAsciiFileNameIsQuotedAsIs() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        responder.respond(file, "say \"hi\"; now.zip", request(), response);
+
+        assertEquals("attachment; filename=\"say \\\"hi\\\"; now.zip\"",
+                response.getHeader(HttpHeaders.CONTENT_DISPOSITION));
+        assertEquals("attachment; filename=\"demo.zip\"", respond(request()).getHeader(HttpHeaders.CONTENT_DISPOSITION));
+    }
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/api/generator/download/demo");
+    }
+
+    private MockHttpServletResponse respond(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        responder.respond(file, "demo.zip", request, response);
+        return response;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.code_generator.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/** The kinds of request {@link LoadTest} sends, each named as in {@code --mix}. */
+enum LoadOperation {
+    /** A read-only catalogue endpoint, cycling over the ones the client calls while a user picks a template. */
+    CATALOGUE,
+    /** A synchronous generation of one of {@code --projects} distinct configs. */
+    GENERATE,
+    /** A full download of a project generated earlier in the run. */
+    DOWNLOAD;
+
+    private static final String[] CATALOGUE_PATHS = {
+            "/api/generator/project-types",
+            "/api/generator/templates",
+            "/api/generator/frameworks/Mobile%20Application",
+            "/api/generator/architectures/Mobile%20Application/Android",
+            "/api/android/dependencies/search?q=room",
+            "/api/android/dependencies/search?q=retrofit&fuzzy=true",
+    };
+
+    private static final String[] ARCHITECTURES = {"MVVM", "MVP", "Clean Architecture"};
+
+    String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    static LoadOperation fromLabel(String label) {
+        return valueOf(label.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * @param project    which of the distinct generate configs to send
+     * @param downloadId project to download; only used by {@link #DOWNLOAD}
+     */
+    HttpRequest.Builder request(URI base, int project, String downloadId) {
+        return switch (this) {
+            case CATALOGUE -> HttpRequest.newBuilder(base.resolve(
+                    CATALOGUE_PATHS[ThreadLocalRandom.current().nextInt(CATALOGUE_PATHS.length)])).GET();
+            case GENERATE -> HttpRequest.newBuilder(base.resolve("/api/generator/generate"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(generateBody(project)));
+            case DOWNLOAD -> HttpRequest.newBuilder(base.resolve("/api/generator/download/" + downloadId)).GET();
+        };
+    }
+
+    static String generateBody(int project) {
+        return "{\"projectName\":\"Load" + project + "\",\"packageName\":\"com.load.p" + project + "\","
+                + "\"projectType\":\"Mobile Application\",\"platform\":\"Android\","
+                + "\"architecturePattern\":\"" + ARCHITECTURES[project % ARCHITECTURES.length] + "\"}";
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.code_generator.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and outcome counts per {@link LoadOperation}. Latencies are recorded in nanoseconds
+ * into HdrHistogram {@link Recorder}s, which writers share without locking; {@link #interval}
+ * swaps them out once a second and appends the interval to an HdrHistogram log, so the run can
+ * be re-plotted or re-aggregated later with the standard HdrHistogram tools.
+ *
+ * <p>Written to the output directory at the end of a run:
+ * <ul>
+ *   <li>{@code latency.hlog}: per-second interval histograms tagged with the operation,</li>
+ *   <li>{@code <operation>.hgrm}: the whole run's percentile distribution in milliseconds,</li>
+ *   <li>{@code summary.json}: arrivals, responses per second, error rate and p50/p99/p99.9/max
+ *       per operation.</li>
+ * </ul>
+ */
+final class LoadReport {
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final Map<LoadOperation, Stats> stats = new EnumMap<>(LoadOperation.class);
+    private final Path output;
+    private final HistogramLogWriter log;
+    private final PrintStream logStream;
+    private long measuringSinceMillis;
+
+    LoadReport(Path output) throws IOException {
+        this.output = output;
+        Files.createDirectories(output);
+        this.logStream = new PrintStream(Files.newOutputStream(output.resolve("latency.hlog")), false, "UTF-8");
+        this.log = new HistogramLogWriter(logStream);
+        for (LoadOperation operation : LoadOperation.values()) {
+            stats.put(operation, new Stats());
+        }
+    }
+
+    /** Discards everything recorded so far, at the end of the warmup, and starts the log. */
+    void startMeasuring() {
+        measuringSinceMillis = System.currentTimeMillis();
+        for (Stats operation : stats.values()) {
+            operation.recorder.reset();
+            operation.total.reset();
+            operation.reset();
+        }
+        log.outputLogFormatVersion();
+        log.outputStartTime(measuringSinceMillis);
+        log.setBaseTime(measuringSinceMillis);
+        log.outputLegend();
+    }
+
+    /** A request that got a response; {@code latencyNanos} is from its intended start. */
+    void recordResponse(LoadOperation operation, int status, long latencyNanos) {
+        Stats operationStats = stats.get(operation);
+        operationStats.recorder.recordValue(Math.max(0, latencyNanos));
+        if (status == 429 || status == 503) {
+            operationStats.rejected.increment();
+        } else if (status >= 400) {
+            operationStats.errors.increment();
+        } else {
+            operationStats.ok.increment();
+        }
+    }
+
+    /** A request that failed without a response, e.g. refused or timed out. */
+    void recordFailure(LoadOperation operation, long latencyNanos) {
+        stats.get(operation).recorder.recordValue(Math.max(0, latencyNanos));
+        stats.get(operation).failed.increment();
+    }
+
+    /** A request that was due but not sent because too many were already in flight. */
+    void recordDropped(LoadOperation operation) {
+        stats.get(operation).dropped.increment();
+    }
+
+    /** Closes the current interval, logging it per operation; returns a one-line progress summary. */
+    synchronized String interval() {
+        StringBuilder line = new StringBuilder();
+        for (Map.Entry<LoadOperation, Stats> entry : stats.entrySet()) {
+            Histogram interval = entry.getValue().recorder.getIntervalHistogram();
+            if (interval.getTotalCount() == 0) {
+                continue;
+            }
+            interval.setTag(entry.getKey().label());
+            log.outputIntervalHistogram(interval);
+            entry.getValue().total.add(interval);
+            line.append(String.format("  %s %d req p99=%.1fms", entry.getKey().label(), interval.getTotalCount(),
+                    interval.getValueAtPercentile(99) / NANOS_PER_MILLI));
+        }
+        return line.toString();
+    }
+
+    /**
+     * Writes the percentile distributions and the summary and prints the summary table.
+     *
+     * @return the summary, as written to {@code summary.json}
+     */
+    synchronized Map<String, Object> finish(Map<String, Object> settings, PrintStream out) throws IOException {
+        interval();
+        logStream.close();
+        double seconds = (System.currentTimeMillis() - measuringSinceMillis) / 1000.0;
+
+        Map<String, Object> operations = new LinkedHashMap<>();
+        out.printf("%n%-10s %9s %9s %8s %9s %9s %9s %9s %9s%n",
+                "operation", "requests", "resp/s", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "rejected");
+        for (Map.Entry<LoadOperation, Stats> entry : stats.entrySet()) {
+            Stats operation = entry.getValue();
+            Histogram total = operation.total;
+            long requests = operation.requests();
+            if (requests == 0) {
+                continue;
+            }
+            try (PrintStream hgrm = new PrintStream(
+                    Files.newOutputStream(output.resolve(entry.getKey().label() + ".hgrm")), false, "UTF-8")) {
+                total.outputPercentileDistribution(hgrm, NANOS_PER_MILLI);
+            }
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("requests", requests);
+            summary.put("throughputPerSecond", operation.responses() / seconds);
+            summary.put("ok", operation.ok.sum());
+            summary.put("errors", operation.errors.sum());
+            summary.put("rejected", operation.rejected.sum());
+            summary.put("failed", operation.failed.sum());
+            summary.put("dropped", operation.dropped.sum());
+            summary.put("errorRate", operation.errorRate());
+            summary.put("p50Ms", total.getValueAtPercentile(50) / NANOS_PER_MILLI);
+            summary.put("p99Ms", total.getValueAtPercentile(99) / NANOS_PER_MILLI);
+            summary.put("p999Ms", total.getValueAtPercentile(99.9) / NANOS_PER_MILLI);
+            summary.put("maxMs", total.getMaxValue() / NANOS_PER_MILLI);
+            operations.put(entry.getKey().label(), summary);
+            out.printf("%-10s %9d %9.1f %7.2f%% %9.1f %9.1f %9.1f %9.1f %9d%n", entry.getKey().label(), requests,
+                    operation.responses() / seconds, operation.errorRate() * 100, summary.get("p50Ms"), summary.get("p99Ms"),
+                    summary.get("p999Ms"), summary.get("maxMs"), operation.rejected.sum());
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("settings", settings);
+        report.put("measuredSeconds", seconds);
+        report.put("operations", operations);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(output.resolve("summary.json").toFile(), report);
+        out.println("\nReport written to " + output.toAbsolutePath());
+        return report;
+    }
+
+    /** Highest p99 over all operations that ran, in milliseconds. */
+    synchronized double worstP99Millis() {
+        return stats.values().stream().filter(operation -> operation.total.getTotalCount() > 0)
+                .mapToDouble(operation -> operation.total.getValueAtPercentile(99) / NANOS_PER_MILLI)
+                .max().orElse(0);
+    }
+
+    /** Share of all requests that did not succeed; rejections by admission control count too. */
+    double errorRate() {
+        long requests = 0;
+        long unsuccessful = 0;
+        for (Stats operation : stats.values()) {
+            requests += operation.requests();
+            unsuccessful += operation.requests() - operation.ok.sum();
+        }
+        return requests == 0 ? 0 : (double) unsuccessful / requests;
+    }
+
+    private static final class Stats {
+        private final Recorder recorder = new Recorder(3);
+        private final Histogram total = new Histogram(3);
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+
+        private long requests() {
+            return ok.sum() + errors.sum() + rejected.sum() + failed.sum() + dropped.sum();
+        }
+
+        private long responses() {
+            return ok.sum() + errors.sum() + rejected.sum();
+        }
+
+        private double errorRate() {
+            long requests = requests();
+            return requests == 0 ? 0 : (double) (requests - ok.sum()) / requests;
+        }
+
+        private void reset() {
+            ok.reset();
+            errors.reset();
+            rejected.reset();
+            failed.reset();
+            dropped.reset();
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.example.code_generator.loadtest;
+
+import com.example.code_generator.CodeGeneratorApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator for the generator API. Requests arrive at {@code --rate} per second
+ * (Poisson arrivals by default) whatever the server's response times, split between catalogue
+ * lookups, generations and downloads by {@code --mix}. Latency is measured from when each
+ * request was due rather than when it was sent, so a server that falls behind shows up as the
+ * queueing delay its users would see instead of being hidden by a slower request rate.
+ *
+ * <p>Without {@code --target} the application is started in this JVM on a random port with a
+ * scratch {@code project.generated.dir}; arguments this class does not know are passed on to
+ * it (for example {@code --generator.jobs.threads=4}). That is convenient for comparing builds,
+ * but the generator shares the CPU with the server, so capacity figures should come from a
+ * separate load machine pointed at a deployed instance with {@code --target}.
+ *
+ * <p>Options, as {@code name=value} or {@code --name=value}:
+ * <ul>
+ *   <li>{@code target}: base URL of the instance to load; empty starts one in-process</li>
+ *   <li>{@code rate}: arrivals per second over all operations (50)</li>
+ *   <li>{@code mix}: relative weights, {@code catalogue=70,generate=10,download=20}</li>
+ *   <li>{@code duration}, {@code warmup}: measured and discarded run time ({@code PT60S}, {@code PT10S})</li>
+ *   <li>{@code arrivals}: {@code poisson} or {@code uniform}</li>
+ *   <li>{@code projects}: distinct configs generations cycle through, so some hit the archive cache (20)</li>
+ *   <li>{@code clients}: client ids requests are spread over, for per-client admission (16)</li>
+ *   <li>{@code max-in-flight}: requests due beyond this many outstanding ones are dropped and
+ *       counted as errors (1000)</li>
+ *   <li>{@code timeout}: per request ({@code PT30S})</li>
+ *   <li>{@code output}: report directory ({@code target/load-test}); see {@link LoadReport}</li>
+ *   <li>{@code max-p99-ms}, {@code max-error-rate}: exit with status 1 when the worst p99 or the
+ *       overall error rate exceeds them</li>
+ * </ul>
+ *
+ * <p>Run with:
+ * <pre>mvn -Pload-test verify -Dload.args="rate=200 duration=PT2M"</pre>
+ */
+public final class LoadTest {
+    private static final int DOWNLOAD_POOL = 1024;
+
+    private final URI base;
+    private final double rate;
+    private final Map<LoadOperation, Integer> mix;
+    private final Duration duration;
+    private final Duration warmup;
+    private final boolean poisson;
+    private final int projects;
+    private final int clients;
+    private final int maxInFlight;
+    private final Duration timeout;
+    private final LoadReport report;
+    private final HttpClient client;
+    private final ExecutorService responseExecutor;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicReferenceArray<String> downloadIds = new AtomicReferenceArray<>(DOWNLOAD_POOL);
+    private final AtomicLong generatedIds = new AtomicLong();
+    private final Random random = new Random();
+
+    private LoadTest(URI base, Map<String, String> options, LoadReport report) {
+        this.base = base;
+        this.rate = Double.parseDouble(options.getOrDefault("rate", "50"));
+        this.mix = parseMix(options.getOrDefault("mix", "catalogue=70,generate=10,download=20"));
+        this.duration = Duration.parse(options.getOrDefault("duration", "PT60S"));
+        this.warmup = Duration.parse(options.getOrDefault("warmup", "PT10S"));
+        this.poisson = !"uniform".equals(options.getOrDefault("arrivals", "poisson"));
+        this.projects = Integer.parseInt(options.getOrDefault("projects", "20"));
+        this.clients = Integer.parseInt(options.getOrDefault("clients", "16"));
+        this.maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", "1000"));
+        this.timeout = Duration.parse(options.getOrDefault("timeout", "PT30S"));
+        if (rate <= 0 || projects < 1 || clients < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("rate, projects, clients and max-in-flight must be positive");
+        }
+        this.report = report;
+        this.responseExecutor = Executors.newCachedThreadPool(daemon("load-response"));
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(responseExecutor)
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            int separator = option.indexOf('=');
+            String name = separator > 0 ? option.substring(0, separator) : null;
+            if (name != null && isOption(name)) {
+                options.put(name, option.substring(separator + 1));
+            } else {
+                applicationArgs.add(arg);
+            }
+        }
+
+        String target = options.getOrDefault("target", "");
+        ConfigurableApplicationContext application = null;
+        Path scratch = null;
+        URI base;
+        if (target.isBlank()) {
+            scratch = Files.createTempDirectory("codeforge-load");
+            applicationArgs.add(0, "--server.port=0");
+            applicationArgs.add(1, "--project.generated.dir=" + scratch);
+            application = SpringApplication.run(CodeGeneratorApplication.class, applicationArgs.toArray(String[]::new));
+            base = URI.create("http://localhost:"
+                    + ((ServletWebServerApplicationContext) application).getWebServer().getPort());
+        } else {
+            base = URI.create(target.replaceAll("/+$", ""));
+        }
+
+        boolean passed;
+        try {
+            LoadReport report = new LoadReport(Paths.get(options.getOrDefault("output", "target/load-test")));
+            passed = new LoadTest(base, options, report).run(options);
+        } finally {
+            if (application != null) {
+                application.close();
+                FileSystemUtils.deleteRecursively(scratch);
+            }
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static boolean isOption(String name) {
+        return List.of("target", "rate", "mix", "duration", "warmup", "arrivals", "projects", "clients",
+                "max-in-flight", "timeout", "output", "max-p99-ms", "max-error-rate").contains(name);
+    }
+
+    private boolean run(Map<String, String> options) throws IOException, InterruptedException {
+        System.out.printf("Loading %s at %.1f req/s (%s arrivals), mix %s, %s warmup + %s%n",
+                base, rate, poisson ? "poisson" : "uniform", mix, warmup, duration);
+        seedDownloads();
+
+        ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(daemon("load-report"));
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        ticker.schedule(report::startMeasuring, warmup.toNanos(), TimeUnit.NANOSECONDS);
+        ticker.scheduleAtFixedRate(() -> {
+            if (System.nanoTime() >= measureFrom) {
+                System.out.println(Duration.ofNanos(System.nanoTime() - measureFrom).toSeconds() + "s"
+                        + report.interval() + "  in-flight " + inFlight.get());
+            }
+        }, warmup.toNanos() + TimeUnit.SECONDS.toNanos(1), TimeUnit.SECONDS.toNanos(1), TimeUnit.NANOSECONDS);
+
+        // Arrival times are fixed in advance; a late dispatcher sends at once and the lateness counts
+        long due = start;
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        while (due < end) {
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            dispatch(pick(), due);
+            due += (long) (poisson ? -Math.log(1 - random.nextDouble()) * meanGapNanos : meanGapNanos);
+        }
+
+        long drainUntil = System.nanoTime() + timeout.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainUntil) {
+            Thread.sleep(10);
+        }
+        ticker.shutdownNow();
+        ticker.awaitTermination(5, TimeUnit.SECONDS);
+
+        Map<String, Object> settings = new LinkedHashMap<>(options);
+        settings.put("target", base.toString());
+        report.finish(settings, System.out);
+
+        boolean passed = true;
+        if (options.containsKey("max-p99-ms") && report.worstP99Millis() > Double.parseDouble(options.get("max-p99-ms"))) {
+            System.out.printf("FAILED: p99 %.1f ms exceeds %s ms%n", report.worstP99Millis(), options.get("max-p99-ms"));
+            passed = false;
+        }
+        if (options.containsKey("max-error-rate") && report.errorRate() > Double.parseDouble(options.get("max-error-rate"))) {
+            System.out.printf("FAILED: error rate %.4f exceeds %s%n", report.errorRate(), options.get("max-error-rate"));
+            passed = false;
+        }
+        responseExecutor.shutdownNow();
+        return passed;
+    }
+
+    private void dispatch(LoadOperation operation, long due) {
+        String downloadId = null;
+        if (operation == LoadOperation.DOWNLOAD) {
+            long generated = generatedIds.get();
+            if (generated == 0) {
+                operation = LoadOperation.GENERATE;
+            } else {
+                downloadId = downloadIds.get((int) (random.nextLong(Math.min(generated, DOWNLOAD_POOL))));
+            }
+        }
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            report.recordDropped(operation);
+            return;
+        }
+
+        LoadOperation sent = operation;
+        HttpRequest request = operation.request(base, random.nextInt(projects), downloadId)
+                .timeout(timeout)
+                .header("X-Client-Id", "load-" + random.nextInt(clients))
+                .build();
+        // Downloads are read to the end so they count in full, but their bytes are not kept
+        HttpResponse.BodyHandler<byte[]> handler = operation == LoadOperation.DOWNLOAD
+                ? info -> HttpResponse.BodySubscribers.replacing(null)
+                : HttpResponse.BodyHandlers.ofByteArray();
+        client.sendAsync(request, handler).whenComplete((response, failure) -> {
+            long latency = System.nanoTime() - due;
+            inFlight.decrementAndGet();
+            if (failure != null) {
+                report.recordFailure(sent, latency);
+                return;
+            }
+            report.recordResponse(sent, response.statusCode(), latency);
+            if (sent == LoadOperation.GENERATE && response.statusCode() == 200) {
+                rememberProject(response.body());
+            }
+        });
+    }
+
+    // Generates every distinct project once, so downloads have something to fetch from the start
+    private void seedDownloads() throws IOException, InterruptedException {
+        for (int project = 0; project < projects; project++) {
+            HttpResponse<byte[]> response = client.send(LoadOperation.GENERATE.request(base, project, null)
+                    .timeout(timeout).build(), HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding generation failed with HTTP " + response.statusCode()
+                        + ": " + new String(response.body()));
+            }
+            rememberProject(response.body());
+        }
+    }
+
+    private void rememberProject(byte[] body) {
+        try {
+            String id = objectMapper.readTree(body).path("id").asText(null);
+            if (id != null) {
+                downloadIds.set((int) (generatedIds.getAndIncrement() % DOWNLOAD_POOL), id);
+            }
+        } catch (IOException e) {
+            // Not a project; the request still counted, there is just nothing to download
+        }
+    }
+
+    private LoadOperation pick() {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int choice = random.nextInt(total);
+        for (Map.Entry<LoadOperation, Integer> entry : mix.entrySet()) {
+            choice -= entry.getValue();
+            if (choice < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("unreachable");
+    }
+
+    private static Map<LoadOperation, Integer> parseMix(String mix) {
+        Map<LoadOperation, Integer> weights = new EnumMap<>(LoadOperation.class);
+        for (String part : mix.split(",")) {
+            String[] nameAndWeight = part.split("=", 2);
+            if (nameAndWeight.length != 2) {
+                throw new IllegalArgumentException("Expected operation=weight in --mix, got " + part);
+            }
+            int weight = Integer.parseInt(nameAndWeight[1].trim());
+            if (weight > 0) {
+                weights.put(LoadOperation.fromLabel(nameAndWeight[0]), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("--mix needs at least one operation with a positive weight");
+        }
+        return weights;
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger threads = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
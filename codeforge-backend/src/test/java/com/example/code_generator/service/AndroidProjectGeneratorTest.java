@@ -1,10 +1,12 @@
 package com.example.code_generator.service;
 
 import com.example.code_generator.model.ProjectConfig;
+import com.example.code_generator.service.catalogue.DependencyResolver;
 import com.example.code_generator.service.impl.AndroidProjectGenerator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.io.File;
@@ -20,7 +22,7 @@ public class AndroidProjectGeneratorTest {
 
     @BeforeEach
     void setUp() {
-        generator = new AndroidProjectGenerator();
+        generator = new AndroidProjectGenerator(new DependencyResolver(new AndroidDependencyService(), 16));
         config = new ProjectConfig();
         config.setProjectType("Mobile Application");
         config.setProjectName("TestApp");
@@ -40,6 +42,18 @@ public class AndroidProjectGeneratorTest {
         assertTrue(tempDir.resolve("app/src/main/java/com/example/testapp/MainActivity.java").toFile().exists(), "MainActivity.java should exist");
     }
 
+    @Test
+    void testDependenciesComeFromTheCatalogue() throws Exception {
+        generator.generateProject(config, tempDir);
+
+        String buildGradle = Files.readString(tempDir.resolve("app/build.gradle"));
+        assertTrue(buildGradle.contains("    implementation 'com.google.dagger:dagger:2.48'\n"));
+        assertTrue(buildGradle.contains("    annotationProcessor 'com.google.dagger:dagger-compiler:2.48'\n"));
+        assertTrue(buildGradle.contains("    implementation 'androidx.room:room-runtime:2.6.1'\n"));
+        assertTrue(buildGradle.contains("    annotationProcessor 'androidx.room:room-compiler:2.6.1'\n"));
+        assertTrue(buildGradle.contains("    implementation 'androidx.appcompat:appcompat:1.6.1'\n"));
+    }
+
     @Test
     void testSupportedProjectTypes() {
         assertTrue(generator.getSupportedProjectTypes().contains("Mobile Application"));
@@ -0,0 +1,232 @@
+package com.example.code_generator.service;
+
+import com.example.code_generator.model.BatchGenerationResult;
+import com.example.code_generator.model.ProjectConfig;
+import com.example.code_generator.service.admission.AdmissionRejectedException;
+import com.example.code_generator.service.admission.GenerationAdmission;
+import com.example.code_generator.service.admission.GenerationCostEstimator;
+import com.example.code_generator.service.archive.ArchiveCache;
+import com.example.code_generator.service.archive.ArchiveCompressor;
+import com.example.code_generator.service.archive.ArchiveFormat;
+import com.example.code_generator.service.archive.ArchiveSink;
+import com.example.code_generator.service.archive.DeflatedEntryCache;
+import com.example.code_generator.service.cluster.ClusterRouter;
+import com.example.code_generator.service.coalescing.GenerationCoalescer;
+import com.example.code_generator.service.metrics.GenerationMetrics;
+import com.example.code_generator.service.registry.ProjectRegistry;
+import com.example.code_generator.service.registry.ZipRetentionService;
+import com.example.code_generator.service.storage.ArtifactStore;
+import com.example.code_generator.service.storage.LocalArtifactStore;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchGenerationServiceTest {
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path baseDir;
+
+    private ExecutorService executor;
+    private GenerationAdmission admission;
+    private BatchGenerationService service;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        ArtifactStore store = new LocalArtifactStore(baseDir.resolve("zips"));
+        ProjectRegistry registry = new ProjectRegistry(objectMapper, baseDir.toString(), false, 2, store);
+        ArchiveCache archiveCache = new ArchiveCache(Long.MAX_VALUE);
+        ZipRetentionService retention = new ZipRetentionService(registry, archiveCache, store,
+                Long.MAX_VALUE, Duration.ofDays(7), Duration.ofDays(30), 200);
+        TemplateDiscoveryService templateDiscoveryService = new TemplateDiscoveryService(objectMapper);
+        DeflatedEntryCache deflatedEntries = new DeflatedEntryCache(0, 0);
+        GenerationCostEstimator costEstimator = new GenerationCostEstimator(templateDiscoveryService, 4);
+        admission = new GenerationAdmission(costEstimator, 64, 256, 16, 5);
+        GenerationMetrics metrics = new GenerationMetrics(new SimpleMeterRegistry(), templateDiscoveryService,
+                registry, retention, deflatedEntries, new GenerationCoalescer(true, Duration.ofMinutes(2)), admission);
+        ArchiveCompressor compressor = new ArchiveCompressor(Runnable::run, 1, ArchiveCompressor.DEFAULT_LEVEL,
+                ArchiveCompressor.DEFAULT_BLOCK_SIZE, ArchiveCompressor.DEFAULT_ZSTD_LEVEL, deflatedEntries);
+        GeneratedProjectService generatedProjectService = new GeneratedProjectService(baseDir.toString(), "8080", "",
+                archiveCache, templateDiscoveryService, new AndroidDependencyService(), registry, retention, metrics,
+                compressor, store, ClusterRouter.standalone());
+        service = new BatchGenerationService(new ProjectGeneratorService(List.of(new ReadmeGenerator())),
+                generatedProjectService, admission, costEstimator, objectMapper, compressor, executor, 5,
+                Duration.ofMillis(200));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testFailedItemsAreReportedWithoutFailingTheBatch() {
+        List<ProjectConfig> configs = Arrays.asList(
+                config("One"), config("Broken"), null, config("One"), unsupported("Web"));
+
+        BatchGenerationResult result = service.generate(configs, "client").join();
+
+        assertEquals(2, result.getSucceeded());
+        assertEquals(3, result.getFailed());
+        List<BatchGenerationResult.Item> items = result.getItems();
+        assertEquals(List.of(0, 1, 2, 3, 4), items.stream().map(BatchGenerationResult.Item::getIndex).toList());
+        assertNotNull(items.get(0).getProject());
+        assertEquals("generator failed for Broken", items.get(1).getError());
+        assertEquals("Missing project configuration", items.get(2).getError());
+        assertTrue(items.get(4).getError().contains("Unsupported project type"), items.get(4).getError());
+        // The duplicate is its own project sharing the first one's archive
+        assertNotEquals(items.get(0).getProject().getId(), items.get(3).getProject().getId());
+        assertEquals(items.get(0).getProject().getZipPath(), items.get(3).getProject().getZipPath());
+        assertEquals(0, admission.getStats().inUse());
+    }
+
+    @Test
+    void testBatchSizeIsLimited() {
+        List<ProjectConfig> configs = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            configs.add(config("App" + i));
+        }
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> service.generate(configs, "client"));
+        assertTrue(e.getMessage().contains("limit of 5"), e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> service.openArchive(configs.subList(0, 6), "client"));
+        assertThrows(IllegalArgumentException.class, () -> service.generate(List.of(), "client"));
+        assertEquals(0, admission.getStats().inUse());
+    }
+
+    @Test
+    void testCombinedArchiveFoldersStayInsideTheArchive() throws Exception {
+        List<ProjectConfig> configs = List.of(config(".."), config("."), config("a/b\\c:d"),
+                config("tab\there\u0000"), config("App"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.openArchive(configs, "client").join().writeTo(out, ArchiveFormat.ZIP);
+
+        Map<String, String> entries = unzip(out.toByteArray());
+        assertEquals(List.of("project-1/README.md", "project-2/README.md", "a_b_c_d/README.md",
+                "tab_here_/README.md", "App/README.md", "batch-report.json"), List.copyOf(entries.keySet()));
+        assertEquals(0, admission.getStats().inUse());
+    }
+
+    @Test
+    void testCombinedArchiveNamesFoldersUniquelyAndReportsFailures() throws Exception {
+        List<ProjectConfig> configs = List.of(config("App"), config("app"), config("Broken"), config("App"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.openArchive(configs, "client").join().writeTo(out, ArchiveFormat.ZIP);
+
+        Map<String, String> entries = unzip(out.toByteArray());
+        assertEquals(List.of("App/README.md", "app-2/README.md", "App-3/README.md", "batch-report.json"),
+                List.copyOf(entries.keySet()));
+        JsonNode report = objectMapper.readTree(entries.get("batch-report.json"));
+        assertEquals(3, report.get("succeeded").asInt());
+        assertEquals(1, report.get("failed").asInt());
+        assertEquals("generator failed for Broken", report.get("items").get(2).get("error").asText());
+    }
+
+    @Test
+    void testBatchWaitsForAdmissionWithoutBlocking() {
+        GenerationAdmission.Permit busy = admission.acquire("other", 64).join();
+
+        CompletableFuture<BatchGenerationResult> result = service.generate(List.of(config("Queued")), "client");
+        assertFalse(result.isDone(), "the caller is not blocked while the batch is queued");
+        assertEquals(1, admission.getStats().queued());
+
+        admission.release(busy);
+        assertEquals(1, result.join().getSucceeded());
+        assertEquals(0, admission.getStats().inUse());
+    }
+
+    @Test
+    void testAdmissionWaitTimesOutAndGivesUpItsPlace() throws Exception {
+        GenerationAdmission.Permit busy = admission.acquire("other", 64).join();
+
+        CompletableFuture<BatchGenerationResult> result = service.generate(List.of(config("Late")), "client");
+        CompletionException e = assertThrows(CompletionException.class, result::join);
+        AdmissionRejectedException rejected = assertInstanceOf(AdmissionRejectedException.class, e.getCause());
+        assertEquals(5, rejected.getRetryAfterSeconds());
+        // The timer thread gives up the queue place right after failing the batch
+        for (int i = 0; i < 100 && admission.getStats().queued() > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, admission.getStats().queued());
+
+        CompletableFuture<BatchGenerationService.CombinedArchive> archive =
+                service.openArchive(List.of(config("Gone")), "client");
+        archive.cancel(false);
+        assertEquals(0, admission.getStats().queued());
+        admission.release(busy);
+        assertEquals(0, admission.getStats().inUse());
+    }
+
+    private static Map<String, String> unzip(byte[] zip) throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                entries.put(entry.getName(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+
+    private static ProjectConfig config(String projectName) {
+        ProjectConfig config = new ProjectConfig();
+        config.setProjectType("Mobile Application");
+        config.setProjectName(projectName);
+        config.setPackageName("com.demo");
+        return config;
+    }
+
+    private static ProjectConfig unsupported(String projectName) {
+        ProjectConfig config = config(projectName);
+        config.setProjectType("Web Application");
+        return config;
+    }
+
+    private static final class ReadmeGenerator implements ProjectGenerator {
+
+        @Override
+        public void generateProject(ProjectConfig config, ArchiveSink sink) {
+            if ("Broken".equals(config.getProjectName())) {
+                throw new IllegalStateException("generator failed for Broken");
+            }
+            try {
+                sink.addEntry("README.md", config.getProjectName().getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public List<String> getSupportedProjectTypes() {
+            return List.of("Mobile Application");
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.code_generator.service;
+
+import com.example.code_generator.model.GeneratedProject;
+import com.example.code_generator.model.GenerationJob;
+import com.example.code_generator.model.ProjectConfig;
+import com.example.code_generator.service.admission.GenerationAdmission;
+import com.example.code_generator.service.admission.GenerationCostEstimator;
+import com.example.code_generator.service.archive.ArchiveCache;
+import com.example.code_generator.service.archive.ArchiveCompressor;
+import com.example.code_generator.service.archive.ArchiveSink;
+import com.example.code_generator.service.archive.DeflatedEntryCache;
+import com.example.code_generator.service.cluster.ClusterRouter;
+import com.example.code_generator.service.coalescing.GenerationCoalescer;
+import com.example.code_generator.service.metrics.GenerationMetrics;
+import com.example.code_generator.service.progress.GenerationProgress;
+import com.example.code_generator.service.registry.ProjectRegistry;
+import com.example.code_generator.service.registry.ZipRetentionService;
+import com.example.code_generator.service.storage.ArtifactStore;
+import com.example.code_generator.service.storage.LocalArtifactStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GenerationJobServiceTest {
+    private static final int BUDGET = 64;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final CountDownLatch running = new CountDownLatch(1);
+    private final CountDownLatch proceed = new CountDownLatch(1);
+    private final GenerationProgress progress = new GenerationProgress(Runnable::run, Duration.ofMinutes(1));
+
+    @TempDir
+    Path baseDir;
+
+    private ExecutorService executor;
+    private GenerationAdmission admission;
+    private ProjectGeneratorService projectGeneratorService;
+    private GeneratedProjectService generatedProjectService;
+    private GenerationMetrics metrics;
+    private TemplateDiscoveryService templateDiscoveryService;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        ArtifactStore store = new LocalArtifactStore(baseDir.resolve("zips"));
+        ProjectRegistry registry = new ProjectRegistry(objectMapper, baseDir.toString(), false, 2, store);
+        ArchiveCache archiveCache = new ArchiveCache(Long.MAX_VALUE);
+        ZipRetentionService retention = new ZipRetentionService(registry, archiveCache, store,
+                Long.MAX_VALUE, Duration.ofDays(7), Duration.ofDays(30), 200);
+        templateDiscoveryService = new TemplateDiscoveryService(objectMapper);
+        DeflatedEntryCache deflatedEntries = new DeflatedEntryCache(0, 0);
+        admission = new GenerationAdmission(new GenerationCostEstimator(templateDiscoveryService, 4),
+                BUDGET, 256, 16, 5);
+        metrics = new GenerationMetrics(new SimpleMeterRegistry(), templateDiscoveryService,
+                registry, retention, deflatedEntries, new GenerationCoalescer(true, Duration.ofMinutes(2)), admission);
+        generatedProjectService = new GeneratedProjectService(baseDir.toString(), "8080", "",
+                archiveCache, templateDiscoveryService, new AndroidDependencyService(), registry, retention, metrics,
+                new ArchiveCompressor(Runnable::run, 1, ArchiveCompressor.DEFAULT_LEVEL,
+                        ArchiveCompressor.DEFAULT_BLOCK_SIZE, ArchiveCompressor.DEFAULT_ZSTD_LEVEL, deflatedEntries),
+                store, ClusterRouter.standalone());
+        projectGeneratorService = new ProjectGeneratorService(List.of(new LatchedGenerator()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        proceed.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testJobIsQueuedThenRunsThenSucceeds() throws Exception {
+        GenerationJobService service = service(executor, Duration.ofHours(1));
+        GenerationAdmission.Permit busy = admission.acquire("other", BUDGET).join();
+
+        GenerationJobService.Submission submission = service.submit(config("Queued"), "client");
+        String id = submission.job().getId();
+        assertEquals(GenerationJob.Status.QUEUED, status(service, id));
+
+        admission.release(busy);
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        GenerationJob started = service.getJob(id).orElseThrow();
+        assertEquals(GenerationJob.Status.RUNNING, started.getStatus());
+        assertNotNull(started.getStartedAt());
+        assertNotNull(started.getQueuedMillis());
+
+        proceed.countDown();
+        GeneratedProject project = submission.result().get(5, TimeUnit.SECONDS);
+        GenerationJob done = service.getJob(id).orElseThrow();
+        assertEquals(GenerationJob.Status.SUCCEEDED, done.getStatus());
+        assertEquals(project.getId(), done.getProjectId());
+        assertNotNull(done.getFinishedAt());
+        assertEquals(0, admission.getStats().inUse());
+    }
+
+    @Test
+    void testFailedGenerationFailsTheJob() throws Exception {
+        GenerationJobService service = service(executor, Duration.ofHours(1));
+
+        GenerationJobService.Submission submission = service.submit(config("Broken"), "client");
+
+        assertThrows(ExecutionException.class, () -> submission.result().get(5, TimeUnit.SECONDS));
+        GenerationJob job = service.getJob(submission.job().getId()).orElseThrow();
+        assertEquals(GenerationJob.Status.FAILED, job.getStatus());
+        assertEquals("generator failed for Broken", job.getError());
+        assertEquals(0, admission.getStats().inUse());
+    }
+
+    @Test
+    void testInvalidConfigIsRejectedBeforeAJobExists() {
+        GenerationJobService service = service(executor, Duration.ofHours(1));
+        ProjectConfig config = config("Web");
+        config.setProjectType("Web Application");
+
+        assertThrows(IllegalArgumentException.class, () -> service.submit(config, "client"));
+        assertEquals(0, admission.getStats().inUse());
+    }
+
+    @Test
+    void testFinishedJobsAreForgottenAfterRetention() throws Exception {
+        proceed.countDown();
+        GenerationJobService service = service(executor, Duration.ofMillis(50));
+        GenerationJobService.Submission first = service.submit(config("First"), "client");
+        first.result().get(5, TimeUnit.SECONDS);
+        assertTrue(service.getJob(first.job().getId()).isPresent());
+
+        Thread.sleep(100);
+        GenerationJobService.Submission second = service.submit(config("Second"), "client");
+        assertTrue(service.getJob(first.job().getId()).isPresent(), "submitting does not purge");
+        service.purgeExpired();
+
+        assertTrue(service.getJob(first.job().getId()).isEmpty());
+        assertTrue(service.getJob(second.job().getId()).isPresent());
+        assertEquals(1, progress.getStats().jobs(), "the finished job's event log is dropped too");
+    }
+
+    @Test
+    void testSaturatedExecutorRejectsAtSubmission() {
+        Executor full = command -> {
+            throw new RejectedExecutionException("queue full");
+        };
+        GenerationJobService service = service(full, Duration.ofHours(1));
+
+        assertThrows(RejectedExecutionException.class, () -> service.submit(config("Rejected"), "client"));
+        assertEquals(0, admission.getStats().inUse());
+        // The failed flight is not joined by the next identical request
+        assertThrows(RejectedExecutionException.class, () -> service.submit(config("Rejected"), "client"));
+    }
+
+    @Test
+    void testSaturatedExecutorAfterQueueingFailsTheJob() throws Exception {
+        Executor full = command -> {
+            throw new RejectedExecutionException("queue full");
+        };
+        GenerationJobService service = service(full, Duration.ofHours(1));
+        GenerationAdmission.Permit busy = admission.acquire("other", BUDGET).join();
+        GenerationJobService.Submission submission = service.submit(config("Queued"), "client");
+
+        admission.release(busy);
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> submission.result().get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        GenerationJob job = service.getJob(submission.job().getId()).orElseThrow();
+        assertEquals(GenerationJob.Status.FAILED, job.getStatus());
+        assertEquals("Generation capacity exhausted", job.getError());
+        assertEquals(0, admission.getStats().inUse());
+    }
+
+    private GenerationJobService service(Executor jobExecutor, Duration retention) {
+        return new GenerationJobService(projectGeneratorService, generatedProjectService, admission, metrics,
+                progress, templateDiscoveryService,
+                new GenerationCoalescer(true, Duration.ofMinutes(2)), jobExecutor, retention);
+    }
+
+    private static GenerationJob.Status status(GenerationJobService service, String id) {
+        return service.getJob(id).orElseThrow().getStatus();
+    }
+
+    private static ProjectConfig config(String projectName) {
+        ProjectConfig config = new ProjectConfig();
+        config.setProjectType("Mobile Application");
+        config.setProjectName(projectName);
+        config.setPackageName("com.demo");
+        return config;
+    }
+
+    // Waits for the test before writing, so the job can be seen running
+    private final class LatchedGenerator implements ProjectGenerator {
+
+        @Override
+        public void generateProject(ProjectConfig config, ArchiveSink sink) {
+            if ("Broken".equals(config.getProjectName())) {
+                throw new IllegalStateException("generator failed for Broken");
+            }
+            running.countDown();
+            try {
+                assertTrue(proceed.await(5, TimeUnit.SECONDS));
+                sink.addEntry("README.md", config.getProjectName().getBytes(StandardCharsets.UTF_8));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public List<String> getSupportedProjectTypes() {
+            return List.of("Mobile Application");
+        }
+    }
+}
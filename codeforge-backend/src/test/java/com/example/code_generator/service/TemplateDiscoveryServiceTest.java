@@ -0,0 +1,139 @@
+package com.example.code_generator.service;
+
+import com.example.code_generator.model.ProjectTemplate;
+import com.example.code_generator.service.template.CompiledFile;
+import com.example.code_generator.service.template.TemplateBundle;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.FileSystemUtils;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TemplateDiscoveryServiceTest {
+    private TemplateDiscoveryService service;
+
+    @TempDir
+    Path templatesDir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        writeTemplate("mvc", "class {{projectName}} {}");
+        writeTemplate("mvvm", "class {{projectName}}ViewModel {}");
+        service = new TemplateDiscoveryService(new ObjectMapper(), templatesDir.toString());
+    }
+
+    @Test
+    void testReloadSwapsOnlyTheChangedTemplate() throws Exception {
+        TemplateIndex before = service.getIndex();
+        ProjectTemplate oldMvc = before.findTemplate("Mobile Application", "mvc").orElseThrow();
+        ProjectTemplate mvvm = before.findTemplate("Mobile Application", "mvvm").orElseThrow();
+
+        Path changed = writeTemplate("mvc", "class {{projectName}}Controller {}");
+        assertEquals(1, service.reload(List.of(changed)));
+
+        TemplateIndex after = service.getIndex();
+        assertNotEquals(before.getVersion(), after.getVersion());
+        assertSame(mvvm, after.findTemplate("Mobile Application", "mvvm").orElseThrow());
+        assertEquals("class AppController {}", render(after, "mvc"));
+        // A generation holding the old snapshot still renders the old files
+        assertEquals("class App {}", render(before, "mvc"));
+        assertSame(oldMvc, before.findTemplate("Mobile Application", "mvc").orElseThrow());
+    }
+
+    @Test
+    void testInvalidTemplateKeepsThePreviousVersion() throws Exception {
+        String version = service.getTemplateVersion();
+
+        Path broken = writeTemplate("mvc", "class {{#if projectName}}Broken {}");
+        assertEquals(0, service.reload(List.of(broken)));
+
+        assertEquals(version, service.getTemplateVersion());
+        assertEquals("class App {}", render(service.getIndex(), "mvc"));
+    }
+
+    @Test
+    void testDeletedAndAddedTemplateDirectories() throws Exception {
+        Path mvc = templatesDir.resolve("mvc");
+        FileSystemUtils.deleteRecursively(mvc);
+        writeTemplate("mvp", "class {{projectName}}Presenter {}");
+
+        assertEquals(2, service.reload(List.of(mvc, templatesDir.resolve("mvp"))));
+
+        assertEquals(List.of("mvp", "mvvm"), service.getArchitectures("Mobile Application", "android"));
+    }
+
+    @Test
+    void testBundleLoadsTheSameCatalogueAsTheClasspathScan() throws Exception {
+        Path classes = Paths.get(getClass().getResource("/templates").toURI()).getParent();
+        Path bundle = templatesDir.resolve("templates.bundle");
+        try (OutputStream out = Files.newOutputStream(bundle)) {
+            TemplateBundle.write(TemplateBundleWriter.compile(classes), out);
+        }
+
+        TemplateDiscoveryService scanned = new TemplateDiscoveryService(new ObjectMapper(), "", "");
+        TemplateDiscoveryService bundled = new TemplateDiscoveryService(new ObjectMapper(), "", bundle.toUri().toString());
+
+        assertFalse(scanned.getAllTemplates().isEmpty());
+        assertEquals(scanned.getTemplateVersion(), bundled.getTemplateVersion());
+        assertEquals(scanned.getAllTemplates().size(), bundled.getAllTemplates().size());
+        Map<String, Object> model = Map.of(
+                "projectName", "App",
+                "packageName", "com.example.app",
+                "packagePath", "com/example/app",
+                "dependencies", Map.of("required", List.of("androidx.core:core-ktx:1.12.0")));
+        for (int i = 0; i < scanned.getAllTemplates().size(); i++) {
+            ProjectTemplate expected = scanned.getAllTemplates().get(i);
+            ProjectTemplate actual = bundled.getAllTemplates().get(i);
+            assertEquals(expected.getTemplateName(), actual.getTemplateName());
+            assertEquals(expected.getFiles(), actual.getFiles());
+            assertEquals(expected.getDependencies(), actual.getDependencies());
+            List<CompiledFile> expectedFiles = scanned.getIndex().getCompiledFiles(expected);
+            List<CompiledFile> actualFiles = bundled.getIndex().getCompiledFiles(actual);
+            assertEquals(expectedFiles.size(), actualFiles.size());
+            for (int j = 0; j < expectedFiles.size(); j++) {
+                assertEquals(expectedFiles.get(j).renderPath(model), actualFiles.get(j).renderPath(model));
+                assertArrayEquals(expectedFiles.get(j).renderContent(model), actualFiles.get(j).renderContent(model));
+            }
+        }
+    }
+
+    @Test
+    void testBundleBuildRejectsInvalidTemplates() throws Exception {
+        Path classes = templatesDir.resolve("classes");
+        FileSystemUtils.copyRecursively(templatesDir.resolve("mvc"), classes.resolve("templates/mvc"));
+        assertEquals(1, TemplateBundleWriter.compile(classes).size());
+
+        Files.writeString(classes.resolve("templates/mvc/Main.java.template"), "class {{#each items}}Broken {}");
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> TemplateBundleWriter.compile(classes));
+        assertTrue(error.getMessage().contains("templates/mvc/template.json"));
+    }
+
+    private Path writeTemplate(String architecture, String body) throws Exception {
+        Path dir = Files.createDirectories(templatesDir.resolve(architecture));
+        Files.writeString(dir.resolve("Main.java.template"), body, StandardCharsets.UTF_8);
+        return Files.writeString(dir.resolve("template.json"), """
+                {
+                  "templateName": "%s",
+                  "projectType": "Mobile Application",
+                  "platform": "android",
+                  "architecture": "%s",
+                  "files": [ { "path": "Main.java", "template": "Main.java.template" } ]
+                }
+                """.formatted(architecture, architecture));
+    }
+
+    private static String render(TemplateIndex index, String architecture) {
+        ProjectTemplate template = index.findTemplate("Mobile Application", architecture).orElseThrow();
+        CompiledFile file = index.getCompiledFiles(template).get(0);
+        return new String(file.renderContent(Map.of("projectName", "App")), StandardCharsets.UTF_8);
+    }
+}
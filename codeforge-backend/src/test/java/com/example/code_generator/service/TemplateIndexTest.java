@@ -0,0 +1,45 @@
+package com.example.code_generator.service;
+
+import com.example.code_generator.model.ProjectTemplate;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TemplateIndexTest {
+
+    @Test
+    void testListsAreSortedAndDeduplicated() {
+        TemplateIndex index = TemplateIndex.build(List.of(
+                template("Mobile Application", "android", "mvvm"),
+                template("Mobile Application", "android", "mvc"),
+                template("Mobile Application", "ios", "mvc"),
+                template("Desktop Application", "linux", "mvc")), "v1");
+
+        assertEquals(List.of("Desktop Application", "Mobile Application"), index.getProjectTypes());
+        assertEquals(List.of("android", "ios"), index.getPlatforms("Mobile Application"));
+        assertEquals(List.of("mvc", "mvvm"), index.getArchitectures("Mobile Application", "android"));
+        assertSame(index.getPlatforms("Mobile Application"), index.getPlatforms("Mobile Application"));
+    }
+
+    @Test
+    void testLookups() {
+        ProjectTemplate mvvm = template("Mobile Application", "android", "mvvm");
+        TemplateIndex index = TemplateIndex.build(List.of(mvvm), "v1");
+
+        assertSame(mvvm, index.findTemplate("Mobile Application", "android", "mvvm").orElseThrow());
+        assertSame(mvvm, index.findTemplate("Mobile Application", "MVVM").orElseThrow());
+        assertTrue(index.findTemplate("Mobile Application", "android", "MVVM").isEmpty());
+        assertTrue(index.findTemplate(null, null, null).isEmpty());
+        assertEquals(List.of(), index.getArchitectures("Web Application", null));
+    }
+
+    private static ProjectTemplate template(String type, String platform, String architecture) {
+        ProjectTemplate template = new ProjectTemplate();
+        template.setProjectType(type);
+        template.setPlatform(platform);
+        template.setArchitecture(architecture);
+        template.setFramework("native");
+        return template;
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.code_generator.service;
+
+import com.example.code_generator.model.ProjectConfig;
+import com.example.code_generator.service.archive.ArchiveSink;
+import com.example.code_generator.service.catalogue.DependencyResolver;
+import com.example.code_generator.service.impl.TemplateProjectGenerator;
+import com.example.code_generator.service.schema.SchemaModelGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TemplateProjectGeneratorTest {
+    private ForkJoinPool pool;
+    private TemplateProjectGenerator generator;
+    private ProjectConfig config;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+        generator = new TemplateProjectGenerator(
+                new TemplateDiscoveryService(new ObjectMapper()),
+                new DependencyResolver(new AndroidDependencyService(), 16),
+                pool,
+                new SchemaModelGenerator(new ObjectMapper(), pool));
+        config = new ProjectConfig();
+        config.setProjectType("Mobile Application");
+        config.setProjectName("TestApp");
+        config.setPackageName("com.example.testapp");
+        config.setVersion("1.0.0");
+        config.setArchitecturePattern("MVVM");
+        config.setDependencies(Arrays.asList("dagger"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void testGeneratesEveryTemplateFile() throws Exception {
+        generator.generateProject(config, tempDir);
+
+        Path sources = tempDir.resolve("app/src/main/java/com/example/testapp");
+        assertTrue(Files.exists(sources.resolve("MainActivity.java")));
+        assertTrue(Files.exists(sources.resolve("viewmodel/MainViewModel.java")));
+        assertTrue(Files.exists(sources.resolve("model/User.java")));
+        assertTrue(Files.exists(tempDir.resolve("app/src/main/res/values/strings.xml")));
+
+        String activity = Files.readString(sources.resolve("MainActivity.java"));
+        assertTrue(activity.startsWith("package com.example.testapp;"));
+    }
+
+    @Test
+    void testRendersOnlySelectedOptionalDependencies() throws Exception {
+        generator.generateProject(config, tempDir);
+
+        String buildGradle = Files.readString(tempDir.resolve("app/build.gradle"));
+        // template.json pins 2.44; the catalogue's 2.48 wins and the processor follows it
+        assertTrue(buildGradle.contains("implementation 'com.google.dagger:hilt-android:2.48'"));
+        assertTrue(buildGradle.contains("annotationProcessor 'com.google.dagger:hilt-android-compiler:2.48'"));
+        assertTrue(buildGradle.contains("implementation 'com.google.android.material:material:1.10.0'"));
+        assertTrue(buildGradle.contains("id 'dagger.hilt.android.plugin'"));
+        assertFalse(buildGradle.contains("room-runtime"));
+        assertFalse(buildGradle.contains("{{"));
+    }
+
+    @Test
+    void testPlainTextFilesAreRenderedOnce() throws Exception {
+        Map<String, byte[]> first = generate(config);
+        config.setPackageName("com.example.other");
+        Map<String, byte[]> second = generate(config);
+
+        String layout = "app/src/main/res/layout/activity_main.xml";
+        assertSame(first.get(layout), second.get(layout));
+        assertTrue(second.containsKey("app/src/main/java/com/example/other/MainActivity.java"));
+    }
+
+    @Test
+    void testSchemaReplacesSampleModelsAndAddsRoom() {
+        config.setSchema("{\"entities\": [{\"name\": \"Note\", \"fields\": [{\"name\": \"title\", \"type\": \"string\"}]}]}");
+        Map<String, byte[]> entries = generate(config);
+
+        String sources = "app/src/main/java/com/example/testapp/";
+        // MainViewModel uses User, so only Profile is a sample in MVVM
+        assertTrue(entries.containsKey(sources + "model/User.java"));
+        assertFalse(entries.containsKey(sources + "model/Profile.java"));
+        assertTrue(entries.containsKey(sources + "model/Note.java"));
+        assertTrue(entries.containsKey(sources + "data/NoteDao.java"));
+        assertTrue(entries.containsKey(sources + "data/AppDatabase.java"));
+        assertTrue(entries.containsKey(sources + "viewmodel/MainViewModel.java"));
+
+        String buildGradle = new String(entries.get("app/build.gradle"), StandardCharsets.UTF_8);
+        assertTrue(buildGradle.contains("implementation 'androidx.room:room-runtime:2.6.1'"));
+        assertTrue(buildGradle.contains("annotationProcessor 'androidx.room:room-compiler:2.6.1'"));
+    }
+
+    @Test
+    void testSchemaProjectsOnlyImportModelsTheyContain() {
+        config.setSchema("{\"entities\": [{\"name\": \"Note\", \"fields\": [{\"name\": \"title\", \"type\": \"string\"}]}]}");
+        Pattern modelImport = Pattern.compile("import com\\.example\\.testapp\\.model\\.(\\w+);");
+        for (String architecture : List.of("MVVM", "MVP", "MVC")) {
+            config.setArchitecturePattern(architecture);
+            Map<String, byte[]> entries = generate(config);
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                Matcher imports = modelImport.matcher(new String(entry.getValue(), StandardCharsets.UTF_8));
+                while (imports.find()) {
+                    String model = "app/src/main/java/com/example/testapp/model/" + imports.group(1) + ".java";
+                    assertTrue(entries.containsKey(model), architecture + ": " + entry.getKey() + " imports a missing " + model);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testValidateRejectsWhatGenerationWould() {
+        generator.validate(config);
+        config.setSchema("{\"entities\": [{\"name\": \"User\"}]}");
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> generator.validate(config));
+        assertTrue(e.getMessage().contains("model/User.java"), e.getMessage());
+
+        config.setSchema("{\"entities\": [{\"name\": \"Note\"}]}");
+        generator.validate(config);
+    }
+
+    @Test
+    void testInvalidSchemaIsAnIllegalArgument() {
+        config.setSchema("{\"entities\": [{\"name\": \"Note\", \"fields\": [{\"name\": \"title\", \"type\": \"money\"}]}]}");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> generate(config));
+        assertTrue(e.getMessage().contains("Note.title"), e.getMessage());
+    }
+
+    @Test
+    void testSupportsOnlyConfigsWithATemplate() {
+        assertTrue(generator.supports(config));
+
+        config.setArchitecturePattern("clean");
+        assertFalse(generator.supports(config));
+        assertEquals(List.of("Mobile Application"), generator.getSupportedProjectTypes());
+    }
+
+    private Map<String, byte[]> generate(ProjectConfig config) {
+        Map<String, byte[]> entries = new HashMap<>();
+        generator.generateProject(config, new ArchiveSink() {
+            @Override
+            public void addEntry(String path, byte[] content) {
+                entries.put(path, content);
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        return entries;
+    }
+}
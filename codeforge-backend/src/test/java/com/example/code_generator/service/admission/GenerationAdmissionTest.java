@@ -0,0 +1,116 @@
+package com.example.code_generator.service.admission;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GenerationAdmissionTest {
+    private GenerationAdmission admission;
+
+    @BeforeEach
+    void setUp() {
+        admission = new GenerationAdmission(null, 10, 4, 2, 7);
+    }
+
+    @Test
+    void testAdmitsImmediatelyWithinBudget() {
+        CompletableFuture<GenerationAdmission.Permit> first = admission.acquire("a", 6);
+        CompletableFuture<GenerationAdmission.Permit> second = admission.acquire("b", 4);
+
+        assertTrue(first.isDone());
+        assertTrue(second.isDone());
+        assertEquals(10, admission.getStats().inUse());
+    }
+
+    @Test
+    void testQueuedRequestsAreServedRoundRobinAcrossClients() {
+        GenerationAdmission.Permit running = admission.acquire("a", 10).join();
+        CompletableFuture<GenerationAdmission.Permit> a1 = admission.acquire("a", 5);
+        CompletableFuture<GenerationAdmission.Permit> a2 = admission.acquire("a", 5);
+        CompletableFuture<GenerationAdmission.Permit> b1 = admission.acquire("b", 5);
+
+        admission.release(running);
+
+        assertTrue(a1.isDone());
+        assertTrue(b1.isDone(), "second client should be served before client a's second request");
+        assertFalse(a2.isDone());
+
+        admission.release(a1.join());
+        assertTrue(a2.isDone());
+    }
+
+    @Test
+    void testRejectsWhenClientQueueIsFull() {
+        admission.acquire("a", 10);
+        admission.acquire("a", 1);
+        admission.acquire("a", 1);
+
+        AdmissionRejectedException e = assertThrows(AdmissionRejectedException.class, () -> admission.acquire("a", 1));
+        assertEquals(7, e.getRetryAfterSeconds());
+        assertFalse(admission.acquire("b", 1).isDone());
+        assertEquals(1, admission.getStats().rejected());
+    }
+
+    @Test
+    void testCancelledWaiterGivesUpItsPlace() {
+        GenerationAdmission.Permit running = admission.acquire("a", 8).join();
+        CompletableFuture<GenerationAdmission.Permit> large = admission.acquire("b", 5);
+        CompletableFuture<GenerationAdmission.Permit> small = admission.acquire("c", 2);
+        assertFalse(small.isDone(), "strict turn order keeps the small request behind the large one");
+
+        large.cancel(false);
+
+        assertTrue(small.isDone());
+        assertEquals(0, admission.getStats().queued());
+        assertEquals(10, admission.getStats().inUse());
+        admission.release(running);
+        admission.release(small.join());
+        assertEquals(0, admission.getStats().inUse());
+    }
+
+    @Test
+    void testWaiterThatTimesOutGivesUpItsPlace() throws Exception {
+        GenerationAdmission.Permit running = admission.acquire("a", 10).join();
+        CompletableFuture<GenerationAdmission.Permit> waiting = admission.acquire("b", 5)
+                .orTimeout(10, TimeUnit.MILLISECONDS);
+
+        assertThrows(CompletionException.class, waiting::join);
+        // Given up on the timer thread, after the caller has seen the timeout
+        for (int i = 0; i < 100 && admission.getStats().queued() > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, admission.getStats().queued());
+        admission.release(running);
+        assertEquals(0, admission.getStats().inUse());
+    }
+
+    @Test
+    void testPermitOfAWaiterCancelledAfterDispatchIsReturned() {
+        GenerationAdmission.Permit running = admission.acquire("a", 10).join();
+        CompletableFuture<GenerationAdmission.Permit> first = admission.acquire("b", 5);
+        CompletableFuture<GenerationAdmission.Permit> second = admission.acquire("c", 5);
+        // Both are dispatched by the same release; the second is cancelled before it is completed
+        first.thenRun(() -> second.cancel(false));
+
+        admission.release(running);
+
+        assertTrue(second.isCancelled());
+        assertEquals(5, admission.getStats().inUse(), "only the first permit is still held");
+        admission.release(first.join());
+        assertEquals(0, admission.getStats().inUse());
+    }
+
+    @Test
+    void testOversizedRequestIsClampedAndReleaseIsIdempotent() {
+        GenerationAdmission.Permit permit = admission.acquire("a", 50).join();
+        assertEquals(10, permit.getCost());
+
+        admission.release(permit);
+        admission.release(permit);
+        assertEquals(0, admission.getStats().inUse());
+    }
+}
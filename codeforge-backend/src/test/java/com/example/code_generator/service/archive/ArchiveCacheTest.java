@@ -0,0 +1,88 @@
+package com.example.code_generator.service.archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArchiveCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testLookupCountsHitsAndMisses() throws Exception {
+        ArchiveCache cache = new ArchiveCache(100);
+        Path blob = blob("a");
+        cache.put("a", blob, 10);
+
+        assertEquals(Optional.of(blob), cache.lookup("a"));
+        assertEquals(Optional.empty(), cache.lookup("b"));
+        assertTrue(cache.contains("a"));
+        assertFalse(cache.contains("b"));
+
+        ArchiveCache.Stats stats = cache.getStats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses(), "contains is not counted");
+        assertEquals(1, stats.entries());
+        assertEquals(10, stats.bytes());
+    }
+
+    @Test
+    void testUnreadableArchiveIsForgotten() throws Exception {
+        ArchiveCache cache = new ArchiveCache(100);
+        Path blob = blob("a");
+        cache.put("a", blob, 10);
+        Files.delete(blob);
+
+        assertTrue(cache.lookup("a").isEmpty());
+        assertFalse(cache.contains("a"));
+        assertEquals(0, cache.getStats().bytes());
+    }
+
+    @Test
+    void testLeastRecentlyUsedArchivesAreEvictedBySize() throws Exception {
+        ArchiveCache cache = new ArchiveCache(25);
+        cache.put("a", blob("a"), 10);
+        cache.put("b", blob("b"), 10);
+        cache.lookup("a");
+
+        cache.put("c", blob("c"), 10);
+
+        assertTrue(cache.contains("a"));
+        assertFalse(cache.contains("b"));
+        assertTrue(cache.contains("c"));
+        assertEquals(20, cache.getStats().bytes());
+    }
+
+    @Test
+    void testReplacingAndInvalidatingKeepTheSizeInStep() throws Exception {
+        ArchiveCache cache = new ArchiveCache(100);
+        cache.put("a", blob("a"), 10);
+        cache.put("a", blob("a2"), 30);
+        assertEquals(30, cache.getStats().bytes());
+
+        cache.invalidate("a");
+        cache.invalidate("a");
+        assertEquals(0, cache.getStats().bytes());
+        assertEquals(0, cache.getStats().entries());
+    }
+
+    @Test
+    void testArchiveLargerThanTheCacheIsNotIndexed() throws Exception {
+        ArchiveCache cache = new ArchiveCache(25);
+        cache.put("a", blob("a"), 10);
+
+        cache.put("huge", blob("huge"), 26);
+
+        assertFalse(cache.contains("huge"));
+        assertTrue(cache.contains("a"), "an oversized archive does not evict the others");
+    }
+
+    private Path blob(String name) throws Exception {
+        return Files.write(tempDir.resolve(name + ".zip"), new byte[]{1});
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.code_generator.service.archive;
+
+import com.example.code_generator.model.ProjectConfig;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProjectFingerprintTest {
+    private static final String VERSION = "v1";
+
+    @Test
+    void testNormalizeStripsAndDropsBlankValues() {
+        ProjectConfig config = config("  Demo  ", "com.demo");
+        config.setProjectDescription("   ");
+        config.setArchitecturePattern(" MVVM ");
+        config.setDependencies(Arrays.asList(" Room", "room", null, " ", "com.Example:Lib:1.0", "hilt"));
+
+        ProjectConfig normalized = ProjectFingerprint.normalize(config);
+
+        assertEquals("Demo", normalized.getProjectName());
+        assertNull(normalized.getProjectDescription());
+        assertEquals("MVVM", normalized.getArchitecturePattern());
+        assertEquals(List.of("com.Example:Lib:1.0", "hilt", "room"), normalized.getDependencies());
+        assertEquals("  Demo  ", config.getProjectName(), "the request itself is left untouched");
+    }
+
+    @Test
+    void testNormalizedConfigsShareAFingerprint() {
+        ProjectConfig padded = config(" Demo", "com.demo ");
+        padded.setDependencies(List.of("Room ", "hilt"));
+        ProjectConfig plain = config("Demo", "com.demo");
+        plain.setDependencies(List.of("hilt", "room"));
+
+        assertEquals(fingerprint(ProjectFingerprint.normalize(plain)), fingerprint(ProjectFingerprint.normalize(padded)));
+    }
+
+    @Test
+    void testValuesAreHashedExactlyAsGiven() {
+        // Generators render these verbatim, so un-normalised padding must not share an archive
+        assertNotEquals(fingerprint(config("Demo", "com.demo")), fingerprint(config(" Demo", "com.demo")));
+
+        ProjectConfig empty = config("Demo", "com.demo");
+        empty.setProjectDescription("");
+        assertNotEquals(fingerprint(config("Demo", "com.demo")), fingerprint(empty));
+
+        ProjectConfig coordinate = config("Demo", "com.demo");
+        coordinate.setDependencies(List.of("com.Example:lib"));
+        ProjectConfig lowerCoordinate = config("Demo", "com.demo");
+        lowerCoordinate.setDependencies(List.of("com.example:lib"));
+        assertNotEquals(fingerprint(ProjectFingerprint.normalize(coordinate)),
+                fingerprint(ProjectFingerprint.normalize(lowerCoordinate)));
+    }
+
+    @Test
+    void testArchitectureCaseAndDependencyOrderDoNotMatter() {
+        ProjectConfig upper = config("Demo", "com.demo");
+        upper.setArchitecturePattern("MVVM");
+        upper.setDependencies(new ArrayList<>(List.of("room", "hilt")));
+        ProjectConfig lower = config("Demo", "com.demo");
+        lower.setArchitecturePattern("mvvm");
+        lower.setDependencies(Arrays.asList("hilt", null, "room"));
+
+        assertEquals(fingerprint(upper), fingerprint(lower));
+    }
+
+    @Test
+    void testFieldsCannotRunTogether() {
+        assertNotEquals(fingerprint(config("ab", "c")), fingerprint(config("a", "bc")));
+
+        ProjectConfig name = config("x", null);
+        ProjectConfig packageName = config(null, "x");
+        assertNotEquals(fingerprint(name), fingerprint(packageName));
+    }
+
+    @Test
+    void testGeneratorVersionIsPartOfTheFingerprint() {
+        ProjectConfig config = config("Demo", "com.demo");
+
+        assertNotEquals(ProjectFingerprint.of(config, "v1"), ProjectFingerprint.of(config, "v2"));
+        assertEquals(64, ProjectFingerprint.of(config, VERSION).length());
+    }
+
+    private static String fingerprint(ProjectConfig config) {
+        return ProjectFingerprint.of(config, VERSION);
+    }
+
+    private static ProjectConfig config(String projectName, String packageName) {
+        ProjectConfig config = new ProjectConfig();
+        config.setProjectType("Mobile Application");
+        config.setProjectName(projectName);
+        config.setPackageName(packageName);
+        return config;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.code_generator.service.archive;
+
+import com.github.luben.zstd.ZstdInputStream;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TarArchiveSinkTest {
+    private static final String LONG_PATH = "app/src/main/java/" + "com/example/generated/".repeat(8) + "MainActivity.java";
+    private static final String LONGER_PATH = "a".repeat(120) + "/" + "b".repeat(120) + ".txt";
+
+    @Test
+    void testTarGzIsReadableAcrossBlocks() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            ArchiveCompressor compressor = new ArchiveCompressor(pool, 3, ArchiveCompressor.DEFAULT_LEVEL, 4096,
+                    ArchiveCompressor.DEFAULT_ZSTD_LEVEL, null);
+            Map<String, byte[]> entries = entries();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (ArchiveSink sink = compressor.newSink(ArchiveFormat.TAR_GZ, out)) {
+                for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                    sink.addEntry(entry.getKey(), entry.getValue());
+                }
+            }
+            assertEntries(entries, read(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testTarZstIsReadable() throws Exception {
+        Map<String, byte[]> entries = entries();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ArchiveSink sink = ArchiveCompressor.direct().newSink(ArchiveFormat.TAR_ZST, out)) {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                sink.addEntry(entry.getKey(), entry.getValue());
+            }
+        }
+        assertEntries(entries, read(new ZstdInputStream(new ByteArrayInputStream(out.toByteArray()))));
+    }
+
+    @Test
+    void testFormatFromRequest() {
+        assertEquals(ArchiveFormat.ZIP, ArchiveFormat.fromRequest(null, null));
+        assertEquals(ArchiveFormat.ZIP, ArchiveFormat.fromRequest(null, "text/html,*/*;q=0.8"));
+        assertEquals(ArchiveFormat.TAR_GZ, ArchiveFormat.fromRequest("tgz", "application/zip"));
+        assertEquals(ArchiveFormat.TAR_ZST, ArchiveFormat.fromRequest(null, "application/zip;q=0.5, application/zstd"));
+        assertEquals(ArchiveFormat.TAR_GZ, ArchiveFormat.fromRequest(null, "application/gzip"));
+        assertThrows(IllegalArgumentException.class, () -> ArchiveFormat.fromRequest("rar", null));
+    }
+
+    private static Map<String, byte[]> entries() {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("build.gradle", "plugins { id 'com.android.application' }\n".getBytes(StandardCharsets.UTF_8));
+        entries.put(LONG_PATH, "class MainActivity {}\n".repeat(2000).getBytes(StandardCharsets.UTF_8));
+        entries.put(LONGER_PATH, new byte[0]);
+        entries.put("res/values/strings.xml", "<résources/>".getBytes(StandardCharsets.UTF_8));
+        return entries;
+    }
+
+    private static void assertEntries(Map<String, byte[]> expected, Map<String, byte[]> actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+        expected.forEach((path, content) -> assertArrayEquals(content, actual.get(path), path));
+    }
+
+    // Just enough of a tar reader for what TarArchiveSink writes: ustar prefixes and PAX paths
+    private static Map<String, byte[]> read(InputStream in) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        String paxPath = null;
+        while (true) {
+            byte[] header = in.readNBytes(512);
+            assertEquals(512, header.length);
+            if (header[0] == 0) {
+                return entries;
+            }
+            int checksum = 0;
+            for (int i = 0; i < 512; i++) {
+                checksum += i >= 148 && i < 156 ? ' ' : header[i] & 0xFF;
+            }
+            assertEquals(checksum, Integer.parseInt(field(header, 148, 6), 8));
+            int size = Integer.parseInt(field(header, 124, 11), 8);
+            byte[] content = in.readNBytes(size);
+            in.readNBytes((512 - size % 512) % 512);
+            if (header[156] == 'x') {
+                String record = new String(content, StandardCharsets.UTF_8);
+                paxPath = record.substring(record.indexOf("path=") + 5, record.length() - 1);
+                assertEquals(content.length, Integer.parseInt(record.substring(0, record.indexOf(' '))));
+                continue;
+            }
+            String prefix = field(header, 345, 155);
+            String name = prefix.isEmpty() ? field(header, 0, 100) : prefix + "/" + field(header, 0, 100);
+            entries.put(paxPath != null ? paxPath : name, content);
+            paxPath = null;
+        }
+    }
+
+    private static String field(byte[] header, int offset, int length) {
+        int end = offset;
+        while (end < offset + length && header[end] != 0) {
+            end++;
+        }
+        return new String(header, offset, end - offset, StandardCharsets.UTF_8);
+    }
+}
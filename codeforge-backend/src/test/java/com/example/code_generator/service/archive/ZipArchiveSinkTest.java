@@ -0,0 +1,156 @@
+package com.example.code_generator.service.archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ZipArchiveSinkTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testArchiveIsReadableByZipFile() throws IOException {
+        Path zip = tempDir.resolve("project.zip");
+        try (ZipArchiveSink sink = new ZipArchiveSink(Files.newOutputStream(zip))) {
+            sink.addEntry("app/build.gradle", "plugins { id 'com.android.application' }\n");
+            sink.addEntry("app/src/main/res/values/strings.xml", "<résources/>\n");
+            sink.addEntry("empty.txt", new byte[0]);
+        }
+
+        Map<String, String> entries = read(zip);
+        assertEquals(3, entries.size());
+        assertEquals("plugins { id 'com.android.application' }\n", entries.get("app/build.gradle"));
+        assertEquals("<résources/>\n", entries.get("app/src/main/res/values/strings.xml"));
+        assertEquals("", entries.get("empty.txt"));
+    }
+
+    @Test
+    void testRepeatedContentIsSplicedFromTheCache() throws IOException {
+        DeflatedEntryCache cache = new DeflatedEntryCache(1024 * 1024, 64 * 1024);
+        byte[] layout = "<LinearLayout/>\n".repeat(50).getBytes(StandardCharsets.UTF_8);
+
+        for (int i = 0; i < 3; i++) {
+            Path zip = tempDir.resolve("project" + i + ".zip");
+            try (ZipArchiveSink sink = new ZipArchiveSink(Files.newOutputStream(zip), compressor(Runnable::run, cache))) {
+                sink.addEntry("res/layout/activity_main.xml", layout.clone());
+                sink.addEntry("src/Main" + i + ".java", "class Main" + i + " {}");
+            }
+            Map<String, String> entries = read(zip);
+            assertEquals(new String(layout, StandardCharsets.UTF_8), entries.get("res/layout/activity_main.xml"));
+            assertEquals("class Main" + i + " {}", entries.get("src/Main" + i + ".java"));
+        }
+
+        // First sighting only marks the layout as seen; the second caches it; the third reuses it
+        DeflatedEntryCache.Stats stats = cache.getStats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.entries());
+    }
+
+    @Test
+    void testLargeEntriesAreDeflatedInParallelBlocks() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Random random = new Random(42);
+            StringBuilder text = new StringBuilder();
+            while (text.length() < 1_000_000) {
+                text.append("line ").append(random.nextInt(5000)).append(" of generated source\n");
+            }
+            byte[] large = text.toString().getBytes(StandardCharsets.UTF_8);
+            byte[] image = new byte[50_000];
+            random.nextBytes(image);
+
+            Path zip = tempDir.resolve("parallel.zip");
+            try (ZipArchiveSink sink = new ZipArchiveSink(Files.newOutputStream(zip), compressor(pool, null))) {
+                sink.addEntry("assets/large.txt", large);
+                sink.addEntry("res/drawable/logo.png", image);
+                sink.addEntry("random.bin", image.clone());
+                for (int i = 0; i < 50; i++) {
+                    sink.addEntry("src/File" + i + ".java", "class File" + i + " {}");
+                }
+            }
+
+            try (ZipFile file = new ZipFile(zip.toFile())) {
+                ZipEntry largeEntry = file.getEntry("assets/large.txt");
+                assertEquals(ZipEntry.DEFLATED, largeEntry.getMethod());
+                assertTrue(largeEntry.getCompressedSize() < large.length / 2);
+                assertArrayEquals(large, file.getInputStream(largeEntry).readAllBytes());
+                // Already compressed by type, and incompressible by content
+                assertEquals(ZipEntry.STORED, file.getEntry("res/drawable/logo.png").getMethod());
+                assertEquals(ZipEntry.STORED, file.getEntry("random.bin").getMethod());
+                assertArrayEquals(image, file.getInputStream(file.getEntry("random.bin")).readAllBytes());
+                assertEquals("class File49 {}", new String(
+                        file.getInputStream(file.getEntry("src/File49.java")).readAllBytes(), StandardCharsets.UTF_8));
+                assertEquals(53, file.size());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testRejectsDuplicateEntries() throws IOException {
+        try (ZipArchiveSink sink = new ZipArchiveSink(Files.newOutputStream(tempDir.resolve("dup.zip")))) {
+            sink.addEntry("a.txt", "a");
+            assertThrows(IOException.class, () -> sink.addEntry("a.txt", "b"));
+        }
+    }
+
+    @Test
+    void testStreamIsClosedWhenFinishingTheArchiveFails() throws IOException {
+        FailingOutputStream out = new FailingOutputStream();
+        ZipArchiveSink sink = new ZipArchiveSink(out);
+        sink.addEntry("a.txt", "a");
+        out.failing = true;
+
+        assertThrows(IOException.class, sink::close);
+        assertTrue(out.closed);
+    }
+
+    private static final class FailingOutputStream extends OutputStream {
+        private boolean failing;
+        private boolean closed;
+
+        @Override
+        public void write(int b) throws IOException {
+            if (failing) {
+                throw new IOException("disk full");
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private static ArchiveCompressor compressor(Executor executor, DeflatedEntryCache cache) {
+        return new ArchiveCompressor(executor, 4, ArchiveCompressor.DEFAULT_LEVEL, 64 * 1024,
+                ArchiveCompressor.DEFAULT_ZSTD_LEVEL, cache);
+    }
+
+    private static Map<String, String> read(Path zip) throws IOException {
+        Map<String, String> entries = new HashMap<>();
+        try (ZipFile file = new ZipFile(zip.toFile())) {
+            for (ZipEntry entry : Collections.list(file.entries())) {
+                entries.put(entry.getName(), new String(file.getInputStream(entry).readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+}
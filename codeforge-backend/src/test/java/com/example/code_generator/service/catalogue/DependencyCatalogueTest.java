@@ -0,0 +1,92 @@
+package com.example.code_generator.service.catalogue;
+
+import com.example.code_generator.model.AndroidDependency;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.StringReader;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DependencyCatalogueTest {
+    private DependencyCatalogue catalogue;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        catalogue = DependencyCatalogue.load(new StringReader("""
+                # groupId\tartifactId\tversion\ttype\tcategory\tname\tdescription
+                com.squareup.retrofit2\tretrofit\t2.9.0\timplementation\tNetwork\tRetrofit\tType-safe HTTP client
+                com.squareup.okhttp3\tokhttp\t4.12.0\timplementation\tnetwork\tOkHttp\tHTTP client
+                androidx.room\troom-runtime\t2.6.1\timplementation\tDatabase\tRoom Runtime\tSQLite object mapping
+                androidx.room\troom-compiler\t2.6.1\tannotationProcessor\tDatabase\tRoom Compiler\tRoom annotation processor
+
+                com.jakewharton.timber\ttimber\t5.0.1
+                """));
+    }
+
+    @Test
+    void testRowsRoundTripThroughTheColumns() {
+        assertEquals(5, catalogue.size());
+        AndroidDependency compiler = catalogue.get(3);
+        assertEquals("androidx.room", compiler.getGroupId());
+        assertEquals("room-compiler", compiler.getArtifactId());
+        assertEquals("annotationProcessor", compiler.getType());
+        assertEquals("Room annotation processor", compiler.getDescription());
+
+        // Optional columns fall back to defaults
+        AndroidDependency timber = catalogue.get(4);
+        assertEquals("timber", timber.getName());
+        assertEquals("implementation", timber.getType());
+        assertEquals("Other", timber.getCategory());
+    }
+
+    @Test
+    void testCategoryIndexIgnoresCase() {
+        List<AndroidDependency> network = catalogue.byCategory("NETWORK");
+        assertEquals(List.of("retrofit", "okhttp"), network.stream().map(AndroidDependency::getArtifactId).toList());
+        assertEquals("Network", network.get(1).getCategory());
+        assertEquals(List.of(), catalogue.byCategory("Unknown"));
+        assertEquals(List.of("Network", "Database", "Other"), catalogue.getCategories());
+    }
+
+    @Test
+    void testPrefixSearchMatchesEveryToken() {
+        assertEquals(rows(2, 3), catalogue.search("Room", null, false));
+        assertEquals(rows(3), catalogue.search("room comp", null, false));
+        assertEquals(rows(0, 1), catalogue.search("com.squareup", null, false));
+        assertEquals(rows(2, 3), catalogue.search("andro", "database", false));
+        assertEquals(rows(), catalogue.search("andro", "network", false));
+        assertEquals(5, catalogue.search("", null, false).cardinality());
+    }
+
+    @Test
+    void testFuzzySearchToleratesTypos() {
+        assertEquals(rows(), catalogue.search("retorfit", null, false));
+        assertEquals(rows(0), catalogue.search("retorfit", null, true));
+        assertEquals(rows(1), catalogue.search("okhtp", null, true));
+        assertEquals(rows(4), catalogue.search("timbr", null, true));
+        assertEquals(rows(), catalogue.search("glide", null, true));
+    }
+
+    @Test
+    void testEditDistanceCountsTranspositionsOnce() {
+        assertEquals(1, DependencyCatalogue.editDistance("retorfit", "retrofit", 2));
+        assertEquals(2, DependencyCatalogue.editDistance("kitten", "sittin", 2));
+        assertEquals(3, DependencyCatalogue.editDistance("abc", "xyz", 2));
+    }
+
+    @Test
+    void testRejectsLinesWithoutCoordinates() {
+        assertThrows(IllegalArgumentException.class,
+                () -> DependencyCatalogue.load(new StringReader("com.example\tlib\n")));
+    }
+
+    private static BitSet rows(int... rows) {
+        BitSet set = new BitSet();
+        for (int row : rows) {
+            set.set(row);
+        }
+        return set;
+    }
+}
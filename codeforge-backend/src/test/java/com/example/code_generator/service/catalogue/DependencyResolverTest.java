@@ -0,0 +1,70 @@
+package com.example.code_generator.service.catalogue;
+
+import com.example.code_generator.model.ResolvedDependencies;
+import com.example.code_generator.service.AndroidDependencyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DependencyResolverTest {
+    private DependencyResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        resolver = new DependencyResolver(new AndroidDependencyService(), 16);
+    }
+
+    @Test
+    void testNamesPullInTheirAnnotationProcessor() {
+        ResolvedDependencies resolved = resolver.resolve(List.of("room", "retrofit"));
+
+        assertEquals("""
+                implementation 'androidx.room:room-runtime:2.6.1'
+                implementation 'com.squareup.retrofit2:retrofit:2.9.0'
+                annotationProcessor 'androidx.room:room-compiler:2.6.1'
+                """, resolved.getGradle());
+        assertEquals("androidx.room:room-runtime", resolved.getArtifacts().get(2).getPairedWith());
+        assertEquals(List.of(), resolved.getConflicts());
+    }
+
+    @Test
+    void testPicksTheHighestVersionAndReportsConflicts() {
+        ResolvedDependencies resolved = resolver.resolve(List.of(
+                "com.google.android.material:material:1.9.0",
+                "com.google.dagger:hilt-android:2.44",
+                "com.google.dagger:hilt-android-compiler:2.44"));
+
+        assertEquals("""
+                implementation 'com.google.android.material:material:1.10.0'
+                implementation 'com.google.dagger:hilt-android:2.48'
+                annotationProcessor 'com.google.dagger:hilt-android-compiler:2.48'
+                """, resolved.getGradle());
+        List<ResolvedDependencies.Conflict> conflicts = resolved.getConflicts();
+        assertEquals(3, conflicts.size());
+        assertEquals("com.google.android.material:material", conflicts.get(0).getModule());
+        assertEquals(List.of("1.9.0", "1.10.0"), conflicts.get(0).getRequested());
+        assertEquals("1.10.0", conflicts.get(0).getSelected());
+    }
+
+    @Test
+    void testSameSelectionIsResolvedOnce() {
+        ResolvedDependencies first = resolver.resolve(List.of("dagger", "com.example:lib:1.0", "nosuchlibrary"));
+        ResolvedDependencies second = resolver.resolve(List.of("nosuchlibrary", " Dagger ", "com.example:lib:1.0"));
+
+        assertSame(first, second);
+        assertEquals(new DependencyResolver.Stats(1, 1, 1), resolver.getStats());
+        assertEquals(List.of("nosuchlibrary"), first.getUnresolved());
+        assertTrue(first.getGradle().contains("annotationProcessor 'com.google.dagger:dagger-compiler:2.48'"));
+    }
+
+    @Test
+    void testComparesVersionsNumerically() {
+        assertTrue(DependencyResolver.compareVersions("1.10.0", "1.9.0") > 0);
+        assertTrue(DependencyResolver.compareVersions("2.6.0-rc01", "2.6.0") < 0);
+        assertTrue(DependencyResolver.compareVersions("2.6.0-beta01", "2.6.0-rc01") < 0);
+        assertTrue(DependencyResolver.compareVersions("1.0.1", "1.0") > 0);
+        assertTrue(DependencyResolver.compareVersions("1.0", "1.0-SNAPSHOT") > 0);
+    }
+}
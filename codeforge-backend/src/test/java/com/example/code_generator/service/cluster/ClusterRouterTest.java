@@ -0,0 +1,68 @@
+package com.example.code_generator.service.cluster;
+
+import org.junit.jupiter.api.Test;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClusterRouterTest {
+
+    private static Map<String, String> nodes(int count) {
+        Map<String, String> nodes = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            nodes.put("node-" + i, "http://node-" + i + ":8080");
+        }
+        return nodes;
+    }
+
+    @Test
+    void testIdsSpreadEvenlyOverTheNodes() {
+        ClusterRouter router = new ClusterRouter("node-0", nodes(4), 128);
+        Map<String, Integer> owned = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            owned.merge(router.ownerOf(UUID.randomUUID().toString()), 1, Integer::sum);
+        }
+        assertEquals(4, owned.size());
+        owned.values().forEach(count -> assertTrue(count > 3_500 && count < 6_500, owned.toString()));
+    }
+
+    @Test
+    void testAddingANodeOnlyMovesIdsToIt() {
+        ClusterRouter before = new ClusterRouter("node-0", nodes(4), 128);
+        ClusterRouter after = new ClusterRouter("node-0", nodes(5), 128);
+        int moved = 0;
+        for (int i = 0; i < 20_000; i++) {
+            String id = UUID.randomUUID().toString();
+            if (!before.ownerOf(id).equals(after.ownerOf(id))) {
+                assertEquals("node-4", after.ownerOf(id));
+                moved++;
+            }
+        }
+        assertTrue(moved > 2_500 && moved < 5_500, "moved " + moved);
+    }
+
+    @Test
+    void testNewIdsAreOwnedByTheNodeMintingThem() {
+        Map<String, String> nodes = nodes(3);
+        ClusterRouter router = new ClusterRouter("node-2", nodes, 128);
+        ClusterRouter peer = new ClusterRouter("node-0", nodes, 128);
+        for (int i = 0; i < 100; i++) {
+            String id = router.newProjectId();
+            assertTrue(router.isLocal(id));
+            assertEquals("node-2", peer.ownerOf(id));
+            assertEquals("http://node-2:8080", peer.urlOf(id));
+        }
+    }
+
+    @Test
+    void testNodeListIsParsedAndMustContainThisNode() {
+        ClusterRouter router = new ClusterRouter("a", "a=http://a:8080/, b = http://b:8080", 16);
+        assertTrue(router.isClustered());
+        assertThrows(IllegalArgumentException.class, () -> new ClusterRouter("c", "a=http://a:8080,b=http://b:8080", 16));
+        assertThrows(IllegalArgumentException.class, () -> new ClusterRouter("a", "a", 16));
+        assertTrue(new ClusterRouter("local", "", 16).isLocal("anything"));
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.code_generator.service.coalescing;
+
+import com.example.code_generator.model.GeneratedProject;
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GenerationCoalescerTest {
+
+    @Test
+    void testFollowersShareTheLeadersProject() throws Exception {
+        GenerationCoalescer coalescer = new GenerationCoalescer(true, Duration.ofMinutes(1));
+        GenerationCoalescer.Flight flight = coalescer.join("fp", "job-1");
+        assertEquals("job-1", flight.getLeaderJobId());
+        CompletableFuture<GeneratedProject> generation = new CompletableFuture<>();
+        coalescer.lead(flight, generation);
+
+        GenerationCoalescer.Flight joined = coalescer.join("fp", "job-2");
+        assertSame(flight, joined);
+        CompletableFuture<GeneratedProject> second = coalescer.follow(joined);
+        CompletableFuture<GeneratedProject> third = coalescer.follow(coalescer.join("fp", "job-3"));
+        assertEquals("job-4", coalescer.join("other", "job-4").getLeaderJobId());
+
+        GeneratedProject project = GeneratedProject.builder().id("p1").build();
+        generation.complete(project);
+        assertSame(project, second.get(1, TimeUnit.SECONDS));
+        assertSame(project, third.get(1, TimeUnit.SECONDS));
+
+        GenerationCoalescer.Stats stats = coalescer.getStats();
+        assertEquals(2, stats.led());
+        assertEquals(2, stats.coalesced());
+        assertEquals(1, stats.inFlight(), "only the other fingerprint is still in flight");
+    }
+
+    @Test
+    void testFailureReachesFollowersAndIsNotCached() {
+        GenerationCoalescer coalescer = new GenerationCoalescer(true, Duration.ofMinutes(1));
+        GenerationCoalescer.Flight flight = coalescer.join("fp", "job-1");
+        CompletableFuture<GeneratedProject> generation = new CompletableFuture<>();
+        coalescer.lead(flight, generation);
+        CompletableFuture<GeneratedProject> follower = coalescer.follow(coalescer.join("fp", "job-2"));
+
+        generation.completeExceptionally(new IllegalStateException("disk full"));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> follower.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertEquals(1, coalescer.getStats().failed());
+
+        assertEquals("job-3", coalescer.join("fp", "job-3").getLeaderJobId());
+    }
+
+    @Test
+    void testFollowersTimeOutAndStaleFlightsAreNotJoined() throws Exception {
+        GenerationCoalescer coalescer = new GenerationCoalescer(true, Duration.ofMillis(100));
+        GenerationCoalescer.Flight flight = coalescer.join("fp", "job-1");
+        CompletableFuture<GeneratedProject> generation = new CompletableFuture<>();
+        coalescer.lead(flight, generation);
+        CompletableFuture<GeneratedProject> follower = coalescer.follow(coalescer.join("fp", "job-2"));
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, e.getCause());
+        assertTrue(e.getCause().getMessage().contains("job-1"), e.getCause().getMessage());
+        assertEquals(1, coalescer.getStats().timedOut());
+        assertFalse(generation.isDone());
+
+        GenerationCoalescer.Flight fresh = coalescer.join("fp", "job-3");
+        assertEquals("job-3", fresh.getLeaderJobId());
+        // The stale leader finishing later must not remove the fresh flight
+        generation.complete(GeneratedProject.builder().id("p1").build());
+        assertSame(fresh, coalescer.join("fp", "job-4"));
+    }
+
+    @Test
+    void testDisabledMakesEveryRequestALeader() {
+        GenerationCoalescer coalescer = new GenerationCoalescer(false, Duration.ofMinutes(1));
+        coalescer.lead(coalescer.join("fp", "job-1"), new CompletableFuture<>());
+
+        assertEquals("job-2", coalescer.join("fp", "job-2").getLeaderJobId());
+        assertEquals(0, coalescer.getStats().inFlight());
+        assertEquals(2, coalescer.getStats().led());
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.code_generator.service.metrics;
+
+import com.example.code_generator.model.ProjectConfig;
+import com.example.code_generator.service.TemplateDiscoveryService;
+import com.example.code_generator.service.admission.GenerationAdmission;
+import com.example.code_generator.service.archive.ArchiveCache;
+import com.example.code_generator.service.archive.ArchiveSink;
+import com.example.code_generator.service.archive.BufferedArchiveSink;
+import com.example.code_generator.service.archive.DeflatedEntryCache;
+import com.example.code_generator.service.coalescing.GenerationCoalescer;
+import com.example.code_generator.service.registry.ProjectRegistry;
+import com.example.code_generator.service.registry.ZipRetentionService;
+import com.example.code_generator.service.storage.LocalArtifactStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GenerationMetricsTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GenerationAdmission admission = new GenerationAdmission(null, 10, 4, 4, 5);
+    private ProjectRegistry projectRegistry;
+    private GenerationMetrics metrics;
+
+    @TempDir
+    Path baseDir;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        projectRegistry = new ProjectRegistry(objectMapper, baseDir.toString(), false, 2);
+        ArchiveCache archiveCache = new ArchiveCache(Long.MAX_VALUE);
+        ZipRetentionService retention = new ZipRetentionService(projectRegistry, archiveCache,
+                new LocalArtifactStore(baseDir.resolve("zips")),
+                Long.MAX_VALUE, Duration.ofDays(7), Duration.ofDays(30), 200);
+        metrics = new GenerationMetrics(meterRegistry, new TemplateDiscoveryService(objectMapper),
+                projectRegistry, retention, new DeflatedEntryCache(0, 0),
+                new GenerationCoalescer(true, Duration.ofMinutes(2)), admission);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        projectRegistry.close();
+    }
+
+    @Test
+    void testMeteredSinkRecordsStagesFilesAndBytes() throws Exception {
+        ProjectConfig config = new ProjectConfig();
+        config.setProjectType("Mobile Application");
+        config.setArchitecturePattern("MVVM");
+
+        try (ArchiveSink sink = metrics.meter(new BufferedArchiveSink(), config)) {
+            sink.addEntry("a.txt", "hello");
+            sink.addEntry("b.txt", "world!");
+        }
+
+        assertEquals(2.0, meterRegistry.get("codeforge.generation.files")
+                .tag("type", "Mobile Application").tag("architecture", "mvvm").counter().count());
+        assertEquals(11.0, meterRegistry.get("codeforge.generation.bytes").counter().count());
+        assertEquals(1, meterRegistry.get("codeforge.generation.stage").tag("stage", "render").timer().count());
+        assertEquals(1, meterRegistry.get("codeforge.generation.stage").tag("stage", "archive").timer().count());
+    }
+
+    @Test
+    void testAdmissionQueueAndWaitAreMetered() throws Exception {
+        GenerationAdmission.Permit running = admission.acquire("a", 10).join();
+        CompletableFuture<GenerationAdmission.Permit> queued = admission.acquire("b", 4);
+
+        assertEquals(1.0, meterRegistry.get("codeforge.admission.queued").gauge().value());
+        assertEquals(10.0, meterRegistry.get("codeforge.admission.in-use").gauge().value());
+        Thread.sleep(20);
+        admission.release(running);
+
+        assertTrue(queued.isDone());
+        assertEquals(0.0, meterRegistry.get("codeforge.admission.queued").gauge().value());
+        FunctionTimer wait = meterRegistry.get("codeforge.admission.wait").functionTimer();
+        assertEquals(1.0, wait.count());
+        assertTrue(wait.totalTime(TimeUnit.MILLISECONDS) >= 10, "waited " + wait.totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(2.0, meterRegistry.get("codeforge.admission.requests").tag("result", "admitted")
+                .functionCounter().count());
+    }
+
+    @Test
+    void testUnknownArchitectureIsNotUsedAsATag() {
+        ProjectConfig config = new ProjectConfig();
+        config.setProjectType("Web Application");
+        config.setArchitecturePattern("anything-a-client-sends");
+
+        metrics.recordStage(GenerationMetrics.Stage.QUEUE, config, 1_000);
+
+        assertEquals(1, meterRegistry.get("codeforge.generation.stage")
+                .tag("type", "Web Application").tag("architecture", "none").timer().count());
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.code_generator.service.progress;
+
+import com.example.code_generator.model.GenerationEvent;
+import com.example.code_generator.service.archive.ArchiveSink;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GenerationProgressTest {
+
+    private final GenerationProgress progress = new GenerationProgress(Runnable::run, Duration.ofMinutes(1));
+
+    @Test
+    void testWatcherGetsEveryEventAndIsCompletedWhenTheJobFinishes() throws IOException {
+        progress.open("job");
+        progress.publish("job", GenerationEvent.builder().type(GenerationEvent.Type.QUEUED));
+        RecordingEmitter watcher = new RecordingEmitter();
+        assertTrue(progress.subscribe("job", null, watcher));
+        assertEquals(List.of(GenerationEvent.Type.QUEUED), watcher.types());
+
+        progress.publish("job", GenerationEvent.builder().type(GenerationEvent.Type.RESOLVED).template("Android"));
+        try (ArchiveSink sink = progress.track("job", new DiscardingSink())) {
+            sink.addEntry("a.txt", "aa");
+            sink.addEntry("b.txt", "bbb");
+        }
+        progress.archiveProgress("job").written(42, true);
+        progress.publish("job", GenerationEvent.builder().type(GenerationEvent.Type.SUCCEEDED));
+
+        assertEquals(List.of(GenerationEvent.Type.QUEUED, GenerationEvent.Type.RESOLVED, GenerationEvent.Type.FILE,
+                GenerationEvent.Type.FILE, GenerationEvent.Type.ARCHIVE, GenerationEvent.Type.SUCCEEDED), watcher.types());
+        GenerationEvent lastFile = watcher.events.get(3);
+        assertEquals("b.txt", lastFile.getPath());
+        assertEquals(2, lastFile.getFiles());
+        assertEquals(5L, lastFile.getBytes());
+        assertEquals("job", lastFile.getJobId());
+        assertEquals(42L, watcher.events.get(4).getArchiveBytes());
+        assertTrue(watcher.completed);
+        assertEquals(0, progress.getStats().subscribers());
+
+        // Nothing is accepted after the final event
+        progress.publish("job", GenerationEvent.builder().type(GenerationEvent.Type.FAILED));
+        assertEquals(6, watcher.events.size());
+    }
+
+    @Test
+    void testReconnectingWatcherResumesAfterLastEventId() throws IOException {
+        progress.open("job");
+        progress.publish("job", GenerationEvent.builder().type(GenerationEvent.Type.QUEUED));
+        progress.publish("job", GenerationEvent.builder().type(GenerationEvent.Type.RESOLVED));
+        progress.publish("job", GenerationEvent.builder().type(GenerationEvent.Type.FILE).path("a.txt"));
+
+        RecordingEmitter watcher = new RecordingEmitter();
+        progress.subscribe("job", 1L, watcher);
+        assertEquals(List.of(GenerationEvent.Type.FILE), watcher.types());
+        assertEquals(2, watcher.events.get(0).getSequence());
+        assertFalse(watcher.completed);
+
+        assertFalse(progress.subscribe("unknown", null, new RecordingEmitter()));
+    }
+
+    @Test
+    void testWatcherReconnectingAfterTheFinalEventIsCompleted() throws IOException {
+        progress.open("job");
+        progress.publish("job", GenerationEvent.builder().type(GenerationEvent.Type.QUEUED));
+        progress.publish("job", GenerationEvent.builder().type(GenerationEvent.Type.SUCCEEDED));
+
+        RecordingEmitter watcher = new RecordingEmitter();
+        assertTrue(progress.subscribe("job", 1L, watcher));
+
+        assertEquals(List.of(), watcher.types());
+        assertTrue(watcher.completed);
+        assertEquals(0, progress.getStats().subscribers());
+
+        RecordingEmitter ahead = new RecordingEmitter();
+        progress.subscribe("job", 5L, ahead);
+        assertTrue(ahead.completed);
+    }
+
+    @Test
+    void testFinishedLogKeepsMilestonesAndLatestProgress() throws IOException {
+        progress.open("job");
+        progress.publish("job", GenerationEvent.builder().type(GenerationEvent.Type.QUEUED));
+        progress.publish("job", GenerationEvent.builder().type(GenerationEvent.Type.RESOLVED));
+        for (int i = 0; i < GenerationProgress.MAX_EVENTS * 2; i++) {
+            progress.publish("job", GenerationEvent.builder().type(GenerationEvent.Type.FILE).path("f" + i).files(i + 1));
+        }
+        progress.publish("job", GenerationEvent.builder().type(GenerationEvent.Type.ARCHIVE).archiveBytes(10L));
+        progress.publish("job", GenerationEvent.builder().type(GenerationEvent.Type.SUCCEEDED));
+
+        RecordingEmitter late = new RecordingEmitter();
+        progress.subscribe("job", null, late);
+        assertEquals(List.of(GenerationEvent.Type.QUEUED, GenerationEvent.Type.RESOLVED, GenerationEvent.Type.FILE,
+                GenerationEvent.Type.ARCHIVE, GenerationEvent.Type.SUCCEEDED), late.types());
+        assertEquals(GenerationProgress.MAX_EVENTS * 2, late.events.get(2).getFiles());
+        assertTrue(late.completed);
+
+        progress.close("job");
+        assertEquals(0, progress.getStats().jobs());
+    }
+
+    // Captures what would be written to the response instead of needing a servlet request
+    private static class RecordingEmitter extends SseEmitter {
+        final List<GenerationEvent> events = new ArrayList<>();
+        boolean completed;
+
+        @Override
+        public void send(Set<DataWithMediaType> items) {
+            for (DataWithMediaType item : items) {
+                if (item.getData() instanceof GenerationEvent event) {
+                    events.add(event);
+                }
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        List<GenerationEvent.Type> types() {
+            return events.stream().map(GenerationEvent::getType).toList();
+        }
+    }
+
+    private static class DiscardingSink implements ArchiveSink {
+        @Override
+        public void addEntry(String path, byte[] content) {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.code_generator.service.registry;
+
+import com.example.code_generator.model.GeneratedProject;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProjectRegistryTest {
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path baseDir;
+
+    private Path zips;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        zips = Files.createDirectories(baseDir.resolve("zips"));
+    }
+
+    @Test
+    void testProjectsSurviveRestart() throws Exception {
+        ProjectRegistry registry = open();
+        registry.put(project("a"));
+        registry.put(project("b"));
+        registry.remove("a");
+        registry.close();
+        Files.delete(zips.resolve("a.zip"));
+
+        ProjectRegistry reopened = open();
+        assertTrue(reopened.get("a").isEmpty());
+        assertEquals("b.zip", Path.of(reopened.get("b").orElseThrow().getZipPath()).getFileName().toString());
+        assertEquals(1, reopened.size());
+    }
+
+    @Test
+    void testTornTrailingRecordIsDiscarded() throws Exception {
+        ProjectRegistry registry = open();
+        registry.put(project("a"));
+        registry.close();
+        Files.writeString(baseDir.resolve("registry.log"), "{\"op\":\"PUT\",\"id\":\"b\",\"proj", StandardOpenOption.APPEND);
+
+        ProjectRegistry reopened = open();
+        assertTrue(reopened.get("a").isPresent());
+        reopened.put(project("c"));
+        reopened.close();
+
+        assertTrue(open().get("c").isPresent());
+    }
+
+    @Test
+    void testCorruptRecordDoesNotLoseTheRecordsAfterIt() throws Exception {
+        ProjectRegistry registry = open();
+        registry.put(project("a"));
+        registry.close();
+        Path log = baseDir.resolve("registry.log");
+        Files.writeString(log, "{\"op\":\"PUT\",\"id\":\"x\",\"project\":garbage}\n"
+                + objectMapper.writeValueAsString(Map.of("op", "PUT", "id", "b", "project", project("b"))) + "\n"
+                + objectMapper.writeValueAsString(Map.of("op", "DELETE", "id", "a")) + "\n",
+                StandardOpenOption.APPEND);
+        Files.delete(zips.resolve("a.zip"));
+
+        ProjectRegistry reopened = open();
+        assertTrue(reopened.get("b").isPresent(), "records after a corrupt one are replayed");
+        assertTrue(reopened.get("a").isEmpty());
+        assertTrue(reopened.get("x").isEmpty());
+        assertTrue(Files.readString(baseDir.resolve("registry.log.corrupt")).contains("garbage"));
+        reopened.close();
+
+        assertTrue(open().get("b").isPresent());
+    }
+
+    @Test
+    void testBatchOfTombstonesUnbindsArchives() throws Exception {
+        ProjectRegistry registry = open();
+        GeneratedProject a = project("a");
+        GeneratedProject b = project("b").toBuilder().zipPath(a.getZipPath()).build();
+        registry.put(a);
+        registry.put(b);
+        assertEquals(Set.of("a", "b"), registry.getLiveIds(a.getZipPath()));
+
+        LocalDateTime evictedAt = LocalDateTime.now();
+        registry.putAll(List.of(a.toBuilder().evictedAt(evictedAt).build(), b.toBuilder().evictedAt(evictedAt).build()));
+
+        assertEquals(Set.of(), registry.getLiveIds(a.getZipPath()));
+        registry.close();
+        assertNotNull(open().get("b").orElseThrow().getEvictedAt());
+    }
+
+    @Test
+    void testReconcilesWithZipStore() throws Exception {
+        ProjectRegistry registry = open();
+        registry.put(project("kept"));
+        registry.put(project("lost"));
+        registry.close();
+        Files.delete(zips.resolve("lost.zip"));
+        Files.write(zips.resolve("orphan.zip"), new byte[]{1});
+        Files.write(zips.resolve("orphan.zip.123.part"), new byte[]{1});
+
+        ProjectRegistry reopened = open();
+        assertTrue(reopened.get("kept").isPresent());
+        assertTrue(reopened.get("lost").isEmpty());
+        assertTrue(reopened.get("orphan").isPresent());
+        assertFalse(Files.exists(zips.resolve("orphan.zip.123.part")));
+    }
+
+    @Test
+    void testListingIsOrderedFilteredAndResumable() throws Exception {
+        ProjectRegistry registry = open();
+        LocalDateTime now = LocalDateTime.now();
+        registry.put(project("a", "Mobile Application", "mvvm", now.minusMinutes(3)));
+        registry.put(project("b", "Web Application", "mvc", now.minusMinutes(2)));
+        registry.put(project("c", "Mobile Application", "mvp", now.minusMinutes(1)));
+        registry.put(project("d", "Mobile Application", "mvvm", now));
+
+        assertEquals(List.of("d", "c", "b", "a"), ids(registry.list(null, null, null)));
+        assertEquals(List.of("d", "c", "a"), ids(registry.list("mobile application", null, null)));
+        assertEquals(List.of("d", "a"), ids(registry.list("Mobile Application", "MVVM", null)));
+        assertEquals(List.of("b"), ids(registry.list(null, "mvc", null)));
+        assertEquals(List.of(), ids(registry.list("Desktop", null, null)));
+
+        ProjectCursor cursor = ProjectCursor.decode(ProjectCursor.of(registry.get("c").orElseThrow()).encode());
+        assertEquals(List.of("b", "a"), ids(registry.list(null, null, cursor)));
+        assertEquals(List.of("a"), ids(registry.list("Mobile Application", null, cursor)));
+
+        // Evicted and removed projects leave every index
+        registry.put(registry.get("d").orElseThrow().toBuilder().evictedAt(now).build());
+        registry.remove("a");
+        assertEquals(List.of("c", "b"), ids(registry.list(null, null, null)));
+        assertEquals(List.of(), ids(registry.list(null, "mvvm", null)));
+
+        registry.close();
+        assertEquals(List.of("c"), ids(open().list("Mobile Application", null, null)));
+        assertThrows(IllegalArgumentException.class, () -> ProjectCursor.decode("not a cursor"));
+    }
+
+    private static List<String> ids(Collection<GeneratedProject> projects) {
+        return projects.stream().map(GeneratedProject::getId).toList();
+    }
+
+    private GeneratedProject project(String id, String projectType, String architecture, LocalDateTime generatedAt)
+            throws Exception {
+        return project(id).toBuilder()
+                .projectType(projectType)
+                .architecture(architecture)
+                .generatedAt(generatedAt)
+                .build();
+    }
+
+    private ProjectRegistry open() {
+        return new ProjectRegistry(objectMapper, baseDir.toString(), false, 2);
+    }
+
+    private GeneratedProject project(String id) throws Exception {
+        Path zip = Files.write(zips.resolve(id + ".zip"), new byte[]{0});
+        return GeneratedProject.builder()
+                .id(id)
+                .name(id)
+                .generatedAt(LocalDateTime.now())
+                .zipPath(zip.toString())
+                .build();
+    }
+}
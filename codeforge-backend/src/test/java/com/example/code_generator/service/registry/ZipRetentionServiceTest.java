@@ -0,0 +1,238 @@
+package com.example.code_generator.service.registry;
+
+import com.example.code_generator.model.GeneratedProject;
+import com.example.code_generator.model.ProjectConfig;
+import com.example.code_generator.service.AndroidDependencyService;
+import com.example.code_generator.service.GeneratedProjectService;
+import com.example.code_generator.service.TemplateDiscoveryService;
+import com.example.code_generator.service.admission.GenerationAdmission;
+import com.example.code_generator.service.archive.ArchiveCache;
+import com.example.code_generator.service.archive.ArchiveCompressor;
+import com.example.code_generator.service.archive.ArchiveSink;
+import com.example.code_generator.service.archive.DeflatedEntryCache;
+import com.example.code_generator.service.archive.ProjectFingerprint;
+import com.example.code_generator.service.cluster.ClusterRouter;
+import com.example.code_generator.service.coalescing.GenerationCoalescer;
+import com.example.code_generator.service.metrics.GenerationMetrics;
+import com.example.code_generator.service.storage.ArtifactStore;
+import com.example.code_generator.service.storage.LocalArtifactStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ZipRetentionServiceTest {
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path baseDir;
+
+    private ArtifactStore store;
+    private ProjectRegistry registry;
+    private ArchiveCache archiveCache;
+
+    @BeforeEach
+    void setUp() {
+        store = new LocalArtifactStore(baseDir.resolve("zips"));
+        registry = new ProjectRegistry(objectMapper, baseDir.toString(), false, 2, store);
+        archiveCache = new ArchiveCache(Long.MAX_VALUE);
+    }
+
+    @Test
+    void testExpiresProjectsNotDownloadedWithinTtl() throws Exception {
+        ZipRetentionService retention = retention(Long.MAX_VALUE, Duration.ofDays(1));
+        registry.put(project("old", "old", 10, LocalDateTime.now().minusDays(2)));
+        registry.put(project("downloaded", "downloaded", 10, LocalDateTime.now().minusDays(2)));
+        registry.put(project("new", "new", 10, LocalDateTime.now()));
+        retention.recordAccess("downloaded");
+
+        retention.sweep();
+
+        assertNotNull(registry.get("old").orElseThrow().getEvictedAt());
+        assertFalse(Files.exists(store.getDirectory().resolve("old.zip")));
+        assertFalse(archiveCache.contains("old"));
+        assertNull(registry.get("downloaded").orElseThrow().getEvictedAt());
+        assertNull(registry.get("new").orElseThrow().getEvictedAt());
+        assertEquals(1, retention.getStats().lastSweepEvicted());
+        assertEquals(2, retention.getStats().archives());
+    }
+
+    @Test
+    void testEvictsLeastRecentlyDownloadedUntilUnderSizeBound() throws Exception {
+        ZipRetentionService retention = retention(250, Duration.ofDays(7));
+        LocalDateTime now = LocalDateTime.now();
+        registry.put(project("a", "a", 100, now.minusMinutes(3)));
+        registry.put(project("b", "b", 100, now.minusMinutes(2)));
+        registry.put(project("c", "c", 100, now.minusMinutes(1)));
+        // A download makes the oldest archive the most recently used
+        retention.recordAccess("a");
+
+        retention.sweep();
+
+        assertNull(registry.get("a").orElseThrow().getEvictedAt());
+        assertNotNull(registry.get("b").orElseThrow().getEvictedAt());
+        assertNull(registry.get("c").orElseThrow().getEvictedAt());
+        assertFalse(Files.exists(store.getDirectory().resolve("b.zip")));
+        assertEquals(200, retention.getStats().totalBytes());
+    }
+
+    @Test
+    void testSharedArchiveIsKeptWhileAnyProjectIsLive() throws Exception {
+        ZipRetentionService retention = retention(Long.MAX_VALUE, Duration.ofDays(1));
+        registry.put(project("old", "shared", 10, LocalDateTime.now().minusDays(2)));
+        registry.put(project("new", "shared", 10, LocalDateTime.now()));
+
+        retention.sweep();
+
+        assertNotNull(registry.get("old").orElseThrow().getEvictedAt());
+        assertTrue(Files.exists(store.getDirectory().resolve("shared.zip")));
+        assertTrue(archiveCache.contains("shared"));
+    }
+
+    @Test
+    void testEvictedProjectsAreGoneUntilTheirTombstoneIsPurged() throws Exception {
+        ZipRetentionService retention = new ZipRetentionService(registry, archiveCache, store,
+                Long.MAX_VALUE, Duration.ofDays(1), Duration.ofMillis(50), 200);
+        GeneratedProjectService service = service(retention);
+        ProjectConfig config = new ProjectConfig();
+        config.setProjectType("Mobile Application");
+        config.setProjectName("Demo");
+        config.setPackageName("com.demo");
+
+        GeneratedProject project = service.saveProject(config, ZipRetentionServiceTest::readme);
+        assertTrue(Files.exists(Path.of(project.getZipPath())));
+        registry.put(project.toBuilder().generatedAt(LocalDateTime.now().minusDays(2)).build());
+        retention.sweep();
+
+        assertThrows(ProjectEvictedException.class, () -> service.getProjectZipPath(project.getId()));
+        assertFalse(archiveCache.contains(project.getFingerprint()));
+
+        Thread.sleep(100);
+        retention.sweep();
+        assertTrue(registry.get(project.getId()).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> service.getProjectZipPath(project.getId()));
+    }
+
+    @Test
+    void testArchivesAreRenderedWithoutTheBlobLock() throws Exception {
+        ZipRetentionService retention = retention(Long.MAX_VALUE, Duration.ofDays(7));
+        GeneratedProjectService service = service(retention);
+        ProjectConfig config = new ProjectConfig();
+        config.setProjectType("Mobile Application");
+        config.setProjectName("Demo");
+        config.setPackageName("com.demo");
+
+        GeneratedProject project = service.saveProject(config, sink -> {
+            // A sweep could run right now; it would fail to lock if this thread held the read lock
+            Lock sweepLock = archiveCache.getBlobLock().writeLock();
+            assertTrue(sweepLock.tryLock());
+            sweepLock.unlock();
+            readme(sink);
+        });
+
+        assertTrue(archiveCache.contains(project.getFingerprint()));
+        GeneratedProject again = service.saveProject(config, sink -> fail("cached archive is rendered again"));
+        assertEquals(project.getZipPath(), again.getZipPath());
+        try (var files = Files.list(store.getDirectory())) {
+            assertEquals(1, files.count(), "no partial file is left behind");
+        }
+    }
+
+    @Test
+    void testArchivesAreDeletedAfterTheTombstonesWithoutTheBlobLock() throws Exception {
+        ReentrantReadWriteLock blobLock = (ReentrantReadWriteLock) archiveCache.getBlobLock();
+        store = new LocalArtifactStore(baseDir.resolve("zips")) {
+            @Override
+            public void delete(String key) throws IOException {
+                assertFalse(blobLock.isWriteLocked(), "the store is not called under the blob lock");
+                assertTrue(archiveCache.isRetiring(key));
+                assertNotNull(registry.get("old").orElseThrow().getEvictedAt());
+                super.delete(key);
+            }
+        };
+        ZipRetentionService retention = retention(Long.MAX_VALUE, Duration.ofDays(1));
+        registry.put(project("old", "old", 10, LocalDateTime.now().minusDays(2)));
+
+        retention.sweep();
+
+        assertFalse(Files.exists(store.getDirectory().resolve("old.zip")));
+        assertFalse(archiveCache.isRetiring("old.zip"));
+        assertEquals(Set.of(), registry.getLiveIds(store.getDirectory().resolve("old.zip").toString()));
+    }
+
+    @Test
+    void testGenerationWaitsForItsArchiveToFinishBeingDeleted() throws Exception {
+        ZipRetentionService retention = retention(Long.MAX_VALUE, Duration.ofDays(7));
+        GeneratedProjectService service = service(retention);
+        ProjectConfig config = new ProjectConfig();
+        config.setProjectType("Mobile Application");
+        config.setProjectName("Demo");
+        config.setPackageName("com.demo");
+        String key = ProjectFingerprint.of(config, service.getGeneratorVersion()) + ".zip";
+        archiveCache.retire(key, List.of());
+
+        CompletableFuture<GeneratedProject> saved = CompletableFuture.supplyAsync(
+                () -> service.saveProject(config, ZipRetentionServiceTest::readme));
+        Thread.sleep(100);
+        assertFalse(saved.isDone(), "an archive is not published under a key still being deleted");
+
+        archiveCache.retired(key);
+        GeneratedProject project = saved.get(5, TimeUnit.SECONDS);
+        assertTrue(Files.exists(Path.of(project.getZipPath())));
+    }
+
+    private static void readme(ArchiveSink sink) {
+        try {
+            sink.addEntry("README.md", "demo".getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ZipRetentionService retention(long maxTotalBytes, Duration ttl) {
+        return new ZipRetentionService(registry, archiveCache, store, maxTotalBytes, ttl, Duration.ofDays(30), 200);
+    }
+
+    private GeneratedProjectService service(ZipRetentionService retention) {
+        TemplateDiscoveryService templateDiscoveryService = new TemplateDiscoveryService(objectMapper);
+        DeflatedEntryCache deflatedEntries = new DeflatedEntryCache(0, 0);
+        GenerationMetrics metrics = new GenerationMetrics(new SimpleMeterRegistry(), templateDiscoveryService,
+                registry, retention, deflatedEntries, new GenerationCoalescer(true, Duration.ofMinutes(2)),
+                new GenerationAdmission(null, 64, 256, 16, 5));
+        return new GeneratedProjectService(baseDir.toString(), "8080", "", archiveCache,
+                templateDiscoveryService, new AndroidDependencyService(), registry, retention, metrics,
+                new ArchiveCompressor(Runnable::run, 1, ArchiveCompressor.DEFAULT_LEVEL,
+                        ArchiveCompressor.DEFAULT_BLOCK_SIZE, ArchiveCompressor.DEFAULT_ZSTD_LEVEL, deflatedEntries),
+                store, ClusterRouter.standalone());
+    }
+
+    private GeneratedProject project(String id, String fingerprint, int size, LocalDateTime generatedAt)
+            throws Exception {
+        Path zip = store.getDirectory().resolve(fingerprint + ".zip");
+        Files.write(zip, new byte[size]);
+        archiveCache.put(fingerprint, zip, size);
+        return GeneratedProject.builder()
+                .id(id)
+                .name(id)
+                .generatedAt(generatedAt)
+                .zipPath(zip.toString())
+                .fingerprint(fingerprint)
+                .build();
+    }
+}
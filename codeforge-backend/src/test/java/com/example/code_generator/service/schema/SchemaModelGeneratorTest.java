@@ -0,0 +1,181 @@
+package com.example.code_generator.service.schema;
+
+import com.example.code_generator.service.archive.ArchiveSink;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SchemaModelGeneratorTest {
+    private static final String SOURCES = "app/src/main/java/com/demo/";
+
+    private ForkJoinPool pool;
+    private SchemaModelGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+        generator = new SchemaModelGenerator(new ObjectMapper(), pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void testGeneratesEntityDaoAndDatabase() throws Exception {
+        Map<String, String> files = generate("""
+                {"databaseName": "NotesDatabase", "version": 3, "entities": [
+                  {"name": "Note", "fields": [
+                    {"name": "title", "type": "string", "nullable": false, "indexed": true},
+                    {"name": "body", "type": "text"},
+                    {"name": "createdAt", "type": "timestamp"}]},
+                  {"name": "Tag", "table": "tags", "fields": [
+                    {"name": "slug", "type": "string", "primaryKey": true, "unique": true},
+                    {"name": "uses", "type": "int"}]}]}""");
+
+        assertEquals(List.of(SOURCES + "model/Note.java", SOURCES + "data/NoteDao.java",
+                SOURCES + "model/Tag.java", SOURCES + "data/TagDao.java",
+                SOURCES + "data/NotesDatabase.java", SOURCES + "data/Converters.java"), List.copyOf(files.keySet()));
+
+        String note = files.get(SOURCES + "model/Note.java");
+        assertTrue(note.startsWith("package com.demo.model;"));
+        assertTrue(note.contains("@Entity(tableName = \"note\",\n        indices = {@Index(\"title\")})"));
+        assertTrue(note.contains("    @PrimaryKey(autoGenerate = true)\n    private long id;"));
+        assertTrue(note.contains("    @NonNull\n    private String title;"));
+        assertTrue(note.contains("    private java.util.Date createdAt;"));
+        assertTrue(note.contains("public void setTitle(@NonNull String title)"));
+
+        String tag = files.get(SOURCES + "model/Tag.java");
+        assertTrue(tag.contains("indices = {@Index(value = \"slug\", unique = true)}"));
+        assertTrue(tag.contains("    @PrimaryKey\n    @NonNull\n    private String slug;"));
+        assertTrue(tag.contains("    private Integer uses;"));
+
+        String dao = files.get(SOURCES + "data/TagDao.java");
+        assertTrue(dao.contains("@Query(\"SELECT * FROM `tags` WHERE `slug` = :slug LIMIT 1\")\n    Tag findById(String slug);"));
+
+        String database = files.get(SOURCES + "data/NotesDatabase.java");
+        assertTrue(database.contains("@Database(entities = {Note.class, Tag.class}, version = 3, exportSchema = false)"));
+        assertTrue(database.contains("@TypeConverters(Converters.class)"));
+        assertTrue(database.contains("public abstract TagDao tagDao();"));
+        assertTrue(database.contains("\"notes_database.db\""));
+    }
+
+    @Test
+    void testCompositePrimaryKey() throws Exception {
+        Map<String, String> files = generate("""
+                {"entities": [{"name": "Membership", "fields": [
+                  {"name": "userId", "type": "long", "primaryKey": true},
+                  {"name": "groupId", "type": "long", "primaryKey": true}]}]}""");
+
+        String entity = files.get(SOURCES + "model/Membership.java");
+        assertTrue(entity.contains("primaryKeys = {\"userId\", \"groupId\"}"));
+        assertFalse(entity.contains("@PrimaryKey"));
+        assertTrue(files.get(SOURCES + "data/MembershipDao.java")
+                .contains("WHERE `userId` = :userId AND `groupId` = :groupId LIMIT 1\")\n    Membership findById(long userId, long groupId);"));
+        assertFalse(files.containsKey(SOURCES + "data/Converters.java"));
+        assertFalse(files.get(SOURCES + "data/AppDatabase.java").contains("TypeConverters"));
+    }
+
+    @Test
+    void testRejectsInvalidSchemas() {
+        assertInvalid("[]", "must be a JSON object");
+        assertInvalid("{\"entities\": []}", "no entities");
+        assertInvalid("{\"entities\": [{\"name\": \"note\"}]}", "capitalised");
+        assertInvalid("{\"entities\": [{\"name\": \"Query\"}]}", "clashes");
+        assertInvalid("{\"entities\": [{\"name\": \"A\"}, {\"name\": \"A\"}]}", "declared twice");
+        assertInvalid("{\"entities\": [{\"name\": \"A\", \"fields\": [{\"name\": \"class\", \"type\": \"int\"}]}]}",
+                "not a Java identifier");
+        assertInvalid("{\"entities\": [{\"name\": \"A\", \"fields\": [{\"name\": \"x\", \"type\": \"string\", "
+                + "\"primaryKey\": true, \"autoGenerate\": true}]}]}", "auto-generated");
+        assertInvalid("{\"version\": 0, \"entities\": []}", "version");
+        assertInvalid("{\"entities\": [{\"name\": \"User\"}, {\"name\": \"UserDao\"}]}", "must not end in Dao");
+        assertInvalid("{\"databaseName\": \"UserDao\", \"entities\": [{\"name\": \"User\"}]}", "clashes");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> generate("{\"entities\": [\n  {\"name\": \"A\"},\n  {\"name\": }]}"));
+        assertTrue(e.getMessage().contains("line 3"), e.getMessage());
+    }
+
+    @Test
+    void testRefusesToReplaceTemplateFiles() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> generator.generate(
+                "{\"entities\": [{\"name\": \"User\"}]}", "com.demo", "app/src/main/java",
+                Set.of(SOURCES + "model/User.java"), new RecordingSink()));
+        assertTrue(e.getMessage().contains("User"), e.getMessage());
+    }
+
+    @Test
+    void testValidateChecksEveryGeneratedPath() {
+        generator.validate("{\"entities\": [{\"name\": \"Note\"}]}", "com.demo", "app/src/main/java", Set.of());
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> generator.validate(
+                "{\"entities\": [{\"name\": \"Note\"}]}", "com.demo", "app/src/main/java",
+                Set.of(SOURCES + "data/NoteDao.java")));
+        assertTrue(e.getMessage().contains("data/NoteDao.java"), e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> generator.validate(
+                "{\"entities\": [{\"name\": \"Note\"}]}", "com.demo", "app/src/main/java",
+                Set.of(SOURCES + "data/AppDatabase.java")));
+        assertThrows(IllegalArgumentException.class, () -> generator.validate(
+                "{\"entities\": [{\"name\": \"Note\"}, 42]}", "com.demo", "app/src/main/java", Set.of()));
+    }
+
+    @Test
+    void testLargeSchemaIsWrittenInDeclarationOrder() throws Exception {
+        int count = 5_000;
+        StringBuilder schema = new StringBuilder("{\"entities\": [");
+        for (int i = 0; i < count; i++) {
+            schema.append(i == 0 ? "" : ",").append("{\"name\": \"Entity").append(i)
+                    .append("\", \"fields\": [{\"name\": \"label\", \"type\": \"string\"},")
+                    .append("{\"name\": \"amount\", \"type\": \"double\", \"nullable\": false}]}");
+        }
+        schema.append("]}");
+
+        RecordingSink sink = new RecordingSink();
+        generator.generate(schema.toString(), "com.demo", "app/src/main/java", Set.of(), sink);
+
+        assertEquals(count * 2 + 1, sink.paths.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(SOURCES + "model/Entity" + i + ".java", sink.paths.get(i * 2));
+            assertEquals(SOURCES + "data/Entity" + i + "Dao.java", sink.paths.get(i * 2 + 1));
+        }
+        assertEquals(SOURCES + "data/AppDatabase.java", sink.paths.get(count * 2));
+    }
+
+    private void assertInvalid(String schema, String message) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> generate(schema));
+        assertTrue(e.getMessage().contains(message), e.getMessage());
+    }
+
+    private Map<String, String> generate(String schema) throws IOException {
+        RecordingSink sink = new RecordingSink();
+        generator.generate(schema, "com.demo", "app/src/main/java", Set.of(), sink);
+        return sink.files;
+    }
+
+    private static final class RecordingSink implements ArchiveSink {
+        private final Map<String, String> files = new LinkedHashMap<>();
+        private final List<String> paths = new ArrayList<>();
+
+        @Override
+        public void addEntry(String path, byte[] content) {
+            files.put(path, new String(content, StandardCharsets.UTF_8));
+            paths.add(path);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
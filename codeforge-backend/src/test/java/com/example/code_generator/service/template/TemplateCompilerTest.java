@@ -0,0 +1,85 @@
+package com.example.code_generator.service.template;
+
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TemplateCompilerTest {
+
+    @Test
+    void testRendersVariables() {
+        CompiledTemplate template = TemplateCompiler.compile("package {{packageName}}.model;\nclass {{ name }} {}");
+
+        String result = template.render(Map.of("packageName", "com.example.app", "name", "User"));
+
+        assertEquals("package com.example.app.model;\nclass User {}", result);
+    }
+
+    @Test
+    void testResolvesDottedNamesAndMissingValues() {
+        CompiledTemplate template = TemplateCompiler.compile("[{{dependencies.provider}}][{{missing.value}}]");
+
+        String result = template.render(Map.of("dependencies", Map.of("provider", "yes")));
+
+        assertEquals("[yes][]", result);
+    }
+
+    @Test
+    void testStandaloneBlockLinesAreRemoved() {
+        CompiledTemplate template = TemplateCompiler.compile("""
+                dependencies {
+                    {{#each dependencies.required}}
+                    implementation '{{this}}'
+                    {{/each}}
+                    {{#if dependencies.room}}
+                    kapt 'room'
+                    {{/if}}
+                }
+                """);
+
+        String result = template.render(Map.of("dependencies", Map.of(
+                "required", List.of("a:b:1", "c:d:2"),
+                "room", List.of())));
+
+        assertEquals("""
+                dependencies {
+                    implementation 'a:b:1'
+                    implementation 'c:d:2'
+                }
+                """, result);
+    }
+
+    @Test
+    void testInlineBlocksKeepSurroundingText() {
+        CompiledTemplate template = TemplateCompiler.compile("a{{#if flag}}-on{{/if}}b");
+
+        assertEquals("a-onb", template.render(Map.of("flag", true)));
+        assertEquals("ab", template.render(Map.of("flag", false)));
+    }
+
+    @Test
+    void testPathSyntax() {
+        CompiledTemplate template = TemplateCompiler.compilePath("app/src/main/java/${packagePath}/MainActivity.java");
+
+        assertEquals("app/src/main/java/com/example/app/MainActivity.java",
+                template.render(Map.of("packagePath", "com/example/app")));
+    }
+
+    @Test
+    void testOnlyPlainTextIsConstant() {
+        assertTrue(TemplateCompiler.compile("<resources/>\n").isConstant());
+        assertTrue(TemplateCompiler.compilePath("app/build.gradle").isConstant());
+        assertFalse(TemplateCompiler.compile("a{{#if flag}}b{{/if}}").isConstant());
+        assertFalse(TemplateCompiler.compilePath("src/${packagePath}/App.java").isConstant());
+    }
+
+    @Test
+    void testRejectsUnbalancedBlocks() {
+        assertThrows(IllegalArgumentException.class, () -> TemplateCompiler.compile("{{#if a}}x"));
+        assertThrows(IllegalArgumentException.class, () -> TemplateCompiler.compile("x{{/each}}"));
+        assertThrows(IllegalArgumentException.class, () -> TemplateCompiler.compile("{{#if a}}x{{/each}}"));
+        assertThrows(IllegalArgumentException.class, () -> TemplateCompiler.compile("{{packageName"));
+    }
+}
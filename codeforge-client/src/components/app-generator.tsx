@@ -29,6 +29,7 @@ export function AppGenerator() {
     dependencies,
     generateProject,
     loading,
+    progress,
     error,
   } = useProjectStore();
   const { theme, setTheme } = useTheme();
@@ -133,7 +134,7 @@ export function AppGenerator() {
               {loading ? (
                 <>
                   <LoadingSpinner className="mr-2" />
-                  Generating...
+                  {progress ?? "Generating..."}
                 </>
               ) : (
                 "Generate Project"
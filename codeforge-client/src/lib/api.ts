@@ -1,17 +1,48 @@
-import { ProjectConfig, GeneratedProject, ProjectTemplate, Dependency } from './types';
+import { ProjectConfig, GeneratedProject, GenerationEvent, ProjectTemplate, Dependency } from './types';
 
 const API_BASE_URL = 'http://localhost:8080';
 
 export const api = {
-  async generateProject(config: ProjectConfig): Promise<GeneratedProject> {
-    const response = await fetch(`${API_BASE_URL}/api/generator/generate`, {
+  // Submits the generation as a job and follows its event stream until it finishes
+  async generateProject(
+    config: ProjectConfig,
+    onEvent?: (event: GenerationEvent) => void
+  ): Promise<GeneratedProject> {
+    const response = await fetch(`${API_BASE_URL}/api/generator/generate/async`, {
       method: 'POST',
       headers: {
         'Content-Type': 'application/json',
       },
       body: JSON.stringify(config),
     });
-    return response.json();
+    if (!response.ok) {
+      throw new Error(`Generation was rejected (${response.status})`);
+    }
+    const job: { id: string } = await response.json();
+
+    return new Promise((resolve, reject) => {
+      const source = new EventSource(`${API_BASE_URL}/api/generator/jobs/${job.id}/events`);
+      const handle = (message: MessageEvent) => {
+        const event: GenerationEvent = JSON.parse(message.data);
+        onEvent?.(event);
+        if (event.type === 'SUCCEEDED' && event.project) {
+          source.close();
+          resolve(event.project);
+        } else if (event.type === 'FAILED') {
+          source.close();
+          reject(new Error(event.error || 'Generation failed'));
+        }
+      };
+      for (const type of ['queued', 'resolved', 'file', 'archive', 'succeeded', 'failed']) {
+        source.addEventListener(type, handle);
+      }
+      // EventSource reconnects with Last-Event-ID on its own; give up only once it stops trying
+      source.onerror = () => {
+        if (source.readyState === EventSource.CLOSED) {
+          reject(new Error('Lost the generation event stream'));
+        }
+      };
+    });
   },
 
   async getAllTemplates(): Promise<ProjectTemplate[]> {
@@ -28,7 +59,8 @@ export const api = {
 
   async listProjects(): Promise<GeneratedProject[]> {
     const response = await fetch(`${API_BASE_URL}/api/generator/projects`);
-    return response.json();
+    const page: { items: GeneratedProject[]; nextCursor: string | null } = await response.json();
+    return page.items;
   },
 
   async getProjectTypes(): Promise<string[]> {
@@ -20,6 +20,7 @@ interface ProjectState {
   templates: ProjectTemplate[]
   generatedProjects: GeneratedProject[]
   loading: boolean
+  progress: string | null
   error: string | null
   
   // Actions
@@ -55,6 +56,7 @@ const initialState = {
   templates: [],
   generatedProjects: [],
   loading: false,
+  progress: null,
   error: null,
 }
 
@@ -98,7 +100,7 @@ export const useProjectStore = create<ProjectState>((set, get) => ({
   generateProject: async () => {
     const state = get()
     try {
-      set({ loading: true, error: null })
+      set({ loading: true, progress: null, error: null })
       const config: ProjectConfig = {
         projectType: state.projectType,
         projectName: state.projectMetadata.projectName,
@@ -112,14 +114,30 @@ export const useProjectStore = create<ProjectState>((set, get) => ({
         architecturePattern: state.architecturePattern,
         dependencies: state.dependencies,
       }
-      const project = await api.generateProject(config)
+      const project = await api.generateProject(config, (event) => {
+        switch (event.type) {
+          case 'QUEUED':
+            set({ progress: 'Queued...' })
+            break
+          case 'RESOLVED':
+            set({ progress: `Using ${event.template}...` })
+            break
+          case 'FILE':
+            set({ progress: `Rendered ${event.files} files...` })
+            break
+          case 'ARCHIVE':
+            set({ progress: `Archived ${Math.ceil((event.archiveBytes ?? 0) / 1024)} KB...` })
+            break
+        }
+      })
       set((state) => ({
         generatedProjects: [...state.generatedProjects, project],
         loading: false,
+        progress: null,
       }))
       return project
     } catch (error) {
-      set({ error: 'Failed to generate project', loading: false })
+      set({ error: 'Failed to generate project', loading: false, progress: null })
       throw error
     }
   },
@@ -23,6 +23,20 @@ export interface GeneratedProject {
   zipPath: string;
 }
 
+export interface GenerationEvent {
+  sequence: number;
+  type: 'QUEUED' | 'RESOLVED' | 'FILE' | 'ARCHIVE' | 'SUCCEEDED' | 'FAILED';
+  jobId: string;
+  template?: string;
+  path?: string;
+  size?: number;
+  files?: number;
+  bytes?: number;
+  archiveBytes?: number;
+  project?: GeneratedProject;
+  error?: string;
+}
+
 export interface Dependencies {
   required: string[];
   optional: Record<string, string[]>;